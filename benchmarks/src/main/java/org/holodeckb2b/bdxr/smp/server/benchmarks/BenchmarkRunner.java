@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks. It accepts the same command line options as the standard JMH runner, but writes the results to
+ * <code>jmh-result.json</code> in JSON format unless another result file or format is specified. This way the results
+ * of different runs, for example before and after a change, can be compared directly.
+ * <p>
+ * Example: <code>java -jar benchmarks.jar -rff before.json QueryMapper</code>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Default name of the file to write the results to
+	 */
+	private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	public static void main(String[] args) throws RunnerException {
+		CommandLineOptions cmdOptions;
+		try {
+			cmdOptions = new CommandLineOptions(args);
+		} catch (CommandLineOptionException invalidOption) {
+			System.err.println("Error parsing command line: " + invalidOption.getMessage());
+			System.exit(1);
+			return;
+		}
+		if (cmdOptions.shouldHelp()) {
+			try {
+				cmdOptions.showHelp();
+			} catch (Exception e) {
+				System.err.println("Could not show help: " + e.getMessage());
+			}
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+		if (!cmdOptions.getResultFormat().hasValue())
+			options.resultFormat(ResultFormatType.JSON);
+		if (!cmdOptions.getResult().hasValue())
+			options.result(DEFAULT_RESULT_FILE);
+
+		Runner runner = new Runner(options.build());
+		if (cmdOptions.shouldList())
+			runner.list();
+		else
+			runner.run();
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks;
+
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.cert.X509Certificate;
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.datamodel.impl.CertificateImpl;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedProcessIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EndpointEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessGroupEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessInfoEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.TransportProfileEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+
+/**
+ * Creates the meta-data and key material used as input by the benchmarks. The meta-data is created as entity objects
+ * that look like they were loaded from the database, i.e. they have an <i>oid</i> assigned, so the benchmarked code
+ * processes them exactly as it does at runtime. The identifiers used are taken from the Peppol network to get
+ * responses of a realistic size.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public final class Fixtures {
+
+	public static final String PARTICIPANT_SCHEME = "iso6523-actorid-upis";
+	public static final String DOCUMENT_SCHEME = "busdox-docid-qns";
+	public static final String PROCESS_SCHEME = "cenbii-procid-ubl";
+
+	public static final String PARTICIPANT_ID = "0088:5798000000001";
+	public static final String DOCUMENT_ID = "urn:oasis:names:specification:ubl:schema:xsd:Invoice-2::Invoice##"
+									+ "urn:cen.eu:en16931:2017#compliant#urn:fdc:peppol.eu:2017:poacc:billing:3.0::2.1";
+	public static final String PROCESS_ID = "urn:fdc:peppol.eu:2017:poacc:billing:01:1.0";
+	public static final String TRANSPORT_PROFILE = "peppol-transport-as4-v2_0";
+
+	/**
+	 * Password of the key stores included as resource
+	 */
+	private static final char[] KEYSTORE_PWD = "benchmark".toCharArray();
+
+	private static final Map<String, IDSchemeEntity> SCHEMES = Map.of(
+										PARTICIPANT_SCHEME, scheme(PARTICIPANT_SCHEME, 1L),
+										DOCUMENT_SCHEME, scheme(DOCUMENT_SCHEME, 2L),
+										PROCESS_SCHEME, scheme(PROCESS_SCHEME, 3L));
+
+	private Fixtures() {}
+
+	/**
+	 * Loads the key pair from one of the PKCS#12 key stores included in the benchmark module.
+	 *
+	 * @param resource	name of the key store resource, "rsa-key.p12" or "ec-key.p12"
+	 * @return	the key pair
+	 */
+	public static PrivateKeyEntry loadKeyPair(String resource) {
+		try (InputStream is = Fixtures.class.getClassLoader().getResourceAsStream(resource)) {
+			KeyStore ks = KeyStore.getInstance("PKCS12");
+			ks.load(is, KEYSTORE_PWD);
+			return (PrivateKeyEntry) ks.getEntry(ks.aliases().nextElement(), new PasswordProtection(KEYSTORE_PWD));
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not load key pair from " + resource, e);
+		}
+	}
+
+	/**
+	 * @return the identifier of the Participant used in the benchmarks
+	 */
+	public static Identifier participantId() {
+		return new EmbeddedIdentifier(SCHEMES.get(PARTICIPANT_SCHEME), PARTICIPANT_ID);
+	}
+
+	/**
+	 * Creates a Service Metadata Template for the Peppol BIS Billing invoice with the given number of Process Groups
+	 * that each contain one Process and the given number of Endpoints, which in turn have the given number of
+	 * certificates.
+	 *
+	 * @param processGroups		number of Process Groups to include
+	 * @param endpoints			number of Endpoints to include in each Process Group
+	 * @param certificates		number of certificates to include in each Endpoint
+	 * @param cert				the certificate to use for the Endpoints
+	 * @return	the Service Metadata Template
+	 */
+	public static ServiceMetadataTemplateEntity createTemplate(int processGroups, int endpoints, int certificates,
+															   X509Certificate cert) {
+		ServiceEntity svc = new ServiceEntity(new EmbeddedIdentifier(SCHEMES.get(DOCUMENT_SCHEME), DOCUMENT_ID),
+											  "Peppol BIS Billing 3.0 Invoice", null);
+		svc.setOid(1L);
+		TransportProfileEntity tp = new TransportProfileEntity(new EmbeddedIdentifier(TRANSPORT_PROFILE));
+		tp.setOid(1L);
+
+		ServiceMetadataTemplateEntity smt = new ServiceMetadataTemplateEntity();
+		smt.setOid(1L);
+		smt.setName("Benchmark template");
+		smt.setService(svc);
+		long oid = 1;
+		for (int g = 0; g < processGroups; g++) {
+			ProcessEntity p = new ProcessEntity(new EmbeddedProcessIdentifier(SCHEMES.get(PROCESS_SCHEME),
+																				PROCESS_ID + (g > 0 ? "-" + g : "")));
+			p.setOid((long) g + 1);
+			ProcessInfoEntity pi = new ProcessInfoEntity();
+			pi.setProcess(p);
+			ProcessGroupEntity pg = new ProcessGroupEntity();
+			pg.getProcessInfo().add(pi);
+			for (int e = 0; e < endpoints; e++)
+				pg.addEndpoint(createEndpoint(oid++, tp, certificates, cert));
+			smt.getProcessMetadata().add(pg);
+		}
+		return smt;
+	}
+
+	private static EndpointEntity createEndpoint(long oid, TransportProfileEntity tp, int certificates,
+												 X509Certificate cert) {
+		EndpointEntity ep = new EndpointEntity();
+		ep.setOid(oid);
+		ep.setName("Endpoint-" + oid);
+		ep.setTransportProfile(tp);
+		try {
+			ep.setEndpointURL(new URL("https://ap" + oid + ".access-point.example.org/as4"));
+		} catch (MalformedURLException invalidURL) {
+			throw new IllegalStateException(invalidURL);
+		}
+		ep.setServiceActivationDate(ZonedDateTime.now().minusYears(1));
+		ep.setServiceExpirationDate(ZonedDateTime.now().plusYears(1));
+		ep.setDescription("Access Point of the benchmark service provider");
+		ep.setContactInfo("https://access-point.example.org/contact");
+		for (int c = 0; c < certificates; c++)
+			ep.addCertificate(new CertificateImpl(cert, "signing"));
+		return ep;
+	}
+
+	/**
+	 * Creates an {@link IDSchemeRepository} that only supports the lookup of the ID schemes used in the benchmarks by
+	 * their scheme identifier. This ensures that benchmarks of identifier parsing don't include database access.
+	 *
+	 * @return	repository providing the benchmark ID schemes
+	 */
+	public static IDSchemeRepository idSchemeRepository() {
+		return (IDSchemeRepository) Proxy.newProxyInstance(Fixtures.class.getClassLoader(),
+														   new Class<?>[] { IDSchemeRepository.class },
+			(proxy, method, args) -> {
+				if ("findByIdentifier".equals(method.getName()))
+					return SCHEMES.get((String) args[0]);
+				throw new UnsupportedOperationException(method.getName());
+			});
+	}
+
+	/**
+	 * Creates a {@link SMPServerAdminService} that only provides the key pair to be used for signing responses.
+	 *
+	 * @param keyPair	the key pair to return as the active key pair
+	 * @return	admin service providing the given key pair
+	 */
+	public static SMPServerAdminService adminService(PrivateKeyEntry keyPair) {
+		return (SMPServerAdminService) Proxy.newProxyInstance(Fixtures.class.getClassLoader(),
+															  new Class<?>[] { SMPServerAdminService.class },
+			(proxy, method, args) -> {
+				if ("getActiveKeyPair".equals(method.getName()))
+					return keyPair;
+				throw new UnsupportedOperationException(method.getName());
+			});
+	}
+
+	private static IDSchemeEntity scheme(String schemeId, long oid) {
+		IDSchemeEntity s = new IDSchemeEntity(schemeId, false);
+		s.setOid(oid);
+		return s;
+	}
+}
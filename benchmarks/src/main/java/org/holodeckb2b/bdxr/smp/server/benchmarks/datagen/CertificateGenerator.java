@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.datagen;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x509.TBSCertificate;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.asn1.x509.V3TBSCertificateGenerator;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+
+/**
+ * Creates self-signed X.509 certificates for the Endpoints of the generated data set. The certificates use an EC key
+ * pair on the P-256 curve, which is fast to generate while still resulting in a valid certificate that can be parsed
+ * and included in the responses.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+class CertificateGenerator {
+
+	private static final AlgorithmIdentifier SIGNATURE_ALG = new AlgorithmIdentifier(
+																			X9ObjectIdentifiers.ecdsa_with_SHA256);
+
+	private final KeyPairGenerator	keyGenerator;
+
+	CertificateGenerator() throws GeneralSecurityException {
+		keyGenerator = KeyPairGenerator.getInstance("EC");
+		keyGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+	}
+
+	/**
+	 * Creates a new self-signed certificate for the given subject.
+	 *
+	 * @param commonName	the common name to use in the subject
+	 * @param serial		the serial number of the certificate
+	 * @param notBefore		start of the validity period
+	 * @param notAfter		end of the validity period
+	 * @return	the new certificate
+	 * @throws GeneralSecurityException	when the certificate could not be signed
+	 */
+	X509Certificate create(String commonName, long serial, ZonedDateTime notBefore, ZonedDateTime notAfter)
+																					throws GeneralSecurityException {
+		KeyPair keyPair = keyGenerator.generateKeyPair();
+		X500Name name = new X500Name("CN=" + commonName + ",O=Holodeck SMP Data Generator");
+		V3TBSCertificateGenerator tbsGenerator = new V3TBSCertificateGenerator();
+		tbsGenerator.setSerialNumber(new ASN1Integer(BigInteger.valueOf(serial)));
+		tbsGenerator.setSignature(SIGNATURE_ALG);
+		tbsGenerator.setIssuer(name);
+		tbsGenerator.setSubject(name);
+		tbsGenerator.setStartDate(new Time(Date.from(notBefore.toInstant())));
+		tbsGenerator.setEndDate(new Time(Date.from(notAfter.toInstant())));
+		tbsGenerator.setSubjectPublicKeyInfo(SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded()));
+		TBSCertificate tbs = tbsGenerator.generateTBSCertificate();
+		try {
+			Signature signer = Signature.getInstance("SHA256withECDSA");
+			signer.initSign(keyPair.getPrivate());
+			signer.update(tbs.getEncoded(ASN1Encoding.DER));
+			byte[] encoded = new DERSequence(new ASN1Encodable[] { tbs, SIGNATURE_ALG,
+																   new DERBitString(signer.sign()) })
+												.getEncoded(ASN1Encoding.DER);
+			return (X509Certificate) CertificateFactory.getInstance("X.509")
+													   .generateCertificate(new ByteArrayInputStream(encoded));
+		} catch (IOException encodingFailure) {
+			throw new GeneralSecurityException("Could not encode certificate", encodingFailure);
+		}
+	}
+}
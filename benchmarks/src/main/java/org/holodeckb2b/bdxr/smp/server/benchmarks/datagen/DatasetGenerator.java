@@ -0,0 +1,458 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.datagen;
+
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
+import org.holodeckb2b.bdxr.smp.datamodel.impl.IDSchemeImpl;
+import org.holodeckb2b.bdxr.smp.server.db.KeySequences;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates a synthetic data set of SMP meta-data that can be used for load testing and benchmarking. It creates the
+ * ID Schemes, Processes, Services and Transport Profiles, Endpoints with self-signed certificates, Service Metadata
+ * Templates and the requested number of Participants bound to these templates, as specified by the {@link
+ * DatasetSpec}.
+ * <p>
+ * As creating millions of Participants through JPA or the management API takes too long, the data is written directly
+ * to the database tables using batched JDBC statements. This means that the generator depends on the table layout
+ * created by Hibernate and must be updated when the mapping of the entities changes. The primary keys of the new
+ * records are assigned by the generator, starting after the highest key in use, and the Hibernate sequences are
+ * moved past them when the generation has finished. Therefore the SMP server should not be running while the data is
+ * generated.
+ * <p>
+ * The ID Schemes, Processes, Services and Transport Profiles are reused when they already exist, so the generator can
+ * be run multiple times on the same database. The Participant identifiers however are derived from their number, so
+ * when adding Participants to an existing data set {@link DatasetSpec#setFirstParticipant(long)} must be set to the
+ * first unused number.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+public class DatasetGenerator {
+	/**
+	 * The schemes of the Participant, Document and Process identifiers
+	 */
+	public static final String PARTICIPANT_SCHEME = "iso6523-actorid-upis";
+	public static final String DOCUMENT_SCHEME = "busdox-docid-qns";
+	public static final String PROCESS_SCHEME = "cenbii-procid-ubl";
+	/**
+	 * The identifier of the first Transport Profile
+	 */
+	public static final String TRANSPORT_PROFILE = "peppol-transport-as4-v2_0";
+
+	private static final String[] DOCUMENT_TYPES = { "Invoice", "CreditNote", "Order", "OrderResponse",
+													 "DespatchAdvice", "Catalogue" };
+	private static final String[] COUNTRIES = { "NL", "BE", "DE", "FR", "DK", "SE", "NO", "IT", "AT", "FI", "IE",
+												"PL" };
+	private static final String[] NAME_PREFIXES = { "Northern", "Global", "United", "Green", "Blue", "Royal",
+													"Coastal", "Alpine", "Central", "Atlantic", "Nordic", "Euro" };
+	private static final String[] NAME_SECTORS = { "Logistics", "Trading", "Foods", "Construction", "Health",
+												   "Software", "Energy", "Textiles", "Machinery", "Consulting" };
+	private static final String[] LEGAL_FORMS = { "B.V.", "N.V.", "GmbH", "S.A.", "A/S", "AB", "Ltd", "S.p.A." };
+
+	private final DataSource	dataSource;
+
+	/**
+	 * Creates a new generator that writes to the given database.
+	 *
+	 * @param dataSource	the data source of the SMP database
+	 */
+	public DatasetGenerator(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	/**
+	 * Gets the identifier value of the n-th generated Participant.
+	 *
+	 * @param icd	the ISO6523 ICD used in the identifiers
+	 * @param n		the number of the Participant
+	 * @return	the identifier value
+	 */
+	public static String participantId(String icd, long n) {
+		return String.format("%s:%013d", icd, n);
+	}
+
+	/**
+	 * Generates the data set as specified.
+	 *
+	 * @param spec	the specification of the data set to generate
+	 * @return	description of the generated data set
+	 * @throws SQLException	when an error occurs writing the data to the database. As the Participants are committed
+	 * 						in batches, the database may contain part of the data set.
+	 * @throws GeneralSecurityException	when the certificates for the Endpoints cannot be created
+	 */
+	public GeneratedDataset generate(DatasetSpec spec) throws SQLException, GeneralSecurityException {
+		spec.validate();
+		final long start = System.currentTimeMillis();
+		final Random random = new Random(spec.getSeed());
+		try (Connection c = dataSource.getConnection()) {
+			final boolean autoCommit = c.getAutoCommit();
+			c.setAutoCommit(false);
+			final List<OidRange> ranges = new ArrayList<>();
+			try {
+				if (exists(c, "select count(*) from participant where idvalue = ?",
+						   participantId(spec.getParticipantIcd(), spec.getFirstParticipant())))
+					throw new IllegalStateException("Participant " + spec.getFirstParticipant() + " already exists");
+
+				log.info("Generating base data");
+				final long partScheme = ensureIdScheme(c, ranges, PARTICIPANT_SCHEME, false, "Peppol Participant IDs");
+				final long docScheme = ensureIdScheme(c, ranges, DOCUMENT_SCHEME, true, "Peppol Document Type IDs");
+				final long procScheme = ensureIdScheme(c, ranges, PROCESS_SCHEME, true, "Peppol Process IDs");
+				final List<Long> profiles = createTransportProfiles(c, ranges, spec);
+				final List<Long> processes = createProcesses(c, ranges, spec, procScheme);
+				final List<Long> endpoints = createEndpoints(c, ranges, spec, profiles);
+				final List<Long> templates = createTemplates(c, ranges, spec, docScheme, processes, endpoints);
+				c.commit();
+
+				log.info("Generating {} Participants", spec.getParticipants());
+				final long bindings = createParticipants(c, ranges, spec, partScheme, templates, random);
+				final GeneratedDataset result = new GeneratedDataset(spec.getFirstParticipant(),
+											spec.getParticipants(), bindings, templates, endpoints,
+											Duration.ofMillis(System.currentTimeMillis() - start));
+				log.info("Generated {} Participants with {} bindings in {} s", result.participants(), bindings,
+						 result.duration().toSeconds());
+				return result;
+			} catch (SQLException | GeneralSecurityException | RuntimeException failure) {
+				log.error("Error generating data set : {}", failure.getMessage());
+				c.rollback();
+				throw failure;
+			} finally {
+				c.setAutoCommit(true);
+				for (OidRange r : ranges)
+					r.alignSequence(c);
+				c.setAutoCommit(autoCommit);
+			}
+		}
+	}
+
+	private long ensureIdScheme(Connection c, List<OidRange> ranges, String schemeId, boolean caseSensitive,
+								String name) throws SQLException {
+		try (PreparedStatement ps = c.prepareStatement("select oid from idscheme where scheme_id = ?")) {
+			ps.setString(1, schemeId);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next())
+					return rs.getLong(1);
+			}
+		}
+		final long oid = range(c, ranges, "idscheme").next();
+		try (PreparedStatement ps = c.prepareStatement(
+				"insert into idscheme (oid, last_modified, scheme_id, case_sensitive, name) values (?, ?, ?, ?, ?)")) {
+			ps.setLong(1, oid);
+			ps.setTimestamp(2, now());
+			ps.setString(3, schemeId);
+			ps.setBoolean(4, caseSensitive);
+			ps.setString(5, name);
+			ps.executeUpdate();
+		}
+		return oid;
+	}
+
+	private List<Long> createTransportProfiles(Connection c, List<OidRange> ranges, DatasetSpec spec)
+																								throws SQLException {
+		List<Long> oids = new ArrayList<>(spec.getTransportProfiles());
+		for (int i = 0; i < spec.getTransportProfiles(); i++) {
+			final String id = i == 0 ? TRANSPORT_PROFILE : String.format("datagen-transport-%02d", i);
+			oids.add(ensureIdBasedEntity(c, ranges, "transport_profile", null, id, "Transport Profile " + i));
+		}
+		return oids;
+	}
+
+	private List<Long> createProcesses(Connection c, List<OidRange> ranges, DatasetSpec spec, long scheme)
+																								throws SQLException {
+		List<Long> oids = new ArrayList<>(spec.getProcesses());
+		for (int i = 0; i < spec.getProcesses(); i++)
+			oids.add(ensureIdBasedEntity(c, ranges, "process", scheme,
+										 String.format("urn:fdc:datagen.example.org:process:%02d:1.0", i),
+										 "Process " + i));
+		return oids;
+	}
+
+	private List<Long> createEndpoints(Connection c, List<OidRange> ranges, DatasetSpec spec, List<Long> profiles)
+																			throws SQLException, GeneralSecurityException {
+		final OidRange oids = range(c, ranges, "endpoint");
+		final CertificateGenerator certGenerator = new CertificateGenerator();
+		final ZonedDateTime activation = ZonedDateTime.now().minusMonths(6);
+		final ZonedDateTime expiration = activation.plusYears(2);
+		List<Long> endpoints = new ArrayList<>(spec.getEndpoints());
+		try (PreparedStatement ep = c.prepareStatement("insert into endpoint (oid, last_modified, name, url, "
+									+ "transport_profile_oid, service_activation_date, service_expiration_date, "
+									+ "description, contact_info) values (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+			 PreparedStatement cert = c.prepareStatement("insert into ep_certificates (endpoint_oid, cert, txt_usage, "
+			 						+ "activation_date, expiration_date, description) values (?, ?, ?, ?, ?, ?)")) {
+			for (int i = 0; i < spec.getEndpoints(); i++) {
+				final long oid = oids.next();
+				final String host = String.format("ap%03d.datagen.example.org", oid);
+				ep.setLong(1, oid);
+				ep.setTimestamp(2, now());
+				ep.setString(3, "Access Point " + oid);
+				ep.setString(4, "https://" + host + "/as4");
+				ep.setLong(5, profiles.get(i % profiles.size()));
+				ep.setObject(6, activation.toOffsetDateTime());
+				ep.setObject(7, expiration.toOffsetDateTime());
+				ep.setString(8, "Generated Access Point");
+				ep.setString(9, "https://" + host + "/contact");
+				ep.addBatch();
+
+				X509Certificate x509Cert = certGenerator.create(host, oid, activation, expiration);
+				cert.setLong(1, oid);
+				cert.setBytes(2, x509Cert.getEncoded());
+				cert.setString(3, "signing");
+				cert.setObject(4, activation.toOffsetDateTime());
+				cert.setObject(5, expiration.toOffsetDateTime());
+				cert.setString(6, "Generated certificate");
+				cert.addBatch();
+				endpoints.add(oid);
+			}
+			ep.executeBatch();
+			cert.executeBatch();
+		}
+		return endpoints;
+	}
+
+	private List<Long> createTemplates(Connection c, List<OidRange> ranges, DatasetSpec spec, long docScheme,
+									   List<Long> processes, List<Long> endpoints) throws SQLException {
+		final OidRange smtOids = range(c, ranges, "service_metadata_template");
+		final OidRange pgOids = range(c, ranges, "process_group");
+		final OidRange piOids = range(c, ranges, "process_info");
+		List<Long> templates = new ArrayList<>(spec.getTemplates());
+		try (PreparedStatement smt = c.prepareStatement("insert into service_metadata_template (oid, last_modified, "
+														+ "name, service_oid) values (?, ?, ?, ?)");
+			 PreparedStatement pg = c.prepareStatement("insert into process_group (oid, template_oid) values (?, ?)");
+			 PreparedStatement pi = c.prepareStatement("insert into process_info (oid, process_oid, procgroup_oid) "
+														+ "values (?, ?, ?)");
+			 PreparedStatement pgEp = c.prepareStatement("insert into process_group_endpoints (process_group_oid, "
+														+ "endpoints_oid) values (?, ?)")) {
+			int p = 0, e = 0;
+			for (int i = 0; i < spec.getTemplates(); i++) {
+				final String docType = DOCUMENT_TYPES[i % DOCUMENT_TYPES.length];
+				final long service = ensureIdBasedEntity(c, ranges, "service", docScheme,
+								String.format("urn:oasis:names:specification:ubl:schema:xsd:%s-2::%s"
+											  + "##urn:fdc:datagen.example.org:%s:%02d::2.1", docType, docType,
+											  docType.toLowerCase(), i), docType + " " + i);
+				final long oid = smtOids.next();
+				smt.setLong(1, oid);
+				smt.setTimestamp(2, now());
+				smt.setString(3, "Generated template " + i + " (" + docType + ")");
+				smt.setLong(4, service);
+				smt.addBatch();
+				for (int g = 0; g < spec.getProcessGroupsPerTemplate(); g++) {
+					final long pgOid = pgOids.next();
+					pg.setLong(1, pgOid);
+					pg.setLong(2, oid);
+					pg.addBatch();
+					for (int j = 0; j < spec.getProcessesPerGroup(); j++) {
+						pi.setLong(1, piOids.next());
+						pi.setLong(2, processes.get(p++ % processes.size()));
+						pi.setLong(3, pgOid);
+						pi.addBatch();
+					}
+					for (int j = 0; j < spec.getEndpointsPerGroup(); j++) {
+						pgEp.setLong(1, pgOid);
+						pgEp.setLong(2, endpoints.get(e++ % endpoints.size()));
+						pgEp.addBatch();
+					}
+				}
+				templates.add(oid);
+			}
+			smt.executeBatch();
+			pg.executeBatch();
+			pi.executeBatch();
+			pgEp.executeBatch();
+		}
+		return templates;
+	}
+
+	private long createParticipants(Connection c, List<OidRange> ranges, DatasetSpec spec, long scheme,
+									List<Long> templates, Random random) throws SQLException {
+		final OidRange oids = range(c, ranges, "participant");
+		final ZipfDistribution templateDist = new ZipfDistribution(templates.size(), spec.getZipfExponent());
+		final ZipfDistribution bindingsDist = new ZipfDistribution(Math.min(spec.getMaxBindings(), templates.size()),
+																	spec.getZipfExponent());
+		final IDSchemeImpl additionalIdScheme = new IDSchemeImpl(PARTICIPANT_SCHEME, false);
+		final LocalDate today = LocalDate.now();
+		final long last = spec.getFirstParticipant() + spec.getParticipants();
+		final long progressInterval = Math.max(100_000, spec.getBatchSize());
+		long bindings = 0;
+		try (PreparedStatement p = c.prepareStatement("insert into participant (oid, last_modified, idscheme, "
+								+ "idvalue, name, lcname, country, first_registration, registered_insml, "
+								+ "published_in_directory) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+			 PreparedStatement a = c.prepareStatement("insert into participant_additional_ids (participant_oid, "
+			 					+ "additional_id) values (?, ?)");
+			 PreparedStatement b = c.prepareStatement("insert into service_metadata_binding (participant_oid, "
+			 					+ "template_oid) values (?, ?)")) {
+			for (long n = spec.getFirstParticipant(); n < last; n++) {
+				final long oid = oids.next();
+				final String name = String.format("%s %s %s", NAME_PREFIXES[random.nextInt(NAME_PREFIXES.length)],
+												  NAME_SECTORS[random.nextInt(NAME_SECTORS.length)],
+												  LEGAL_FORMS[random.nextInt(LEGAL_FORMS.length)]);
+				p.setLong(1, oid);
+				p.setTimestamp(2, now());
+				p.setLong(3, scheme);
+				p.setString(4, participantId(spec.getParticipantIcd(), n));
+				p.setString(5, name);
+				p.setString(6, name.toLowerCase());
+				p.setString(7, COUNTRIES[random.nextInt(COUNTRIES.length)]);
+				p.setObject(8, today.minusDays(random.nextInt(3650)));
+				p.setBoolean(9, random.nextInt(100) < spec.getRegisteredInSMLPercentage());
+				p.setBoolean(10, random.nextInt(100) < spec.getPublishedInDirectoryPercentage());
+				p.addBatch();
+				if (random.nextInt(100) < spec.getAdditionalIdPercentage()) {
+					a.setLong(1, oid);
+					a.setString(2, ParticipantEntity.convertAdditionalId(new IdentifierImpl(
+											String.format("0192:%09d", n), additionalIdScheme)));
+					a.addBatch();
+				}
+
+				for (long t : selectTemplates(templates, templateDist, 1 + bindingsDist.sample(random), random)) {
+					b.setLong(1, oid);
+					b.setLong(2, t);
+					b.addBatch();
+					bindings++;
+				}
+
+				final long created = n - spec.getFirstParticipant() + 1;
+				if (created % spec.getBatchSize() == 0 || n == last - 1) {
+					p.executeBatch();
+					a.executeBatch();
+					b.executeBatch();
+					c.commit();
+				}
+				if (created % progressInterval == 0)
+					log.info("Generated {} of {} Participants", created, spec.getParticipants());
+			}
+		}
+		return bindings;
+	}
+
+	/**
+	 * Selects the given number of distinct templates using the Zipf distribution of their popularity.
+	 */
+	private Collection<Long> selectTemplates(List<Long> templates, ZipfDistribution dist, int count, Random random) {
+		TreeSet<Long> selected = new TreeSet<>();
+		while (selected.size() < count)
+			selected.add(templates.get(dist.sample(random)));
+		return selected;
+	}
+
+	/**
+	 * Gets the oid of the record with the given identifier in the table of an identifier based entity or creates a
+	 * new one if it does not exist yet.
+	 */
+	private long ensureIdBasedEntity(Connection c, List<OidRange> ranges, String table, Long scheme, String id,
+									 String name) throws SQLException {
+		try (PreparedStatement ps = c.prepareStatement("select oid from " + table + " where idvalue = ? and "
+													+ (scheme == null ? "idscheme is null" : "idscheme = " + scheme))) {
+			ps.setString(1, id);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next())
+					return rs.getLong(1);
+			}
+		}
+		final long oid = range(c, ranges, table).next();
+		try (PreparedStatement ps = c.prepareStatement("insert into " + table
+									+ " (oid, last_modified, idscheme, idvalue, name) values (?, ?, ?, ?, ?)")) {
+			ps.setLong(1, oid);
+			ps.setTimestamp(2, now());
+			if (scheme != null)
+				ps.setLong(3, scheme);
+			else
+				ps.setNull(3, Types.BIGINT);
+			ps.setString(4, id);
+			ps.setString(5, name);
+			ps.executeUpdate();
+		}
+		return oid;
+	}
+
+	private static boolean exists(Connection c, String query, String param) throws SQLException {
+		try (PreparedStatement ps = c.prepareStatement(query)) {
+			ps.setString(1, param);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() && rs.getLong(1) > 0;
+			}
+		}
+	}
+
+	private static Timestamp now() {
+		return Timestamp.valueOf(LocalDateTime.now());
+	}
+
+	private static OidRange range(Connection c, List<OidRange> ranges, String table) throws SQLException {
+		for (OidRange r : ranges)
+			if (r.table.equals(table))
+				return r;
+		OidRange r = new OidRange(c, table);
+		ranges.add(r);
+		return r;
+	}
+
+	/**
+	 * Assigns the primary keys for the records created in a table. The keys are assigned consecutively, starting
+	 * after the highest key in use. When the generation is finished the Hibernate sequence of the table is moved past
+	 * the last assigned key so new records created by the server don't conflict with the generated ones.
+	 */
+	private static class OidRange {
+		final String	table;
+		final long		first;
+		long			next;
+
+		OidRange(Connection c, String table) throws SQLException {
+			this.table = table;
+			try (Statement s = c.createStatement();
+				 ResultSet rs = s.executeQuery("select max(oid) from " + table)) {
+				rs.next();
+				first = next = rs.getLong(1) + 1;
+			}
+		}
+
+		long next() {
+			return next++;
+		}
+
+		/**
+		 * Moves the sequence past the last assigned key.
+		 */
+		void alignSequence(Connection c) {
+			if (next != first)
+				KeySequences.alignSequence(c, table, next - 1);
+		}
+	}
+}
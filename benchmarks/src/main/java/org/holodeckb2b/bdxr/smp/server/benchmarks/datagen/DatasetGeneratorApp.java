@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.datagen;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.PropertySources;
+import org.springframework.core.env.Environment;
+
+/**
+ * Command line tool to fill the database of the SMP server with a synthetic data set for load testing. It uses the
+ * same database configuration as the server and the size and shape of the data set are specified using the
+ * properties of {@link DatasetSpec} prefixed with <code>datagen.</code>, for example:
+ * <pre>
+ * java -cp benchmarks.jar org.holodeckb2b.bdxr.smp.server.benchmarks.datagen.DatasetGeneratorApp \
+ *      --datagen.participants=1000000 --datagen.templates=50 --datagen.endpoints=20
+ * </pre>
+ * The server must not be running while the data set is generated, see {@link DatasetGenerator}.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Configuration
+@ImportAutoConfiguration({ DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+						   TransactionAutoConfiguration.class })
+@EntityScan("org.holodeckb2b.bdxr.smp.server.db.entities")
+@PropertySources({
+	@PropertySource("classpath:/common-defaults.properties"),
+	@PropertySource(value = "file:${smp.home:.}/common.properties", ignoreResourceNotFound = true)})
+public class DatasetGeneratorApp implements ApplicationRunner {
+
+	@Autowired
+	private DataSource	dataSource;
+
+	@Autowired
+	private Environment	env;
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(DatasetGeneratorApp.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.properties("spring.config.name=common")
+				.run(args);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		DatasetSpec spec = Binder.get(env).bind("datagen", DatasetSpec.class).orElseGet(DatasetSpec::new);
+		GeneratedDataset dataset = new DatasetGenerator(dataSource).generate(spec);
+		System.out.printf("Generated %d Participants (%s to %s) with %d bindings to %d templates in %d s%n",
+						  dataset.participants(),
+						  DatasetGenerator.participantId(spec.getParticipantIcd(), dataset.firstParticipant()),
+						  DatasetGenerator.participantId(spec.getParticipantIcd(),
+								  						 dataset.firstParticipant() + dataset.participants() - 1),
+						  dataset.bindings(), dataset.templates().size(), dataset.duration().toSeconds());
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.datagen;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Specifies the size and shape of a synthetic data set to be created by the {@link DatasetGenerator}. The defaults
+ * result in a small data set that can be used for functional testing, for load testing at least the number of
+ * Participants should be increased.
+ * <p>
+ * The <i>Service Metadata Templates</i> are bound to the <i>Participants</i> following a Zipf distribution, i.e.
+ * a small number of templates is used by most Participants, just like a few document types (e.g. invoices) are
+ * supported by most Participants in a real network. The number of templates bound to a Participant also follows a
+ * Zipf distribution, so most Participants support only one or two services.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class DatasetSpec {
+	/**
+	 * The number of Participants to create
+	 */
+	private int		participants = 1000;
+	/**
+	 * The number of the first Participant to create. The identifiers of the Participants are derived from their number,
+	 * so when adding Participants to an already generated data set this must be set to a number that has not been
+	 * used yet.
+	 */
+	private long	firstParticipant = 1;
+	/**
+	 * The ISO6523 ICD used in the identifiers of the Participants
+	 */
+	private String	participantIcd = "0088";
+	/**
+	 * The number of Service Metadata Templates to create, each template is for a different Service
+	 */
+	private int		templates = 20;
+	/**
+	 * The number of Process Groups to include in each template
+	 */
+	private int		processGroupsPerTemplate = 2;
+	/**
+	 * The number of Processes to create
+	 */
+	private int		processes = 10;
+	/**
+	 * The number of Processes to include in each Process Group
+	 */
+	private int		processesPerGroup = 1;
+	/**
+	 * The number of Transport Profiles to create
+	 */
+	private int		transportProfiles = 1;
+	/**
+	 * The number of Endpoints to create
+	 */
+	private int		endpoints = 10;
+	/**
+	 * The number of Endpoints to include in each Process Group
+	 */
+	private int		endpointsPerGroup = 1;
+	/**
+	 * The maximum number of templates bound to a Participant
+	 */
+	private int		maxBindings = 5;
+	/**
+	 * The exponent of the Zipf distributions used for the template bindings, a higher value results in a more skewed
+	 * distribution
+	 */
+	private double	zipfExponent = 1.0;
+	/**
+	 * The percentage of Participants that has an additional identifier
+	 */
+	private int		additionalIdPercentage = 30;
+	/**
+	 * The percentage of Participants that is registered in the SML
+	 */
+	private int		registeredInSMLPercentage = 90;
+	/**
+	 * The percentage of Participants that is published to the directory
+	 */
+	private int		publishedInDirectoryPercentage = 50;
+	/**
+	 * The seed of the random generator, using the same seed results in the same data set
+	 */
+	private long	seed = 42;
+	/**
+	 * The number of Participants to insert in one JDBC batch and transaction
+	 */
+	private int		batchSize = 1000;
+
+	/**
+	 * Checks that the specification describes a data set that can be generated.
+	 *
+	 * @throws IllegalArgumentException when one of the settings is invalid
+	 */
+	public void validate() {
+		if (participants < 0 || firstParticipant < 0)
+			throw new IllegalArgumentException("Number of (first) Participant(s) must not be negative");
+		if (templates < 1 || processGroupsPerTemplate < 1 || processes < 1 || processesPerGroup < 1
+			|| transportProfiles < 1 || endpoints < 1 || endpointsPerGroup < 1 || maxBindings < 1 || batchSize < 1)
+			throw new IllegalArgumentException("Number of templates, processes, endpoints and bindings must be > 0");
+		if (processesPerGroup > processes || endpointsPerGroup > endpoints)
+			throw new IllegalArgumentException("Process Group cannot include more Processes or Endpoints than exist");
+		if (zipfExponent <= 0)
+			throw new IllegalArgumentException("Zipf exponent must be positive");
+	}
+}
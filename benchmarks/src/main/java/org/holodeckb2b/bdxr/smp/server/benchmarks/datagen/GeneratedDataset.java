@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.datagen;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Describes the data set created by the {@link DatasetGenerator}.
+ *
+ * @param firstParticipant	the number of the first Participant created
+ * @param participants		the number of Participants created
+ * @param bindings			the total number of template bindings created
+ * @param templates			the oids of the Service Metadata Templates created, ordered by popularity
+ * @param endpoints			the oids of the Endpoints created
+ * @param duration			the time it took to generate the data set
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public record GeneratedDataset(long firstParticipant, int participants, long bindings, List<Long> templates,
+							   List<Long> endpoints, Duration duration) {
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.datagen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws ranks from a Zipf distribution, i.e. rank <i>k</i> (1-based) is drawn with a probability proportional to
+ * <code>1/k<sup>s</sup></code>. The cumulative distribution is pre-calculated so each draw only requires a binary
+ * search.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+class ZipfDistribution {
+
+	private final double[]	cdf;
+
+	/**
+	 * Creates a new distribution over the given number of ranks.
+	 *
+	 * @param n			the number of ranks
+	 * @param exponent	the exponent <i>s</i> of the distribution
+	 */
+	ZipfDistribution(int n, double exponent) {
+		cdf = new double[n];
+		double sum = 0;
+		for (int k = 1; k <= n; k++)
+			cdf[k - 1] = sum += 1.0 / Math.pow(k, exponent);
+		for (int i = 0; i < n; i++)
+			cdf[i] /= sum;
+	}
+
+	/**
+	 * Draws a rank from the distribution.
+	 *
+	 * @param random	the random generator to use
+	 * @return	the 0-based rank drawn, i.e. 0 is the most frequent
+	 */
+	int sample(Random random) {
+		int i = Arrays.binarySearch(cdf, random.nextDouble());
+		return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the {@link CapturedQuery captured queries} from a capture file created by the {@link CaptureWriter}.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+class CaptureReader implements Closeable {
+
+	private final DataInputStream	in;
+	private final long				start;
+	private final List<String>		strings = new ArrayList<>();
+	private final Map<String, Map<String, String>> headerSets = new LinkedHashMap<>();
+	private long	previous;
+	private boolean	ended;
+
+	/**
+	 * Opens the given capture file.
+	 *
+	 * @param file	path of the capture file
+	 * @throws IOException	when the file could not be opened or is not a capture file
+	 */
+	CaptureReader(Path file) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 65536)));
+		if (in.readInt() != CaptureWriter.MAGIC)
+			throw new IOException(file + " is not a capture file");
+		final int version = in.readByte();
+		if (version != CaptureWriter.VERSION)
+			throw new IOException("Unsupported capture file version: " + version);
+		start = in.readLong();
+		previous = start;
+	}
+
+	/**
+	 * @return the time stamp of the first query in the file, in milliseconds since the epoch
+	 */
+	long getStart() {
+		return start;
+	}
+
+	/**
+	 * Reads the next query from the file.
+	 *
+	 * @return	the next query, <code>null</code> if all queries have been read
+	 * @throws IOException	when the query could not be read
+	 */
+	CapturedQuery read() throws IOException {
+		if (ended)
+			return null;
+		final long delta = readVarLong();
+		if (delta == 0) {
+			ended = true;
+			return null;
+		}
+		previous += delta - 1;
+		final String path = readString();
+		final Map<String, String> headers = headerSets.computeIfAbsent(readString(), CaptureReader::decodeHeaders);
+		final int status = (int) readVarLong();
+		final byte[] digest = new byte[(int) readVarLong()];
+		in.readFully(digest);
+		return new CapturedQuery(previous, path, headers, status,
+								 digest.length > 0 ? Base64.getEncoder().encodeToString(digest) : null);
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private static Map<String, String> decodeHeaders(String s) {
+		if (s.isEmpty())
+			return Collections.emptyMap();
+		Map<String, String> headers = new LinkedHashMap<>();
+		for (String h : s.split("\n")) {
+			final int sep = h.indexOf(':');
+			headers.put(h.substring(0, sep), h.substring(sep + 1));
+		}
+		return Collections.unmodifiableMap(headers);
+	}
+
+	private String readString() throws IOException {
+		final int ref = (int) readVarLong();
+		if (ref < strings.size())
+			return strings.get(ref);
+		if (ref != strings.size())
+			throw new IOException("Invalid string reference: " + ref);
+		final String s = in.readUTF();
+		strings.add(s);
+		return s;
+	}
+
+	private long readVarLong() throws IOException {
+		long v = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = in.readUnsignedByte();
+			v |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return v;
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes {@link CapturedQuery captured queries} to a capture file. To keep the file compact, the file is GZIP
+ * compressed and the records are written in a binary format in which:<ul>
+ * <li>the time stamp is written as the difference with the time stamp of the previous record, which requires that the
+ * 		records are written in chronological order;</li>
+ * <li>query paths and request headers are written only once and are referenced by their index in the string table
+ * 		when used again. This takes advantage of the skew in Participant popularity, as most queries are for a small
+ * 		number of Participants;</li>
+ * <li>numbers are written as variable length integers and the digest as raw bytes.</li>
+ * </ul>
+ * Each record is written as <code>«time delta + 1» «path ref» «headers ref» «status» «digest length» [«digest»]</code>
+ * where a string reference is either the index of an earlier string or the size of the string table followed by the
+ * new string. The end of the records is indicated by a time delta of 0.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ * @see CaptureReader
+ */
+class CaptureWriter implements Closeable {
+	/**
+	 * Identifies a capture file, "HSQC" in ASCII
+	 */
+	static final int MAGIC = 0x48535143;
+	/**
+	 * Version of the file format
+	 */
+	static final int VERSION = 1;
+
+	private final DataOutputStream	out;
+	private final Map<String, Integer> strings = new HashMap<>();
+	private long	previous;
+	private long	count;
+
+	/**
+	 * Creates a new capture file, replacing an existing file.
+	 *
+	 * @param file	path of the capture file
+	 * @param start	time stamp of the first record, in milliseconds since the epoch
+	 * @throws IOException	when the file could not be created
+	 */
+	CaptureWriter(Path file, long start) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 65536)));
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeLong(start);
+		previous = start;
+	}
+
+	/**
+	 * Writes the given query to the capture file.
+	 *
+	 * @param q	the query to write, its time stamp must not be before the one of the previously written query
+	 * @throws IOException	when the query could not be written
+	 */
+	void write(CapturedQuery q) throws IOException {
+		if (q.timestamp() < previous)
+			throw new IllegalArgumentException("Queries must be written in chronological order");
+		writeVarLong(q.timestamp() - previous + 1);
+		previous = q.timestamp();
+		writeString(q.path());
+		writeString(encodeHeaders(q.headers()));
+		writeVarLong(q.status());
+		final byte[] digest = q.digest() != null ? Base64.getDecoder().decode(q.digest()) : new byte[0];
+		writeVarLong(digest.length);
+		out.write(digest);
+		count++;
+	}
+
+	/**
+	 * @return the number of queries written
+	 */
+	long getCount() {
+		return count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		writeVarLong(0);
+		out.close();
+	}
+
+	/**
+	 * Encodes the headers as one string, using a line per header in «name»:«value» format.
+	 */
+	private static String encodeHeaders(Map<String, String> headers) {
+		if (headers == null || headers.isEmpty())
+			return "";
+		StringBuilder sb = new StringBuilder();
+		headers.forEach((n, v) -> sb.append(n).append(':').append(v).append('\n'));
+		return sb.toString();
+	}
+
+	private void writeString(String s) throws IOException {
+		Integer ref = strings.get(s);
+		if (ref != null)
+			writeVarLong(ref);
+		else {
+			writeVarLong(strings.size());
+			strings.put(s, strings.size());
+			out.writeUTF(s);
+		}
+	}
+
+	private void writeVarLong(long v) throws IOException {
+		while ((v & ~0x7FL) != 0) {
+			out.writeByte((int) (v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte((int) v);
+	}
+}
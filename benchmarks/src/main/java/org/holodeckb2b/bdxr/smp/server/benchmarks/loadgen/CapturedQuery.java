@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.util.Map;
+
+/**
+ * A query taken from the query access log of a server that can be replayed against another server instance.
+ *
+ * @param timestamp	time the query was received, in milliseconds since the epoch
+ * @param path		the query path
+ * @param headers	the logged request headers, empty if none were logged
+ * @param status	the HTTP status code of the original response
+ * @param digest	the Base64 encoded SHA-256 digest of the original response, <code>null</code> if not known
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ * @see org.holodeckb2b.bdxr.smp.server.queryapi.ResponseDigest
+ */
+record CapturedQuery(long timestamp, String path, Map<String, String> headers, int status, String digest) {
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.holodeckb2b.bdxr.smp.server.benchmarks.datagen.DatasetGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates load on the query API of a running SMP server to measure its capacity. The load consists of a
+ * configurable mix of the different query types supported by the server (see {@link QueryType}) that is sent using
+ * an open model, i.e. the queries are sent at the configured arrival rate independent of how fast the server
+ * responds. The load is applied in steps of increasing rate, so the capacity of the server can be found as the rate at
+ * which the latency starts to increase sharply or errors start to occur. For each step the latency percentiles,
+ * throughput and error rates are reported, both on the console and in a JSON file.
+ * <p>
+ * The queried Participants are taken from a range of Participants created by the {@link DatasetGenerator} or from a
+ * file containing one Participant identifier per line. Before the load is applied, the Service Groups of a sample of
+ * these Participants are retrieved to find out which Services they support. When enabled the signatures of the
+ * ServiceMetadata responses are validated, which requires additional CPU on the load generator.
+ * <p>
+ * All settings can be found in <code>loadgen.properties</code> and can be changed using command line arguments, e.g.
+ * <code>--loadgen.base_url=http://smp.example.org --loadgen.rates=100,200,400</code>. Run it using:<br/>
+ * <code>java -cp benchmarks.jar org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen.LoadGenerator</code>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Configuration
+@Slf4j
+public class LoadGenerator implements ApplicationRunner {
+
+	private static final Pattern HREF = Pattern.compile("href=\"([^\"]+)\"");
+
+	@Value("${loadgen.base_url:http://localhost}")
+	private String		baseUrl;
+	@Value("${loadgen.mix:peppol-smd:50,peppol-sg:15,oasis-smd:10,oasis-sg:5,businesscard:10,unknown:5,encoding-variant:5}")
+	private String[]	mixSpec;
+	@Value("${loadgen.rates:50,100,200}")
+	private double[]	rates;
+	@Value("${loadgen.step_duration:60}")
+	private int			stepDuration;
+	@Value("${loadgen.warmup:10}")
+	private int			warmup;
+	@Value("${loadgen.arrival:poisson}")
+	private String		arrival;
+	@Value("${loadgen.max_in_flight:5000}")
+	private int			maxInFlight;
+	@Value("${loadgen.timeout:10}")
+	private int			timeout;
+	@Value("${loadgen.validate_signatures:false}")
+	private boolean		validateSignatures;
+	@Value("${loadgen.participant_scheme:iso6523-actorid-upis}")
+	private String		participantScheme;
+	@Value("${loadgen.participant_icd:0088}")
+	private String		participantIcd;
+	@Value("${loadgen.first_participant:1}")
+	private long		firstParticipant;
+	@Value("${loadgen.participants:1000}")
+	private int			participants;
+	@Value("${loadgen.participant_file:}")
+	private String		participantFile;
+	@Value("${loadgen.discovery_sample:200}")
+	private int			discoverySample;
+	@Value("${loadgen.seed:42}")
+	private long		seed;
+	@Value("${loadgen.result_file:loadgen-result.json}")
+	private String		resultFile;
+
+	private HttpClient		client;
+	private ExecutorService	validators;
+	private final AtomicInteger	inFlight = new AtomicInteger();
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(LoadGenerator.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.properties("spring.config.name=loadgen")
+				.run(args);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws IOException, InterruptedException {
+		final Map<QueryType, Integer> mix = parseMix();
+		final Random random = new Random(seed);
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+										.connectTimeout(Duration.ofSeconds(timeout)).build();
+		validators = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			final List<QueryTarget> targets = discoverTargets(random);
+			if (targets.isEmpty()) {
+				log.error("None of the sampled Participants could be queried, check the server and participant settings");
+				return;
+			}
+			log.info("Found {} Participants with supported services", targets.size());
+
+			if (warmup > 0) {
+				log.info("Warming up at {} queries/s for {} s", rates[0], warmup);
+				runStep(rates[0], warmup, mix, targets, random);
+			}
+			List<Map<String, Object>> steps = new ArrayList<>();
+			for (double rate : rates) {
+				log.info("Applying load of {} queries/s for {} s", rate, stepDuration);
+				Map<QueryType, LoadStats> stats = runStep(rate, stepDuration, mix, targets, random);
+				steps.add(report(rate, stats));
+			}
+
+			Map<String, Object> results = new LinkedHashMap<>();
+			results.put("baseUrl", baseUrl);
+			results.put("timestamp", Instant.now().toString());
+			results.put("arrival", arrival);
+			results.put("stepDuration", stepDuration);
+			results.put("mix", mix.entrySet().stream().collect(LinkedHashMap::new,
+										(m, e) -> m.put(e.getKey().key(), e.getValue()), Map::putAll));
+			results.put("validateSignatures", validateSignatures);
+			results.put("steps", steps);
+			new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(resultFile), results);
+			log.info("Results written to {}", resultFile);
+		} finally {
+			validators.shutdown();
+		}
+	}
+
+	/**
+	 * Sends queries at the given rate for the given duration and waits for all of them to complete.
+	 *
+	 * @return	the statistics of the step per query type
+	 */
+	private Map<QueryType, LoadStats> runStep(double rate, int seconds, Map<QueryType, Integer> mix,
+											  List<QueryTarget> targets, Random random) throws InterruptedException {
+		final int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+		final Map<QueryType, LoadStats> stats = new EnumMap<>(QueryType.class);
+		mix.keySet().forEach(t -> stats.put(t, new LoadStats(t.key())));
+		final double interval = TimeUnit.SECONDS.toNanos(1) / rate;
+		final boolean poisson = "poisson".equalsIgnoreCase(arrival);
+		final long start = System.nanoTime();
+		final long end = start + TimeUnit.SECONDS.toNanos(seconds);
+		long next = start;
+		while (next < end) {
+			long now;
+			while ((now = System.nanoTime()) < next)
+				LockSupport.parkNanos(next - now);
+			final QueryType type = selectType(mix, totalWeight, random);
+			final String path = type.path(targets.get(random.nextInt(targets.size())), random);
+			send(type, path, next, stats.get(type));
+			next += poisson ? (long) (-Math.log(1 - random.nextDouble()) * interval) : (long) interval;
+		}
+		final long drainEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout + 1);
+		while (inFlight.get() > 0 && System.nanoTime() < drainEnd)
+			Thread.sleep(10);
+		return stats;
+	}
+
+	/**
+	 * Sends a query asynchronously. The latency is measured from the time the query was scheduled to be sent.
+	 */
+	private void send(QueryType type, String path, long scheduled, LoadStats stats) {
+		if (inFlight.get() >= maxInFlight) {
+			stats.dropped();
+			return;
+		}
+		inFlight.incrementAndGet();
+		stats.sent();
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+										 .timeout(Duration.ofSeconds(timeout)).GET().build();
+		client.sendAsync(request, BodyHandlers.ofByteArray()).whenComplete((response, failure) -> {
+			final long latency = System.nanoTime() - scheduled;
+			inFlight.decrementAndGet();
+			if (failure != null) {
+				log.debug("Query {} failed : {}", path, failure.getMessage());
+				stats.failed();
+				return;
+			}
+			final boolean expected = type.isExpected(response.statusCode());
+			stats.completed(latency, expected);
+			if (!expected)
+				log.debug("Query {} resulted in unexpected status {}", path, response.statusCode());
+			else if (validateSignatures && type.isSigned() && response.statusCode() == 200)
+				validators.execute(() -> {
+					if (!SignatureValidator.isValid(response.body())) {
+						log.debug("Response to query {} has invalid signature", path);
+						stats.invalidSignature();
+					}
+				});
+		});
+	}
+
+	private QueryType selectType(Map<QueryType, Integer> mix, int totalWeight, Random random) {
+		int r = random.nextInt(totalWeight);
+		for (Map.Entry<QueryType, Integer> e : mix.entrySet())
+			if ((r -= e.getValue()) < 0)
+				return e.getKey();
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * Retrieves the Service Groups of a sample of the Participants to find out which Services they support.
+	 *
+	 * @return	the Participants found with their supported Services
+	 */
+	private List<QueryTarget> discoverTargets(Random random) throws IOException, InterruptedException {
+		List<String> candidates = new ArrayList<>();
+		if (!participantFile.isBlank())
+			Files.readAllLines(Path.of(participantFile)).stream().map(String::trim).filter(l -> !l.isEmpty())
+																						.forEach(candidates::add);
+		else
+			for (int i = 0; i < Math.min(discoverySample, participants); i++)
+				candidates.add(participantScheme + "::" + DatasetGenerator.participantId(participantIcd,
+															firstParticipant + random.nextInt(participants)));
+		log.info("Retrieving Service Groups of {} Participants", Math.min(discoverySample, candidates.size()));
+		List<QueryTarget> targets = new ArrayList<>();
+		for (int i = 0; i < Math.min(discoverySample, candidates.size()); i++) {
+			final String pid = candidates.get(i);
+			HttpResponse<String> sg = client.send(HttpRequest.newBuilder(
+													URI.create(baseUrl + "/" + QueryType.encode(pid)))
+													.timeout(Duration.ofSeconds(timeout)).GET().build(),
+												  BodyHandlers.ofString());
+			if (sg.statusCode() != 200) {
+				log.warn("Service Group of {} could not be retrieved (status={})", pid, sg.statusCode());
+				continue;
+			}
+			List<String> services = new ArrayList<>();
+			Matcher m = HREF.matcher(sg.body());
+			while (m.find()) {
+				final String href = m.group(1);
+				final int s = href.indexOf("/services/");
+				if (s > 0)
+					services.add(URLDecoder.decode(href.substring(s + 10).replace("+", "%2B"),
+												   StandardCharsets.UTF_8));
+			}
+			if (!services.isEmpty())
+				targets.add(new QueryTarget(pid, services));
+		}
+		return targets;
+	}
+
+	private Map<QueryType, Integer> parseMix() {
+		Map<QueryType, Integer> mix = new EnumMap<>(QueryType.class);
+		for (String m : mixSpec) {
+			final int sep = m.lastIndexOf(':');
+			if (sep < 0)
+				throw new IllegalArgumentException("Invalid mix entry: " + m);
+			final int weight = Integer.parseInt(m.substring(sep + 1).trim());
+			if (weight > 0)
+				mix.put(QueryType.fromKey(m.substring(0, sep).trim()), weight);
+		}
+		if (mix.isEmpty())
+			throw new IllegalArgumentException("The query mix must contain at least one query type");
+		return mix;
+	}
+
+	private Map<String, Object> report(double rate, Map<QueryType, LoadStats> stats) {
+		LoadStats total = new LoadStats("total");
+		stats.values().forEach(total::add);
+		System.out.printf("%nResults for %.0f queries/s (latency in milliseconds)%n", rate);
+		System.out.printf("%-18s %10s %10s %8s %9s %9s %9s %9s%n", "Query", "Completed", "Queries/s", "Errors%",
+						  "p50", "p90", "p99", "p99.9");
+		List<Map<String, Object>> queries = new ArrayList<>();
+		for (LoadStats s : stats.values()) {
+			print(s);
+			queries.add(s.toMap(stepDuration));
+		}
+		print(total);
+
+		Map<String, Object> step = new LinkedHashMap<>();
+		step.put("targetRate", rate);
+		step.put("total", total.toMap(stepDuration));
+		step.put("queries", queries);
+		return step;
+	}
+
+	private void print(LoadStats s) {
+		System.out.printf("%-18s %10d %10.1f %8.2f %9.2f %9.2f %9.2f %9.2f%n", s.getName(), s.getCompleted(),
+						  (double) s.getCompleted() / stepDuration, s.getErrorRate(), s.getLatency(50),
+						  s.getLatency(90), s.getLatency(99), s.getLatency(99.9));
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Collects the latency and outcome of the queries of one type sent during a load step. The latency is measured from
+ * the time the query was scheduled to be sent, so it includes any delay caused by the load generator or server not
+ * keeping up with the arrival rate.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+class LoadStats {
+	/**
+	 * The percentiles reported for the latency
+	 */
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private final String	name;
+	private final Histogram	latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(10), 3);
+	private final LongAdder	sent = new LongAdder();
+	private final LongAdder	unexpectedStatus = new LongAdder();
+	private final LongAdder	failed = new LongAdder();
+	private final LongAdder	dropped = new LongAdder();
+	private final LongAdder	invalidSignature = new LongAdder();
+
+	LoadStats(String name) {
+		this.name = name;
+	}
+
+	void sent() {
+		sent.increment();
+	}
+
+	/**
+	 * Records the completion of a query.
+	 *
+	 * @param nanos		the latency of the query
+	 * @param expected	indicates whether the response had an expected status code
+	 */
+	void completed(long nanos, boolean expected) {
+		latencies.recordValue(Math.min(nanos, latencies.getHighestTrackableValue()));
+		if (!expected)
+			unexpectedStatus.increment();
+	}
+
+	/**
+	 * Records a query that failed because no response was received, e.g. because of a connection error or timeout.
+	 */
+	void failed() {
+		failed.increment();
+	}
+
+	/**
+	 * Records a query that was not sent because the maximum number of queries in progress was reached.
+	 */
+	void dropped() {
+		dropped.increment();
+	}
+
+	/**
+	 * Records a response with a missing or invalid signature.
+	 */
+	void invalidSignature() {
+		invalidSignature.increment();
+	}
+
+	String getName() {
+		return name;
+	}
+
+	long getCompleted() {
+		return latencies.getTotalCount();
+	}
+
+	long getErrors() {
+		return unexpectedStatus.sum() + failed.sum() + dropped.sum() + invalidSignature.sum();
+	}
+
+	/**
+	 * @return	percentage of the queries that resulted in an error
+	 */
+	double getErrorRate() {
+		final long total = sent.sum() + dropped.sum();
+		return total > 0 ? 100.0 * getErrors() / total : 0;
+	}
+
+	/**
+	 * @param percentile	the percentile to get
+	 * @return	the latency at the given percentile in milliseconds
+	 */
+	double getLatency(double percentile) {
+		return latencies.getValueAtPercentile(percentile) / 1_000_000.0;
+	}
+
+	/**
+	 * Adds the results of the given statistics to this one.
+	 *
+	 * @param other	the statistics to add
+	 */
+	void add(LoadStats other) {
+		latencies.add(other.latencies);
+		sent.add(other.sent.sum());
+		unexpectedStatus.add(other.unexpectedStatus.sum());
+		failed.add(other.failed.sum());
+		dropped.add(other.dropped.sum());
+		invalidSignature.add(other.invalidSignature.sum());
+	}
+
+	/**
+	 * @param seconds	duration of the load step
+	 * @return	the results as a map that can be serialised to JSON, latencies are in milliseconds
+	 */
+	Map<String, Object> toMap(double seconds) {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("query", name);
+		m.put("sent", sent.sum());
+		m.put("completed", getCompleted());
+		m.put("throughput", getCompleted() / seconds);
+		m.put("unexpectedStatus", unexpectedStatus.sum());
+		m.put("failed", failed.sum());
+		m.put("dropped", dropped.sum());
+		m.put("invalidSignature", invalidSignature.sum());
+		m.put("errorRate", getErrorRate());
+		m.put("mean", latencies.getMean() / 1_000_000.0);
+		for (double p : PERCENTILES)
+			m.put("p" + (p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p)), getLatency(p));
+		m.put("max", latencies.getMaxValue() / 1_000_000.0);
+		return m;
+	}
+}
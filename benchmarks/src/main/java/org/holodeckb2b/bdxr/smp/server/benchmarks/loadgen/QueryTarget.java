@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A Participant that can be queried by the load generator together with the Services it supports.
+ *
+ * @param participantId	the Participant identifier, in "«scheme»::«value»" format
+ * @param services		the identifiers of the supported Services, in "«scheme»::«value»" format
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+record QueryTarget(String participantId, List<String> services) {
+
+	/**
+	 * @param r	the random generator to use
+	 * @return	one of the supported Services selected at random
+	 */
+	String randomService(Random r) {
+		return services.get(r.nextInt(services.size()));
+	}
+}
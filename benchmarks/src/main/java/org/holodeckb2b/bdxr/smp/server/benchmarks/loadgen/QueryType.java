@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Defines the types of queries the load generator can send to the query API. Each type knows how to construct the
+ * query path for a {@link QueryTarget} and which HTTP status codes are expected in response.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+enum QueryType {
+	/**
+	 * Peppol ServiceGroup query
+	 */
+	PEPPOL_SG("peppol-sg", false, Set.of(200)) {
+		@Override
+		String path(QueryTarget t, Random r) {
+			return "/" + encode(t.participantId());
+		}
+	},
+	/**
+	 * Peppol ServiceMetadata query
+	 */
+	PEPPOL_SMD("peppol-smd", true, Set.of(200)) {
+		@Override
+		String path(QueryTarget t, Random r) {
+			return "/" + encode(t.participantId()) + "/services/" + encode(t.randomService(r));
+		}
+	},
+	/**
+	 * OASIS SMP V2 ServiceGroup query
+	 */
+	OASIS_SG("oasis-sg", false, Set.of(200)) {
+		@Override
+		String path(QueryTarget t, Random r) {
+			return "/bdxr-smp-2/" + encode(t.participantId());
+		}
+	},
+	/**
+	 * OASIS SMP V2 ServiceMetadata query
+	 */
+	OASIS_SMD("oasis-smd", true, Set.of(200)) {
+		@Override
+		String path(QueryTarget t, Random r) {
+			return "/bdxr-smp-2/" + encode(t.participantId()) + "/services/" + encode(t.randomService(r));
+		}
+	},
+	/**
+	 * Peppol Business Card query, which results in a 404 for Participants not published in the directory
+	 */
+	BUSINESS_CARD("businesscard", false, Set.of(200, 404)) {
+		@Override
+		String path(QueryTarget t, Random r) {
+			return "/businesscard/" + encode(t.participantId());
+		}
+	},
+	/**
+	 * Peppol ServiceGroup query for a Participant that is not registered
+	 */
+	UNKNOWN_ID("unknown", false, Set.of(404)) {
+		@Override
+		String path(QueryTarget t, Random r) {
+			String pid = t.participantId();
+			return "/" + encode(pid.substring(0, pid.indexOf("::") + 2) + "0000:unknown-" + r.nextInt(1_000_000));
+		}
+	},
+	/**
+	 * Peppol ServiceMetadata query using one of the alternative, but valid, URL encodings of the identifiers
+	 */
+	ENCODING_VARIANT("encoding-variant", true, Set.of(200)) {
+		@Override
+		String path(QueryTarget t, Random r) {
+			final String pid = t.participantId();
+			final String sid = t.randomService(r);
+			return switch (r.nextInt(3)) {
+			// Only encode the characters that must be encoded in a path
+			case 0 -> "/" + encodeMinimal(pid) + "/services/" + encodeMinimal(sid);
+			// Use lower case hex digits in the escape sequences
+			case 1 -> "/" + encodeLowerCase(pid) + "/services/" + encodeLowerCase(sid);
+			// Mix of the above
+			default -> "/" + encodeMinimal(pid) + "/services/" + encodeLowerCase(sid);
+			};
+		}
+	};
+
+	private final String		key;
+	private final boolean		signed;
+	private final Set<Integer>	expectedStatus;
+
+	QueryType(String key, boolean signed, Set<Integer> expectedStatus) {
+		this.key = key;
+		this.signed = signed;
+		this.expectedStatus = expectedStatus;
+	}
+
+	/**
+	 * Constructs the query path for the given target.
+	 *
+	 * @param t	the target to query
+	 * @param r	random generator to use when the type has choices, e.g. which service to query
+	 * @return	the query path, with the identifiers URL encoded
+	 */
+	abstract String path(QueryTarget t, Random r);
+
+	/**
+	 * @return	the key of the type as used in the mix configuration and the results
+	 */
+	String key() {
+		return key;
+	}
+
+	/**
+	 * @return	<code>true</code> when a successful response should be signed by the SMP
+	 */
+	boolean isSigned() {
+		return signed;
+	}
+
+	/**
+	 * @param status	the HTTP status code of the response
+	 * @return	<code>true</code> when the status code is expected for this type of query
+	 */
+	boolean isExpected(int status) {
+		return expectedStatus.contains(status);
+	}
+
+	/**
+	 * Gets the query type with the given key.
+	 *
+	 * @param key	the key of the query type
+	 * @return	the query type
+	 * @throws IllegalArgumentException when there is no query type with the given key
+	 */
+	static QueryType fromKey(String key) {
+		for (QueryType t : values())
+			if (t.key.equals(key))
+				return t;
+		throw new IllegalArgumentException("Unknown query type: " + key);
+	}
+
+	static String encode(String id) {
+		return URLEncoder.encode(id, StandardCharsets.UTF_8).replace("+", "%20");
+	}
+
+	private static String encodeMinimal(String id) {
+		return id.replace("%", "%25").replace("#", "%23").replace("?", "%3F").replace("/", "%2F")
+				 .replace(" ", "%20");
+	}
+
+	private static String encodeLowerCase(String id) {
+		StringBuilder sb = new StringBuilder(encode(id));
+		for (int i = sb.indexOf("%"); i >= 0; i = sb.indexOf("%", i + 1))
+			sb.replace(i + 1, i + 3, sb.substring(i + 1, i + 3).toLowerCase());
+		return sb.toString();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.io.ByteArrayInputStream;
+import java.security.Key;
+import java.security.cert.X509Certificate;
+
+import javax.xml.XMLConstants;
+import javax.xml.crypto.AlgorithmMethod;
+import javax.xml.crypto.KeySelector;
+import javax.xml.crypto.KeySelectorException;
+import javax.xml.crypto.KeySelectorResult;
+import javax.xml.crypto.XMLCryptoContext;
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMValidateContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.X509Data;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+/**
+ * Validates the signature the SMP server adds to the query responses. The signature is validated using the
+ * certificate included in the <code>KeyInfo</code> of the signature, it is not checked whether the certificate is
+ * trusted as the goal is to check that the server creates correct signatures under load.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+class SignatureValidator {
+
+	private static final XMLSignatureFactory SIG_FACTORY = XMLSignatureFactory.getInstance("DOM");
+
+	private static final ThreadLocal<DocumentBuilderFactory> DBF = ThreadLocal.withInitial(() -> {
+		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+		dbf.setNamespaceAware(true);
+		try {
+			dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+		} catch (Exception unsupported) {
+			// Not a problem as the responses come from a trusted server
+		}
+		return dbf;
+	});
+
+	/**
+	 * Checks whether the given response document contains a valid signature.
+	 *
+	 * @param response	the response document
+	 * @return	<code>true</code> when the document contains a valid signature, <code>false</code> when the signature
+	 * 			is missing or invalid
+	 */
+	static boolean isValid(byte[] response) {
+		try {
+			Document doc = DBF.get().newDocumentBuilder().parse(new ByteArrayInputStream(response));
+			NodeList signatures = doc.getElementsByTagNameNS(XMLSignature.XMLNS, "Signature");
+			if (signatures.getLength() == 0)
+				return false;
+			DOMValidateContext ctx = new DOMValidateContext(new X509KeySelector(), signatures.item(0));
+			return SIG_FACTORY.unmarshalXMLSignature(ctx).validate(ctx);
+		} catch (Exception invalid) {
+			return false;
+		}
+	}
+
+	/**
+	 * Selects the public key of the first certificate included in the <code>KeyInfo</code>.
+	 */
+	private static class X509KeySelector extends KeySelector {
+		@Override
+		public KeySelectorResult select(KeyInfo keyInfo, Purpose purpose, AlgorithmMethod method,
+										XMLCryptoContext context) throws KeySelectorException {
+			if (keyInfo != null)
+				for (Object ki : keyInfo.getContent())
+					if (ki instanceof X509Data x509Data)
+						for (Object d : x509Data.getContent())
+							if (d instanceof X509Certificate cert) {
+								final Key key = cert.getPublicKey();
+								return () -> key;
+							}
+			throw new KeySelectorException("No certificate found in signature");
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.holodeckb2b.bdxr.smp.server.queryapi.AccessLog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Converts the query access log of a server into a capture file that can be replayed using the {@link TrafficReplay}.
+ * The capture contains the path, logged request headers, arrival time, status code and response digest of each query
+ * (see {@link AccessLog} for how to configure which headers are logged). Records written by a server version that
+ * did not yet log the query path are skipped.
+ * <p>
+ * The access log files must be given in chronological order, i.e. starting with the oldest rolled over file. As the
+ * records in the access log are written when the query completes, they are not strictly ordered by their arrival
+ * time. The records are therefore re-ordered within a window of one minute before being written to the capture. Run
+ * it using:<br/>
+ * <code>java -cp benchmarks.jar org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen.TrafficCapture «capture file»
+ * «access log file»...</code>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class TrafficCapture {
+	/**
+	 * Maximum difference in milliseconds between the time a query was received and the time it was logged
+	 */
+	private static final long REORDER_WINDOW = 60_000;
+
+	private final ObjectMapper	mapper = new ObjectMapper();
+	private final PriorityQueue<CapturedQuery> pending =
+										new PriorityQueue<>(Comparator.comparingLong(CapturedQuery::timestamp));
+	private final Path	captureFile;
+	private CaptureWriter	writer;
+	private long	latest;
+	private long	skipped;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: TrafficCapture «capture file» «access log file»...");
+			System.exit(1);
+		}
+		TrafficCapture capture = new TrafficCapture(Path.of(args[0]));
+		for (int i = 1; i < args.length; i++)
+			capture.convert(Path.of(args[i]));
+		capture.close();
+	}
+
+	TrafficCapture(Path captureFile) {
+		this.captureFile = captureFile;
+	}
+
+	/**
+	 * Adds the queries from the given access log file to the capture.
+	 *
+	 * @param accessLog	path of the access log file
+	 * @throws IOException	when the access log could not be read or the capture could not be written
+	 */
+	void convert(Path accessLog) throws IOException {
+		System.out.printf("Reading %s%n", accessLog);
+		try (BufferedReader r = Files.newBufferedReader(accessLog, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = r.readLine()) != null) {
+				if (line.isBlank())
+					continue;
+				CapturedQuery q = parse(mapper.readTree(line));
+				if (q == null) {
+					skipped++;
+					continue;
+				}
+				pending.add(q);
+				latest = Math.max(latest, q.timestamp());
+				while (pending.peek().timestamp() < latest - REORDER_WINDOW)
+					write(pending.poll());
+			}
+		}
+	}
+
+	/**
+	 * Writes the remaining queries and closes the capture file.
+	 *
+	 * @throws IOException	when the capture could not be written
+	 */
+	void close() throws IOException {
+		while (!pending.isEmpty())
+			write(pending.poll());
+		if (writer == null) {
+			System.out.println("No replayable queries found, no capture created");
+			return;
+		}
+		writer.close();
+		System.out.printf("Captured %d queries in %s (%d records skipped)%n", writer.getCount(), captureFile, skipped);
+	}
+
+	private void write(CapturedQuery q) throws IOException {
+		if (writer == null)
+			writer = new CaptureWriter(captureFile, q.timestamp());
+		writer.write(q);
+	}
+
+	/**
+	 * Converts a record of the access log into a captured query.
+	 *
+	 * @param r	the access log record
+	 * @return	the captured query, <code>null</code> if the record does not contain the query path
+	 */
+	static CapturedQuery parse(JsonNode r) {
+		final JsonNode path = r.get("path");
+		if (path == null || path.isNull())
+			return null;
+		Map<String, String> headers = new LinkedHashMap<>();
+		final JsonNode h = r.get("headers");
+		if (h != null)
+			h.fields().forEachRemaining(e -> headers.put(e.getKey(), e.getValue().asText()));
+		final JsonNode digest = r.get("digest");
+		return new CapturedQuery(Instant.parse(r.get("timestamp").asText()).toEpochMilli(), path.asText(), headers,
+								 r.get("status").asInt(), digest != null ? digest.asText() : null);
+	}
+}
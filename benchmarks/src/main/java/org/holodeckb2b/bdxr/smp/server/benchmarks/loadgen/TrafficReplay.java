@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+
+import org.holodeckb2b.bdxr.smp.server.queryapi.ResponseDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays the queries from a capture file created by the {@link TrafficCapture} against a server. The queries are
+ * sent at the same relative time as they were received by the original server, optionally sped up or slowed down by
+ * a factor, so the replay reproduces the burstiness and Participant popularity skew of the captured traffic. As with
+ * the {@link LoadGenerator} the queries are sent using an open model and latency is measured from the time the query
+ * was scheduled to be sent.
+ * <p>
+ * For each query the status code of the response is compared to the one of the original response and, when the
+ * capture contains it, the {@link ResponseDigest digest} of the response content is compared to the original one.
+ * Note that the digests will only match when the server has the same meta-data as the server the traffic was captured
+ * from. The latency percentiles, grouped by the original status code, and the number of mismatches are reported on
+ * the console and in a JSON file, together with the first mismatching queries.
+ * <p>
+ * All settings can be found in <code>replay.properties</code> and can be changed using command line arguments, e.g.
+ * <code>--replay.capture_file=prod.capture --replay.speed=2</code>. Run it using:<br/>
+ * <code>java -cp benchmarks.jar org.holodeckb2b.bdxr.smp.server.benchmarks.loadgen.TrafficReplay</code>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Configuration
+@Slf4j
+public class TrafficReplay implements ApplicationRunner {
+
+	@Value("${replay.base_url:http://localhost}")
+	private String		baseUrl;
+	@Value("${replay.capture_file:query-traffic.capture}")
+	private String		captureFile;
+	@Value("${replay.speed:1.0}")
+	private double		speed;
+	@Value("${replay.max_in_flight:5000}")
+	private int			maxInFlight;
+	@Value("${replay.timeout:10}")
+	private int			timeout;
+	@Value("${replay.compare_digests:true}")
+	private boolean		compareDigests;
+	@Value("${replay.reported_mismatches:20}")
+	private int			reportedMismatches;
+	@Value("${replay.result_file:replay-result.json}")
+	private String		resultFile;
+
+	private HttpClient		client;
+	private final AtomicInteger	inFlight = new AtomicInteger();
+	private final LongAdder		digestsCompared = new LongAdder();
+	private final LongAdder		digestMismatches = new LongAdder();
+	private final AtomicInteger	mismatchCount = new AtomicInteger();
+	private final Queue<Map<String, Object>> mismatches = new ConcurrentLinkedQueue<>();
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(TrafficReplay.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.properties("spring.config.name=replay")
+				.run(args);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws IOException, InterruptedException {
+		if (speed <= 0)
+			throw new IllegalArgumentException("The replay speed must be positive");
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+										.connectTimeout(Duration.ofSeconds(timeout)).build();
+		final Map<Integer, LoadStats> stats = new TreeMap<>();
+		final long start;
+		final long end;
+		try (CaptureReader reader = new CaptureReader(Path.of(captureFile))) {
+			log.info("Replaying queries from {} at {}x speed", captureFile, speed);
+			start = System.nanoTime();
+			CapturedQuery q;
+			while ((q = reader.read()) != null) {
+				final long scheduled = start + (long) (TimeUnit.MILLISECONDS.toNanos(q.timestamp() - reader.getStart())
+																											/ speed);
+				long now;
+				while ((now = System.nanoTime()) < scheduled)
+					LockSupport.parkNanos(scheduled - now);
+				final int status = q.status();
+				send(q, scheduled, stats.computeIfAbsent(status, s -> new LoadStats("status " + s)));
+			}
+			end = System.nanoTime();
+		}
+		final long drainEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout + 1);
+		while (inFlight.get() > 0 && System.nanoTime() < drainEnd)
+			Thread.sleep(10);
+
+		report(stats, Math.max((end - start) / 1e9, 1));
+	}
+
+	/**
+	 * Sends the captured query asynchronously and compares the response with the original one.
+	 */
+	private void send(CapturedQuery q, long scheduled, LoadStats stats) {
+		if (inFlight.get() >= maxInFlight) {
+			stats.dropped();
+			return;
+		}
+		inFlight.incrementAndGet();
+		stats.sent();
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + q.path()))
+												 .timeout(Duration.ofSeconds(timeout)).GET();
+		q.headers().forEach(request::header);
+		client.sendAsync(request.build(), BodyHandlers.ofByteArray()).whenComplete((response, failure) -> {
+			final long latency = System.nanoTime() - scheduled;
+			inFlight.decrementAndGet();
+			if (failure != null) {
+				log.debug("Query {} failed : {}", q.path(), failure.getMessage());
+				stats.failed();
+				return;
+			}
+			final boolean sameStatus = response.statusCode() == q.status();
+			stats.completed(latency, sameStatus);
+			if (!sameStatus)
+				addMismatch(q, response.statusCode(), "status");
+			else if (compareDigests && q.digest() != null) {
+				digestsCompared.increment();
+				if (!q.digest().equals(ResponseDigest.calculate(getContent(response)))) {
+					digestMismatches.increment();
+					addMismatch(q, response.statusCode(), "content");
+				}
+			}
+		});
+	}
+
+	/**
+	 * Gets the content of the response, decompressing it when the server used gzip encoding.
+	 */
+	private static byte[] getContent(HttpResponse<byte[]> response) {
+		if (!"gzip".equalsIgnoreCase(response.headers().firstValue("Content-Encoding").orElse("")))
+			return response.body();
+		try (GZIPInputStream gz = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+			return gz.readAllBytes();
+		} catch (IOException invalidContent) {
+			return response.body();
+		}
+	}
+
+	private void addMismatch(CapturedQuery q, int status, String reason) {
+		log.debug("Response to query {} differs from original ({})", q.path(), reason);
+		if (mismatchCount.incrementAndGet() <= reportedMismatches) {
+			Map<String, Object> m = new LinkedHashMap<>();
+			m.put("path", q.path());
+			m.put("reason", reason);
+			m.put("originalStatus", q.status());
+			m.put("status", status);
+			mismatches.add(m);
+		}
+	}
+
+	private void report(Map<Integer, LoadStats> stats, double seconds) throws IOException {
+		LoadStats total = new LoadStats("total");
+		stats.values().forEach(total::add);
+		System.out.printf("%nReplay results at %.2fx speed over %.0f s (latency in milliseconds)%n", speed, seconds);
+		System.out.printf("%-18s %10s %10s %8s %9s %9s %9s %9s%n", "Original", "Completed", "Queries/s", "Errors%",
+						  "p50", "p90", "p99", "p99.9");
+		List<Map<String, Object>> byStatus = new ArrayList<>();
+		for (LoadStats s : stats.values()) {
+			print(s, seconds);
+			byStatus.add(s.toMap(seconds));
+		}
+		print(total, seconds);
+		System.out.printf("%nStatus code mismatches: %d, content mismatches: %d of %d compared%n",
+						  mismatchCount.get() - digestMismatches.sum(), digestMismatches.sum(), digestsCompared.sum());
+
+		Map<String, Object> results = new LinkedHashMap<>();
+		results.put("baseUrl", baseUrl);
+		results.put("captureFile", captureFile);
+		results.put("timestamp", Instant.now().toString());
+		results.put("speed", speed);
+		results.put("duration", seconds);
+		results.put("total", total.toMap(seconds));
+		results.put("byOriginalStatus", byStatus);
+		results.put("digestsCompared", digestsCompared.sum());
+		results.put("digestMismatches", digestMismatches.sum());
+		results.put("mismatches", new ArrayList<>(mismatches));
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(resultFile), results);
+		log.info("Results written to {}", resultFile);
+	}
+
+	private void print(LoadStats s, double seconds) {
+		System.out.printf("%-18s %10d %10.1f %8.2f %9.2f %9.2f %9.2f %9.2f%n", s.getName(), s.getCompleted(),
+						  s.getCompleted() / seconds, s.getErrorRate(), s.getLatency(50), s.getLatency(90),
+						  s.getLatency(99), s.getLatency(99.9));
+	}
+}
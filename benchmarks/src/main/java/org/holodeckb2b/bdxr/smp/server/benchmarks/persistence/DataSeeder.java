@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.persistence;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
+import org.holodeckb2b.bdxr.smp.datamodel.impl.IDSchemeImpl;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.benchmarks.Fixtures;
+import org.holodeckb2b.bdxr.smp.server.db.entities.AuditLogEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedProcessIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EndpointEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessGroupEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessInfoEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.TransportProfileEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seeds the database with the meta-data used by the persistence benchmark. The data consists of a fixed set of
+ * Service Metadata Templates and Endpoints and a variable number of Participants that each have two additional
+ * identifiers, are bound to one or more templates and have an audit log entry.
+ * <p>
+ * The Participants are numbered and all their data is derived from this number, so the benchmark can query for
+ * existing data without keeping track of it. Seeding is incremental, i.e. when the database already contains
+ * Participants only the missing ones are added. This means that the benchmark should use a dedicated database that
+ * only contains seeded data.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class DataSeeder {
+	/**
+	 * Number of Service Metadata Templates (and Services) to create
+	 */
+	public static final int TEMPLATES = 20;
+	/**
+	 * Number of Endpoints to create, each template uses two of them
+	 */
+	public static final int ENDPOINTS = 10;
+	/**
+	 * Users and actions used for the audit log entries
+	 */
+	public static final String[] USERS = { "admin", "operator1", "operator2", "operator3", "import" };
+	public static final String[] ACTIONS = { "Add Participant", "Update Participant", "Register in SML",
+											 "Publish to directory" };
+	/**
+	 * The period over which the audit log entries are spread, ending at the start of the seeding
+	 */
+	public static final int AUDIT_PERIOD_DAYS = 365;
+
+	/**
+	 * The ID Scheme of the additional identifiers
+	 */
+	private static final String ADDITIONAL_ID_SCHEME = "iso6523-actorid-upis";
+
+	@PersistenceContext
+	private EntityManager	em;
+
+	@Autowired
+	private PlatformTransactionManager	txManager;
+
+	@Value("${benchmark.seed.batch_size:1000}")
+	private int	batchSize;
+
+	/**
+	 * The data created by the seeder that is needed to query it.
+	 *
+	 * @param participantScheme	the ID Scheme used for the Participant identifiers
+	 * @param templates			the oids of the Service Metadata Templates
+	 * @param endpoints			the oids of the Endpoints
+	 * @param participants		the number of Participants in the database
+	 * @param auditPeriodEnd	end of the period covered by the audit log entries
+	 */
+	public record SeededData(IDSchemeEntity participantScheme, List<Long> templates, List<Long> endpoints,
+							 int participants, Instant auditPeriodEnd) {}
+
+	/**
+	 * @param n	number of the Participant
+	 * @return	the identifier value of the n-th Participant
+	 */
+	public static String participantId(long n) {
+		return String.format("0088:%013d", n);
+	}
+
+	/**
+	 * @param n	number of the Participant
+	 * @return	the identifier value of the first additional identifier of the n-th Participant
+	 */
+	public static String additionalId(long n) {
+		return String.format("0192:%09d", n);
+	}
+
+	/**
+	 * @param n	number of the Participant
+	 * @return	the name of the n-th Participant
+	 */
+	public static String participantName(long n) {
+		return String.format("Company %07d", n);
+	}
+
+	/**
+	 * Ensures that the database contains the given number of Participants.
+	 *
+	 * @param participants	the number of Participants that should be available
+	 * @return	information on the seeded data
+	 */
+	public SeededData seed(int participants) {
+		TransactionTemplate tx = new TransactionTemplate(txManager);
+		SeededData base = tx.execute(s -> seedBaseData());
+		long existing = tx.execute(s -> em.createQuery("select count(p) from Participant p", Long.class)
+											.getSingleResult());
+		if (existing > participants)
+			log.warn("Database already contains {} Participants, more than the requested {}", existing, participants);
+		else if (existing < participants)
+			log.info("Seeding {} Participants", participants - existing);
+		final long start = System.currentTimeMillis();
+		for (long n = existing; n < participants; n += batchSize) {
+			final long first = n;
+			final long last = Math.min(n + batchSize, participants);
+			tx.executeWithoutResult(s -> {
+				IDSchemeEntity scheme = em.find(IDSchemeEntity.class, base.participantScheme().getOid());
+				List<ServiceMetadataTemplateEntity> templates = base.templates().stream()
+											.map(oid -> em.find(ServiceMetadataTemplateEntity.class, oid)).toList();
+				for (long i = first; i < last; i++) {
+					em.persist(createParticipant(i, scheme, templates));
+					em.persist(createAuditLogEntry(i, base.auditPeriodEnd()));
+				}
+				em.flush();
+				em.clear();
+			});
+			if (last % (batchSize * 100L) == 0)
+				log.info("Seeded {} of {} Participants", last, participants);
+		}
+		if (existing < participants)
+			log.info("Seeded {} Participants in {} s", participants - existing,
+					 (System.currentTimeMillis() - start) / 1000);
+
+		return new SeededData(base.participantScheme(), base.templates(), base.endpoints(),
+							  Math.max(participants, (int) existing), base.auditPeriodEnd());
+	}
+
+	/**
+	 * Creates the ID Schemes, Services, Processes, Endpoints and Service Metadata Templates if they do not exist yet.
+	 *
+	 * @return	the base data, with the number of Participants set to 0
+	 */
+	private SeededData seedBaseData() {
+		List<IDSchemeEntity> schemes = em.createQuery("select s from IDScheme s where s.schemeId = :sid",
+													  IDSchemeEntity.class)
+										 .setParameter("sid", Fixtures.PARTICIPANT_SCHEME).getResultList();
+		if (!schemes.isEmpty()) {
+			List<Long> templates = em.createQuery("select t.oid from ServiceMetadataTemplate t order by t.oid",
+												  Long.class).getResultList();
+			List<Long> endpoints = em.createQuery("select e.oid from Endpoint e order by e.oid", Long.class)
+									 .getResultList();
+			Instant auditPeriodEnd = em.createQuery("select min(a.timestamp) from AuditLog a", Instant.class)
+									   .getSingleResult();
+			return new SeededData(schemes.get(0), templates, endpoints, 0,
+								  auditPeriodEnd != null ? auditPeriodEnd.plus(AUDIT_PERIOD_DAYS, ChronoUnit.DAYS)
+										  				 : Instant.now());
+		}
+
+		log.info("Seeding base data");
+		IDSchemeEntity partScheme = new IDSchemeEntity(Fixtures.PARTICIPANT_SCHEME, false);
+		IDSchemeEntity docScheme = new IDSchemeEntity(Fixtures.DOCUMENT_SCHEME, true);
+		IDSchemeEntity procScheme = new IDSchemeEntity(Fixtures.PROCESS_SCHEME, true);
+		em.persist(partScheme);
+		em.persist(docScheme);
+		em.persist(procScheme);
+
+		TransportProfileEntity tp = new TransportProfileEntity(new EmbeddedIdentifier(Fixtures.TRANSPORT_PROFILE));
+		em.persist(tp);
+		List<EndpointEntity> endpoints = new ArrayList<>(ENDPOINTS);
+		for (int i = 0; i < ENDPOINTS; i++) {
+			EndpointEntity ep = new EndpointEntity();
+			ep.setName("Endpoint " + i);
+			ep.setTransportProfile(tp);
+			try {
+				ep.setEndpointURL(new URL("https://ap" + i + ".access-point.example.org/as4"));
+			} catch (MalformedURLException invalidURL) {
+				throw new IllegalStateException(invalidURL);
+			}
+			em.persist(ep);
+			endpoints.add(ep);
+		}
+
+		ProcessEntity proc = new ProcessEntity(new EmbeddedProcessIdentifier(procScheme, Fixtures.PROCESS_ID));
+		em.persist(proc);
+		List<ServiceMetadataTemplateEntity> templates = new ArrayList<>(TEMPLATES);
+		for (int i = 0; i < TEMPLATES; i++) {
+			ServiceEntity svc = new ServiceEntity(new EmbeddedIdentifier(docScheme, Fixtures.DOCUMENT_ID + "-" + i));
+			em.persist(svc);
+			ServiceMetadataTemplateEntity smt = new ServiceMetadataTemplateEntity();
+			smt.setName("Template " + i);
+			smt.setService(svc);
+			ProcessInfoEntity pi = new ProcessInfoEntity();
+			pi.setProcess(proc);
+			ProcessGroupEntity pg = new ProcessGroupEntity();
+			pg.getProcessInfo().add(pi);
+			pg.addEndpoint(endpoints.get(i % ENDPOINTS));
+			pg.addEndpoint(endpoints.get((i + 1) % ENDPOINTS));
+			smt.addProcessGroup(pg);
+			em.persist(smt);
+			templates.add(smt);
+		}
+		em.flush();
+
+		return new SeededData(partScheme, templates.stream().map(t -> t.getOid()).toList(),
+							  endpoints.stream().map(e -> e.getOid()).toList(), 0, Instant.now());
+	}
+
+	private ParticipantEntity createParticipant(long n, IDSchemeEntity scheme,
+												List<ServiceMetadataTemplateEntity> templates) {
+		ParticipantEntity p = new ParticipantEntity();
+		p.setId(new EmbeddedIdentifier(scheme, participantId(n)));
+		p.setName(participantName(n));
+		p.setRegistrationCountry("NL");
+		p.setRegisteredInSML(n % 10 != 0);
+		p.setPublishedInDirectory(n % 3 == 0);
+		IDSchemeImpl addIdScheme = new IDSchemeImpl(ADDITIONAL_ID_SCHEME, false);
+		p.addAdditionalId(new IdentifierImpl(additionalId(n), addIdScheme));
+		p.addAdditionalId(new IdentifierImpl(String.format("9925:BE%010d", n), addIdScheme));
+		// Most Participants support one or two services, some support more
+		int bindings = n % 50 == 0 ? 5 : 1 + (int) (n % 2);
+		for (int b = 0; b < bindings; b++)
+			p.addBinding(templates.get((int) ((n + b * 7) % templates.size())));
+		return p;
+	}
+
+	private AuditLogEntity createAuditLogEntry(long n, Instant periodEnd) {
+		long offset = (n * 7919) % (AUDIT_PERIOD_DAYS * 24 * 3600L);
+		return new AuditLogEntity(new AuditLogRecord(periodEnd.minusSeconds(offset), USERS[(int) (n % USERS.length)],
+													 ACTIONS[(int) (n % ACTIONS.length)],
+													 Fixtures.PARTICIPANT_SCHEME + "::" + participantId(n), null));
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Collects the latency and number of executed SQL statements of the executions of a benchmarked operation.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+class OperationStats {
+	/**
+	 * The percentiles reported for the latency
+	 */
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private final String	operation;
+	private final Histogram	latencies = new Histogram(TimeUnit.MINUTES.toNanos(10), 3);
+	private long	sqlStatements;
+	private long	sqlNanos;
+
+	OperationStats(String operation) {
+		this.operation = operation;
+	}
+
+	/**
+	 * Records an execution of the operation.
+	 *
+	 * @param nanos			time it took to execute the operation
+	 * @param statements	number of SQL statements executed by the operation
+	 * @param stmtNanos		time spent executing the SQL statements
+	 */
+	void record(long nanos, long statements, long stmtNanos) {
+		latencies.recordValue(Math.min(nanos, latencies.getHighestTrackableValue()));
+		sqlStatements += statements;
+		sqlNanos += stmtNanos;
+	}
+
+	String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @param percentile	the percentile to get
+	 * @return	the latency at the given percentile in microseconds
+	 */
+	double getLatency(double percentile) {
+		return latencies.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	/**
+	 * @return	average number of SQL statements executed per operation
+	 */
+	double getSqlStatementsPerOp() {
+		return latencies.getTotalCount() > 0 ? (double) sqlStatements / latencies.getTotalCount() : 0;
+	}
+
+	/**
+	 * @return	the results as a map that can be serialised to JSON, latencies are in microseconds
+	 */
+	Map<String, Object> toMap() {
+		Map<String, Object> m = new LinkedHashMap<>();
+		m.put("operation", operation);
+		m.put("count", latencies.getTotalCount());
+		m.put("mean", latencies.getMean() / 1000.0);
+		for (double p : PERCENTILES)
+			m.put("p" + (p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p)), getLatency(p));
+		m.put("max", latencies.getMaxValue() / 1000.0);
+		m.put("sqlStatementsPerOp", getSqlStatementsPerOp());
+		m.put("sqlTimePerOp", latencies.getTotalCount() > 0 ? sqlNanos / 1000.0 / latencies.getTotalCount() : 0);
+		return m;
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import javax.sql.DataSource;
+
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
+import org.holodeckb2b.bdxr.smp.datamodel.impl.IDSchemeImpl;
+import org.holodeckb2b.bdxr.smp.server.benchmarks.Fixtures;
+import org.holodeckb2b.bdxr.smp.server.benchmarks.persistence.DataSeeder.SeededData;
+import org.holodeckb2b.bdxr.smp.server.db.SQLStatementStatistics;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.AuditLogRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.EndpointRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceMetadataTemplateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Benchmarks the database queries of the repositories that are sensitive to the number of registered Participants.
+ * For each of the configured database sizes it first {@link DataSeeder seeds} the database with the required number
+ * of Participants and then executes each query a number of times using random input. It reports the latency
+ * percentiles and the number of SQL statements executed per query, both on the console and in a JSON file.
+ * <p>
+ * The benchmark uses an embedded H2 database by default. To run it against a local MariaDB database, activate the
+ * <i>mariadb</i> profile, i.e. <code>--spring.profiles.active=mariadb</code>. The settings can be changed using the
+ * properties from <code>persistence-benchmark.properties</code> as command line arguments, e.g.
+ * <code>--benchmark.participants=10000,100000</code>. Run it using:<br/>
+ * <code>java -cp benchmarks.jar org.holodeckb2b.bdxr.smp.server.benchmarks.persistence.PersistenceBenchmark</code>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Configuration
+@ImportAutoConfiguration({ DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+						   TransactionAutoConfiguration.class })
+@EntityScan("org.holodeckb2b.bdxr.smp.server.db.entities")
+@EnableJpaRepositories("org.holodeckb2b.bdxr.smp.server.db.repos")
+@Import(DataSeeder.class)
+@Slf4j
+public class PersistenceBenchmark implements ApplicationRunner {
+
+	@Autowired
+	private DataSeeder	seeder;
+	@Autowired
+	private ParticipantRepository	participants;
+	@Autowired
+	private ServiceMetadataTemplateRepository	templates;
+	@Autowired
+	private EndpointRepository	endpoints;
+	@Autowired
+	private AuditLogRepository	auditLog;
+	@Autowired
+	private PlatformTransactionManager	txManager;
+	@Autowired
+	private DataSource	dataSource;
+
+	@Value("${benchmark.participants:10000,100000,1000000}")
+	private int[]	sizes;
+	@Value("${benchmark.warmup:50}")
+	private int		warmup;
+	@Value("${benchmark.iterations:500}")
+	private int		iterations;
+	@Value("${benchmark.result_file:persistence-result.json}")
+	private String	resultFile;
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(PersistenceBenchmark.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.properties("spring.config.name=persistence-benchmark")
+				.run(args);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws IOException, SQLException {
+		Map<String, Object> results = new LinkedHashMap<>();
+		results.put("database", getDatabaseInfo());
+		results.put("timestamp", Instant.now().toString());
+		results.put("warmup", warmup);
+		results.put("iterations", iterations);
+		List<Map<String, Object>> runs = new ArrayList<>();
+		results.put("runs", runs);
+
+		int[] ordered = sizes.clone();
+		Arrays.sort(ordered);
+		for (int size : ordered) {
+			SeededData data = seeder.seed(size);
+			List<OperationStats> stats = runOperations(data);
+			report(data.participants(), stats);
+			Map<String, Object> run = new LinkedHashMap<>();
+			run.put("participants", data.participants());
+			run.put("operations", stats.stream().map(OperationStats::toMap).toList());
+			runs.add(run);
+		}
+
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(resultFile), results);
+		log.info("Results written to {}", resultFile);
+	}
+
+	/**
+	 * Executes the benchmarked operations. Each execution is done in its own read-only transaction, like when executed
+	 * by the services, and gets a random Participant number as input.
+	 *
+	 * @param data	the seeded data
+	 * @return	the statistics of each operation
+	 */
+	private List<OperationStats> runOperations(SeededData data) {
+		final int size = data.participants();
+		final IDSchemeEntity scheme = data.participantScheme();
+		final IDSchemeImpl addIdScheme = new IDSchemeImpl(Fixtures.PARTICIPANT_SCHEME, false);
+		final List<Long> smt = data.templates();
+		final List<Long> eps = data.endpoints();
+		final Instant auditEnd = data.auditPeriodEnd();
+		final PageRequest firstPage = PageRequest.of(0, 50);
+
+		Map<String, IntFunction<Object>> operations = new LinkedHashMap<>();
+		operations.put("participant.findByIdentifier", n ->
+				participants.findByIdentifier(new EmbeddedIdentifier(scheme, DataSeeder.participantId(n))));
+		operations.put("participant.findByIdentifier.notFound", n ->
+				participants.findByIdentifier(new EmbeddedIdentifier(scheme, DataSeeder.participantId(size + n))));
+		operations.put("participant.findByAdditionalId", n ->
+				participants.findByAdditionalId(new IdentifierImpl(DataSeeder.additionalId(n), addIdScheme)));
+		// The prefix of the name matches 100 Participants
+		operations.put("participant.findByLcNameStartsWith", n ->
+				participants.findByLcNameStartsWith(DataSeeder.participantName(n).toLowerCase().substring(0, 13)));
+		operations.put("participant.countParticipantsSupporting", n ->
+				participants.countParticipantsSupporting(smt.get(n % smt.size())));
+		operations.put("participant.findByBindingsContains", n ->
+				participants.findByBindingsContains(templates.getReferenceById(smt.get(n % smt.size())), firstPage));
+		operations.put("participant.findByRegisteredInSML", n ->
+				participants.findByRegisteredInSML(false, PageRequest.of(n % 10, 50)));
+		operations.put("smt.findByEndpoint", n ->
+				templates.findByEndpoint(endpoints.getReferenceById(eps.get(n % eps.size()))));
+		operations.put("auditlog.findByUserAndAction", n ->
+				auditLog.findAll(AuditLogRepository.orderByTimestamp(AuditLogRepository.all()
+								.and(AuditLogRepository.forUser(DataSeeder.USERS[n % DataSeeder.USERS.length]))
+								.and(AuditLogRepository.ofAction(DataSeeder.ACTIONS[n % DataSeeder.ACTIONS.length]))),
+								 firstPage));
+		operations.put("auditlog.findBySubject", n ->
+				auditLog.findAll(AuditLogRepository.orderByTimestamp(AuditLogRepository.all()
+								.and(AuditLogRepository.onSubject(Fixtures.PARTICIPANT_SCHEME + "::"
+																  + DataSeeder.participantId(n)))), firstPage));
+		operations.put("auditlog.findInWeek", n -> {
+			Instant to = auditEnd.minus(n % DataSeeder.AUDIT_PERIOD_DAYS, ChronoUnit.DAYS);
+			return auditLog.findAll(AuditLogRepository.orderByTimestamp(AuditLogRepository.all()
+								.and(AuditLogRepository.after(to.minus(7, ChronoUnit.DAYS)))
+								.and(AuditLogRepository.before(to))), firstPage);
+		});
+
+		TransactionTemplate tx = new TransactionTemplate(txManager);
+		tx.setReadOnly(true);
+		Random random = new Random(size);
+		List<OperationStats> results = new ArrayList<>(operations.size());
+		for (Map.Entry<String, IntFunction<Object>> op : operations.entrySet()) {
+			log.info("Benchmarking {} with {} Participants", op.getKey(), size);
+			for (int i = 0; i < warmup; i++) {
+				final int n = random.nextInt(size);
+				tx.execute(s -> op.getValue().apply(n));
+			}
+			OperationStats stats = new OperationStats(op.getKey());
+			for (int i = 0; i < iterations; i++) {
+				final int n = random.nextInt(size);
+				final long statements = SQLStatementStatistics.getStatementCount();
+				final long stmtNanos = SQLStatementStatistics.getStatementNanos();
+				final long start = System.nanoTime();
+				tx.execute(s -> op.getValue().apply(n));
+				stats.record(System.nanoTime() - start, SQLStatementStatistics.getStatementCount() - statements,
+							 SQLStatementStatistics.getStatementNanos() - stmtNanos);
+			}
+			results.add(stats);
+		}
+		return results;
+	}
+
+	private void report(int size, List<OperationStats> stats) {
+		System.out.printf("%nResults for %d Participants (latency in microseconds)%n", size);
+		System.out.printf("%-42s %10s %10s %10s %10s %8s%n", "Operation", "p50", "p90", "p99", "p99.9", "SQL/op");
+		for (OperationStats s : stats)
+			System.out.printf("%-42s %10.1f %10.1f %10.1f %10.1f %8.2f%n", s.getOperation(), s.getLatency(50),
+							  s.getLatency(90), s.getLatency(99), s.getLatency(99.9), s.getSqlStatementsPerOp());
+	}
+
+	private String getDatabaseInfo() throws SQLException {
+		try (Connection c = dataSource.getConnection()) {
+			DatabaseMetaData md = c.getMetaData();
+			return md.getDatabaseProductName() + " " + md.getDatabaseProductVersion();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.holodeckb2b.bdxr.smp.server.benchmarks.Fixtures;
+import org.holodeckb2b.bdxr.smp.server.services.query.IQueryResponder;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Benchmarks the mapping of a query path to the {@link IQueryResponder} that handles it by the {@link QueryMapper}.
+ * It uses the mapping included in the server distribution, with the query paths matching the first, second and last
+ * mapping and one that doesn't match any mapping.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryMapperBenchmark {
+
+	private static final String QUERY_MAPPING = """
+			/bdxr-smp-2/.*;;OASISv2QueryResponder
+			/businesscard/.*;;PEPPOLBCResponder
+			/.*;;PEPPOLQueryResponder
+			""";
+
+	@Param({ "oasis", "businesscard", "peppol", "unmapped" })
+	String query;
+
+	private QueryMapper	mapper;
+	private String		queryPath;
+
+	@Setup
+	public void setup() throws IOException {
+		StaticListableBeanFactory responders = new StaticListableBeanFactory();
+		IQueryResponder responder = (p, h) -> new QueryResponse(HttpStatus.OK, null, null);
+		responders.addBean("OASISv2QueryResponder", responder);
+		responders.addBean("PEPPOLBCResponder", responder);
+		responders.addBean("PEPPOLQueryResponder", responder);
+
+		Path mapping = Files.createTempFile("querymap", ".conf");
+		mapping.toFile().deleteOnExit();
+		Files.writeString(mapping, QUERY_MAPPING);
+
+		mapper = new QueryMapper();
+		mapper.responderFactory = responders;
+		mapper.cfgFilePath = mapping.toString();
+
+		final String partId = Fixtures.PARTICIPANT_SCHEME + "::" + Fixtures.PARTICIPANT_ID;
+		queryPath = switch (query) {
+			case "oasis" -> "/bdxr-smp-2/" + partId + "/services/" + Fixtures.DOCUMENT_SCHEME + "::"
+							+ Fixtures.DOCUMENT_ID;
+			case "businesscard" -> "/businesscard/" + partId;
+			case "peppol" -> "/" + partId + "/services/" + Fixtures.DOCUMENT_SCHEME + "::" + Fixtures.DOCUMENT_ID;
+			default -> "";
+		};
+	}
+
+	@Benchmark
+	public IQueryResponder getResponderFor() {
+		return mapper.getResponderFor(queryPath);
+	}
+}
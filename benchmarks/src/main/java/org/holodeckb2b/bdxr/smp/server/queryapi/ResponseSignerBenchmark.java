@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.crypto.dsig.XMLSignatureException;
+
+import org.holodeckb2b.bdxr.smp.server.benchmarks.Fixtures;
+import org.holodeckb2b.bdxr.smp.server.queryapi.oasisv2.ResponseDocuments;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+/**
+ * Benchmarks the signing of response documents by the {@link ResponseSigner} with both a RSA and EC key, using the
+ * algorithms of the OASIS SMP V2 specification.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSignerBenchmark {
+
+	private static final String RSA_SIGNING_ALG = "http://www.w3.org/2001/04/xmldsig-more#rsa-sha256";
+	private static final String EC_SIGNING_ALG = "http://www.w3.org/2001/04/xmldsig-more#ecdsa-sha256";
+	private static final String DIGEST_ALG = "http://www.w3.org/2001/04/xmlenc#sha256";
+	private static final String C14N_ALG = "http://www.w3.org/2006/12/xml-c14n11";
+
+	@Param({ "rsa", "ec" })
+	String key;
+	@Param({ "1", "20" })
+	int processGroups;
+	@Param({ "1", "3" })
+	int endpoints;
+
+	private ResponseSigner	signer;
+	private String			signingAlg;
+	private Document		template;
+	private Document		response;
+
+	@Setup
+	public void setup() {
+		PrivateKeyEntry keyPair = Fixtures.loadKeyPair(key + "-key.p12");
+		signingAlg = "ec".equals(key) ? EC_SIGNING_ALG : RSA_SIGNING_ALG;
+		signer = new ResponseSigner();
+		signer.adminSvc = Fixtures.adminService(keyPair);
+		signer.metrics = new QueryMetrics();
+		template = ResponseDocuments.serviceMetadata(processGroups, endpoints, 1,
+													 (X509Certificate) Fixtures.loadKeyPair("rsa-key.p12").getCertificate());
+	}
+
+	/**
+	 * As the signature is added to the response document, each invocation needs to start with a fresh copy.
+	 */
+	@Setup(Level.Invocation)
+	public void copyResponse() {
+		response = (Document) template.cloneNode(true);
+	}
+
+	@Benchmark
+	public Document signResponse() throws XMLSignatureException {
+		return signer.signResponse(response, signingAlg, DIGEST_ALG, C14N_ALG);
+	}
+}
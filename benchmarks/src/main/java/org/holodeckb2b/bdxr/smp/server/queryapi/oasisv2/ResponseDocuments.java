@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi.oasisv2;
+
+import java.security.cert.X509Certificate;
+
+import org.holodeckb2b.bdxr.smp.server.benchmarks.Fixtures;
+import org.w3c.dom.Document;
+
+/**
+ * Provides OASIS SMP V2 <code>ServiceMetadata</code> documents to the benchmarks of the processing steps that follow
+ * the creation of the response document, like signing and serialisation.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public final class ResponseDocuments {
+
+	private ResponseDocuments() {}
+
+	/**
+	 * Creates a <code>ServiceMetadata</code> document based on a template with the given number of Process Groups,
+	 * Endpoints and certificates.
+	 *
+	 * @param processGroups		number of Process Groups to include
+	 * @param endpoints			number of Endpoints to include in each Process Group
+	 * @param certificates		number of certificates to include in each Endpoint
+	 * @param cert				the certificate to use for the Endpoints
+	 * @return	the response document
+	 */
+	public static Document serviceMetadata(int processGroups, int endpoints, int certificates, X509Certificate cert) {
+		try {
+			return new ServiceMetadataFactory("application/pkix-cert").newResponse(Fixtures.participantId(),
+								Fixtures.createTemplate(processGroups, endpoints, certificates, cert));
+		} catch (InstantiationException e) {
+			throw new IllegalStateException("Could not create response document", e);
+		}
+	}
+}
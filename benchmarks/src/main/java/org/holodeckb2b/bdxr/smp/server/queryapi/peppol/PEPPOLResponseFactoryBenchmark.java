@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi.peppol;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.server.benchmarks.Fixtures;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+/**
+ * Benchmarks the creation of the Peppol <code>SignedServiceMetadata</code> and <code>ServiceGroup</code> response
+ * documents by the {@link ServiceMetadataFactory} and {@link ServiceGroupFactory}.
+ * <p>
+ * NOTE: As the Peppol response can contain only one certificate per Endpoint, additional certificates only add the
+ * cost of logging the warning about them being ignored.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PEPPOLResponseFactoryBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ServiceMetadataState {
+		@Param({ "1", "5", "20" })
+		int processGroups;
+		@Param({ "1", "3" })
+		int endpoints;
+		@Param({ "1", "3" })
+		int certificates;
+
+		ServiceMetadataFactory	factory;
+		Identifier 				partId;
+		ServiceMetadataTemplateEntity smt;
+
+		@Setup
+		public void setup() {
+			factory = new ServiceMetadataFactory();
+			partId = Fixtures.participantId();
+			X509Certificate cert = (X509Certificate) Fixtures.loadKeyPair("rsa-key.p12").getCertificate();
+			smt = Fixtures.createTemplate(processGroups, endpoints, certificates, cert);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ServiceGroupState {
+		@Param({ "1", "10", "50" })
+		int services;
+
+		ServiceGroupFactory		factory;
+		Identifier 				partId;
+		List<ServiceMetadataTemplateEntity> templates;
+		URL						smpURL;
+
+		@Setup
+		public void setup() throws MalformedURLException {
+			factory = new ServiceGroupFactory();
+			smpURL = new URL("https://smp.example.org");
+			partId = Fixtures.participantId();
+			X509Certificate cert = (X509Certificate) Fixtures.loadKeyPair("rsa-key.p12").getCertificate();
+			templates = new ArrayList<>(services);
+			for (int i = 0; i < services; i++)
+				templates.add(Fixtures.createTemplate(1, 1, 1, cert));
+		}
+	}
+
+	@Benchmark
+	public Document serviceMetadata(ServiceMetadataState s) throws InstantiationException {
+		return s.factory.newResponse(s.partId, s.smt);
+	}
+
+	@Benchmark
+	public Document serviceGroup(ServiceGroupState s) throws InstantiationException {
+		return s.factory.newResponse(s.partId, s.templates, s.smpURL);
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.utils;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.server.benchmarks.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the parsing of identifiers from the query path by {@link IdUtils#parseIDString(String)}. The lookup of
+ * the ID scheme is done in memory so the results only cover the parsing itself.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdUtilsBenchmark {
+
+	@Param({ "participant", "participant-encoded", "document", "no-scheme" })
+	String id;
+
+	private IdUtils	idUtils;
+	private String	idString;
+
+	@Setup
+	public void setup() {
+		idUtils = new IdUtils();
+		idUtils.idschemes = Fixtures.idSchemeRepository();
+		idString = switch (id) {
+			case "participant" -> Fixtures.PARTICIPANT_SCHEME + "::" + Fixtures.PARTICIPANT_ID;
+			case "participant-encoded" -> URLEncoder.encode(Fixtures.PARTICIPANT_SCHEME + "::" + Fixtures.PARTICIPANT_ID,
+															StandardCharsets.UTF_8);
+			case "document" -> Fixtures.DOCUMENT_SCHEME + "::" + Fixtures.DOCUMENT_ID;
+			default -> Fixtures.PARTICIPANT_ID;
+		};
+	}
+
+	@Benchmark
+	public Identifier parseIDString() {
+		return idUtils.parseIDString(idString);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.benchmarks.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.holodeckb2b.bdxr.smp.datamodel.EndpointInfo;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ProcessGroup;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * As the generator assigns the primary keys itself, it must not run on a database that is in use by another context
+ * that may already have reserved blocks of keys. Therefore the test uses its own context with a new embedded database.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = { DatasetGeneratorTest.Config.class })
+@DirtiesContext(classMode = ClassMode.AFTER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatasetGeneratorTest {
+
+	/**
+	 * The tables filled by the generator, in the order in which their content can be deleted
+	 */
+	private static final String[] TABLES = { "service_metadata_binding", "participant_additional_ids", "participant",
+											  "process_group_endpoints", "pi_roles", "process_info", "process_group",
+											  "service_metadata_template", "ep_certificates", "endpoint", "service",
+											  "process", "transport_profile", "idscheme" };
+
+	@Configuration
+	@EntityScan("org.holodeckb2b.bdxr.smp.server.db.entities")
+	@EnableJpaRepositories("org.holodeckb2b.bdxr.smp.server.db.repos")
+	static class Config {
+	}
+
+	@Autowired
+	DataSource		dataSource;
+
+	@Autowired
+	ParticipantRepository	participants;
+
+	@Autowired
+	IDSchemeRepository		idSchemes;
+
+	@Autowired
+	PlatformTransactionManager	txManager;
+
+	@AfterEach
+	void cleanup() throws SQLException {
+		try (Connection c = dataSource.getConnection(); Statement s = c.createStatement()) {
+			for (String table : TABLES)
+				s.executeUpdate("delete from " + table);
+		}
+	}
+
+	@Test
+	void testGenerate() {
+		DatasetSpec spec = new DatasetSpec();
+		spec.setParticipantIcd("9999");
+		spec.setParticipants(500);
+		spec.setTemplates(6);
+		spec.setEndpoints(3);
+		spec.setEndpointsPerGroup(2);
+		spec.setBatchSize(64);
+
+		GeneratedDataset dataset = assertDoesNotThrow(() -> new DatasetGenerator(dataSource).generate(spec));
+
+		assertEquals(500, dataset.participants());
+		assertEquals(6, dataset.templates().size());
+		assertEquals(3, dataset.endpoints().size());
+		assertTrue(dataset.bindings() >= 500);
+		// The most popular template should be bound to more Participants than the least popular one
+		assertTrue(participants.countParticipantsSupporting(dataset.templates().get(0))
+					> participants.countParticipantsSupporting(dataset.templates().get(5)));
+
+		new TransactionTemplate(txManager).executeWithoutResult(tx -> {
+			IDSchemeEntity scheme = idSchemes.findByIdentifier(DatasetGenerator.PARTICIPANT_SCHEME);
+			assertNotNull(scheme);
+			for (long n : new long[] { 1, 250, 500 }) {
+				ParticipantEntity p = participants.findByIdentifier(
+									new EmbeddedIdentifier(scheme, DatasetGenerator.participantId("9999", n)));
+				assertNotNull(p);
+				assertNotNull(p.getName());
+				assertFalse(p.getBoundSMT().isEmpty());
+				assertDoesNotThrow(() -> p.getAdditionalIds());
+				for (ServiceMetadataTemplate smt : p.getBoundSMT()) {
+					assertEquals(2, smt.getProcessMetadata().size());
+					for (ProcessGroup pg : smt.getProcessMetadata()) {
+						assertEquals(1, pg.getProcessInfo().size());
+						assertEquals(2, pg.getEndpoints().size());
+						for (EndpointInfo ep : pg.getEndpoints())
+							assertNotNull(ep.getCertificates().iterator().next().getX509Cert());
+					}
+				}
+			}
+			assertNull(participants.findByIdentifier(
+									new EmbeddedIdentifier(scheme, DatasetGenerator.participantId("9999", 501))));
+		});
+
+		// New entities created through JPA must not conflict with the generated ones
+		final long maxOid = participants.findAll().stream().mapToLong(ParticipantEntity::getOid).max().getAsLong();
+		ParticipantEntity p = new ParticipantEntity();
+		p.setId(new EmbeddedIdentifier("NewPartId-1"));
+		assertTrue(participants.save(p).getOid() > maxOid);
+
+		// Generating the same Participants again is not possible
+		assertThrows(IllegalStateException.class, () -> new DatasetGenerator(dataSource).generate(spec));
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.tools;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.holodeckb2b.bdxr.smp.server.datagen.DatasetDumper;
+import org.holodeckb2b.bdxr.smp.server.datagen.DatasetRestorer;
+import org.holodeckb2b.bdxr.smp.server.datagen.DatasetSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.PropertySources;
+
+/**
+ * Command line tool to dump the complete data set of the SMP server into a snapshot archive or to restore a snapshot
+ * into an empty database, for example to migrate the SMP to another database or to clone a production environment for
+ * testing. It uses the same database configuration as the server. The action and archive file are given as arguments:
+ * <pre>
+ * java -Dloader.main=org.holodeckb2b.bdxr.smp.server.tools.DatasetSnapshotApp -jar holodeck-smp-server.jar \
+ *      dump smp-data.snapshot [--snapshot.audit-log=true]
+ * java -Dloader.main=org.holodeckb2b.bdxr.smp.server.tools.DatasetSnapshotApp -jar holodeck-smp-server.jar \
+ *      restore smp-data.snapshot
+ * </pre>
+ * The number of rows retrieved at once when dumping and inserted in one transaction when restoring can be set using
+ * the <code>snapshot.fetch-size</code> and <code>snapshot.batch-size</code> properties. The server must not be running
+ * while a snapshot is restored, see {@link DatasetRestorer}.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Configuration
+@ImportAutoConfiguration({ DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+						   TransactionAutoConfiguration.class })
+@EntityScan("org.holodeckb2b.bdxr.smp.server.db.entities")
+@PropertySources({
+	@PropertySource("classpath:/common-defaults.properties"),
+	@PropertySource(value = "file:${smp.home:.}/common.properties", ignoreResourceNotFound = true)})
+public class DatasetSnapshotApp implements ApplicationRunner {
+
+	@Autowired
+	private DataSource	dataSource;
+
+	@Value("${snapshot.audit-log:false}")
+	private boolean		includeAuditLog;
+
+	@Value("${snapshot.fetch-size:1000}")
+	private int			fetchSize;
+
+	@Value("${snapshot.batch-size:1000}")
+	private int			batchSize;
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(DatasetSnapshotApp.class)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.properties("spring.config.name=common")
+				.run(args);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		List<String> params = args.getNonOptionArgs();
+		if (params.size() != 2 || !List.of("dump", "restore").contains(params.get(0)))
+			throw new IllegalArgumentException("Usage: (dump | restore) <snapshot file>");
+
+		final Path archive = Path.of(params.get(1));
+		final DatasetSnapshot snapshot;
+		if ("dump".equals(params.get(0)))
+			try (OutputStream os = Files.newOutputStream(archive)) {
+				snapshot = new DatasetDumper(dataSource, fetchSize).dump(os, includeAuditLog);
+			}
+		else
+			try (InputStream is = Files.newInputStream(archive)) {
+				snapshot = new DatasetRestorer(dataSource, batchSize).restore(is);
+			}
+
+		System.out.printf("%s %d rows of snapshot created at %s in %d s%n",
+						  "dump".equals(params.get(0)) ? "Dumped" : "Restored", snapshot.totalRows(),
+						  snapshot.created(), snapshot.duration().toSeconds());
+		snapshot.rows().forEach((table, rows) -> System.out.printf("  %-28s %d%n", table, rows));
+	}
+}
@@ -23,6 +23,7 @@ import org.holodeckb2b.bdxr.smp.server.utils.DataEncryptor;
 import org.holodeckb2b.commons.util.Utils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -32,6 +33,8 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -80,6 +83,20 @@ public class CommonServerConfig {
         return passwordEncoder;
     }    
 	
+	/**
+	 * Creates the span exporter that writes the spans of traces as OTLP JSON to the <code>
+	 * io.opentelemetry.exporter.logging.otlp</code> logger. It can be used in environments where no trace collector is
+	 * available and is enabled by setting <code>smp.tracing.log_spans=true</code>. Exporting to a collector is
+	 * configured using the standard <code>management.otlp.tracing.*</code> properties.
+	 *
+	 * @return	the logging span exporter
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "smp.tracing.log_spans", havingValue = "true")
+	SpanExporter loggingSpanExporter() {
+		return OtlpJsonLoggingSpanExporter.create();
+	}
+
 	@Bean
 	DataEncryptor dataEncryptor() {
 		if (dataEncryptor == null) 
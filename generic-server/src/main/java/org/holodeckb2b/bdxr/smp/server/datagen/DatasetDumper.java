@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.datagen;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dumps the complete SMP data set into a snapshot archive, which can be restored into another database using the
+ * {@link DatasetRestorer}, for example to migrate the SMP to another database or to clone a production environment.
+ * The snapshot includes the ID Schemes, Transport Profiles, Processes, Services, Endpoints with their certificates,
+ * Service Metadata Templates, Participants and their bindings and optionally the audit log. The server configuration,
+ * user accounts and pending network updates are not included.
+ * <p>
+ * The dumper works directly on the database tables using JDBC, so the dump does not depend on the number of rows.
+ * All tables are read in one read-only transaction using the <i>repeatable read</i> isolation level, so the snapshot
+ * is consistent when the database provides snapshot isolation. The rows are retrieved using the given fetch size and
+ * written to the archive as they are read. The format of the archive is described in {@link SnapshotFormat}.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+public class DatasetDumper {
+
+	private final DataSource	dataSource;
+	private final int			fetchSize;
+
+	/**
+	 * Creates a new dumper that reads from the given database.
+	 *
+	 * @param dataSource	the data source of the SMP database
+	 * @param fetchSize		the number of rows to retrieve from the database at once
+	 */
+	public DatasetDumper(DataSource dataSource, int fetchSize) {
+		this.dataSource = dataSource;
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Dumps the data set into a snapshot archive written to the given stream. The stream is not closed.
+	 *
+	 * @param os				the stream to write the archive to
+	 * @param includeAuditLog	indicates whether the audit log should be included in the snapshot
+	 * @return	description of the snapshot
+	 * @throws SQLException	when an error occurs reading the data from the database
+	 * @throws IOException	when the archive cannot be written
+	 */
+	public DatasetSnapshot dump(OutputStream os, boolean includeAuditLog) throws SQLException, IOException {
+		final long start = System.currentTimeMillis();
+		final Instant created = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+		final List<String> tables = new ArrayList<>(SnapshotFormat.TABLES);
+		if (includeAuditLog)
+			tables.add(SnapshotFormat.AUDIT_LOG_TABLE);
+		final Map<String, Long> rows = new LinkedHashMap<>();
+
+		GZIPOutputStream gzip = new GZIPOutputStream(os, 64 * 1024);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip, 64 * 1024));
+		out.write(SnapshotFormat.MAGIC);
+		out.writeInt(SnapshotFormat.VERSION);
+		out.writeLong(created.toEpochMilli());
+		out.writeBoolean(includeAuditLog);
+
+		try (Connection c = dataSource.getConnection()) {
+			final boolean autoCommit = c.getAutoCommit();
+			final int isolation = c.getTransactionIsolation();
+			c.setAutoCommit(false);
+			c.setReadOnly(true);
+			c.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+			try {
+				for (String table : tables) {
+					if (!tableExists(c.getMetaData(), table)) {
+						log.warn("Table {} does not exist and is not included in the snapshot", table);
+						continue;
+					}
+					rows.put(table, dumpTable(c, table, out));
+				}
+				out.writeByte(SnapshotFormat.END);
+				out.flush();
+				gzip.finish();
+			} finally {
+				c.rollback();
+				c.setReadOnly(false);
+				c.setTransactionIsolation(isolation);
+				c.setAutoCommit(autoCommit);
+			}
+		}
+		final DatasetSnapshot snapshot = new DatasetSnapshot(created, includeAuditLog, rows,
+															 Duration.ofMillis(System.currentTimeMillis() - start));
+		log.info("Dumped {} rows of {} tables in {} s", snapshot.totalRows(), rows.size(),
+				 snapshot.duration().toSeconds());
+		return snapshot;
+	}
+
+	/**
+	 * Writes the given table to the archive.
+	 *
+	 * @return the number of rows written
+	 */
+	private long dumpTable(Connection c, String table, DataOutputStream out) throws SQLException, IOException {
+		log.debug("Dumping table {}", table);
+		try (Statement s = c.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			s.setFetchSize(fetchSize);
+			try (ResultSet rs = s.executeQuery("select * from " + table)) {
+				final ResultSetMetaData md = rs.getMetaData();
+				final int columns = md.getColumnCount();
+				final byte[] encodings = new byte[columns];
+				out.writeByte(SnapshotFormat.TABLE);
+				SnapshotFormat.writeString(table, out);
+				out.writeInt(columns);
+				for (int i = 0; i < columns; i++) {
+					encodings[i] = SnapshotFormat.encodingOf(md.getColumnType(i + 1));
+					SnapshotFormat.writeString(md.getColumnName(i + 1).toLowerCase(), out);
+					out.writeByte(encodings[i]);
+				}
+				long count = 0;
+				while (rs.next()) {
+					out.writeByte(SnapshotFormat.ROW);
+					for (int i = 0; i < columns; i++)
+						SnapshotFormat.writeValue(rs, i + 1, encodings[i], out);
+					if (++count % 100_000 == 0)
+						log.info("Dumped {} rows of table {}", count, table);
+				}
+				out.writeByte(SnapshotFormat.TABLE_END);
+				out.writeLong(count);
+				log.debug("Dumped {} rows of table {}", count, table);
+				return count;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the given table exists. As databases differ in how they store unquoted identifiers, the table is
+	 * searched for using both lower and upper case names.
+	 */
+	static boolean tableExists(DatabaseMetaData md, String table) throws SQLException {
+		for (String name : new String[] { table, table.toUpperCase() })
+			try (ResultSet rs = md.getTables(null, null, name, null)) {
+				if (rs.next())
+					return true;
+			}
+		return false;
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.datagen;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+import javax.sql.DataSource;
+
+import org.holodeckb2b.bdxr.smp.server.db.KeySequences;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Restores a snapshot archive created by the {@link DatasetDumper} into the SMP database. The tables of the data set
+ * must already exist, i.e. the SMP server or one of the tools must have been started on the database once, and must
+ * be empty. The restorer writes directly to the tables and the SMP server must not be running while the snapshot is
+ * restored, see {@link KeySequences}.
+ * <p>
+ * The rows are read from the archive as they are inserted using batched statements that are committed every <code>
+ * batchSize</code> rows. To speed up the inserts, the non-unique indexes of a table are dropped before its rows are
+ * inserted and created again when all rows have been restored. Indexes that cannot be dropped, for example because
+ * they are used by a foreign key constraint, are maintained during the restore. When all tables have been restored the
+ * Hibernate sequences are moved past the restored primary keys.
+ * <p>
+ * When the restore fails the rows committed so far remain in the database, so the tables must be emptied before the
+ * restore can be retried. The dropped indexes are always created again.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+public class DatasetRestorer {
+
+	private final DataSource	dataSource;
+	private final int			batchSize;
+
+	/**
+	 * Describes a dropped index that must be created again after the restore.
+	 */
+	private record Index(String table, String name, List<String> columns) {
+	}
+
+	/**
+	 * Creates a new restorer that writes to the given database.
+	 *
+	 * @param dataSource	the data source of the SMP database
+	 * @param batchSize		the number of rows to insert in one transaction
+	 */
+	public DatasetRestorer(DataSource dataSource, int batchSize) {
+		this.dataSource = dataSource;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Restores the snapshot read from the given stream. The stream is not closed.
+	 *
+	 * @param is	the stream to read the archive from
+	 * @return	description of the restored snapshot
+	 * @throws IllegalStateException when the stream does not contain a supported snapshot archive, when it is
+	 * 								 truncated or when the tables of the data set are not empty
+	 * @throws SQLException	when an error occurs writing the data to the database
+	 * @throws IOException	when the archive cannot be read
+	 */
+	public DatasetSnapshot restore(InputStream is) throws IllegalStateException, SQLException, IOException {
+		final long start = System.currentTimeMillis();
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(is, 64 * 1024),
+																				64 * 1024));
+		final byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(SnapshotFormat.MAGIC, magic))
+			throw new IllegalStateException("Not a snapshot archive");
+		final int version = in.readInt();
+		if (version > SnapshotFormat.VERSION)
+			throw new IllegalStateException("Unsupported snapshot version " + version);
+		final Instant created = Instant.ofEpochMilli(in.readLong());
+		final boolean includesAuditLog = in.readBoolean();
+		log.info("Restoring snapshot created at {}", created);
+
+		final Map<String, Long> rows = new LinkedHashMap<>();
+		final List<Index> droppedIndexes = new ArrayList<>();
+		final Map<String, Long> lastKeys = new TreeMap<>();
+		try (Connection c = dataSource.getConnection()) {
+			final boolean autoCommit = c.getAutoCommit();
+			try {
+				checkEmpty(c, includesAuditLog);
+				byte marker;
+				while ((marker = in.readByte()) != SnapshotFormat.END) {
+					if (marker != SnapshotFormat.TABLE)
+						throw new IllegalStateException("Malformed snapshot archive");
+					final String table = SnapshotFormat.readString(in);
+					if (!SnapshotFormat.TABLES.contains(table) && !SnapshotFormat.AUDIT_LOG_TABLE.equals(table))
+						throw new IllegalStateException("Snapshot contains unknown table " + table);
+					c.setAutoCommit(true);
+					droppedIndexes.addAll(dropIndexes(c, table));
+					c.setAutoCommit(false);
+					rows.put(table, restoreTable(c, table, in, lastKeys));
+				}
+			} catch (SQLException | IOException | RuntimeException failure) {
+				log.error("Error restoring snapshot : {}", failure.getMessage());
+				if (!c.getAutoCommit())
+					c.rollback();
+				throw failure;
+			} finally {
+				c.setAutoCommit(true);
+				createIndexes(c, droppedIndexes);
+				lastKeys.forEach((table, key) -> KeySequences.alignSequence(c, table, key));
+				c.setAutoCommit(autoCommit);
+			}
+		}
+		final DatasetSnapshot snapshot = new DatasetSnapshot(created, includesAuditLog, rows,
+															 Duration.ofMillis(System.currentTimeMillis() - start));
+		log.info("Restored {} rows of {} tables in {} s", snapshot.totalRows(), rows.size(),
+				 snapshot.duration().toSeconds());
+		return snapshot;
+	}
+
+	/**
+	 * Checks that the tables to restore are empty.
+	 */
+	private void checkEmpty(Connection c, boolean includesAuditLog) throws SQLException {
+		List<String> tables = new ArrayList<>(SnapshotFormat.TABLES);
+		if (includesAuditLog)
+			tables.add(SnapshotFormat.AUDIT_LOG_TABLE);
+		for (String table : tables) {
+			if (!DatasetDumper.tableExists(c.getMetaData(), table))
+				throw new IllegalStateException("Table " + table + " does not exist");
+			try (Statement s = c.createStatement();
+				 ResultSet rs = s.executeQuery("select count(*) from " + table)) {
+				rs.next();
+				if (rs.getLong(1) > 0)
+					throw new IllegalStateException("Table " + table + " is not empty");
+			}
+		}
+	}
+
+	/**
+	 * Inserts the rows of a table read from the archive.
+	 *
+	 * @param c			the database connection, not in auto-commit mode
+	 * @param table		the table to restore
+	 * @param in		the archive, positioned after the table name
+	 * @param lastKeys	the highest primary key of the restored tables that use a Hibernate sequence, updated with the
+	 * 					highest key of this table
+	 * @return	the number of restored rows
+	 */
+	private long restoreTable(Connection c, String table, DataInputStream in, Map<String, Long> lastKeys)
+																				throws SQLException, IOException {
+		log.debug("Restoring table {}", table);
+		final int columns = in.readInt();
+		final String[] names = new String[columns];
+		final byte[] encodings = new byte[columns];
+		boolean hasKey = false;
+		for (int i = 0; i < columns; i++) {
+			names[i] = SnapshotFormat.readString(in);
+			if (!names[i].matches("[a-z0-9_]+"))
+				throw new IllegalStateException("Snapshot contains invalid column name " + names[i]);
+			encodings[i] = in.readByte();
+			hasKey |= "oid".equals(names[i]);
+		}
+		long count = 0;
+		try (PreparedStatement ps = c.prepareStatement("insert into " + table + " (" + String.join(", ", names)
+													 + ") values (" + "?, ".repeat(columns - 1) + "?)")) {
+			byte marker;
+			while ((marker = in.readByte()) == SnapshotFormat.ROW) {
+				for (int i = 0; i < columns; i++)
+					SnapshotFormat.readValue(in, encodings[i], ps, i + 1);
+				ps.addBatch();
+				if (++count % batchSize == 0) {
+					ps.executeBatch();
+					c.commit();
+				}
+				if (count % 100_000 == 0)
+					log.info("Restored {} rows of table {}", count, table);
+			}
+			if (marker != SnapshotFormat.TABLE_END)
+				throw new IllegalStateException("Malformed snapshot archive");
+			ps.executeBatch();
+			c.commit();
+		}
+		final long expected = in.readLong();
+		if (expected != count)
+			throw new IllegalStateException("Snapshot of table " + table + " is incomplete, expected " + expected
+											+ " rows but read " + count);
+		if (hasKey && count > 0)
+			try (Statement s = c.createStatement();
+				 ResultSet rs = s.executeQuery("select max(oid) from " + table)) {
+				rs.next();
+				lastKeys.put(table, rs.getLong(1));
+			}
+		log.debug("Restored {} rows of table {}", count, table);
+		return count;
+	}
+
+	/**
+	 * Drops the non-unique indexes of the given table.
+	 *
+	 * @param c		the database connection, in auto-commit mode
+	 * @param table	the table
+	 * @return	the dropped indexes
+	 */
+	private List<Index> dropIndexes(Connection c, String table) throws SQLException {
+		final DatabaseMetaData md = c.getMetaData();
+		final Map<String, Index> indexes = new LinkedHashMap<>();
+		for (String name : new String[] { table, table.toUpperCase() })
+			try (ResultSet rs = md.getIndexInfo(null, null, name, false, false)) {
+				while (rs.next()) {
+					final String index = rs.getString("INDEX_NAME");
+					final String column = rs.getString("COLUMN_NAME");
+					if (index == null || column == null || !rs.getBoolean("NON_UNIQUE")
+						|| rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic)
+						continue;
+					indexes.computeIfAbsent(index, n -> new Index(table, n, new ArrayList<>())).columns().add(column);
+				}
+			}
+		final List<Index> dropped = new ArrayList<>();
+		for (Index idx : indexes.values())
+			if (execute(c, "drop index " + idx.name()) || execute(c, "drop index " + idx.name() + " on " + table)) {
+				log.debug("Dropped index {} of table {}", idx.name(), table);
+				dropped.add(idx);
+			} else
+				log.debug("Index {} of table {} cannot be dropped and is maintained during restore", idx.name(),
+						  table);
+		return dropped;
+	}
+
+	/**
+	 * Creates the dropped indexes again.
+	 *
+	 * @param c			the database connection, in auto-commit mode
+	 * @param indexes	the indexes to create
+	 */
+	private void createIndexes(Connection c, List<Index> indexes) {
+		for (Index idx : indexes) {
+			log.debug("Creating index {} of table {}", idx.name(), idx.table());
+			if (!execute(c, "create index " + idx.name() + " on " + idx.table() + " ("
+							+ String.join(", ", idx.columns()) + ")"))
+				log.error("Could not create index {} on table {} ({}). Create manually!", idx.name(), idx.table(),
+						  String.join(", ", idx.columns()));
+		}
+	}
+
+	private static boolean execute(Connection c, String sql) {
+		try (Statement s = c.createStatement()) {
+			s.execute(sql);
+			return true;
+		} catch (SQLException failed) {
+			return false;
+		}
+	}
+}
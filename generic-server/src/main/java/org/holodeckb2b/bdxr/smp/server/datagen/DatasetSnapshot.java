@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.datagen;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Describes the snapshot of the SMP data set that was dumped by the {@link DatasetDumper} or restored by the {@link
+ * DatasetRestorer}.
+ *
+ * @param created			the time the snapshot was created
+ * @param includesAuditLog	indicates whether the snapshot includes the audit log
+ * @param rows				the number of rows of each table included in the snapshot, in the order of the snapshot
+ * @param duration			the time it took to dump or restore the snapshot
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public record DatasetSnapshot(Instant created, boolean includesAuditLog, Map<String, Long> rows, Duration duration) {
+
+	/**
+	 * @return the total number of rows in the snapshot
+	 */
+	public long totalRows() {
+		return rows.values().stream().mapToLong(Long::longValue).sum();
+	}
+}
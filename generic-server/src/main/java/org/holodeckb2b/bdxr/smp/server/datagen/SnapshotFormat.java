@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.datagen;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Defines the format of the snapshot archives created by the {@link DatasetDumper} and read by the {@link
+ * DatasetRestorer}. An archive is a gzip compressed binary stream that starts with a header consisting of the
+ * {@link #MAGIC} bytes, the format version, the time the snapshot was created and whether the audit log is included.
+ * The header is followed by the tables, each consisting of:<ol>
+ * <li>the {@link #TABLE} marker, the table name and the names and value encodings of its columns;</li>
+ * <li>the rows, each preceded by the {@link #ROW} marker and containing the column values in the order of the
+ * 		columns. Each value starts with a byte indicating whether it is <code>null</code>;</li>
+ * <li>the {@link #TABLE_END} marker followed by the number of rows, which is used to verify the table is complete.</li>
+ * </ol>
+ * The archive ends with the {@link #END} marker. As the tables and columns are described in the archive, a snapshot
+ * can be restored into a database that uses another database product.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+final class SnapshotFormat {
+
+	/**
+	 * The bytes every archive starts with
+	 */
+	static final byte[] MAGIC = "HSMPSNAP".getBytes(StandardCharsets.US_ASCII);
+	/**
+	 * The version of the format
+	 */
+	static final int VERSION = 1;
+
+	static final byte END = 0;
+	static final byte TABLE = 1;
+	static final byte ROW = 2;
+	static final byte TABLE_END = 3;
+
+	/**
+	 * The tables included in a snapshot, ordered so that a table is restored after the tables it references
+	 */
+	static final List<String> TABLES = List.of("idscheme", "transport_profile", "process", "service", "endpoint",
+											   "ep_certificates", "service_metadata_template", "process_group",
+											   "process_info", "pi_roles", "process_group_endpoints", "participant",
+											   "participant_additional_ids", "service_metadata_binding");
+	/**
+	 * The table containing the audit log, which is optionally included in the snapshot
+	 */
+	static final String AUDIT_LOG_TABLE = "audit_log";
+
+	/*
+	 * The encodings of the column values
+	 */
+	static final byte LONG = 'L';
+	static final byte BOOLEAN = 'B';
+	static final byte DOUBLE = 'F';
+	static final byte DECIMAL = 'N';
+	static final byte DATE = 'D';
+	static final byte TIMESTAMP = 'T';
+	static final byte TIMESTAMP_TZ = 'Z';
+	static final byte BYTES = 'X';
+	static final byte STRING = 'S';
+
+	private SnapshotFormat() {}
+
+	/**
+	 * Determines how the values of a column with the given SQL type are encoded.
+	 *
+	 * @param sqlType	the SQL type of the column, as defined in {@link Types}
+	 * @return	the value encoding
+	 */
+	static byte encodingOf(int sqlType) {
+		return switch (sqlType) {
+			case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> LONG;
+			case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+			case Types.DOUBLE, Types.FLOAT, Types.REAL -> DOUBLE;
+			case Types.DECIMAL, Types.NUMERIC -> DECIMAL;
+			case Types.DATE -> DATE;
+			case Types.TIMESTAMP -> TIMESTAMP;
+			case Types.TIMESTAMP_WITH_TIMEZONE -> TIMESTAMP_TZ;
+			case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> BYTES;
+			default -> STRING;
+		};
+	}
+
+	/**
+	 * Reads the value of a column from the result set and writes it to the archive.
+	 *
+	 * @param rs		the result set positioned on the row to write
+	 * @param col		the index of the column
+	 * @param encoding	the encoding of the column's values
+	 * @param out		the archive
+	 * @throws SQLException	when the value cannot be read from the result set
+	 * @throws IOException	when the value cannot be written to the archive
+	 */
+	static void writeValue(ResultSet rs, int col, byte encoding, DataOutputStream out)
+																				throws SQLException, IOException {
+		Object v = switch (encoding) {
+			case LONG -> rs.getLong(col);
+			case BOOLEAN -> rs.getBoolean(col);
+			case DOUBLE -> rs.getDouble(col);
+			case DECIMAL -> rs.getBigDecimal(col);
+			case DATE -> rs.getObject(col, LocalDate.class);
+			case TIMESTAMP -> rs.getObject(col, LocalDateTime.class);
+			case TIMESTAMP_TZ -> rs.getObject(col, OffsetDateTime.class);
+			case BYTES -> rs.getBytes(col);
+			default -> rs.getString(col);
+		};
+		if (v == null || rs.wasNull()) {
+			out.writeBoolean(false);
+			return;
+		}
+		out.writeBoolean(true);
+		switch (encoding) {
+			case LONG -> out.writeLong((Long) v);
+			case BOOLEAN -> out.writeBoolean((Boolean) v);
+			case DOUBLE -> out.writeDouble((Double) v);
+			case DECIMAL -> writeString(((BigDecimal) v).toPlainString(), out);
+			case DATE -> out.writeLong(((LocalDate) v).toEpochDay());
+			case TIMESTAMP -> {
+				LocalDateTime ts = (LocalDateTime) v;
+				out.writeLong(ts.toEpochSecond(ZoneOffset.UTC));
+				out.writeInt(ts.getNano());
+			}
+			case TIMESTAMP_TZ -> writeString(((OffsetDateTime) v).toString(), out);
+			case BYTES -> writeBytes((byte[]) v, out);
+			default -> writeString((String) v, out);
+		}
+	}
+
+	/**
+	 * Reads a column value from the archive and sets it as parameter of the insert statement.
+	 *
+	 * @param in		the archive
+	 * @param encoding	the encoding of the column's values
+	 * @param ps		the insert statement
+	 * @param param		the index of the parameter
+	 * @throws IOException	when the value cannot be read from the archive
+	 * @throws SQLException	when the parameter cannot be set
+	 */
+	static void readValue(DataInputStream in, byte encoding, PreparedStatement ps, int param)
+																				throws IOException, SQLException {
+		if (!in.readBoolean()) {
+			ps.setNull(param, switch (encoding) {
+				case LONG -> Types.BIGINT;
+				case BOOLEAN -> Types.BOOLEAN;
+				case DOUBLE -> Types.DOUBLE;
+				case DECIMAL -> Types.DECIMAL;
+				case DATE -> Types.DATE;
+				case TIMESTAMP -> Types.TIMESTAMP;
+				case TIMESTAMP_TZ -> Types.TIMESTAMP_WITH_TIMEZONE;
+				case BYTES -> Types.VARBINARY;
+				default -> Types.VARCHAR;
+			});
+			return;
+		}
+		switch (encoding) {
+			case LONG -> ps.setLong(param, in.readLong());
+			case BOOLEAN -> ps.setBoolean(param, in.readBoolean());
+			case DOUBLE -> ps.setDouble(param, in.readDouble());
+			case DECIMAL -> ps.setBigDecimal(param, new BigDecimal(readString(in)));
+			case DATE -> ps.setObject(param, LocalDate.ofEpochDay(in.readLong()));
+			case TIMESTAMP -> ps.setObject(param, LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(),
+																			  ZoneOffset.UTC));
+			case TIMESTAMP_TZ -> ps.setObject(param, OffsetDateTime.parse(readString(in)));
+			case BYTES -> ps.setBytes(param, readBytes(in));
+			default -> ps.setString(param, readString(in));
+		}
+	}
+
+	/**
+	 * Writes a string as UTF-8 encoded bytes preceded by their length. Unlike {@link DataOutputStream#writeUTF(String)}
+	 * this supports strings of any length.
+	 */
+	static void writeString(String s, DataOutputStream out) throws IOException {
+		writeBytes(s.getBytes(StandardCharsets.UTF_8), out);
+	}
+
+	static String readString(DataInputStream in) throws IOException {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	private static void writeBytes(byte[] b, DataOutputStream out) throws IOException {
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] b = new byte[in.readInt()];
+		in.readFully(b);
+		return b;
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Migrates the additional identifiers of the Participants from the <code>additional_ids</code> column of the
+ * <code>participant</code> table, in which earlier versions stored them as one comma separated string, to the
+ * <code>participant_additional_ids</code> table introduced in version 3.1.0 (see {@link ParticipantEntity}).
+ * <p>
+ * The migration is executed when the server starts and the old column still exists. As the strings in the old column
+ * already consist of the canonical representations of the identifiers, they only need to be split. The Participants
+ * are migrated in batches and in the same transaction that inserts the identifiers of a batch, the old column of the
+ * migrated Participants is cleared. Therefore a migration that is interrupted simply continues on the next start.
+ * When all Participants have been migrated the old column is dropped.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class AdditionalIdsMigration {
+
+	/**
+	 * The number of Participants migrated in one transaction
+	 */
+	private static final int BATCH_SIZE = 1000;
+	/**
+	 * The maximum length of the canonical representation of an additional identifier
+	 */
+	private static final int MAX_ID_LENGTH = 512;
+
+	@Autowired
+	private DataSource	dataSource;
+
+	/**
+	 * The entity manager factory is only injected so the migration is executed after Hibernate has updated the
+	 * database schema and the new table exists.
+	 */
+	@Autowired
+	private EntityManagerFactory	emf;
+
+	/**
+	 * Migrates the additional identifiers if the database still contains the old column.
+	 */
+	@PostConstruct
+	void migrate() {
+		try (Connection c = dataSource.getConnection()) {
+			if (!columnExists(c.getMetaData(), "participant", "additional_ids")) {
+				log.trace("Additional identifiers of Participants already migrated");
+				return;
+			}
+			log.info("Migrating additional identifiers of Participants");
+			final boolean autoCommit = c.getAutoCommit();
+			long participants = 0, ids = 0;
+			try (PreparedStatement select = c.prepareStatement("select oid, additional_ids from participant "
+															 + "where additional_ids is not null order by oid");
+				 PreparedStatement insert = c.prepareStatement("insert into participant_additional_ids "
+						 									 + "(participant_oid, additional_id) values (?, ?)");
+				 PreparedStatement clear = c.prepareStatement("update participant set additional_ids = null "
+						 									 + "where oid = ?")) {
+				c.setAutoCommit(false);
+				select.setMaxRows(BATCH_SIZE);
+				Map<Long, String> batch;
+				do {
+					batch = new LinkedHashMap<>();
+					try (ResultSet rs = select.executeQuery()) {
+						while (rs.next())
+							batch.put(rs.getLong(1), rs.getString(2));
+					}
+					for (Map.Entry<Long, String> p : batch.entrySet()) {
+						for (String id : split(p.getKey(), p.getValue())) {
+							insert.setLong(1, p.getKey());
+							insert.setString(2, id);
+							insert.addBatch();
+							ids++;
+						}
+						clear.setLong(1, p.getKey());
+						clear.addBatch();
+					}
+					insert.executeBatch();
+					clear.executeBatch();
+					c.commit();
+					participants += batch.size();
+					if (!batch.isEmpty() && participants % (100 * BATCH_SIZE) == 0)
+						log.info("Migrated additional identifiers of {} Participants", participants);
+				} while (batch.size() == BATCH_SIZE);
+			} catch (SQLException migrationFailure) {
+				c.rollback();
+				throw migrationFailure;
+			} finally {
+				c.setAutoCommit(autoCommit);
+			}
+			log.info("Migrated {} additional identifiers of {} Participants", ids, participants);
+
+			try (Statement s = c.createStatement()) {
+				s.execute("alter table participant drop column additional_ids");
+				log.debug("Dropped the additional_ids column from the participant table");
+			} catch (SQLException dropFailure) {
+				log.warn("Could not drop the additional_ids column from the participant table. Drop manually!");
+			}
+		} catch (SQLException migrationFailure) {
+			log.error("An error occurred migrating the additional identifiers of the Participants : {}",
+					  Utils.getExceptionTrace(migrationFailure));
+		}
+	}
+
+	/**
+	 * Splits the comma separated string of additional identifiers of a Participant.
+	 *
+	 * @param oid	the oid of the Participant, used for logging
+	 * @param ids	the comma separated string
+	 * @return	the distinct identifiers
+	 */
+	private Set<String> split(long oid, String ids) {
+		Set<String> result = new LinkedHashSet<>();
+		for (String id : ids.split(",")) {
+			if (Utils.isNullOrEmpty(id))
+				continue;
+			if (id.length() > MAX_ID_LENGTH)
+				log.warn("Additional identifier ({}) of Participant (oid={}) is too long and not migrated", id, oid);
+			else
+				result.add(id);
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the given column exists. As databases differ in how they store unquoted identifiers, the column
+	 * is searched for using both lower and upper case names.
+	 */
+	private static boolean columnExists(DatabaseMetaData md, String table, String column) throws SQLException {
+		for (String[] name : new String[][] { { table, column }, { table.toUpperCase(), column.toUpperCase() } })
+			try (ResultSet rs = md.getColumns(null, null, name[0], name[1])) {
+				if (rs.next())
+					return true;
+			}
+		return false;
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Utility for tools that write records directly to the database tables, bypassing JPA, and therefore must update the
+ * sequences Hibernate uses to generate the primary keys of the entities.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+public final class KeySequences {
+	/**
+	 * The increment size of the sequences Hibernate uses for generating the primary keys
+	 */
+	public static final int SEQUENCE_INCREMENT = 50;
+
+	private KeySequences() {}
+
+	/**
+	 * Moves the Hibernate sequence used for the primary keys of the given table past the given key. As Hibernate uses
+	 * a pooled optimiser, the value retrieved from the sequence is the upper bound of the block of keys it will use, so
+	 * the new value must be at least an increment higher. When the database does not support sequences Hibernate
+	 * emulates them using a table.
+	 * <p>
+	 * NOTE: A running server may already have reserved a block of keys that overlaps with keys assigned by a tool, so
+	 * the server must not be running when records are written directly to the tables.
+	 *
+	 * @param c			the database connection, in auto-commit mode
+	 * @param table		the table name
+	 * @param lastKey	the highest key in use in the table
+	 */
+	public static void alignSequence(Connection c, String table, long lastKey) {
+		final long value = lastKey + SEQUENCE_INCREMENT;
+		try (Statement s = c.createStatement()) {
+			s.execute("alter sequence " + table + "_seq restart with " + value);
+		} catch (SQLException noSequence) {
+			try (Statement s = c.createStatement()) {
+				s.executeUpdate("update " + table + "_seq set next_val = " + value);
+			} catch (SQLException updateFailure) {
+				log.error("Could not update the key sequence of table {} to {}. Update manually!", table, value);
+			}
+		}
+	}
+}
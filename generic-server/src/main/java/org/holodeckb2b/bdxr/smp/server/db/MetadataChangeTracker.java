@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.holodeckb2b.bdxr.smp.server.db.entities.BaseMetadataRegistrationEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessGroupEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessInfoEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServerConfigEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps track of changes to the meta-data managed by the SMP server so components that derive data from it, like the
+ * cache of query responses, know when their derived data is outdated.
+ * <p>
+ * Changes made through this server instance are tracked by registering Hibernate event listeners that increment the
+ * {@link #getChangeCount() change counter} after the transaction that made the change has completed successfully. As
+ * the counter only covers changes made by this instance, the tracker also provides a {@link #getContentRevision()
+ * content revision} which is derived from the current database content (number of records, their last modification
+ * time stamps and primary keys) and which can be used to detect changes made while the server was down or by other
+ * server instances using the same database.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class MetadataChangeTracker implements PostInsertEventListener, PostUpdateEventListener,
+						PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+						PostCollectionRemoveEventListener {
+	/**
+	 * The queries used to calculate the content revision. Each query results in one row of aggregated values.
+	 */
+	private static final String[] REVISION_QUERIES = {
+		"select count(e), max(e.lastModified), sum(e.oid) from Participant e",
+		"select count(e), max(e.lastModified), sum(e.oid) from ServiceMetadataTemplate e",
+		"select count(e), max(e.lastModified), sum(e.oid) from Endpoint e",
+		"select count(e), max(e.lastModified), sum(e.oid) from Service e",
+		"select count(e), max(e.lastModified), sum(e.oid) from Process e",
+		"select count(e), max(e.lastModified), sum(e.oid) from IDScheme e",
+		"select count(e), max(e.lastModified), sum(e.oid) from TransportProfile e",
+		"select count(e), max(e.lastModified) from ServerConfigEntity e",
+		"select count(e), sum(e.oid) from ProcessGroup e",
+		"select count(e), sum(e.oid) from ProcessInfo e",
+		"select count(ep), sum(ep.oid) from ProcessGroup pg join pg.endpoints ep"
+	};
+
+	@Autowired
+	private EntityManagerFactory	emf;
+
+	@PersistenceContext
+	private EntityManager	em;
+
+	/**
+	 * Number of changes made to the meta-data by this server instance
+	 */
+	private final AtomicLong changes = new AtomicLong();
+
+	@PostConstruct
+	void registerListeners() {
+		log.trace("Register meta-data change listeners");
+		EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+																			.getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, this);
+		registry.appendListeners(EventType.POST_UPDATE, this);
+		registry.appendListeners(EventType.POST_DELETE, this);
+		registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+		registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+		registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+	}
+
+	/**
+	 * Gets the number of changes made to the meta-data by this server instance since it was started. The counter is
+	 * only incremented after the transaction in which the change was made has been committed.
+	 *
+	 * @return	the current value of the change counter
+	 */
+	public long getChangeCount() {
+		return changes.get();
+	}
+
+	/**
+	 * Registers a change of the meta-data that was made using a bulk statement. Such statements do not trigger the
+	 * Hibernate events and must therefore be registered explicitly. As with the changes detected through the events,
+	 * the change counter is incremented after the current transaction has been committed, or immediately when there
+	 * is no active transaction.
+	 */
+	public void registerBulkChange() {
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					changes.incrementAndGet();
+				}
+			});
+		else
+			changes.incrementAndGet();
+	}
+
+	/**
+	 * Calculates the current revision of the meta-data content stored in the database. The revision is a digest of
+	 * aggregated values of all meta-data tables and will therefore change when meta-data registrations are added,
+	 * removed or updated.
+	 * <p>
+	 * NOTE: As calculation of the revision requires a number of aggregate queries to be executed it should not be
+	 * called for each request.
+	 *
+	 * @return	hex encoded digest identifying the current revision of the meta-data
+	 */
+	@Transactional(readOnly = true)
+	public String getContentRevision() {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException noSHA256) {
+			throw new IllegalStateException("SHA-256 not supported", noSHA256);
+		}
+		for (String q : REVISION_QUERIES)
+			digest.update(Arrays.toString(em.createQuery(q, Object[].class).getSingleResult())
+																					.getBytes(StandardCharsets.UTF_8));
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		registerChange(event, event.getEntity());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		registerChange(event, event.getEntity());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		registerChange(event, event.getEntity());
+	}
+
+	@Override
+	public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+		registerChange(event, event.getAffectedOwnerOrNull());
+	}
+
+	@Override
+	public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+		registerChange(event, event.getAffectedOwnerOrNull());
+	}
+
+	@Override
+	public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+		registerChange(event, event.getAffectedOwnerOrNull());
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	/**
+	 * Registers a change of the given entity object. When the entity is part of the meta-data, the change counter is
+	 * incremented once the current transaction has completed successfully.
+	 *
+	 * @param event		the Hibernate event triggered by the change
+	 * @param entity	the entity object that was changed, may be <code>null</code> when unknown
+	 */
+	private void registerChange(AbstractEvent event, Object entity) {
+		if (entity instanceof BaseMetadataRegistrationEntity || entity instanceof ProcessGroupEntity
+			|| entity instanceof ProcessInfoEntity || entity instanceof ServerConfigEntity)
+			event.getSession().getActionQueue().registerProcess((success, session) -> {
+				if (success)
+					changes.incrementAndGet();
+			});
+	}
+}
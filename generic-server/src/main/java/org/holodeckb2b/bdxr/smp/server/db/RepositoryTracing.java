@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * Adds tracing of the calls to the Spring Data repositories so the database access is visible in the traces of the
+ * requests handled by the SMP server. Each repository method invocation executed as part of a trace results in a span
+ * named after the repository interface and method. Invocations outside a trace, for example by scheduled tasks, are
+ * not traced to prevent them from starting new traces.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+public class RepositoryTracing implements BeanPostProcessor {
+
+	private final ObjectProvider<Tracer>	tracerProvider;
+
+	public RepositoryTracing(ObjectProvider<Tracer> tracerProvider) {
+		this.tracerProvider = tracerProvider;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repoFactory)
+			repoFactory.addRepositoryFactoryCustomizer(factory ->
+				factory.addRepositoryProxyPostProcessor((proxyFactory, repoInfo) -> {
+					final String repoName = repoInfo.getRepositoryInterface().getSimpleName();
+					proxyFactory.addAdvice(0, (MethodInterceptor) invocation -> {
+						Tracer tracer = tracerProvider.getIfAvailable();
+						if (tracer == null || tracer.currentSpan() == null)
+							return invocation.proceed();
+						Span span = tracer.nextSpan().name(repoName + "." + invocation.getMethod().getName())
+												.tag("db.repository", repoName).start();
+						try (Tracer.SpanInScope inScope = tracer.withSpan(span)) {
+							return invocation.proceed();
+						} catch (Throwable t) {
+							span.error(t);
+							throw t;
+						} finally {
+							span.end();
+						}
+					});
+				}));
+		return bean;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Keeps track of the number of SQL statements executed by the current thread and the time spent executing them. The
+ * listener is registered with Hibernate through the <code>hibernate.session.events.auto</code> setting so an instance
+ * is attached to every session. As a session is only used by one thread at a time, the counters are kept per thread
+ * and components can determine the statements executed for a specific task by taking the difference between the
+ * counter values at the start and end of the task.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class SQLStatementStatistics extends BaseSessionEventListener {
+	private static final long serialVersionUID = -1806418318407383566L;
+
+	/**
+	 * The counters of the current thread, [0] is the number of executed statements, [1] the execution time in
+	 * nanoseconds
+	 */
+	private static final ThreadLocal<long[]> COUNTERS = ThreadLocal.withInitial(() -> new long[2]);
+
+	/**
+	 * Start time of the statement currently being executed in the session
+	 */
+	private transient long	start;
+
+	/**
+	 * Gets the total number of SQL statements executed by the current thread.
+	 *
+	 * @return	number of executed statements
+	 */
+	public static long getStatementCount() {
+		return COUNTERS.get()[0];
+	}
+
+	/**
+	 * Gets the total time spent by the current thread on executing SQL statements.
+	 *
+	 * @return	execution time in nanoseconds
+	 */
+	public static long getStatementNanos() {
+		return COUNTERS.get()[1];
+	}
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		start = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteStatementEnd() {
+		record();
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		start = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteBatchEnd() {
+		record();
+	}
+
+	private void record() {
+		long[] c = COUNTERS.get();
+		c[0]++;
+		c[1] += System.nanoTime() - start;
+	}
+}
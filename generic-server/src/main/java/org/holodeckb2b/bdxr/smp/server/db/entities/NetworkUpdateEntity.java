@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Is the JPA entity for storing an update of the SML or directory that still needs to be, or has been, executed for a
+ * Participant. The updates are written in the same transaction as the change of the Participant's meta-data, so an
+ * update is only executed when the change is committed and it can be retried when the SML or directory is temporarily
+ * unavailable.
+ * <p>
+ * As the update must also be executed after the Participant has been deleted, it does not reference the Participant
+ * entity but stores the <i>oid</i> and string representation of the Participant's identifier. The latter is also used
+ * to execute the updates of a Participant in the order they were created.
+ * <p>
+ * A pending directory update can be merged with a later one as long as it has not been executed, which changes its
+ * operation. The entity is versioned so an update can only be claimed for execution when it has not been changed by a
+ * merge or claimed by another instance of the server since it was read.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Entity(name = "NetworkUpdate")
+@Table(indexes = { @Index(name = "IDX_NETWORKUPDATE_STATE", columnList = "state,nextAttempt"),
+				   @Index(name = "IDX_NETWORKUPDATE_PARTICIPANT", columnList = "participantId") })
+@Getter
+@NoArgsConstructor
+public class NetworkUpdateEntity {
+	/**
+	 * Maximum length of the Participant ID
+	 */
+	public static final int MAX_PARTICIPANT_LEN = 255;
+	/**
+	 * Maximum length of the error description
+	 */
+	public static final int MAX_ERROR_LEN = 1024;
+
+	/**
+	 * Enumerates the updates that can be executed.
+	 */
+	public enum Operation {
+		REGISTER_IN_SML, REMOVE_FROM_SML, PUBLISH_IN_DIRECTORY, UPDATE_IN_DIRECTORY, REMOVE_FROM_DIRECTORY;
+
+		/**
+		 * @return <code>true</code> if the operation updates the SML, <code>false</code> if it updates the directory
+		 */
+		public boolean isSMLUpdate() {
+			return this == REGISTER_IN_SML || this == REMOVE_FROM_SML;
+		}
+
+		/**
+		 * Gets the operation that results in the same final state of the directory as executing this operation
+		 * followed by the given one. As the publication of the Participant's information always uses its current
+		 * meta-data, only the last operation needs to be executed, except that an update following a publication
+		 * remains a publication.
+		 *
+		 * @param next	the directory operation executed after this one
+		 * @return	the merged directory operation
+		 */
+		public Operation mergeWith(Operation next) {
+			return next == UPDATE_IN_DIRECTORY && this == PUBLISH_IN_DIRECTORY ? this : next;
+		}
+	}
+
+	/**
+	 * Enumerates the processing states of an update.
+	 */
+	public enum State {
+		/**
+		 * The update still needs to be executed
+		 */
+		PENDING,
+		/**
+		 * The update has been executed successfully
+		 */
+		DELIVERED,
+		/**
+		 * The update could not be executed and will not be retried
+		 */
+		FAILED
+	}
+
+	@Id
+	@GeneratedValue
+	private Long oid;
+
+	@Column(updatable = false)
+	private Long		participantOid;
+
+	@Column(nullable = false, updatable = false, length = MAX_PARTICIPANT_LEN)
+	private String		participantId;
+
+	@Version
+	private long		version;
+
+	@Column(nullable = false)
+	@Enumerated(EnumType.STRING)
+	@Setter
+	private Operation	operation;
+
+	@Column(nullable = false, updatable = false)
+	private String		submittedBy;
+
+	@Column(nullable = false, updatable = false)
+	private Instant		created;
+
+	@Column(nullable = false)
+	@Enumerated(EnumType.STRING)
+	@Setter
+	private State		state;
+
+	@Setter
+	private int			attempts;
+
+	@Setter
+	private Instant		nextAttempt;
+
+	@Setter
+	private Instant		processed;
+
+	@Column(length = MAX_ERROR_LEN)
+	private String		lastError;
+
+	/**
+	 * Creates a new pending update of the SML or directory for the given Participant.
+	 *
+	 * @param participantOid	the <i>oid</i> of the Participant
+	 * @param participantId		the string representation of the Participant's identifier
+	 * @param operation			the update to execute
+	 * @param submittedBy		the name of the User that requested the update
+	 */
+	public NetworkUpdateEntity(Long participantOid, String participantId, Operation operation, String submittedBy) {
+		this.participantOid = participantOid;
+		this.participantId = participantId;
+		this.operation = operation;
+		this.submittedBy = submittedBy;
+		this.created = Instant.now();
+		this.state = State.PENDING;
+		this.nextAttempt = this.created;
+	}
+
+	/**
+	 * Sets the description of the error that occurred in the last attempt to execute the update. The description is
+	 * truncated when it exceeds the maximum length.
+	 *
+	 * @param error	the error description
+	 */
+	public void setLastError(String error) {
+		this.lastError = error != null && error.length() > MAX_ERROR_LEN ? error.substring(0, MAX_ERROR_LEN) : error;
+	}
+}
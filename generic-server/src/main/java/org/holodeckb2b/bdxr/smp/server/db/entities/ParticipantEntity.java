@@ -19,13 +19,15 @@ package org.holodeckb2b.bdxr.smp.server.db.entities;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
 import org.holodeckb2b.bdxr.smp.datamodel.IDScheme;
 import org.holodeckb2b.bdxr.smp.datamodel.impl.IDSchemeImpl;
@@ -37,7 +39,9 @@ import org.holodeckb2b.commons.util.Utils;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -74,9 +78,9 @@ import lombok.Setter;
 })
 @NamedQueries({
 	@NamedQuery(name = "Participant.findByAdditionalId", 
-				query = "SELECT p FROM Participant p WHERE locate(:additionalId, p.additionalIds,0) > 0"),
+				query = "SELECT p FROM Participant p JOIN p.additionalIds a WHERE a = :additionalId"),
 	@NamedQuery(name = "Participant.countByAdditionalId", 
-				query = "SELECT count(p) FROM Participant p WHERE locate(:additionalId, p.additionalIds,0) > 0")
+				query = "SELECT count(p) FROM Participant p JOIN p.additionalIds a WHERE a = :additionalId")
 })
 @NoArgsConstructor
 public class ParticipantEntity extends AbstractIdBasedEntity<Identifier, EmbeddedIdentifier> implements Participant {
@@ -107,8 +111,21 @@ public class ParticipantEntity extends AbstractIdBasedEntity<Identifier, Embedde
 	@Setter
 	protected LocalDate firstRegistrationDate;
 	
-	@Column(length=1024)
-	protected String	additionalIds;
+	/**
+	 * The additional identifiers of the Participant, stored in their canonical form as created by {@link
+	 * #convertAdditionalId(org.holodeckb2b.bdxr.common.datamodel.Identifier)} so a Participant can be found by one
+	 * of its additional identifiers using the index on the collection table. The collection is fetched using a
+	 * sub-select to prevent the bindings from being multiplied by a join.
+	 * @since 3.1.0
+	 */
+	@ElementCollection(fetch = FetchType.EAGER)
+	@Fetch(FetchMode.SUBSELECT)
+	@CollectionTable(name = "PARTICIPANT_ADDITIONAL_IDS",
+		joinColumns = @JoinColumn(name = "PARTICIPANT_OID", nullable = false),
+		indexes = { @Index(name = "IDX_PART_ADDID", columnList = "ADDITIONAL_ID") }
+	)
+	@Column(name = "ADDITIONAL_ID", length = 512, nullable = false)
+	protected Set<String>	additionalIds = new HashSet<>();
 
 	@Transient
 	private Set<org.holodeckb2b.bdxr.common.datamodel.Identifier> additionalIdsSet;
@@ -156,8 +173,7 @@ public class ParticipantEntity extends AbstractIdBasedEntity<Identifier, Embedde
 		this.locationInfo = source.locationInfo;
 		this.websiteURL = source.websiteURL;
 		this.firstRegistrationDate = source.firstRegistrationDate;
-		this.additionalIds = source.additionalIds;
-		this.additionalIdsSet = source.additionalIdsSet;
+		this.additionalIds = new HashSet<>(source.additionalIds);
 		this.registeredInSML = source.registeredInSML;
 		this.publishedInDirectory = source.publishedInDirectory;
 		this.SMLMigrationCode = source.SMLMigrationCode;
@@ -195,6 +211,7 @@ public class ParticipantEntity extends AbstractIdBasedEntity<Identifier, Embedde
 	 */
 	public void addBinding(ServiceMetadataTemplateEntity smt) {
 		bindings.add(smt);
+		touch();
 	}
 
 	/**
@@ -204,6 +221,16 @@ public class ParticipantEntity extends AbstractIdBasedEntity<Identifier, Embedde
 	 */
 	public void removeBinding(ServiceMetadataTemplateEntity smt) {
 		bindings.remove(smt);
+		touch();
+	}
+
+	/**
+	 * Marks the Participant as modified. As changes in the bindings and additional identifiers are only stored in 
+	 * separate tables, the <code>lastModified</code> time stamp of the Participant would otherwise not reflect the 
+	 * change.
+	 */
+	private void touch() {
+		lastModified = LocalDateTime.now();
 	}
 	
 	@Override
@@ -255,58 +282,56 @@ public class ParticipantEntity extends AbstractIdBasedEntity<Identifier, Embedde
 	@Override
 	public Set<org.holodeckb2b.bdxr.common.datamodel.Identifier> getAdditionalIds() {
 		if (additionalIdsSet == null) {
-			if (Utils.isNullOrEmpty(additionalIds))
-				additionalIdsSet = new HashSet<>();
-			else {
-				String[] ids = additionalIds.split(",");
-				additionalIdsSet = new HashSet<>(ids.length);
-				for (String id : ids) {
-					IdentifierImpl idobj = IdentifierImpl.from(id);
-					if (idobj.getScheme() != null) {
-						String sid = idobj.getScheme().getSchemeId();
-						int csi = sid.indexOf("[");
-						idobj.setValue(idobj.getValue(), new IDSchemeImpl(sid.substring(0, csi),
-															Boolean.valueOf(sid.substring(csi + 1, sid.length() - 1))));
-					}
-					additionalIdsSet.add(idobj);
-				}
-			}
-		}		
+			Set<org.holodeckb2b.bdxr.common.datamodel.Identifier> idSet = new HashSet<>(additionalIds.size());
+			additionalIds.forEach(id -> idSet.add(parseAdditionalId(id)));
+			additionalIdsSet = idSet;
+		}
 		return Collections.unmodifiableSet(additionalIdsSet);
 	}
 	
 	protected void clearAdditionalIds() {
-		additionalIdsSet = new HashSet<>();
-		convertAdditionalIds();
+		if (!additionalIds.isEmpty()) {
+			additionalIds.clear();
+			additionalIdsSet = null;
+			touch();
+		}
 	}
 		
 	@Override
 	public void addAdditionalId(org.holodeckb2b.bdxr.common.datamodel.Identifier id) {
 		if (id == null)
 			throw new IllegalArgumentException("Identifier must not be null");
-		if (additionalIdsSet == null)
-			additionalIdsSet = new HashSet<>();
-		additionalIdsSet.add(new IdentifierImpl(id.getValue(), id.getScheme()));
-		convertAdditionalIds();
+		if (additionalIds.add(convertAdditionalId(id))) {
+			additionalIdsSet = null;
+			touch();
+		}
 	}
 	
 	@Override
 	public void removeAdditionalId(org.holodeckb2b.bdxr.common.datamodel.Identifier id) {
-		if (additionalIdsSet != null)
-			additionalIdsSet.remove(id);
-		convertAdditionalIds();
+		if (id != null && additionalIds.remove(convertAdditionalId(id))) {
+			additionalIdsSet = null;
+			touch();
+		}
 	}
 	
 	/**
-	 * Helper method to convert the in-memory <code>Set</code> representation of the additional identifiers to the
-	 * concatenated string representation stored in the database.
+	 * Parses the String representation of an additional identifier as stored in the database.
+	 * 
+	 * @param id	the string representation of the identifier as created by {@link 
+	 * 				#convertAdditionalId(org.holodeckb2b.bdxr.common.datamodel.Identifier)} 
+	 * @return	the identifier
+	 * @since 3.1.0
 	 */
-	private void convertAdditionalIds() {
-		if (Utils.isNullOrEmpty(additionalIdsSet))
-			additionalIds = null;
-		else
-			additionalIds = additionalIdsSet.stream().map(id -> convertAdditionalId(id))
-													 .collect(Collectors.joining(","));
+	public static org.holodeckb2b.bdxr.common.datamodel.Identifier parseAdditionalId(String id) {
+		IdentifierImpl idobj = IdentifierImpl.from(id);
+		if (idobj.getScheme() != null) {
+			String sid = idobj.getScheme().getSchemeId();
+			int csi = sid.indexOf("[");
+			idobj.setValue(idobj.getValue(), new IDSchemeImpl(sid.substring(0, csi),
+												Boolean.valueOf(sid.substring(csi + 1, sid.length() - 1))));
+		}
+		return idobj;
 	}
 	
 	/**
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db.entities;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Is the JPA entity for storing the number of queries executed on a day for a specific Participant, Service, query
+ * responder and HTTP status code.
+ * <p>
+ * As the combination of the Participant and Service ID is too long to be used in a unique index, the primary key of
+ * the entity is the SHA-256 digest of all fields that identify the volume, see {@link #keyOf(QueryVolume)}. This also
+ * allows the counts to be updated using an <i>upsert</i> statement, without first reading the stored volumes.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Entity(name = "QueryVolume")
+@Table(indexes = @Index(name = "IDX_QUERYVOLUME_DAY", columnList = "queryDay"))
+@Getter
+@NoArgsConstructor
+public class QueryVolumeEntity {
+	/**
+	 * Maximum length of the Participant ID
+	 */
+	public static final int MAX_PARTICIPANT_LEN = 255;
+	/**
+	 * Maximum length of the Service ID
+	 */
+	public static final int MAX_SERVICE_LEN = 1024;
+	/**
+	 * Length of the key, i.e. the hex encoded SHA-256 digest
+	 */
+	public static final int KEY_LEN = 64;
+
+	@Id
+	@Column(length = KEY_LEN)
+	private String	volumeKey;
+
+	@Column(nullable = false, updatable = false)
+	private LocalDate	queryDay;
+
+	@Column(nullable = false, updatable = false, length = MAX_PARTICIPANT_LEN)
+	private String	participant;
+
+	@Column(nullable = false, updatable = false, length = MAX_SERVICE_LEN)
+	private String	service;
+
+	@Column(nullable = false, updatable = false)
+	private String	responder;
+
+	@Column(nullable = false, updatable = false)
+	private int		status;
+
+	@Column(nullable = false)
+	private long	queryCount;
+
+	/**
+	 * Creates a new entity using the given data.
+	 *
+	 * @param v	the query volume to store, represented as a {@link QueryVolume} instance
+	 */
+	public QueryVolumeEntity(QueryVolume v) {
+		this.volumeKey = keyOf(v);
+		this.queryDay = v.day();
+		this.participant = v.participant();
+		this.service = v.service();
+		this.responder = v.responder();
+		this.status = v.status();
+		this.queryCount = v.count();
+	}
+
+	/**
+	 * Calculates the key of the given query volume, which is the hex encoded SHA-256 digest of the day, Participant,
+	 * Service, responder and status of the volume.
+	 *
+	 * @param v	the query volume
+	 * @return	the key of the query volume
+	 */
+	public static String keyOf(QueryVolume v) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			for (String f : new String[] { v.day().toString(), v.participant(), v.service(), v.responder(),
+											Integer.toString(v.status()) }) {
+				md.update(f.getBytes(StandardCharsets.UTF_8));
+				md.update((byte) 0);
+			}
+			return HexFormat.of().formatHex(md.digest());
+		} catch (NoSuchAlgorithmException noSHA256) {
+			// SHA-256 must be supported by every Java platform
+			throw new IllegalStateException(noSHA256);
+		}
+	}
+
+	/**
+	 * @return	the {@link QueryVolume} representation of the stored query volume
+	 */
+	public QueryVolume toQueryVolume() {
+		return new QueryVolume(queryDay, participant, service, responder, status, queryCount);
+	}
+}
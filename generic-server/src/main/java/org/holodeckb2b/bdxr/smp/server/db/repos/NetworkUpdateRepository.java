@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db.repos;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.Operation;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.State;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The Spring JPA repository for the pending and executed updates of the SML and directory.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface NetworkUpdateRepository extends JpaRepository<NetworkUpdateEntity, Long> {
+
+	/**
+	 * Finds the pending updates that can be executed now. To ensure the updates of a Participant are executed in the
+	 * order they were created, only the oldest pending update of each Participant is included.
+	 *
+	 * @param pending	will always be set to {@link State#PENDING}
+	 * @param now		the current time, updates which should be retried later are not included
+	 * @param limit		the maximum number of updates to return
+	 * @return	the updates that can be executed, ordered by their creation
+	 */
+	@Query("select u from NetworkUpdate u where u.state = :pending and u.nextAttempt <= :now and not exists"
+			+ " (select e.oid from NetworkUpdate e where e.participantId = u.participantId and e.state = :pending"
+			+ " and e.oid < u.oid) order by u.oid")
+	List<NetworkUpdateEntity> findExecutable(State pending, Instant now, Limit limit);
+
+	/**
+	 * Claims the given pending update for execution by this instance. The claim only succeeds when the update has not
+	 * been changed since it was read, so when multiple instances of the server share the database only one of them
+	 * executes the update. The claim increases the number of attempts and postpones the next attempt until the given
+	 * time, so the update is taken over by another instance if this one does not complete the execution.
+	 *
+	 * @param oid		the oid of the update
+	 * @param version	the version of the update as read
+	 * @param pending	will always be set to {@link State#PENDING}
+	 * @param leaseEnd	the time until which the update is claimed
+	 * @return	1 if the update was claimed, 0 if it was changed or claimed by another instance
+	 */
+	@Modifying
+	@Transactional
+	@Query("update NetworkUpdate u set u.attempts = u.attempts + 1, u.nextAttempt = :leaseEnd,"
+			+ " u.version = u.version + 1 where u.oid = :oid and u.version = :version and u.state = :pending")
+	int claim(Long oid, long version, State pending, Instant leaseEnd);
+
+	/**
+	 * Changes the operation of the given pending update, but only if it has not been claimed for execution yet.
+	 *
+	 * @param oid		the oid of the update
+	 * @param operation	the new operation
+	 * @param pending	will always be set to {@link State#PENDING}
+	 * @return	1 if the operation was changed, 0 if the update has already been claimed or executed
+	 */
+	@Modifying
+	@Query("update NetworkUpdate u set u.operation = :operation, u.version = u.version + 1 where u.oid = :oid"
+			+ " and u.state = :pending and u.attempts = 0")
+	int mergeOperation(Long oid, Operation operation, State pending);
+
+	/**
+	 * Finds which of the given Participants have a pending update of one of the given operations.
+	 *
+	 * @param participantIds	the string representations of the Participants' identifiers
+	 * @param pending			will always be set to {@link State#PENDING}
+	 * @param operations		the operations to check
+	 * @return	the string representations of the identifiers of the Participants with a pending update
+	 */
+	@Query("select distinct u.participantId from NetworkUpdate u where u.state = :pending"
+			+ " and u.operation in :operations and u.participantId in :participantIds")
+	List<String> findWithPendingUpdate(Collection<String> participantIds, State pending,
+									   Collection<Operation> operations);
+
+	/**
+	 * Finds all updates of the given Participant that are retained in the database.
+	 *
+	 * @param participantId	the string representation of the Participant's identifier
+	 * @return	the updates of the Participant, ordered by their creation
+	 */
+	List<NetworkUpdateEntity> findByParticipantIdOrderByOid(String participantId);
+
+	/**
+	 * Finds the most recently created update of the given Participant in the given state.
+	 *
+	 * @param participantId	the string representation of the Participant's identifier
+	 * @param state			the processing state
+	 * @return	the most recent update of the Participant in the given state, <code>null</code> if there is none
+	 */
+	NetworkUpdateEntity findFirstByParticipantIdAndStateOrderByOidDesc(String participantId, State state);
+
+	/**
+	 * Counts the updates in the given state.
+	 *
+	 * @param state	the processing state
+	 * @return	the number of updates in the given state
+	 */
+	long countByState(State state);
+
+	/**
+	 * Deletes the updates in the given state that were processed before the given time.
+	 *
+	 * @param state		the processing state, should be either {@link State#DELIVERED} or {@link State#FAILED}
+	 * @param before	the time before which the updates should have been processed
+	 * @return	the number of deleted updates
+	 */
+	@Modifying
+	@Transactional
+	@Query("delete from NetworkUpdate u where u.state = :state and u.processed < :before")
+	int deleteProcessedBefore(State state, Instant before);
+}
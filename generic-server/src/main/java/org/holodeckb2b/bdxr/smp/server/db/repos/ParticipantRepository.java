@@ -16,10 +16,14 @@
  */
 package org.holodeckb2b.bdxr.smp.server.db.repos;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
 import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
 import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -109,6 +113,174 @@ public interface ParticipantRepository extends JpaRepository<ParticipantEntity,
 	@NativeQuery("select count(smb.PARTICIPANT_OID) from SERVICE_METADATA_BINDING smb where smb.TEMPLATE_OID = :templateOid")
 	int countParticipantsSupporting(Long templateOid);		
 	
+	/**
+	 * Gets a batch of the identifiers of the Participants that are registered in the SML. The Participants are ordered
+	 * by their <i>oid</i> so all registered Participants can be retrieved, without loading the complete entity objects,
+	 * by requesting the batches that start after the last <i>oid</i> of the previous batch.
+	 *
+	 * @param after	the <i>oid</i> of the last Participant of the previous batch, use 0 to get the first batch
+	 * @param limit	the maximum number of Participants to include in the batch
+	 * @return	the <i>oid</i> and {@link EmbeddedIdentifier identifier} of the Participants in the batch
+	 * @since 3.1.0
+	 */
+	@Query("select p.oid, p.id from Participant p where p.registeredInSML = true and p.oid > :after order by p.oid")
+	List<Object[]> findSMLRegisteredIds(Long after, Limit limit);
+
+	/**
+	 * Gets a batch of the <i>oids</i> of the Participants in the given SML registration and directory publication
+	 * state. Like {@link #findSMLRegisteredIds(Long, Limit)} the Participants are ordered by their <i>oid</i> so all
+	 * matching Participants can be retrieved by requesting the batches that start after the last <i>oid</i> of the
+	 * previous batch.
+	 *
+	 * @param registered	the required SML registration state, <code>null</code> if it should not be checked
+	 * @param published		the required directory publication state, <code>null</code> if it should not be checked
+	 * @param after			the <i>oid</i> of the last Participant of the previous batch, use 0 to get the first batch
+	 * @param limit			the maximum number of Participants to include in the batch
+	 * @return	the <i>oids</i> of the Participants in the batch
+	 * @since 3.1.0
+	 */
+	@Query("select p.oid from Participant p where (:registered is null or coalesce(p.registeredInSML, false) = :registered)"
+			+ " and (:published is null or coalesce(p.publishedInDirectory, false) = :published)"
+			+ " and p.oid > :after order by p.oid")
+	List<Long> findOidsByState(Boolean registered, Boolean published, Long after, Limit limit);
+
+	/**
+	 * Counts the Participants in the given SML registration and directory publication state.
+	 *
+	 * @param registered	the required SML registration state, <code>null</code> if it should not be checked
+	 * @param published		the required directory publication state, <code>null</code> if it should not be checked
+	 * @return	the number of Participants in the given state
+	 * @since 3.1.0
+	 */
+	@Query("select count(p) from Participant p where (:registered is null or coalesce(p.registeredInSML, false) = :registered)"
+			+ " and (:published is null or coalesce(p.publishedInDirectory, false) = :published)")
+	long countByState(Boolean registered, Boolean published);
+
+	/**
+	 * Gets a batch of the <i>oids</i> of the Participants bound to the given Service Metadata Template, ordered by
+	 * their <i>oid</i>.
+	 *
+	 * @param templateOid	the <i>oid</i> of the Service Metadata Template
+	 * @param after			the <i>oid</i> of the last Participant of the previous batch, use 0 to get the first batch
+	 * @param limit			the maximum number of Participants to include in the batch
+	 * @return	the <i>oids</i> of the Participants in the batch
+	 * @since 3.1.0
+	 */
+	@NativeQuery("select smb.PARTICIPANT_OID from SERVICE_METADATA_BINDING smb where smb.TEMPLATE_OID = :templateOid"
+			+ " and smb.PARTICIPANT_OID > :after order by smb.PARTICIPANT_OID limit :limit")
+	List<Long> findOidsSupporting(Long templateOid, Long after, int limit);
+
+	/**
+	 * Gets the identifiers of the Participants which identifier value, ignoring case, is one of the given values. This
+	 * query is used to check a set of new identifiers for duplicates at once. As the case sensitivity of the
+	 * identifier's scheme is not taken into account, the result may include identifiers that only differ in case from
+	 * the given values and the caller must compare the identifiers.
+	 *
+	 * @param lcValues	the <b>lower case</b> identifier values to check
+	 * @return	the identifiers of the Participants with one of the given values
+	 * @since 3.1.0
+	 */
+	@Query("select p.id from Participant p where lower(p.id.value) in :lcValues")
+	List<EmbeddedIdentifier> findIdsByValues(Collection<String> lcValues);
+
+	/**
+	 * Gets the <i>oids</i> and identifiers of the Participants which identifier value, ignoring case, is one of the
+	 * given values. Like {@link #findIdsByValues(Collection)} the result may include identifiers that only differ in
+	 * case from the given values and the caller must compare the identifiers.
+	 *
+	 * @param lcValues	the <b>lower case</b> identifier values to find
+	 * @return	the <i>oid</i> and {@link EmbeddedIdentifier identifier} of the Participants with one of the given values
+	 * @since 3.1.0
+	 */
+	@Query("select p.oid, p.id from Participant p where lower(p.id.value) in :lcValues")
+	List<Object[]> findOidsByValues(Collection<String> lcValues);
+
+	/**
+	 * Gets the <i>oids</i> of the given Participants that are bound to the given Service Metadata Template.
+	 *
+	 * @param templateOid	the <i>oid</i> of the Service Metadata Template
+	 * @param oids			the <i>oids</i> of the Participants to check
+	 * @return	the <i>oids</i> of the Participants bound to the template
+	 * @since 3.1.0
+	 */
+	@NativeQuery("select smb.PARTICIPANT_OID from SERVICE_METADATA_BINDING smb where smb.TEMPLATE_OID = :templateOid"
+			+ " and smb.PARTICIPANT_OID in :oids")
+	List<Long> findOidsBoundTo(Long templateOid, Collection<Long> oids);
+
+	/**
+	 * Binds the given Service Metadata Template to the given Participants that are not bound to it yet.
+	 * <p>
+	 * NOTE: As this statement directly updates the binding table, the bindings of Participant entity objects that are
+	 * already loaded are not updated. Also the last modification time stamp of the Participants is not updated, which
+	 * should be done using {@link #touch(Collection, LocalDateTime)}.
+	 *
+	 * @param templateOid	the <i>oid</i> of the Service Metadata Template
+	 * @param oids			the <i>oids</i> of the Participants
+	 * @return	the number of added bindings
+	 * @since 3.1.0
+	 */
+	@Modifying
+	@NativeQuery("insert into SERVICE_METADATA_BINDING (PARTICIPANT_OID, TEMPLATE_OID) select p.oid, :templateOid"
+			+ " from participant p where p.oid in :oids and not exists (select 1 from SERVICE_METADATA_BINDING smb"
+			+ " where smb.PARTICIPANT_OID = p.oid and smb.TEMPLATE_OID = :templateOid)")
+	int addBindings(Long templateOid, Collection<Long> oids);
+
+	/**
+	 * Removes the binding to the given Service Metadata Template from the given Participants. The same note as for
+	 * {@link #addBindings(Long, Collection)} applies.
+	 *
+	 * @param templateOid	the <i>oid</i> of the Service Metadata Template
+	 * @param oids			the <i>oids</i> of the Participants
+	 * @return	the number of removed bindings
+	 * @since 3.1.0
+	 */
+	@Modifying
+	@NativeQuery("delete from SERVICE_METADATA_BINDING where TEMPLATE_OID = :templateOid and PARTICIPANT_OID in :oids")
+	int removeBindings(Long templateOid, Collection<Long> oids);
+
+	/**
+	 * Sets the last modification time stamp of the given Participants. This is needed when the Participants are
+	 * changed using bulk statements, as the time stamp is then not updated automatically while it is used to detect
+	 * changes to the meta-data (see {@link org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker}).
+	 *
+	 * @param oids		the <i>oids</i> of the Participants
+	 * @param timestamp	the time stamp to set
+	 * @return	the number of updated Participants
+	 * @since 3.1.0
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Participant p set p.lastModified = :timestamp where p.oid in :oids")
+	int touch(Collection<Long> oids, LocalDateTime timestamp);
+
+	/**
+	 * Sets the SML registration indication of the given Participants. As this is a bulk statement, also the last
+	 * modification time stamp is set (see {@link #touch(Collection, LocalDateTime)}).
+	 *
+	 * @param oids			the <i>oids</i> of the Participants
+	 * @param registered	the new SML registration indication
+	 * @param timestamp		the time stamp to set
+	 * @return	the number of updated Participants
+	 * @since 3.1.0
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Participant p set p.registeredInSML = :registered, p.lastModified = :timestamp where p.oid in :oids")
+	int setRegisteredInSML(Collection<Long> oids, boolean registered, LocalDateTime timestamp);
+
+	/**
+	 * Sets the directory publication indication of the given Participants. As this is a bulk statement, also the last
+	 * modification time stamp is set (see {@link #touch(Collection, LocalDateTime)}).
+	 *
+	 * @param oids		the <i>oids</i> of the Participants
+	 * @param published	the new directory publication indication
+	 * @param timestamp	the time stamp to set
+	 * @return	the number of updated Participants
+	 * @since 3.1.0
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update Participant p set p.publishedInDirectory = :published, p.lastModified = :timestamp"
+			+ " where p.oid in :oids")
+	int setPublishedInDirectory(Collection<Long> oids, boolean published, LocalDateTime timestamp);
+
 	/**
 	 * Set the SML registration indication to <code>false</code> for all Participants.
 	 */
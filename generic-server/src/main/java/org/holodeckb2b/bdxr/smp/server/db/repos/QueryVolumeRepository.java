@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db.repos;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.db.entities.QueryVolumeEntity;
+import org.holodeckb2b.bdxr.smp.server.services.query.DailyQueryVolume;
+import org.holodeckb2b.bdxr.smp.server.services.query.PeriodQueryVolume;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * The Spring JPA repository for the query volumes. New volumes are added using the {@link QueryVolumeUpsertRepo}
+ * capability.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface QueryVolumeRepository extends JpaRepository<QueryVolumeEntity, String>, QueryVolumeUpsertRepo {
+
+	/**
+	 * Calculates the total number of queries per day and status in the given period.
+	 *
+	 * @param from	the first day of the period
+	 * @param to	the last day of the period
+	 * @return	the daily query volumes in the given period, ordered by day and status
+	 */
+	@Query("select new org.holodeckb2b.bdxr.smp.server.services.query.DailyQueryVolume(v.queryDay, v.status, "
+			+ "sum(v.queryCount)) from QueryVolume v where v.queryDay between :from and :to "
+			+ "group by v.queryDay, v.status order by v.queryDay, v.status")
+	List<DailyQueryVolume> sumPerDay(LocalDate from, LocalDate to);
+
+	/**
+	 * Calculates the number of queries per Participant, Service, responder and status in the given period and returns
+	 * the highest ones.
+	 *
+	 * @param from	the first day of the period
+	 * @param to	the last day of the period
+	 * @param limit	the maximum number of volumes to return
+	 * @return	the highest query volumes in the given period, ordered by descending count
+	 */
+	@Query("select new org.holodeckb2b.bdxr.smp.server.services.query.PeriodQueryVolume(v.participant, v.service, "
+			+ "v.responder, v.status, sum(v.queryCount)) from QueryVolume v where v.queryDay between :from and :to "
+			+ "group by v.participant, v.service, v.responder, v.status order by sum(v.queryCount) desc")
+	List<PeriodQueryVolume> sumPerParticipant(LocalDate from, LocalDate to, Limit limit);
+
+	/**
+	 * Counts the query volumes stored for the given day.
+	 *
+	 * @param day	the day
+	 * @return	the number of stored query volumes of the day
+	 */
+	long countByQueryDay(LocalDate day);
+
+	/**
+	 * Finds which of the given keys are used by a stored query volume.
+	 *
+	 * @param keys	the keys to check, see {@link QueryVolumeEntity#keyOf(QueryVolume)}
+	 * @return	the keys of the given set that are in use
+	 */
+	@Query("select v.volumeKey from QueryVolume v where v.volumeKey in :keys")
+	List<String> findExistingKeys(Collection<String> keys);
+
+	/**
+	 * Deletes all query volumes of the days before the given day.
+	 *
+	 * @param day	the day before which all query volumes should be deleted
+	 */
+	void deleteByQueryDayBefore(LocalDate day);
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db.repos;
+
+import java.util.Collection;
+
+import org.holodeckb2b.bdxr.smp.server.db.entities.QueryVolumeEntity;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume;
+
+/**
+ * Defines the capability to add query volumes to the {@link QueryVolumeEntity} based repository without reading the
+ * stored volumes first.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface QueryVolumeUpsertRepo {
+
+	/**
+	 * Adds the counts of the given query volumes to the stored ones, or stores the volume when there is no stored
+	 * volume yet for the same day, Participant, Service, responder and status. The counts are updated in the database
+	 * itself, so volumes can be added concurrently by multiple SMP server instances.
+	 * <p>
+	 * NOTE: Each volume in the collection must be unique, i.e. the collection must not contain multiple volumes for
+	 * the same day, Participant, Service, responder and status.
+	 *
+	 * @param volumes	the query volumes to add
+	 */
+	void upsert(Collection<QueryVolume> volumes);
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db.repos;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+
+import org.hibernate.Session;
+import org.holodeckb2b.bdxr.smp.server.db.entities.QueryVolumeEntity;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the {@link QueryVolumeUpsertRepo} using a JDBC batch of <i>upsert</i> statements that add the count to
+ * the stored volume. As there is no standard SQL statement that is supported by all databases, MariaDB and MySQL use
+ * <code>INSERT ... ON DUPLICATE KEY UPDATE</code> and all other databases the SQL standard <code>MERGE</code>
+ * statement. The volumes are written in batches of {@link #BATCH_SIZE} statements, so the size of a batch sent to the
+ * database does not depend on the number of volumes added.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+public class QueryVolumeUpsertRepoImpl implements QueryVolumeUpsertRepo {
+	/**
+	 * The maximum number of statements executed in one JDBC batch
+	 */
+	static final int BATCH_SIZE = 1000;
+
+	private static final String ON_DUPLICATE_KEY_UPSERT =
+			"insert into query_volume (volume_key, query_day, participant, service, responder, status, query_count) "
+			+ "values (?, ?, ?, ?, ?, ?, ?) on duplicate key update query_count = query_count + values(query_count)";
+
+	private static final String MERGE_UPSERT =
+			"merge into query_volume t using (values (?, ?, ?, ?, ?, ?, ?)) "
+			+ "s (volume_key, query_day, participant, service, responder, status, query_count) "
+			+ "on t.volume_key = s.volume_key "
+			+ "when matched then update set query_count = t.query_count + s.query_count "
+			+ "when not matched then insert (volume_key, query_day, participant, service, responder, status, "
+			+ "query_count) values (s.volume_key, s.query_day, s.participant, s.service, s.responder, s.status, "
+			+ "s.query_count)";
+
+	@Autowired
+	protected EntityManager	em;
+
+	/**
+	 * The upsert statement for the database in use, determined on first use
+	 */
+	private volatile String	upsertStatement;
+
+	@Override
+	public void upsert(Collection<QueryVolume> volumes) {
+		em.unwrap(Session.class).doWork(c -> {
+			try (PreparedStatement ps = c.prepareStatement(getUpsertStatement(c))) {
+				int batched = 0;
+				for (QueryVolume v : volumes) {
+					ps.setString(1, QueryVolumeEntity.keyOf(v));
+					ps.setDate(2, Date.valueOf(v.day()));
+					ps.setString(3, v.participant());
+					ps.setString(4, v.service());
+					ps.setString(5, v.responder());
+					ps.setInt(6, v.status());
+					ps.setLong(7, v.count());
+					ps.addBatch();
+					if (++batched == BATCH_SIZE) {
+						ps.executeBatch();
+						batched = 0;
+					}
+				}
+				if (batched > 0)
+					ps.executeBatch();
+			}
+		});
+	}
+
+	/**
+	 * Gets the upsert statement supported by the database.
+	 *
+	 * @param c	the connection to the database
+	 * @return	the upsert statement to use
+	 * @throws SQLException	when the database product cannot be retrieved
+	 */
+	private String getUpsertStatement(Connection c) throws SQLException {
+		if (upsertStatement == null) {
+			final String product = c.getMetaData().getDatabaseProductName();
+			upsertStatement = "MariaDB".equalsIgnoreCase(product) || "MySQL".equalsIgnoreCase(product)
+								? ON_DUPLICATE_KEY_UPSERT : MERGE_UPSERT;
+			log.debug("Using {} to add query volumes to {} database",
+					  upsertStatement == MERGE_UPSERT ? "MERGE" : "INSERT ON DUPLICATE KEY", product);
+		}
+		return upsertStatement;
+	}
+}
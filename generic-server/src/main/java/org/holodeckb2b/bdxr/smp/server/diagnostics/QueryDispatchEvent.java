@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records the processing of a query by the responder it was dispatched to.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Name("org.holodeckb2b.smp.QueryDispatch")
+@Label("Query Dispatch")
+@Description("Processing of a query by a query responder")
+public class QueryDispatchEvent extends SMPEvent {
+
+	@Label("Responder")
+	@Description("Name of the query responder that processed the query")
+	public String	responder;
+
+	@Label("Status")
+	@Description("HTTP status code of the response")
+	public int		status;
+}
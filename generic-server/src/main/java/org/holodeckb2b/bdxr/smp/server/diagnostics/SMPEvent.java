@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Is the base class for the JDK Flight Recorder events emitted by the SMP server. All events carry the identifiers of
+ * the Participant and Service involved, if applicable, and the outcome of the recorded operation so a recording shows
+ * exactly for which Participant an operation stalled.
+ * <p>
+ * The events are created and started before the operation is executed and should be completed using {@link
+ * #complete(Object, Object, String)}, which only converts the identifiers to text when the event is actually recorded.
+ * This keeps the overhead negligible when no recording is running.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Category("Holodeck SMP")
+@StackTrace(false)
+public abstract class SMPEvent extends Event {
+
+	@Label("Participant")
+	@Description("Identifier of the Participant involved in the operation")
+	protected String	participant;
+
+	@Label("Service")
+	@Description("Identifier of the Service involved in the operation")
+	protected String	service;
+
+	@Label("Outcome")
+	@Description("Result of the operation")
+	protected String	outcome;
+
+	/**
+	 * Completes the event and records it if required by the active recording(s).
+	 *
+	 * @param participant	identifier of the Participant involved, may be <code>null</code>
+	 * @param service		identifier of the Service involved, may be <code>null</code>
+	 * @param outcome		result of the operation
+	 */
+	public void complete(Object participant, Object service, String outcome) {
+		end();
+		if (shouldCommit()) {
+			this.participant = participant != null ? participant.toString() : null;
+			this.service = service != null ? service.toString() : null;
+			this.outcome = outcome;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.holodeckb2b.bdxr.smp.server.utils.JsonUtils;
+import org.holodeckb2b.commons.util.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Is the access log of the query API. To ensure that logging does not delay the processing of queries, the request
+ * threads only copy the data of the request into a slot of a pre-allocated ring buffer. A single background thread
+ * takes the records from the buffer, formats them as JSON objects and writes them, one per line, to the access log
+ * file. When the buffer is full, because the writer cannot keep up, new records are dropped instead of blocking the
+ * request thread. The number of dropped records is reported in the server log.
+ * <p>
+ * Each record contains the time stamp of the request, the query responder that handled it, the query path and the
+ * queried Participant and Service ID, the HTTP status code, whether the response was taken from the cache, the size of
+ * the response (if known when the request completes) and the time spent in each processing stage: cache look up, query
+ * processing by the responder and serialisation of the response. To make it possible to replay the logged queries and
+ * check that the same responses are returned, the record can also include a set of request headers and a {@link
+ * ResponseDigest digest} of the response. The digest of a response that is available as a whole, i.e. a cached
+ * response, is calculated by the writer and therefore does not add to the processing time of the request. The digest
+ * of a streamed response is calculated while it is written. As calculating the digest still costs CPU time, it is
+ * only included when enabled.
+ * <p>
+ * The access log file is rolled over when the number of bytes written to it exceeds the maximum size. When the roll
+ * over fails, the writer continues to write to the current file and retries the roll over after a minute. The access
+ * log can be configured using the
+ * following properties:<ul>
+ * <li><code>smp.query.accesslog.enabled</code> : indicates whether the access log should be written, default
+ * 		<code>true</code>. When disabled the requests are logged to the <code>org.holodeckb2b.bdxr.smp.server.queries
+ * 		</code> logger of the server log</li>
+ * <li><code>smp.query.accesslog.file</code> : path of the access log file, default
+ * 		<code>«smp.home»/logs/query-access.log</code></li>
+ * <li><code>smp.query.accesslog.buffer_size</code> : number of records the buffer can hold, rounded up to a power of
+ * 		2, default 8192</li>
+ * <li><code>smp.query.accesslog.max_file_size</code> : size at which the file is rolled over, default 100MB</li>
+ * <li><code>smp.query.accesslog.max_files</code> : number of rolled over files to keep, default 10</li>
+ * <li><code>smp.query.accesslog.headers</code> : comma separated list of the request headers to include, default
+ * 		<code>Accept,Accept-Encoding</code></li>
+ * <li><code>smp.query.accesslog.digest</code> : indicates whether the digest of the response should be included,
+ * 		default <code>false</code></li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class AccessLog {
+	private static final Logger queryLog = LoggerFactory.getLogger("org.holodeckb2b.bdxr.smp.server.queries");
+
+	/**
+	 * Time {@link #sync(long)} waits before checking again whether the records have been written
+	 */
+	private static final long SYNC_WAIT = TimeUnit.MILLISECONDS.toNanos(1);
+	/**
+	 * Time to wait before retrying a failed roll over of the access log file, in milliseconds
+	 */
+	private static final long ROLL_OVER_RETRY = TimeUnit.MINUTES.toMillis(1);
+
+	@Value("${smp.query.accesslog.enabled:true}")
+	protected boolean	enabled;
+
+	@Value("${smp.query.accesslog.file:${smp.home:.}/logs/query-access.log}")
+	protected String	logFile;
+
+	@Value("${smp.query.accesslog.buffer_size:8192}")
+	protected int		bufferSize;
+
+	@Value("${smp.query.accesslog.max_file_size:100MB}")
+	protected DataSize	maxFileSize;
+
+	@Value("${smp.query.accesslog.max_files:10}")
+	protected int		maxFiles;
+
+	@Value("${smp.query.accesslog.headers:Accept,Accept-Encoding}")
+	protected String[]	headerNames;
+
+	@Value("${smp.query.accesslog.digest:false}")
+	protected boolean	includeDigest;
+
+	/**
+	 * A slot in the ring buffer. The fields of the slot are written by the request thread that claimed it and are only
+	 * read by the writer after the claiming thread has published the slot by setting its sequence number.
+	 */
+	private static final class Slot {
+		volatile long	sequence = -1;
+		long		timestamp;
+		String		queryPath;
+		String[]	headers;
+		byte[]		content;
+		String		digest;
+		Class<?>	responder;
+		int			status;
+		boolean		cacheHit;
+		long		bytes;
+		long		lookupNanos;
+		long		processNanos;
+		long		serialiseNanos;
+	}
+
+	private Slot[]	ring;
+	private int		mask;
+	/**
+	 * Sequence number of the next slot to be claimed by a request thread
+	 */
+	private final AtomicLong	claimed = new AtomicLong();
+	/**
+	 * Sequence number of the next slot to be read by the writer
+	 */
+	private volatile long		consumed;
+	/**
+	 * Sequence number up to which the records have been flushed to the file
+	 */
+	private volatile long		flushed;
+	/**
+	 * Number of records dropped because the buffer was full
+	 */
+	private final LongAdder		dropped = new LongAdder();
+
+	private volatile Thread		writerThread;
+	private volatile boolean	running;
+	/**
+	 * Indicates that the writer has no records to write and is about to park, or is parked, until a record is published
+	 */
+	private volatile boolean	writerWaiting;
+	private Writer				out;
+	/**
+	 * Counts the bytes written to the current file
+	 */
+	private CountingOutputStream	written;
+	/**
+	 * Time before which no new attempt to roll over the file is made after a roll over failed
+	 */
+	private long				nextRollOver;
+	private final StringBuilder	line = new StringBuilder(512);
+
+	@PostConstruct
+	void start() {
+		if (!enabled) {
+			log.info("Query access log disabled");
+			return;
+		}
+		int size = Integer.highestOneBit(Math.max(bufferSize - 1, 1)) << 1;
+		ring = new Slot[size];
+		for (int i = 0; i < size; i++) {
+			ring[i] = new Slot();
+			ring[i].headers = new String[headerNames.length];
+		}
+		mask = size - 1;
+
+		try {
+			openFile();
+		} catch (IOException openFailed) {
+			log.error("Could not open the access log file ({}), requests will be logged to server log! Error: {}",
+						logFile, Utils.getExceptionTrace(openFailed));
+			enabled = false;
+			return;
+		}
+		running = true;
+		writerThread = new Thread(this::writeRecords, "query-access-log");
+		writerThread.setDaemon(true);
+		writerThread.start();
+		log.info("Query access log started, writing to {}", logFile);
+	}
+
+	@PreDestroy
+	void stop() {
+		if (writerThread == null)
+			return;
+		running = false;
+		LockSupport.unpark(writerThread);
+		try {
+			writerThread.join(5000);
+		} catch (InterruptedException interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		writerThread = null;
+	}
+
+	/**
+	 * Indicates whether the records written to the access log include the digest of the response. When they do, the
+	 * response content should be provided when {@link #log(String, HttpHeaders, Class, int, boolean, byte[], long,
+	 * long, long, long) logging} the request, or the digest when {@link #logStreamed(String, HttpHeaders, Class, int,
+	 * String, long, long, long, long) logging} a streamed response.
+	 *
+	 * @return	<code>true</code> if the digest of the response is logged, <code>false</code> otherwise
+	 */
+	public boolean isDigestIncluded() {
+		return enabled && includeDigest;
+	}
+
+	/**
+	 * Adds a record to the access log.
+	 *
+	 * @param queryPath		the path of the executed query
+	 * @param responder		class of the query responder that handled the query, <code>null</code> if not known
+	 * @param status		the HTTP status code of the response
+	 * @param cacheHit		indicates whether the response was taken from the cache
+	 * @param bytes			size of the response in bytes, -1 if not known
+	 * @param lookupNanos	time spent looking up the response in the cache, in nanoseconds
+	 * @param processNanos	time spent by the responder to process the query, in nanoseconds
+	 * @param serialiseNanos	time spent to serialise the response, in nanoseconds
+	 */
+	public void log(String queryPath, Class<?> responder, int status, boolean cacheHit, long bytes,
+					long lookupNanos, long processNanos, long serialiseNanos) {
+		log(queryPath, null, responder, status, cacheHit, null, bytes, lookupNanos, processNanos, serialiseNanos);
+	}
+
+	/**
+	 * Adds a record to the access log that includes the configured request headers and the digest of the response.
+	 * The time stamp of the record is set to the time the request was received, i.e. the current time minus the time
+	 * spent in the processing stages.
+	 *
+	 * @param queryPath		the path of the executed query
+	 * @param headers		the HTTP headers of the request, may be <code>null</code>
+	 * @param responder		class of the query responder that handled the query, <code>null</code> if not known
+	 * @param status		the HTTP status code of the response
+	 * @param cacheHit		indicates whether the response was taken from the cache
+	 * @param content		the response content, must not be modified after it has been logged. May be <code>null
+	 * 						</code> when there is no response content or it is not available.
+	 * @param bytes			size of the response in bytes, -1 if not known
+	 * @param lookupNanos	time spent looking up the response in the cache, in nanoseconds
+	 * @param processNanos	time spent by the responder to process the query, in nanoseconds
+	 * @param serialiseNanos	time spent to serialise the response, in nanoseconds
+	 */
+	public void log(String queryPath, HttpHeaders headers, Class<?> responder, int status, boolean cacheHit,
+					byte[] content, long bytes, long lookupNanos, long processNanos, long serialiseNanos) {
+		add(queryPath, headers, responder, status, cacheHit, content, null, bytes, lookupNanos, processNanos,
+			serialiseNanos);
+	}
+
+	/**
+	 * Adds a record for a response that was streamed to the client to the access log. As the content of such a response
+	 * is not available after it has been written, the caller provides the digest calculated while writing it using a
+	 * {@link ResponseDigest.DigestingStream}.
+	 *
+	 * @param queryPath		the path of the executed query
+	 * @param headers		the HTTP headers of the request, may be <code>null</code>
+	 * @param responder		class of the query responder that handled the query, <code>null</code> if not known
+	 * @param status		the HTTP status code of the response
+	 * @param digest		the digest of the response, may be <code>null</code> when not calculated
+	 * @param bytes			size of the response in bytes
+	 * @param lookupNanos	time spent looking up the response in the cache, in nanoseconds
+	 * @param processNanos	time spent by the responder to process the query, in nanoseconds
+	 * @param serialiseNanos	time spent to serialise the response, in nanoseconds
+	 */
+	public void logStreamed(String queryPath, HttpHeaders headers, Class<?> responder, int status, String digest,
+							long bytes, long lookupNanos, long processNanos, long serialiseNanos) {
+		add(queryPath, headers, responder, status, false, null, digest, bytes, lookupNanos, processNanos,
+			serialiseNanos);
+	}
+
+	/**
+	 * Copies the data of the request into a free slot of the ring buffer, or drops the record when the buffer is full.
+	 */
+	private void add(String queryPath, HttpHeaders headers, Class<?> responder, int status, boolean cacheHit,
+					 byte[] content, String digest, long bytes, long lookupNanos, long processNanos,
+					 long serialiseNanos) {
+		if (!enabled) {
+			queryLog.info("{} - {}", status, queryPath);
+			return;
+		}
+		long seq;
+		do {
+			seq = claimed.get();
+			if (seq - consumed >= ring.length) {
+				dropped.increment();
+				return;
+			}
+		} while (!claimed.compareAndSet(seq, seq + 1));
+
+		Slot s = ring[(int) seq & mask];
+		s.timestamp = System.currentTimeMillis() - (lookupNanos + processNanos + serialiseNanos) / 1_000_000;
+		s.queryPath = queryPath;
+		for (int i = 0; i < headerNames.length; i++)
+			s.headers[i] = headers != null ? headers.getFirst(headerNames[i]) : null;
+		s.content = includeDigest ? content : null;
+		s.digest = includeDigest ? digest : null;
+		s.responder = responder;
+		s.status = status;
+		s.cacheHit = cacheHit;
+		s.bytes = bytes;
+		s.lookupNanos = lookupNanos;
+		s.processNanos = processNanos;
+		s.serialiseNanos = serialiseNanos;
+		s.sequence = seq;
+		if (writerWaiting)
+			LockSupport.unpark(writerThread);
+	}
+
+	/**
+	 * Waits until all records added before this method was called have been written to the file.
+	 *
+	 * @param timeout	maximum time to wait in milliseconds
+	 * @return	<code>true</code> if all records were written, <code>false</code> if not
+	 */
+	boolean sync(long timeout) {
+		long target = claimed.get();
+		long end = System.currentTimeMillis() + timeout;
+		while (flushed < target && System.currentTimeMillis() < end)
+			LockSupport.parkNanos(SYNC_WAIT);
+		return flushed >= target;
+	}
+
+	/**
+	 * Takes the records from the buffer and writes them to the access log file until the access log is stopped. When
+	 * there are no records to write the writer flushes the file and parks until a request thread publishes a record.
+	 * To ensure a record published while the writer prepares to park is not missed, the writer announces that it is
+	 * waiting and then checks the next slot again, while the request thread checks for a waiting writer after
+	 * publishing the slot.
+	 */
+	private void writeRecords() {
+		long reportedDrops = 0;
+		while (running || consumed < claimed.get()) {
+			Slot s = ring[(int) consumed & mask];
+			if (s.sequence == consumed) {
+				format(s);
+				s.queryPath = null;
+				s.responder = null;
+				s.content = null;
+				s.digest = null;
+				consumed = consumed + 1;
+				write();
+			} else {
+				try {
+					if (flushed < consumed) {
+						out.flush();
+						flushed = consumed;
+					}
+				} catch (IOException writeFailure) {
+					log.error("Error writing to access log : {}", Utils.getExceptionTrace(writeFailure));
+				}
+				long drops = dropped.sum();
+				if (drops > reportedDrops) {
+					log.warn("Access log buffer full, dropped {} records", drops - reportedDrops);
+					reportedDrops = drops;
+				}
+				if (running) {
+					writerWaiting = true;
+					if (running && s.sequence != consumed)
+						LockSupport.park(this);
+					writerWaiting = false;
+				} else if (claimed.get() > consumed && ring[(int) consumed & mask].sequence != consumed)
+					// A request thread claimed a slot, but did not complete it
+					break;
+			}
+		}
+		try {
+			out.close();
+		} catch (IOException closeFailure) {
+			log.error("Error closing the access log : {}", Utils.getExceptionTrace(closeFailure));
+		}
+		flushed = consumed;
+	}
+
+	/**
+	 * Formats the record in the given slot as a JSON object in the line buffer.
+	 *
+	 * @param s	the slot containing the record
+	 */
+	private void format(Slot s) {
+		line.setLength(0);
+		line.append("{\"timestamp\":\"");
+		DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(s.timestamp), line);
+		line.append("\",\"responder\":");
+		JsonUtils.appendString(line, s.responder != null ? ClassUtils.getUserClass(s.responder).getSimpleName() : null);
+		if (s.queryPath != null) {
+			line.append(",\"path\":");
+			JsonUtils.appendString(line, s.queryPath);
+			String[] ids = QueryVolumeCollector.splitQueryPath(s.queryPath);
+			line.append(",\"participant\":");
+			JsonUtils.appendString(line, ids[0]);
+			line.append(",\"service\":");
+			JsonUtils.appendString(line, ids[1].isEmpty() ? null : ids[1]);
+		}
+		boolean first = true;
+		for (int i = 0; i < headerNames.length; i++)
+			if (s.headers[i] != null) {
+				line.append(first ? ",\"headers\":{" : ",");
+				JsonUtils.appendString(line, headerNames[i]);
+				line.append(':');
+				JsonUtils.appendString(line, s.headers[i]);
+				s.headers[i] = null;
+				first = false;
+			}
+		if (!first)
+			line.append('}');
+		line.append(",\"status\":").append(s.status)
+			.append(",\"cacheHit\":").append(s.cacheHit);
+		if (s.bytes >= 0)
+			line.append(",\"bytes\":").append(s.bytes);
+		String digest = s.content != null ? ResponseDigest.calculate(s.content) : s.digest;
+		if (digest != null)
+			line.append(",\"digest\":\"").append(digest).append('"');
+		line.append(",\"lookupMicros\":").append(s.lookupNanos / 1000)
+			.append(",\"processMicros\":").append(s.processNanos / 1000)
+			.append(",\"serialiseMicros\":").append(s.serialiseNanos / 1000)
+			.append("}\n");
+	}
+
+	/**
+	 * Writes the formatted record in the line buffer to the file, rolling over the file first if it has reached the
+	 * maximum size.
+	 */
+	private void write() {
+		try {
+			if (written.count >= maxFileSize.toBytes() && System.currentTimeMillis() >= nextRollOver) {
+				out.close();
+				try {
+					rollOver();
+				} catch (IOException rollOverFailure) {
+					log.error("Could not roll over access log, continuing with current file : {}",
+								Utils.getExceptionTrace(rollOverFailure));
+					nextRollOver = System.currentTimeMillis() + ROLL_OVER_RETRY;
+				}
+				openFile();
+			}
+			out.append(line);
+		} catch (IOException writeFailure) {
+			log.error("Error writing to access log : {}", Utils.getExceptionTrace(writeFailure));
+		}
+	}
+
+	private void openFile() throws IOException {
+		Path path = Paths.get(logFile);
+		if (path.getParent() != null)
+			Files.createDirectories(path.getParent());
+		written = new CountingOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE,
+																	 StandardOpenOption.APPEND), Files.size(path));
+		out = new BufferedWriter(new OutputStreamWriter(written, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Rolls over the access log files, i.e. renames «file».n to «file».n+1, removing the oldest file, and the current
+	 * file to «file».1.
+	 */
+	private void rollOver() throws IOException {
+		log.debug("Rolling over access log");
+		Files.deleteIfExists(Paths.get(logFile + "." + maxFiles));
+		for (int i = maxFiles - 1; i > 0; i--) {
+			Path p = Paths.get(logFile + "." + i);
+			if (Files.exists(p))
+				Files.move(p, Paths.get(logFile + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+		}
+		if (maxFiles > 0)
+			Files.move(Paths.get(logFile), Paths.get(logFile + ".1"), StandardCopyOption.REPLACE_EXISTING);
+		else
+			Files.delete(Paths.get(logFile));
+	}
+
+	/**
+	 * Counts the bytes written to the file. As the count is updated when the buffered writer flushes its buffer, the
+	 * file can exceed the maximum size by the size of the buffer.
+	 */
+	private static final class CountingOutputStream extends FilterOutputStream {
+		long count;
+
+		CountingOutputStream(OutputStream out, long initial) {
+			super(out);
+			count = initial;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
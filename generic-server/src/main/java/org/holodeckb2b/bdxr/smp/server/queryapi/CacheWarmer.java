@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import org.holodeckb2b.bdxr.smp.server.queryapi.ResponseCache.Revision;
+import org.holodeckb2b.bdxr.smp.server.services.query.HotQuery;
+import org.holodeckb2b.bdxr.smp.server.services.query.IQueryResponder;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryResponse;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically checks whether the responses to the most executed queries, as tracked by the {@link
+ * QueryStatisticsService}, are available in the {@link ResponseCache} and if not, builds and caches them. This ensures
+ * that after a change of the meta-data or signing certificate, which clears the cache, the responses to the most
+ * frequent queries are quickly available again.
+ * <p>
+ * The interval between the checks can be configured using the <code>smp.query.cache.warmup_interval</code> property
+ * which specifies the delay in milliseconds, by default 60000.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class CacheWarmer {
+
+	@Autowired
+	protected ResponseCache	responseCache;
+
+	@Autowired
+	protected QueryStatisticsService	queryStats;
+
+	@Autowired
+	protected QueryMapper	queryMapper;
+
+	@Scheduled(fixedDelayString = "${smp.query.cache.warmup_interval:60000}",
+			   initialDelayString = "${smp.query.cache.warmup_interval:60000}")
+	public void warmUp() {
+		Revision revision = responseCache.getCurrentRevision();
+		if (revision == null)
+			return;
+
+		int n = 0;
+		for (HotQuery q : queryStats.getMostQueried()) {
+			if (responseCache.contains(q.queryPath()))
+				continue;
+			IQueryResponder responder = queryMapper.getResponderFor(q.queryPath());
+			if (responder == null)
+				continue;
+			try {
+				log.trace("Pre-building response for query: {}", q.queryPath());
+				QueryResponse r = responder.processQuery(q.queryPath(), new HttpHeaders());
+				if (r.status() == HttpStatus.OK && r.response() != null) {
+					responseCache.put(q.queryPath(), revision, r.status(), r.headers(),
+										QueryController.serialise(r.response()));
+					n++;
+				}
+			} catch (Throwable t) {
+				log.warn("Could not pre-build response for query ({}) : {}", q.queryPath(), Utils.getExceptionTrace(t));
+			}
+		}
+		if (n > 0)
+			log.debug("Added {} responses to the cache", n);
+	}
+}
@@ -16,12 +16,14 @@
  */
 package org.holodeckb2b.bdxr.smp.server.queryapi;
 
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  *
@@ -32,7 +34,8 @@ import org.springframework.context.annotation.PropertySources;
 @PropertySources({
 	@PropertySource("classpath:/query-api-defaults.properties"),
 	@PropertySource(value = "file:${smp.home:.}/query-api.properties", ignoreResourceNotFound = true)})
-@EnableAutoConfiguration(exclude = { SecurityAutoConfiguration.class })
+@EnableAutoConfiguration(exclude = { SecurityAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class })
+@EnableScheduling
 public class QueryAppConfig {
 
 }
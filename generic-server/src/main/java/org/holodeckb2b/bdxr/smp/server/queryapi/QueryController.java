@@ -16,22 +16,31 @@
  */
 package org.holodeckb2b.bdxr.smp.server.queryapi;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
+import org.holodeckb2b.bdxr.smp.server.diagnostics.QueryDispatchEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.SerialisationEvent;
+import org.holodeckb2b.bdxr.smp.server.queryapi.ResponseCache.CachedResponse;
+import org.holodeckb2b.bdxr.smp.server.queryapi.ResponseCache.Revision;
 import org.holodeckb2b.bdxr.smp.server.services.query.IQueryResponder;
 import org.holodeckb2b.bdxr.smp.server.services.query.QueryResponse;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
 import org.holodeckb2b.commons.util.Utils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -39,6 +48,8 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.w3c.dom.Document;
 
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 
@@ -49,11 +60,27 @@ import lombok.extern.slf4j.Slf4j;
 @RestController
 @Slf4j
 public class QueryController  {
-	private static final Logger queryLog = LoggerFactory.getLogger("org.holodeckb2b.bdxr.smp.server.queries");
-
 	@Autowired
 	protected QueryMapper	queryMapper;
 
+	@Autowired
+	protected ResponseCache	responseCache;
+
+	@Autowired
+	protected QueryStatisticsService	queryStats;
+
+	@Autowired
+	protected QueryVolumeCollector	volumeCollector;
+
+	@Autowired
+	protected AccessLog		accessLog;
+
+	@Autowired
+	protected QueryMetrics	metrics;
+
+	@Autowired
+	protected Tracer		tracer;
+
 	@Value("${server.servlet.context-path:}")
 	protected String contextPath;
 
@@ -61,41 +88,170 @@ public class QueryController  {
 
 	@RequestMapping(path = {"/**"}, method = RequestMethod.GET)
 	public ResponseEntity<StreamingResponseBody> streamData(HttpServletRequest req, @RequestHeader HttpHeaders hdrs) {
+		final long start = System.nanoTime();
 		String queryPath = req.getRequestURI().substring(contextPath.length());
+		metrics.startRequest(queryPath);
+
+		CachedResponse cached = responseCache.get(queryPath);
+		final long lookedUp = System.nanoTime();
+		metrics.recordStage(QueryStage.CACHE_LOOKUP, lookedUp - start);
+		if (cached != null) {
+			log.debug("Return cached response for query: {}", queryPath);
+			queryStats.registerQuery(queryPath);
+			volumeCollector.registerQuery(queryPath, cached.status().value());
+			accessLog.log(queryPath, hdrs, null, cached.status().value(), true, cached.content(),
+						  cached.content().length, lookedUp - start, 0, 0);
+			metrics.completeRequest(null, cached.status().value(), true, System.nanoTime() - start,
+									cached.content().length);
+			return ResponseEntity.status(cached.status())
+						.headers(cached.headers())
+						.contentType(MediaType.APPLICATION_XML)
+						.body(response -> response.write(cached.content()));
+		}
+		Revision cacheRevision = responseCache.getCurrentRevision();
 
 		log.trace("Get query responder for query path: {}", queryPath);
 		IQueryResponder responder = queryMapper.getResponderFor(queryPath);
+		metrics.recordStage(QueryStage.DISPATCH, System.nanoTime() - lookedUp);
 
 		QueryResponse r;
 		if (responder == null) {
 			log.warn("No responder available for query: {}", queryPath);
+			metrics.recordErrorCause("no_responder");
 			r = new QueryResponse(HttpStatus.NOT_IMPLEMENTED, null, null);
 		} else {
+			queryStats.registerQuery(queryPath);
 			log.trace("Get response from responder: {}", responder.getClass().getSimpleName());
-			try {
+			final String responderName = ClassUtils.getUserClass(responder).getSimpleName();
+			QueryDispatchEvent event = new QueryDispatchEvent();
+			event.begin();
+			Span span = tracer.nextSpan().name("smp.query.process").tag("smp.responder", responderName).start();
+			try (Tracer.SpanInScope inScope = tracer.withSpan(span)) {
 				r = responder.processQuery(queryPath, hdrs);
 			} catch (Throwable t) {
 				log.error("An exception occurred handling the query: {}", Utils.getExceptionTrace(t));
+				metrics.recordErrorCause("exception");
+				span.error(t);
 				r = new QueryResponse(HttpStatus.INTERNAL_SERVER_ERROR, null, null);
 			}
+			String cause = metrics.getErrorCause();
+			String outcome = cause != null ? cause : r.status().is2xxSuccessful() ? "ok" : "failed";
+			span.tag("smp.status", r.status().value()).tag("smp.outcome", outcome).end();
+			event.responder = responderName;
+			event.status = r.status().value();
+			metrics.completeEvent(event, outcome);
 		}
+		final long processed = System.nanoTime();
+		final Class<?> responderClass = responder != null ? responder.getClass() : null;
 		log.trace("Create response entity body");
 		Document doc = r.response();
-		StreamingResponseBody responseBody = response -> {
-			if (doc != null)
-				try {
-					TF_FACTORY.newTransformer().transform(new DOMSource(doc), new StreamResult(response));
-				} catch (TransformerException ex) {
-					log.error("Could not write the response document to the HTTP entity body! Error details: {}",
-								Utils.getExceptionTrace(ex));
+		StreamingResponseBody responseBody;
+		byte[] serialised = null;
+		long size = doc == null ? 0 : -1;
+		if (doc != null && cacheRevision != null && r.status() == HttpStatus.OK) {
+			log.trace("Serialise response for caching");
+			SerialisationEvent event = new SerialisationEvent();
+			event.begin();
+			try {
+				byte[] content = serialise(doc);
+				metrics.completeEvent(event, "ok");
+				size = content.length;
+				serialised = content;
+				responseCache.put(queryPath, cacheRevision, r.status(), r.headers(), content);
+				responseBody = response -> response.write(content);
+			} catch (TransformerException ex) {
+				log.error("Could not serialise the response document! Error details: {}", Utils.getExceptionTrace(ex));
+				metrics.completeEvent(event, "failed");
+				metrics.recordErrorCause("serialisation_failed");
+				r = new QueryResponse(HttpStatus.INTERNAL_SERVER_ERROR, null, null);
+				size = 0;
+				responseBody = response -> {};
+			}
+			metrics.recordStage(QueryStage.SERIALISATION, System.nanoTime() - processed);
+		} else {
+			final int status = r.status().value();
+			final QueryMetrics.RequestMetrics pending = doc != null ? metrics.suspendRequest() : null;
+			final boolean includeDigest = accessLog.isDigestIncluded();
+			responseBody = response -> {
+				if (doc != null) {
+					final long serialiseStart = System.nanoTime();
+					SerialisationEvent event = new SerialisationEvent();
+					event.begin();
+					CountingOutputStream out = new CountingOutputStream(response,
+														includeDigest ? new ResponseDigest.DigestingStream() : null);
+					String outcome = "ok";
+					try {
+						TF_FACTORY.newTransformer().transform(new DOMSource(doc), new StreamResult(out));
+					} catch (TransformerException ex) {
+						log.error("Could not write the response document to the HTTP entity body! Error details: {}",
+									Utils.getExceptionTrace(ex));
+						outcome = "failed";
+					}
+					QueryMetrics.completeEvent(event, queryPath, outcome);
+					final long written = System.nanoTime();
+					metrics.completeStreamedRequest(pending, responderClass, status, written - start,
+													written - serialiseStart, out.count);
+					accessLog.logStreamed(queryPath, hdrs, responderClass, status,
+										  out.digest != null ? out.digest.getDigest() : null, out.count,
+										  lookedUp - start, processed - lookedUp, written - serialiseStart);
 				}
-		};
+			};
+		}
 		log.debug("Complete processing of query request: {}", queryPath);
-		queryLog.info("{} - {}", r.status(), queryPath);
+		volumeCollector.registerQuery(responder != null ? queryPath : null, r.status().value());
+		// The access log and metrics of a streamed response are completed once the response has been written
+		if (size >= 0) {
+			accessLog.log(queryPath, hdrs, responderClass, r.status().value(), false, serialised, size,
+						  lookedUp - start, processed - lookedUp, System.nanoTime() - processed);
+			metrics.completeRequest(responderClass, r.status().value(), false, System.nanoTime() - start, size);
+		}
 
 		return ResponseEntity.status(r.status())
 					.headers(r.headers())
 					.contentType(MediaType.APPLICATION_XML)
 					.body(responseBody);
-  }
+	}
+
+	/**
+	 * Output stream that counts the number of bytes written to the wrapped stream and optionally calculates their
+	 * digest.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+		long count;
+		final ResponseDigest.DigestingStream digest;
+
+		CountingOutputStream(OutputStream out, ResponseDigest.DigestingStream digest) {
+			super(out);
+			this.digest = digest;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			if (digest != null)
+				digest.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			if (digest != null)
+				digest.write(b, off, len);
+			count += len;
+		}
+	}
+
+	/**
+	 * Serialises the given response document.
+	 *
+	 * @param doc	the response document
+	 * @return	byte array containing the serialised document
+	 * @throws TransformerException	when the document could not be serialised
+	 */
+	static byte[] serialise(Document doc) throws TransformerException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		TF_FACTORY.newTransformer().transform(new DOMSource(doc), new StreamResult(content));
+		return content.toByteArray();
+	}
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.holodeckb2b.bdxr.smp.server.db.SQLStatementStatistics;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.SMPEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Collects the metrics on the processing of queries. The processing time of each {@link QueryStage} is measured by the
+ * component executing it and registered here. As the query responder that handled the query and the HTTP status of
+ * the response are only known when the processing of the query is completed, the stage timings are collected per
+ * request thread and only recorded, tagged with the responder and status, when the {@link QueryController} reports the
+ * completion of the request. Stage timings registered by threads that are not processing a request, for example when
+ * warming up the response cache, are ignored.
+ * <p>
+ * The following meters are registered:<ul>
+ * <li><code>smp.query.requests</code> : timer of the total processing time of queries, tagged with <i>responder</i>,
+ * 		<i>status</i> and <i>cache</i> (hit or miss)</li>
+ * <li><code>smp.query.stage</code> : timer of the processing time per stage, tagged with <i>stage</i>,
+ * 		<i>responder</i> and <i>status</i></li>
+ * <li><code>smp.query.response.size</code> : distribution of the size of the responses in bytes, tagged with
+ * 		<i>responder</i> and <i>status</i></li>
+ * <li><code>smp.query.errors</code> : counter of queries that could not be completed successfully, tagged with
+ * 		<i>responder</i>, <i>status</i> and <i>cause</i></li>
+ * </ul>
+ * The meters are published as percentile histograms so they can be aggregated by the monitoring system. When the
+ * processing of a query takes longer than the threshold of the {@link SlowQueryLog} the collected timings, together
+ * with the number of SQL statements executed for the query, are also written to that log.
+ * <p>
+ * Components processing a query can also use this class to complete the JDK Flight Recorder {@link SMPEvent}s they
+ * emit. As the Participant and Service identifiers are derived from the query path of the request they are only
+ * decoded when the event is actually recorded.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+public class QueryMetrics {
+	/**
+	 * Tag value used when the responder or error cause is not known
+	 */
+	private static final String UNKNOWN = "none";
+
+	@Autowired
+	protected MeterRegistry	registry;
+
+	@Autowired
+	protected SlowQueryLog	slowQueryLog;
+
+	/**
+	 * The stage timings, executed SQL statements and error cause of the request being processed by a thread
+	 */
+	static final class RequestMetrics {
+		boolean			active;
+		String			queryPath;
+		final long[]	stageNanos = new long[QueryStage.values().length];
+		String			errorCause;
+		long			sqlCount;
+		long			sqlNanos;
+	}
+
+	private final ThreadLocal<RequestMetrics> current = ThreadLocal.withInitial(RequestMetrics::new);
+
+	/**
+	 * Cache of the registered meters so the meters don't need to be looked up in the registry for each request
+	 */
+	private final Map<String, Timer>				timers = new ConcurrentHashMap<>();
+	private final Map<String, DistributionSummary>	summaries = new ConcurrentHashMap<>();
+	private final Map<String, Counter>				counters = new ConcurrentHashMap<>();
+
+	/**
+	 * Indicates that the current thread starts processing a query request.
+	 *
+	 * @param queryPath	the query path of the request
+	 */
+	public void startRequest(String queryPath) {
+		RequestMetrics m = current.get();
+		m.active = true;
+		m.queryPath = queryPath;
+		m.errorCause = null;
+		for (int i = 0; i < m.stageNanos.length; i++)
+			m.stageNanos[i] = 0;
+		m.sqlCount = -SQLStatementStatistics.getStatementCount();
+		m.sqlNanos = -SQLStatementStatistics.getStatementNanos();
+	}
+
+	/**
+	 * Registers the time spent on a stage of the query processing by the current thread.
+	 *
+	 * @param stage	the processing stage
+	 * @param nanos	time spent in nanoseconds
+	 */
+	public void recordStage(QueryStage stage, long nanos) {
+		RequestMetrics m = current.get();
+		if (m.active)
+			m.stageNanos[stage.ordinal()] += nanos;
+	}
+
+	/**
+	 * Registers the cause why the query being processed by the current thread could not be completed successfully.
+	 *
+	 * @param cause	short, fixed description of the cause, e.g. "participant_not_found". As the cause is used as tag
+	 * 				value it should not contain data from the query itself
+	 */
+	public void recordErrorCause(String cause) {
+		RequestMetrics m = current.get();
+		if (m.active)
+			m.errorCause = cause;
+	}
+
+	/**
+	 * Gets the cause registered for the failure of the query being processed by the current thread.
+	 *
+	 * @return	the registered error cause, <code>null</code> if none was registered
+	 */
+	String getErrorCause() {
+		RequestMetrics m = current.get();
+		return m.active ? m.errorCause : null;
+	}
+
+	/**
+	 * Completes the given Flight Recorder event that was emitted during the processing of the query by the current
+	 * thread.
+	 *
+	 * @param event		the event to complete
+	 * @param outcome	the outcome of the recorded operation
+	 */
+	public void completeEvent(SMPEvent event, String outcome) {
+		RequestMetrics m = current.get();
+		completeEvent(event, m.active ? m.queryPath : null, outcome);
+	}
+
+	/**
+	 * Completes the given Flight Recorder event that was emitted during the processing of the given query.
+	 *
+	 * @param event		the event to complete
+	 * @param queryPath	the query path of the request, may be <code>null</code> if not known
+	 * @param outcome	the outcome of the recorded operation
+	 */
+	public static void completeEvent(SMPEvent event, String queryPath, String outcome) {
+		event.end();
+		if (event.shouldCommit()) {
+			String[] ids = queryPath != null ? QueryVolumeCollector.splitQueryPath(queryPath) : new String[2];
+			event.complete(ids[0], ids[1], outcome);
+		}
+	}
+
+	/**
+	 * Records the metrics of the query request processed by the current thread.
+	 *
+	 * @param responder		class of the query responder that handled the query, <code>null</code> if not known
+	 * @param status		HTTP status code of the response
+	 * @param cacheHit		indicates whether the response was taken from the cache
+	 * @param totalNanos	the total processing time in nanoseconds
+	 * @param bytes			size of the response in bytes, -1 if not known yet
+	 */
+	public void completeRequest(Class<?> responder, int status, boolean cacheHit, long totalNanos, long bytes) {
+		RequestMetrics m = current.get();
+		m.active = false;
+		m.sqlCount += SQLStatementStatistics.getStatementCount();
+		m.sqlNanos += SQLStatementStatistics.getStatementNanos();
+		record(m, responder, status, cacheHit, totalNanos, bytes);
+		m.queryPath = null;
+	}
+
+	/**
+	 * Suspends the collection of the metrics of the query request processed by the current thread because the
+	 * response still needs to be serialised and written to the client, which may be done by another thread. The
+	 * returned metrics must be passed to {@link #completeStreamedRequest(RequestMetrics, Class, int, long, long, long)}
+	 * once the response has been written.
+	 *
+	 * @return	the metrics collected so far for the request
+	 */
+	RequestMetrics suspendRequest() {
+		RequestMetrics m = current.get();
+		m.active = false;
+		m.sqlCount += SQLStatementStatistics.getStatementCount();
+		m.sqlNanos += SQLStatementStatistics.getStatementNanos();
+		current.set(new RequestMetrics());
+		return m;
+	}
+
+	/**
+	 * Records the metrics of a suspended query request of which the response has been written to the client.
+	 *
+	 * @param m					the metrics of the request as returned by {@link #suspendRequest()}
+	 * @param responder			class of the query responder that handled the query, <code>null</code> if not known
+	 * @param status			HTTP status code of the response
+	 * @param totalNanos		the total processing time in nanoseconds, including the writing of the response
+	 * @param serialiseNanos	time spent on serialisation and writing the response in nanoseconds
+	 * @param bytes				size of the response in bytes
+	 */
+	void completeStreamedRequest(RequestMetrics m, Class<?> responder, int status, long totalNanos,
+								 long serialiseNanos, long bytes) {
+		m.stageNanos[QueryStage.SERIALISATION.ordinal()] += serialiseNanos;
+		record(m, responder, status, false, totalNanos, bytes);
+	}
+
+	private void record(RequestMetrics m, Class<?> responder, int status, boolean cacheHit, long totalNanos,
+						long bytes) {
+		String r = responder != null ? ClassUtils.getUserClass(responder).getSimpleName() : UNKNOWN;
+		String s = Integer.toString(status);
+		timer("smp.query.requests", "responder", r, "status", s, "cache", cacheHit ? "hit" : "miss")
+				.record(totalNanos, TimeUnit.NANOSECONDS);
+		for (QueryStage stage : QueryStage.values())
+			if (m.stageNanos[stage.ordinal()] > 0)
+				recordStage(stage, r, s, m.stageNanos[stage.ordinal()]);
+		if (bytes >= 0)
+			recordSize(r, s, bytes);
+		if (status >= 400)
+			counter("smp.query.errors", "responder", r, "status", s,
+					"cause", m.errorCause != null ? m.errorCause : UNKNOWN).increment();
+		if (slowQueryLog.isSlow(totalNanos))
+			slowQueryLog.log(m.queryPath, r, status, cacheHit, totalNanos, m.stageNanos, m.sqlCount, m.sqlNanos, bytes);
+	}
+
+	private void recordStage(QueryStage stage, String responder, String status, long nanos) {
+		timer("smp.query.stage", "stage", stage.getTag(), "responder", responder, "status", status)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void recordSize(String responder, String status, long bytes) {
+		summaries.computeIfAbsent(String.join("|", responder, status), k ->
+						DistributionSummary.builder("smp.query.response.size").baseUnit("bytes")
+										   .tags("responder", responder, "status", status)
+										   .publishPercentileHistogram()
+										   .register(registry))
+				 .record(bytes);
+	}
+
+	private Timer timer(String name, String... tags) {
+		return timers.computeIfAbsent(name + String.join("|", tags), k ->
+						Timer.builder(name).tags(tags).publishPercentileHistogram().register(registry));
+	}
+
+	private Counter counter(String name, String... tags) {
+		return counters.computeIfAbsent(name + String.join("|", tags), k ->
+						Counter.builder(name).tags(tags).register(registry));
+	}
+}
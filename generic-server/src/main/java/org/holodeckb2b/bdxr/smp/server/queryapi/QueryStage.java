@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+/**
+ * Enumerates the stages in the processing of a query for which the processing time is measured by {@link QueryMetrics}.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public enum QueryStage {
+	/**
+	 * Look up of the response in the cache
+	 */
+	CACHE_LOOKUP("cache_lookup"),
+	/**
+	 * Selection of the query responder that handles the query
+	 */
+	DISPATCH("dispatch"),
+	/**
+	 * Parsing of the identifiers included in the query
+	 */
+	ID_PARSING("id_parsing"),
+	/**
+	 * Retrieval of the queried meta-data from the database
+	 */
+	DB_LOOKUP("db_lookup"),
+	/**
+	 * Creation of the response document
+	 */
+	RESPONSE_BUILD("response_build"),
+	/**
+	 * Signing of the response document
+	 */
+	SIGNING("signing"),
+	/**
+	 * Serialisation of the response document
+	 */
+	SERIALISATION("serialisation");
+
+	private final String tag;
+
+	QueryStage(String tag) {
+		this.tag = tag;
+	}
+
+	/**
+	 * @return the value used to tag the metrics of the stage
+	 */
+	public String getTag() {
+		return tag;
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.holodeckb2b.bdxr.smp.server.services.query.IQueryResponder;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryAnalyticsService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.util.UriUtils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects the number of executed queries per day, query path and HTTP status in memory and periodically adds the
+ * aggregated volumes in one batch to the {@link QueryAnalyticsService}. Registering a query only updates the in-memory
+ * counter so the query's processing is not delayed by writing the analytics data to the database. The query path is
+ * split into the Participant and Service ID and mapped to the query responder only when the volumes are flushed.
+ * <p>
+ * The collection can be configured using the following properties:<ul>
+ * <li><code>smp.query.analytics.enabled</code> : indicates whether query volumes should be collected, default
+ * 		<code>true</code></li>
+ * <li><code>smp.query.analytics.flush_interval</code> : the interval in milliseconds at which the collected volumes
+ * 		are saved, default 60000</li>
+ * <li><code>smp.query.analytics.max_pending</code> : the maximum number of distinct queries collected between two
+ * 		flushes. Queries exceeding this number are counted as unmapped queries. Default 100000.</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class QueryVolumeCollector {
+
+	@Autowired
+	protected QueryAnalyticsService	analytics;
+
+	@Autowired
+	protected QueryMapper	queryMapper;
+
+	@Value("${smp.query.analytics.enabled:true}")
+	protected boolean	enabled;
+
+	@Value("${smp.query.analytics.max_pending:100000}")
+	protected int	maxPending;
+
+	/**
+	 * Key of the collected volumes. A <code>null</code> query path indicates that the queries could not be mapped to a
+	 * query responder.
+	 */
+	private record PendingKey(LocalDate day, String queryPath, int status) {}
+
+	/**
+	 * The volumes collected since the last flush
+	 */
+	private final ConcurrentHashMap<PendingKey, Long>	pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers the execution of a query.
+	 *
+	 * @param queryPath	the path of the executed query, <code>null</code> if the query could not be mapped to a query
+	 * 					responder
+	 * @param status	the HTTP status code of the response
+	 */
+	public void registerQuery(String queryPath, int status) {
+		if (!enabled)
+			return;
+
+		PendingKey key = new PendingKey(LocalDate.now(ZoneOffset.UTC), queryPath, status);
+		if (queryPath != null && pending.size() >= maxPending && !pending.containsKey(key))
+			key = new PendingKey(key.day(), null, status);
+		pending.merge(key, 1L, Long::sum);
+	}
+
+	/**
+	 * Saves the volumes collected since the last flush. When the volumes cannot be saved they are kept and will be
+	 * included in the next flush.
+	 */
+	@Scheduled(fixedDelayString = "${smp.query.analytics.flush_interval:60000}",
+			   initialDelayString = "${smp.query.analytics.flush_interval:60000}")
+	@PreDestroy
+	public synchronized void flush() {
+		if (pending.isEmpty())
+			return;
+
+		log.trace("Collect pending query volumes");
+		Map<PendingKey, Long> drained = new HashMap<>(pending.size());
+		for (PendingKey k : pending.keySet()) {
+			Long c = pending.remove(k);
+			if (c != null)
+				drained.put(k, c);
+		}
+		Map<String, String> responders = new HashMap<>();
+		List<QueryVolume> batch = new ArrayList<>(drained.size());
+		drained.forEach((k, c) -> {
+			String responder = k.queryPath() == null ? "" :
+									responders.computeIfAbsent(k.queryPath(), p -> getResponderName(p));
+			if (responder.isEmpty())
+				batch.add(new QueryVolume(k.day(), "", "", "", k.status(), c));
+			else {
+				String[] ids = splitQueryPath(k.queryPath());
+				batch.add(new QueryVolume(k.day(), ids[0], ids[1], responder, k.status(), c));
+			}
+		});
+		try {
+			log.trace("Save {} query volumes", batch.size());
+			analytics.addQueryVolumes(batch);
+			log.debug("Saved {} query volumes", batch.size());
+		} catch (Throwable t) {
+			log.error("Could not save the query volumes, retrying at next flush. Error details: {}",
+						Utils.getExceptionTrace(t));
+			drained.forEach((k, c) -> pending.merge(k, c, Long::sum));
+		}
+	}
+
+	/**
+	 * Gets the name of the query responder that handles the given query.
+	 *
+	 * @param queryPath	the query path
+	 * @return	simple class name of the responder, empty string if no responder handles the query
+	 */
+	private String getResponderName(String queryPath) {
+		IQueryResponder r = queryMapper.getResponderFor(queryPath);
+		return r == null ? "" : ClassUtils.getUserClass(r).getSimpleName();
+	}
+
+	/**
+	 * Splits the query path into the queried Participant and Service ID. Both the OASIS SMP and Peppol queries have the
+	 * form <code>«prefix»/«participant id»[/services/«service id»]</code> so the Participant ID is the last path
+	 * segment before <code>/services/</code> and the Service ID is the remainder of the path.
+	 *
+	 * @param queryPath	the query path
+	 * @return	array containing the decoded Participant ID and Service ID, which is an empty string when the path
+	 * 			does not include one
+	 */
+	static String[] splitQueryPath(String queryPath) {
+		int svcStart = queryPath.indexOf("/services/");
+		String head = svcStart < 0 ? queryPath : queryPath.substring(0, svcStart);
+		return new String[] { decode(head.substring(head.lastIndexOf('/') + 1)),
+							  svcStart < 0 ? "" : decode(queryPath.substring(svcStart + 10)) };
+	}
+
+	private static String decode(String s) {
+		try {
+			return UriUtils.decode(s, StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException invalidEncoding) {
+			return s;
+		}
+	}
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.cert.X509Certificate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.holodeckb2b.bdxr.smp.datamodel.Certificate;
+import org.holodeckb2b.bdxr.smp.server.datamodel.SMPServerMetadata;
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
+import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+import org.holodeckb2b.bdxr.smp.server.services.query.HotQuery;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Is an in-memory cache of the serialised responses to queries so the (signed) responses don't need to be rebuilt and
+ * signed again for each request. The cache is bound to the current content revision of the meta-data, as provided by
+ * the {@link MetadataChangeTracker}, and the certificate used to sign the responses. When either of these changes all
+ * cached responses are discarded.
+ * <p>
+ * To prevent the cache from being rebuilt after each restart of the server, the cache's content is written to a
+ * snapshot file when the server is shut down and, when configured, periodically. On start up the snapshot is reloaded
+ * if it was created for the same content revision and signing certificate, otherwise it is ignored.
+ * <p>
+ * The cache can be configured using the following properties:<ul>
+ * <li><code>smp.query.cache.enabled</code> : indicates whether responses should be cached, default <code>true</code></li>
+ * <li><code>smp.query.cache.max_entries</code> : maximum number of cached responses, default 10000. When the cache is
+ * 		full the least queried responses, according to the {@link QueryStatisticsService}, are evicted</li>
+ * <li><code>smp.query.cache.revision_check_interval</code> : the interval in seconds at which the content revision is
+ * 		checked for changes made by other server instances, default 60</li>
+ * <li><code>smp.query.cache.snapshot_file</code> : path of the snapshot file, default
+ * 		<code>«smp.home»/response-cache.snapshot</code></li>
+ * <li><code>smp.query.cache.snapshot_cron</code> : cron expression specifying when to write a snapshot during
+ * 		run-time, by default snapshots are only written on shutdown</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+	/**
+	 * Identifies the format of the snapshot file
+	 */
+	private static final int SNAPSHOT_FORMAT = 0x48534301;
+
+	@Value("${smp.query.cache.enabled:true}")
+	protected boolean	enabled;
+
+	@Value("${smp.query.cache.max_entries:10000}")
+	protected int		maxEntries;
+
+	@Value("${smp.query.cache.revision_check_interval:60}")
+	protected int		revisionCheckInterval;
+
+	@Value("${smp.query.cache.snapshot_file:${smp.home:.}/response-cache.snapshot}")
+	protected String	snapshotFile;
+
+	@Autowired
+	protected MetadataChangeTracker	changeTracker;
+
+	@Autowired
+	protected SMPServerAdminService	adminSvc;
+
+	@Autowired
+	protected QueryStatisticsService	queryStats;
+
+	/**
+	 * Is the content revision and signing certificate for which the cached responses are valid. A new instance is
+	 * created each time the meta-data or certificate changes, so entries can be checked by simply comparing the
+	 * reference to the revision they were created for.
+	 */
+	static final class Revision {
+		final long		changeCount;
+		final String	contentRevision;
+		final String	certFingerprint;
+
+		Revision(long changeCount, String contentRevision, String certFingerprint) {
+			this.changeCount = changeCount;
+			this.contentRevision = contentRevision;
+			this.certFingerprint = certFingerprint;
+		}
+	}
+
+	/**
+	 * A cached response
+	 *
+	 * @param revision	the revision of the cache the response was created for
+	 * @param status	the HTTP status of the response
+	 * @param headers	the HTTP headers to include in the response, may be <code>null</code>
+	 * @param content	the serialised response document
+	 */
+	record CachedResponse(Revision revision, HttpStatus status, HttpHeaders headers, byte[] content) {}
+
+	private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+
+	private volatile Revision	current;
+
+	private volatile long		nextRevisionCheck;
+
+	/**
+	 * Lock to ensure only one thread checks the revision at a time
+	 */
+	private final ReentrantLock	revisionLock = new ReentrantLock();
+
+	@PostConstruct
+	void loadSnapshot() {
+		if (!enabled)
+			return;
+
+		Path snapshot = Paths.get(snapshotFile);
+		if (!Files.exists(snapshot)) {
+			log.debug("No response cache snapshot available");
+			return;
+		}
+		log.trace("Loading response cache snapshot from {}", snapshot);
+		Revision r = getRevision(true);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+			if (in.readInt() != SNAPSHOT_FORMAT) {
+				log.warn("Ignoring response cache snapshot ({}) as it has an unknown format", snapshot);
+				return;
+			}
+			String contentRevision = in.readUTF();
+			String certFingerprint = in.readUTF();
+			if (!contentRevision.equals(r.contentRevision) || !certFingerprint.equals(r.certFingerprint)) {
+				log.info("Discarding response cache snapshot as meta-data or signing certificate has changed");
+				return;
+			}
+			int n = in.readInt();
+			for (int i = 0; i < n && entries.size() < maxEntries; i++) {
+				String queryPath = in.readUTF();
+				HttpStatus status = HttpStatus.valueOf(in.readInt());
+				int nh = in.readInt();
+				HttpHeaders headers = nh >= 0 ? new HttpHeaders() : null;
+				for (int h = 0; h < nh; h++) {
+					String name = in.readUTF();
+					int nv = in.readInt();
+					for (int v = 0; v < nv; v++)
+						headers.add(name, in.readUTF());
+				}
+				byte[] content = new byte[in.readInt()];
+				in.readFully(content);
+				entries.put(queryPath, new CachedResponse(r, status, headers, content));
+			}
+			log.info("Loaded {} cached responses from snapshot", entries.size());
+		} catch (IOException | IllegalArgumentException invalidSnapshot) {
+			log.error("Could not read the response cache snapshot ({}) : {}", snapshot,
+						Utils.getExceptionTrace(invalidSnapshot));
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Writes the current content of the cache to the snapshot file. The snapshot is first written to a temporary file
+	 * which then replaces the existing snapshot, so an interrupted write does not corrupt the snapshot.
+	 */
+	@PreDestroy
+	@Scheduled(cron = "${smp.query.cache.snapshot_cron:-}")
+	public synchronized void saveSnapshot() {
+		if (!enabled)
+			return;
+
+		Revision r = getRevision(true);
+		List<Map.Entry<String, CachedResponse>> valid = new ArrayList<>(entries.size());
+		entries.entrySet().forEach(e -> { if (e.getValue().revision() == r) valid.add(e); });
+
+		Path snapshot = Paths.get(snapshotFile);
+		if (valid.isEmpty()) {
+			log.trace("No cached responses, removing snapshot (if it exists)");
+			try {
+				Files.deleteIfExists(snapshot);
+			} catch (IOException removeFailure) {
+				log.error("Could not remove the response cache snapshot ({}) : {}", snapshot,
+							Utils.getExceptionTrace(removeFailure));
+			}
+			return;
+		}
+		log.trace("Writing {} cached responses to snapshot {}", valid.size(), snapshot);
+		Path tmpFile = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+			out.writeInt(SNAPSHOT_FORMAT);
+			out.writeUTF(r.contentRevision);
+			out.writeUTF(r.certFingerprint);
+			out.writeInt(valid.size());
+			for (Map.Entry<String, CachedResponse> e : valid) {
+				CachedResponse cr = e.getValue();
+				out.writeUTF(e.getKey());
+				out.writeInt(cr.status().value());
+				if (cr.headers() == null)
+					out.writeInt(-1);
+				else {
+					out.writeInt(cr.headers().size());
+					for (Map.Entry<String, List<String>> h : cr.headers().headerSet()) {
+						out.writeUTF(h.getKey());
+						out.writeInt(h.getValue().size());
+						for (String v : h.getValue())
+							out.writeUTF(v);
+					}
+				}
+				out.writeInt(cr.content().length);
+				out.write(cr.content());
+			}
+		} catch (IOException writeFailure) {
+			log.error("Could not write the response cache snapshot ({}) : {}", tmpFile,
+						Utils.getExceptionTrace(writeFailure));
+			return;
+		}
+		try {
+			Files.move(tmpFile, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.debug("Saved {} cached responses to snapshot", valid.size());
+		} catch (IOException moveFailure) {
+			log.error("Could not replace the response cache snapshot ({}) : {}", snapshot,
+						Utils.getExceptionTrace(moveFailure));
+		}
+	}
+
+	/**
+	 * Gets the cached response for the given query.
+	 *
+	 * @param queryPath	the query path
+	 * @return	the cached response if available and still valid, <code>null</code> otherwise
+	 */
+	CachedResponse get(String queryPath) {
+		if (!enabled)
+			return null;
+
+		CachedResponse cr = entries.get(queryPath);
+		return cr != null && cr.revision() == getRevision() ? cr : null;
+	}
+
+	/**
+	 * Gets the current revision of the cache. This revision must be retrieved before the query is processed and
+	 * supplied when adding the response to the cache so responses based on outdated data are not cached.
+	 *
+	 * @return	the current revision of the cache, <code>null</code> when caching is disabled or the revision is being
+	 * 			updated after a change of the meta-data
+	 */
+	Revision getCurrentRevision() {
+		return enabled ? getRevision() : null;
+	}
+
+	/**
+	 * Adds the response to the given query to the cache. The response is only added if the cache revision hasn't
+	 * changed since the query was processed.
+	 *
+	 * @param queryPath	the query path
+	 * @param revision	the revision of the cache when the query processing started
+	 * @param status	the HTTP status of the response
+	 * @param headers	the HTTP headers to include in the response, may be <code>null</code>
+	 * @param content	the serialised response document
+	 */
+	void put(String queryPath, Revision revision, HttpStatus status, HttpHeaders headers, byte[] content) {
+		if (!enabled || revision == null || revision != getRevision())
+			return;
+
+		if (entries.size() >= maxEntries && !entries.containsKey(queryPath))
+			evictColdest();
+		entries.put(queryPath, new CachedResponse(revision, status, headers, content));
+	}
+
+	/**
+	 * Indicates whether a valid response for the given query is available in the cache.
+	 *
+	 * @param queryPath	the query path
+	 * @return	<code>true</code> if a response is cached, <code>false</code> otherwise
+	 */
+	boolean contains(String queryPath) {
+		return get(queryPath) != null;
+	}
+
+	/**
+	 * Removes the least queried responses from the cache. To prevent eviction on every addition once the cache is
+	 * full, a tenth of the entries is removed at once.
+	 */
+	private synchronized void evictColdest() {
+		if (entries.size() < maxEntries)
+			return;
+
+		int n = Math.max(1, maxEntries / 10);
+		log.debug("Cache full, evicting {} least queried responses", n);
+		entries.keySet().stream()
+			.map(q -> new HotQuery(q, queryStats.getEstimatedCount(q)))
+			.sorted(Comparator.comparingLong(HotQuery::count))
+			.limit(n)
+			.forEach(q -> entries.remove(q.queryPath()));
+	}
+
+	/**
+	 * Removes all responses from the cache.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return the number of responses currently in the cache
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the current revision of the cache for processing a query.
+	 *
+	 * @return the current revision, <code>null</code> when the revision is being updated by another thread
+	 * @see #getRevision(boolean)
+	 */
+	private Revision getRevision() {
+		return getRevision(false);
+	}
+
+	/**
+	 * Gets the current revision of the cache, checking first whether the meta-data or signing certificate have been
+	 * changed. If they have, all cached responses are removed.
+	 * <p>
+	 * Checking the revision requires database access. As the calling thread may already hold a database connection
+	 * while other threads are waiting for one, query threads must not wait for the thread doing the check as that can
+	 * exhaust the connection pool. Therefore, when another thread is already checking, the local change counter is
+	 * used to decide whether the last known revision can still be used. If the counter hasn't moved, only changes
+	 * made by other instances can be missed and the last known revision is returned, as it would have been until the
+	 * next periodic check. If the meta-data was changed by this instance, the last known revision is outdated and
+	 * <code>null</code> is returned so the query is processed without using the cache. Only when there is no known
+	 * revision yet, or when the caller indicates it can wait, the thread waits for the check to complete.
+	 *
+	 * @param wait	indicates whether the thread should wait when another thread is checking the revision
+	 * @return the current revision, <code>null</code> when the local meta-data was changed and the revision is being
+	 * 			updated by another thread
+	 */
+	private Revision getRevision(boolean wait) {
+		Revision r = current;
+		long localChanges = changeTracker.getChangeCount();
+		if (r != null && r.changeCount == localChanges && System.currentTimeMillis() < nextRevisionCheck)
+			return r;
+
+		if (r != null && !wait) {
+			if (!revisionLock.tryLock())
+				return r.changeCount == localChanges ? r : null;
+		} else
+			revisionLock.lock();
+		try {
+			r = current;
+			long changeCount = changeTracker.getChangeCount();
+			if (r != null && r.changeCount == changeCount && System.currentTimeMillis() < nextRevisionCheck)
+				return r;
+
+			log.trace("Check current content revision and signing certificate");
+			String contentRevision = changeTracker.getContentRevision();
+			SMPServerMetadata serverMetadata = adminSvc.getServerMetadata();
+			String certFingerprint = getFingerprint(serverMetadata != null ? serverMetadata.getCertificate() : null);
+			if (r == null || r.changeCount != changeCount || !r.contentRevision.equals(contentRevision)
+				|| !r.certFingerprint.equals(certFingerprint)) {
+				if (r != null)
+					log.debug("Meta-data or signing certificate changed, clearing cached responses");
+				entries.clear();
+				r = current = new Revision(changeCount, contentRevision, certFingerprint);
+			}
+			long nextCheck = System.currentTimeMillis() + revisionCheckInterval * 1000L;
+			Certificate pendingCert = serverMetadata != null ? serverMetadata.getPendingCertificateUpdate() : null;
+			ZonedDateTime activation = pendingCert != null ? pendingCert.getActivationDate() : null;
+			if (activation != null)
+				nextCheck = Math.min(nextCheck, activation.toInstant().toEpochMilli());
+			nextRevisionCheck = nextCheck;
+			return r;
+		} finally {
+			revisionLock.unlock();
+		}
+	}
+
+	/**
+	 * Calculates the SHA-256 fingerprint of the given certificate.
+	 *
+	 * @param cert	the certificate, may be <code>null</code>
+	 * @return	the hex encoded fingerprint, or an empty string when no certificate is given
+	 */
+	private static String getFingerprint(X509Certificate cert) {
+		if (cert == null)
+			return "";
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(cert.getEncoded()));
+		} catch (Exception fingerprintFailure) {
+			throw new IllegalStateException("Could not calculate certificate fingerprint", fingerprintFailure);
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Calculates the digest of a query response that is used to check whether two responses to the same query have the
+ * same content, for example when replaying captured query traffic against another server instance. As the signature
+ * of a response depends on the signing key and, for ECDSA, on a random value, the <code>ds:Signature</code> elements
+ * are excluded from the digest. The digest is calculated on the bytes of the response, without parsing the XML, so it
+ * assumes that both responses were serialised in the same way, which is the case when they are created by the same
+ * version of the server.
+ * <p>
+ * The digest can be calculated on the complete response or incrementally using a {@link DigestingStream} while the
+ * response is written, so a streamed response does not need to be buffered.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public final class ResponseDigest {
+
+	private ResponseDigest() {}
+
+	/**
+	 * Calculates the SHA-256 digest of the given response, excluding the signatures contained in it.
+	 *
+	 * @param content	the serialised response
+	 * @return	the Base64 encoded digest, <code>null</code> if the response is empty
+	 */
+	public static String calculate(byte[] content) {
+		if (content == null || content.length == 0)
+			return null;
+		try (DigestingStream s = new DigestingStream()) {
+			s.write(content);
+			return s.getDigest();
+		} catch (IOException notPossible) {
+			throw new UncheckedIOException(notPossible);
+		}
+	}
+
+	/**
+	 * Output stream that calculates the digest of the response written to it. The bytes outside the signatures are
+	 * passed to a {@link DigestOutputStream}. To detect the signatures, a start tag is held back until it is known
+	 * whether it is the start of a <code>Signature</code> element, with or without namespace prefix, and the content of
+	 * a signature is held back until its end tag has been found. When the end tag is missing, the held back content is
+	 * included in the digest.
+	 */
+	public static final class DigestingStream extends FilterOutputStream {
+		private static final String	SIGNATURE = "Signature";
+
+		private final MessageDigest	digest;
+		/**
+		 * Holds the start tag being checked or the signature being skipped
+		 */
+		private final ByteArrayOutputStream held = new ByteArrayOutputStream();
+		/**
+		 * Indicates whether a start tag is being checked
+		 */
+		private boolean	inTag;
+		/**
+		 * The end tag of the signature being skipped, <code>null</code> when not in a signature
+		 */
+		private byte[]	endTag;
+		/**
+		 * The number of bytes of the end tag that have been matched
+		 */
+		private int		matched;
+		private long	count;
+
+		public DigestingStream() {
+			this(newDigest());
+		}
+
+		private DigestingStream(MessageDigest digest) {
+			super(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+			this.digest = digest;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			count++;
+			process((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			count += len;
+			final int end = off + len;
+			int i = off;
+			while (i < end) {
+				if (!inTag && endTag == null) {
+					// Pass everything up to the next tag directly to the digest
+					int start = i;
+					while (i < end && b[i] != '<')
+						i++;
+					out.write(b, start, i - start);
+					if (i == end)
+						break;
+				}
+				process(b[i++]);
+			}
+		}
+
+		private void process(byte b) throws IOException {
+			if (endTag != null) {
+				held.write(b);
+				matched = b == endTag[matched] ? matched + 1 : b == endTag[0] ? 1 : 0;
+				if (matched == endTag.length) {
+					held.reset();
+					endTag = null;
+				}
+			} else if (inTag) {
+				held.write(b);
+				if (!isNameChar(b))
+					checkStartTag(b);
+			} else if (b == '<') {
+				held.write(b);
+				inTag = true;
+			} else
+				out.write(b);
+		}
+
+		/**
+		 * Checks whether the held back start tag, which is now terminated by the given byte, is the start of a
+		 * signature.
+		 */
+		private void checkStartTag(byte terminator) throws IOException {
+			inTag = false;
+			final String tag = held.toString(StandardCharsets.ISO_8859_1);
+			final String name = tag.substring(1, tag.length() - 1);
+			final int colon = name.indexOf(':');
+			final String prefix = colon > 0 ? name.substring(0, colon + 1) : "";
+			if ((terminator == '>' || isWhitespace(terminator)) && name.equals(prefix + SIGNATURE)) {
+				endTag = ("</" + prefix + SIGNATURE + ">").getBytes(StandardCharsets.ISO_8859_1);
+				matched = 0;
+			} else {
+				// Not a signature, but the terminator may start the next tag
+				out.write(held.toByteArray(), 0, held.size() - 1);
+				held.reset();
+				process(terminator);
+			}
+		}
+
+		private static boolean isWhitespace(byte b) {
+			return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0B;
+		}
+
+		private static boolean isNameChar(byte b) {
+			return b == ':' || b == '_' || (b >= '0' && b <= '9') || (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+		}
+
+		/**
+		 * Gets the digest of the response written to the stream. Should only be called once all content has been
+		 * written.
+		 *
+		 * @return	the Base64 encoded digest, <code>null</code> if nothing was written
+		 */
+		public String getDigest() throws IOException {
+			if (count == 0)
+				return null;
+			held.writeTo(out);
+			held.reset();
+			inTag = false;
+			endTag = null;
+			return Base64.getEncoder().encodeToString(digest.digest());
+		}
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException noSHA256) {
+			throw new IllegalStateException("SHA-256 not supported", noSHA256);
+		}
+	}
+}
@@ -40,6 +40,7 @@ import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
 import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
 import javax.xml.crypto.dsig.spec.TransformParameterSpec;
 
+import org.holodeckb2b.bdxr.smp.server.diagnostics.SigningEvent;
 import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
 import org.holodeckb2b.bdxr.smp.server.services.query.ResponseSigningService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,9 +60,28 @@ public class ResponseSigner implements ResponseSigningService {
 	@Autowired
 	protected SMPServerAdminService		adminSvc;
 
+	@Autowired
+	protected QueryMetrics				metrics;
+
 	@Override
 	public Document signResponse(Document response, String signingAlg, String digestAlg, String c14nAlg)
 																						throws XMLSignatureException {
+		final long start = System.nanoTime();
+		SigningEvent event = new SigningEvent();
+		event.begin();
+		String outcome = "failed";
+		try {
+			Document signed = sign(response, signingAlg, digestAlg, c14nAlg);
+			outcome = "ok";
+			return signed;
+		} finally {
+			metrics.recordStage(QueryStage.SIGNING, System.nanoTime() - start);
+			metrics.completeEvent(event, outcome);
+		}
+	}
+
+	private Document sign(Document response, String signingAlg, String digestAlg, String c14nAlg)
+																						throws XMLSignatureException {
 		PrivateKeyEntry keyPair = adminSvc.getActiveKeyPair();
 		if (keyPair == null) 
 			throw new XMLSignatureException("Signing certificate not available");
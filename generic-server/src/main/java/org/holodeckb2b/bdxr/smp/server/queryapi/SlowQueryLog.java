@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+import org.holodeckb2b.bdxr.smp.server.utils.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs the queries of which the processing took longer than the configured threshold, including the time spent on each
+ * stage of the processing, the number of SQL statements executed and the time spent executing them. The records are
+ * written as JSON objects to the <code>org.holodeckb2b.bdxr.smp.server.slowqueries</code> logger so they can easily be
+ * routed to a separate log file.
+ * <p>
+ * The threshold is set using the <code>smp.query.slowlog.threshold</code> property and defaults to 1 second. The log
+ * can be disabled by setting the threshold to 0. As the data needed for the log record is already collected by {@link
+ * QueryMetrics} the record is only created for queries that exceed the threshold.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+public class SlowQueryLog {
+	private static final Logger slowLog = LoggerFactory.getLogger("org.holodeckb2b.bdxr.smp.server.slowqueries");
+
+	/**
+	 * The threshold in nanoseconds, or <code>Long.MAX_VALUE</code> when disabled
+	 */
+	private final long	thresholdNanos;
+
+	public SlowQueryLog(@Value("${smp.query.slowlog.threshold:1s}") Duration threshold) {
+		thresholdNanos = threshold.isZero() || threshold.isNegative() ? Long.MAX_VALUE : threshold.toNanos();
+	}
+
+	/**
+	 * Indicates whether a query with the given processing time should be logged.
+	 *
+	 * @param totalNanos	total processing time of the query in nanoseconds
+	 * @return	<code>true</code> when the processing time exceeds the threshold and the slow query log is enabled,
+	 * 			<code>false</code> otherwise
+	 */
+	public boolean isSlow(long totalNanos) {
+		return totalNanos >= thresholdNanos && slowLog.isWarnEnabled();
+	}
+
+	/**
+	 * Writes the log record of a slow query.
+	 *
+	 * @param queryPath		the query path, may be <code>null</code> if not known
+	 * @param responder		name of the responder that handled the query
+	 * @param status		HTTP status code of the response
+	 * @param cacheHit		indicates whether the response was taken from the cache
+	 * @param totalNanos	total processing time in nanoseconds
+	 * @param stageNanos	time spent per {@link QueryStage} in nanoseconds, indexed by the stage's ordinal
+	 * @param sqlCount		number of SQL statements executed
+	 * @param sqlNanos		time spent executing SQL statements in nanoseconds
+	 * @param bytes			size of the response, -1 if not known
+	 */
+	void log(String queryPath, String responder, int status, boolean cacheHit, long totalNanos, long[] stageNanos,
+			 long sqlCount, long sqlNanos, long bytes) {
+		StringBuilder r = new StringBuilder(512);
+		r.append("{\"timestamp\":\"");
+		DateTimeFormatter.ISO_INSTANT.formatTo(Instant.now(), r);
+		r.append('"');
+		if (queryPath != null) {
+			String[] ids = QueryVolumeCollector.splitQueryPath(queryPath);
+			r.append(",\"participant\":");
+			JsonUtils.appendString(r, ids[0]);
+			r.append(",\"service\":");
+			JsonUtils.appendString(r, ids[1].isEmpty() ? null : ids[1]);
+		}
+		r.append(",\"responder\":");
+		JsonUtils.appendString(r, responder);
+		r.append(",\"status\":").append(status)
+		 .append(",\"cacheHit\":").append(cacheHit)
+		 .append(",\"totalMicros\":").append(totalNanos / 1000)
+		 .append(",\"stageMicros\":{");
+		boolean first = true;
+		for (QueryStage s : QueryStage.values())
+			if (stageNanos[s.ordinal()] > 0) {
+				if (!first)
+					r.append(',');
+				r.append('"').append(s.getTag()).append("\":").append(stageNanos[s.ordinal()] / 1000);
+				first = false;
+			}
+		r.append("},\"sqlStatements\":").append(sqlCount)
+		 .append(",\"sqlMicros\":").append(sqlNanos / 1000);
+		if (bytes >= 0)
+			r.append(",\"bytes\":").append(bytes);
+		r.append('}');
+		slowLog.warn(r.toString());
+	}
+
+}
@@ -25,6 +25,7 @@ import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
 import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogSearchCriteria;
 import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
 import org.holodeckb2b.bdxr.smp.server.db.entities.AuditLogEntity;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.AuditLogWriteEvent;
 import org.holodeckb2b.bdxr.smp.server.db.repos.AuditLogRepository;
 import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
 import org.holodeckb2b.commons.util.Utils;
@@ -60,7 +61,16 @@ public class AuditLogServiceImpl implements AuditLogService {
 	@Override
 	public void log(AuditLogRecord record) {
 		log.trace("Adding audit log record"); 
-		auditLog.save(new AuditLogEntity(record));
+		AuditLogWriteEvent event = new AuditLogWriteEvent();
+		event.action = record.action();
+		event.begin();
+		try {
+			auditLog.save(new AuditLogEntity(record));
+		} catch (RuntimeException saveFailure) {
+			event.complete(record.subject(), null, "failed");
+			throw saveFailure;
+		}
+		event.complete(record.subject(), null, "ok");
 		log.debug("Added audit log record : t={}, u={}, a={}, s={})", record.timestamp(), record.username(), 
 				record.action(), record.subject());			
 	}
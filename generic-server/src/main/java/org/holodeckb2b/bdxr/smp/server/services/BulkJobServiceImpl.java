@@ -0,0 +1,720 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJob;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJobService;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantSelection;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantsService;
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryException;
+import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryIntegrationService;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLIntegrationService;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.holodeckb2b.bdxr.smp.server.utils.TokenBucket;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the {@link BulkJobService}. Jobs are executed one at a time by a coordinator thread that selects the
+ * Participants to process in chunks and hands these over to a bounded pool of worker threads, which execute the calls
+ * to the SML or directory. The number of chunks waiting to be processed is limited to the number of workers, so the
+ * selection never runs far ahead of the processing and the memory usage of a job does not depend on the number of
+ * selected Participants.
+ * <p>
+ * All workers share a token bucket that limits the number of calls made to the network services per second. For the
+ * SML a chunk is sent as one batch using {@link SMLIntegrationService#registerParticipants(List)} or {@link
+ * SMLIntegrationService#deregisterParticipants(List)}, which counts as one call. For the directory each Participant
+ * is a separate call. When a call fails because of a temporary problem, i.e. a connection error or a server error
+ * response, it is retried with an exponentially increasing delay. After a chunk has been processed the new state of
+ * the Participants for which the operation succeeded is set using one update statement, so changes made concurrently
+ * to other meta-data of these Participants are not overwritten. When the job ends, one audit record with the result
+ * of the job is created.
+ * <p>
+ * The engine can be configured using the following properties:<ul>
+ * <li><code>smp.bulk.workers</code> : number of chunks processed concurrently, default 8</li>
+ * <li><code>smp.bulk.chunk_size</code> : number of Participants in a chunk, default 100</li>
+ * <li><code>smp.bulk.rate_limit</code> : maximum number of calls to the SML or directory per second, default 10</li>
+ * <li><code>smp.bulk.burst</code> : maximum number of calls that can be made at once after an idle period,
+ * 		default 10</li>
+ * <li><code>smp.bulk.max_retries</code> : maximum number of times a failed call is retried, default 3</li>
+ * <li><code>smp.bulk.retry_delay</code> : delay in milliseconds before the first retry, default 1000. The delay is
+ * 		doubled for each next retry</li>
+ * <li><code>smp.bulk.max_reported_failures</code> : maximum number of failed Participants reported per job, default
+ * 		1000</li>
+ * <li><code>smp.bulk.retained_jobs</code> : number of ended jobs that are retained for reporting, default 50</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+@Service
+public class BulkJobServiceImpl implements BulkJobService {
+
+	/**
+	 * The maximum delay between retries of a failed call
+	 */
+	private static final long MAX_RETRY_DELAY = 60_000;
+
+	@Value("${smp.bulk.workers:8}")
+	protected int	workerCount;
+
+	@Value("${smp.bulk.chunk_size:100}")
+	protected int	chunkSize;
+
+	@Value("${smp.bulk.rate_limit:10}")
+	protected double	rateLimit;
+
+	@Value("${smp.bulk.burst:10}")
+	protected int	burst;
+
+	@Value("${smp.bulk.max_retries:3}")
+	protected int	maxRetries;
+
+	@Value("${smp.bulk.retry_delay:1000}")
+	protected long	retryDelay;
+
+	@Value("${smp.bulk.max_reported_failures:1000}")
+	protected int	maxReportedFailures;
+
+	@Value("${smp.bulk.retained_jobs:50}")
+	protected int	retainedJobs;
+
+	@Autowired
+	protected SMPServerAdminService	smpConfigService;
+
+	@Autowired
+	protected ParticipantsService	participantsSvc;
+
+	@Autowired
+	protected ParticipantRepository	participants;
+
+	@Autowired
+	protected AuditLogService		auditSvc;
+
+	@Autowired
+	protected MetadataChangeTracker	changeTracker;
+
+	@Autowired
+	protected PlatformTransactionManager	txManager;
+
+	@Autowired
+	protected IdUtils				idUtils;
+
+	/**
+	 * The jobs that are queued, running or recently ended, in order of submission
+	 */
+	private final Map<String, Job>	jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+	private ExecutorService	coordinator;
+	private ExecutorService	workers;
+	private TokenBucket		rateLimiter;
+
+	@PostConstruct
+	void init() {
+		coordinator = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("bulk-job-"));
+		workers = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("bulk-job-worker-"));
+		rateLimiter = new TokenBucket(rateLimit, burst);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		jobs.values().forEach(j -> j.cancelled = true);
+		coordinator.shutdownNow();
+		workers.shutdownNow();
+	}
+
+	@Override
+	public BulkJob submit(UserDetails user, Operation operation, ParticipantSelection selection)
+																						throws PersistenceException {
+		switch (operation) {
+		case REGISTER_IN_SML, REMOVE_FROM_SML -> {
+			if (!participantsSvc.isSMLRegistrationAvailable()) {
+				log.warn("Cannot submit bulk job to {}, as SML is not available", operation);
+				throw new SMLException("SML registration not available");
+			}
+		}
+		default -> {
+			if (!participantsSvc.isDirectoryPublicationAvailable()) {
+				log.warn("Cannot submit bulk job to {}, as directory is not available", operation);
+				throw new DirectoryException("Directory publication not available");
+			}
+		}
+		}
+		if (selection.type() == ParticipantSelection.Type.BOUND_TO_SMT
+			&& (!(selection.smt() instanceof ServiceMetadataTemplateEntity)
+				|| ((ServiceMetadataTemplateEntity) selection.smt()).getOid() == null))
+			throw new IllegalArgumentException("Service Metadata Template instance is not managed");
+
+		Job job = new Job(operation, selection, user.getUsername());
+		jobs.put(job.id, job);
+		coordinator.execute(() -> execute(job));
+		log.info("Submitted bulk job (id={}) to {} Participants selected by {}", job.id, operation, selection.type());
+		return job;
+	}
+
+	@Override
+	public BulkJob getJob(String jobId) {
+		return jobs.get(jobId);
+	}
+
+	@Override
+	public Collection<? extends BulkJob> getJobs() {
+		synchronized (jobs) {
+			return new ArrayList<>(jobs.values());
+		}
+	}
+
+	@Override
+	public boolean cancel(String jobId) {
+		Job job = jobs.get(jobId);
+		if (job == null || job.getFinished() != null)
+			return false;
+		log.info("Cancelling bulk job (id={})", jobId);
+		job.cancelled = true;
+		return true;
+	}
+
+	/**
+	 * Executes the job. It selects the Participants to process in chunks and submits each chunk to the worker pool,
+	 * waiting for a free worker when all are busy.
+	 *
+	 * @param job	the job to execute
+	 */
+	private void execute(Job job) {
+		if (job.cancelled) {
+			job.end(BulkJob.State.CANCELLED);
+			return;
+		}
+		final Semaphore slots = new Semaphore(workerCount);
+		BulkJob.State endState;
+		try {
+			job.start(countSelected(job));
+			log.debug("Start bulk job (id={}) to {} {} Participants", job.id, job.operation, job.total);
+			selectParticipants(job, chunk -> {
+				slots.acquireUninterruptibly();
+				try {
+					workers.execute(() -> {
+						final Set<Long> accounted = new HashSet<>(chunk.size());
+						try {
+							processChunk(job, chunk, accounted);
+						} catch (InterruptedException shutdown) {
+							log.warn("Processing of chunk of bulk job (id={}) interrupted", job.id);
+							job.cancelled = true;
+						} catch (Throwable chunkFailure) {
+							log.error("Error processing chunk of bulk job (id={}) : {}", job.id,
+										Utils.getExceptionTrace(chunkFailure));
+							// Only the Participants that were not counted as succeeded or failed yet are failed
+							participants.findAllById(chunk.stream().filter(oid -> !accounted.contains(oid)).toList())
+										.forEach(p -> job.addFailure(p, chunkFailure));
+						} finally {
+							slots.release();
+						}
+					});
+				} catch (Throwable rejected) {
+					slots.release();
+					throw rejected;
+				}
+				return !job.cancelled;
+			});
+			slots.acquireUninterruptibly(workerCount);
+			endState = job.cancelled ? BulkJob.State.CANCELLED : BulkJob.State.COMPLETED;
+			log.info("Bulk job (id={}) to {} Participants ended ({}) : {} succeeded, {} failed", job.id,
+					 job.operation, endState, job.succeeded.get(), job.failed.get());
+		} catch (Throwable jobFailure) {
+			log.error("Bulk job (id={}) failed : {}", job.id, Utils.getExceptionTrace(jobFailure));
+			endState = BulkJob.State.FAILED;
+		}
+		if (job.started != null)
+			auditJob(job, endState);
+		job.end(endState);
+		removeEndedJobs();
+	}
+
+	/**
+	 * Creates the audit record with the result of the job.
+	 *
+	 * @param job		the job
+	 * @param endState	the state in which the job ends
+	 */
+	private void auditJob(Job job, BulkJob.State endState) {
+		try {
+			auditSvc.log(new AuditLogRecord(Instant.now(), job.submittedBy, job.getAuditAction(), null,
+											"Bulk job " + job.id + " (" + endState + ") : " + job.succeeded.get()
+											+ " succeeded and " + job.failed.get() + " failed of " + job.total
+											+ " selected Participants"));
+		} catch (Throwable auditFailure) {
+			log.error("Could not create audit record for bulk job (id={}) : {}", job.id,
+						Utils.getExceptionTrace(auditFailure));
+		}
+	}
+
+	/**
+	 * Determines the (expected) number of Participants selected by the job.
+	 *
+	 * @param job	the job
+	 * @return	the number of selected Participants
+	 */
+	private long countSelected(Job job) {
+		return switch (job.selection.type()) {
+		case PENDING -> participants.countByState(pendingSMLState(job.operation), pendingDirectoryState(job.operation));
+		case BOUND_TO_SMT -> participants.countParticipantsSupporting(
+											((ServiceMetadataTemplateEntity) job.selection.smt()).getOid());
+		case LIST -> job.selection.ids().size();
+		};
+	}
+
+	/**
+	 * Selects the Participants to be processed by the job and passes them in chunks to the given handler, which
+	 * indicates whether selection should continue. When the Participants are listed, the identifiers in each chunk
+	 * are resolved using one query.
+	 *
+	 * @param job		the job
+	 * @param handler	the handler to process a chunk of <i>oids</i> of the selected Participants
+	 */
+	private void selectParticipants(Job job, Predicate<List<Long>> handler) {
+		if (job.selection.type() == ParticipantSelection.Type.LIST) {
+			Iterator<? extends Identifier> ids = job.selection.ids().iterator();
+			boolean next = true;
+			while (next && ids.hasNext()) {
+				Map<String, Identifier> listed = new HashMap<>();
+				while (listed.size() < chunkSize && ids.hasNext()) {
+					Identifier pid = ids.next();
+					try {
+						listed.put(idUtils.toEmbeddedIdentifier(pid).toString(), pid);
+					} catch (NoSuchElementException unknownScheme) {
+						job.addFailure(pid, "Unknown ID Scheme");
+					}
+				}
+				List<Long> chunk = new ArrayList<>(listed.size());
+				if (!listed.isEmpty())
+					participants.findOidsByValues(listed.values().stream().map(pid -> pid.getValue().toLowerCase())
+																	  .collect(Collectors.toSet()))
+								.forEach(r -> {
+									if (listed.remove(r[1].toString()) != null)
+										chunk.add((Long) r[0]);
+								});
+				listed.values().forEach(pid -> job.addFailure(pid, "Unknown Participant"));
+				next = chunk.isEmpty() || handler.test(chunk);
+			}
+		} else {
+			final Boolean registered = pendingSMLState(job.operation);
+			final Boolean published = pendingDirectoryState(job.operation);
+			final Long smtOid = job.selection.type() == ParticipantSelection.Type.BOUND_TO_SMT ?
+										((ServiceMetadataTemplateEntity) job.selection.smt()).getOid() : null;
+			List<Long> chunk;
+			boolean next = true;
+			Long after = 0L;
+			do {
+				chunk = smtOid != null ? participants.findOidsSupporting(smtOid, after, chunkSize)
+									   : participants.findOidsByState(registered, published, after,
+											   						  Limit.of(chunkSize));
+				if (!chunk.isEmpty()) {
+					after = chunk.get(chunk.size() - 1);
+					next = handler.test(chunk);
+				}
+			} while (next && chunk.size() == chunkSize);
+		}
+	}
+
+	/**
+	 * Gets the SML registration state of the Participants on which the operation still needs to be executed.
+	 *
+	 * @param op	the operation
+	 * @return	the required SML registration state, or <code>null</code> if it does not matter
+	 */
+	private Boolean pendingSMLState(Operation op) {
+		return switch (op) {
+		case REGISTER_IN_SML -> false;
+		case REMOVE_FROM_SML -> true;
+		case PUBLISH_IN_DIRECTORY -> getDirectoryService().isSMLRegistrationRequired() ? true : null;
+		case REMOVE_FROM_DIRECTORY -> null;
+		};
+	}
+
+	/**
+	 * Gets the directory publication state of the Participants on which the operation still needs to be executed.
+	 *
+	 * @param op	the operation
+	 * @return	the required directory publication state, or <code>null</code> if it does not matter
+	 */
+	private Boolean pendingDirectoryState(Operation op) {
+		return switch (op) {
+		case REGISTER_IN_SML -> null;
+		case REMOVE_FROM_SML -> getDirectoryService() != null && getDirectoryService().isSMLRegistrationRequired() ?
+																												false : null;
+		case PUBLISH_IN_DIRECTORY -> false;
+		case REMOVE_FROM_DIRECTORY -> true;
+		};
+	}
+
+	/**
+	 * Processes a chunk of Participants. Participants that are already in the requested state are counted as
+	 * succeeded without calling the network service.
+	 *
+	 * @param job		the job
+	 * @param oids		the <i>oids</i> of the Participants in the chunk
+	 * @param accounted	the <i>oids</i> of the Participants that have been counted as succeeded or failed, updated
+	 * 					while the chunk is processed
+	 * @throws InterruptedException	when the worker is interrupted because the server shuts down
+	 */
+	private void processChunk(Job job, List<Long> oids, Set<Long> accounted) throws InterruptedException {
+		final boolean dirRequiresSML = getDirectoryService() != null
+										&& getDirectoryService().isSMLRegistrationRequired();
+		List<ParticipantEntity> todo = new ArrayList<>(oids.size());
+		for (ParticipantEntity p : participants.findAllById(oids)) {
+			if (job.isInTargetState(p))
+				job.succeeded.incrementAndGet();
+			else if (job.operation == Operation.REMOVE_FROM_SML && dirRequiresSML && p.isPublishedInDirectory())
+				job.addFailure(p.getId(), "Participant is still published in directory");
+			else if (job.operation == Operation.PUBLISH_IN_DIRECTORY && dirRequiresSML && !p.isRegisteredInSML())
+				job.addFailure(p.getId(), "Participant is not registered in SML");
+			else {
+				todo.add(p);
+				continue;
+			}
+			accounted.add(p.getOid());
+		}
+		if (todo.isEmpty())
+			return;
+
+		List<ParticipantEntity> done = switch (job.operation) {
+		case REGISTER_IN_SML, REMOVE_FROM_SML -> executeInSML(job, todo, accounted);
+		default -> executeInDirectory(job, todo, accounted);
+		};
+		if (done.isEmpty())
+			return;
+
+		log.trace("Update state of {} Participants", done.size());
+		final boolean newState = job.operation == Operation.REGISTER_IN_SML
+								|| job.operation == Operation.PUBLISH_IN_DIRECTORY;
+		final List<Long> doneOids = done.stream().map(ParticipantEntity::getOid).toList();
+		try {
+			new TransactionTemplate(txManager).executeWithoutResult(tx -> {
+				if (job.operation == Operation.REGISTER_IN_SML || job.operation == Operation.REMOVE_FROM_SML)
+					participants.setRegisteredInSML(doneOids, newState, LocalDateTime.now());
+				else
+					participants.setPublishedInDirectory(doneOids, newState, LocalDateTime.now());
+				changeTracker.registerBulkChange();
+			});
+			job.succeeded.addAndGet(done.size());
+			accounted.addAll(doneOids);
+		} catch (Throwable saveFailure) {
+			// The network service has been updated, but the local state could not be saved. The reconciliation of the
+			// SML registrations can be used to correct this
+			log.error("Could not save state of {} Participants processed by bulk job (id={}) : {}", done.size(),
+						job.id, Utils.getExceptionTrace(saveFailure));
+			done.forEach(p -> job.addFailure(p.getId(), "Could not save new state"));
+			accounted.addAll(doneOids);
+		}
+	}
+
+	/**
+	 * Executes the SML operation on the given Participants as one batch, retrying the Participants for which the
+	 * operation failed because of a temporary problem.
+	 *
+	 * @param job		the job
+	 * @param todo		the Participants to register in or remove from the SML
+	 * @param accounted	the <i>oids</i> of the Participants counted as succeeded or failed, to which the failed
+	 * 					Participants are added
+	 * @return	the Participants for which the operation succeeded
+	 * @throws InterruptedException	when the worker is interrupted because the server shuts down
+	 */
+	private List<ParticipantEntity> executeInSML(Job job, List<ParticipantEntity> todo, Set<Long> accounted)
+																						throws InterruptedException {
+		final SMLIntegrationService sml = smpConfigService.getSMLIntegrationService();
+		List<ParticipantEntity> done = new ArrayList<>(todo.size());
+		List<ParticipantEntity> pending = todo;
+		for (int attempt = 0; !pending.isEmpty(); attempt++) {
+			if (attempt > 0)
+				backoff(attempt);
+			rateLimiter.acquire();
+			log.trace("Executing {} for {} Participants (attempt {})", job.operation, pending.size(), attempt + 1);
+			SMLBatchResult<ParticipantEntity> result = job.operation == Operation.REGISTER_IN_SML ?
+													sml.registerParticipants(pending) : sml.deregisterParticipants(pending);
+			done.addAll(result.completed());
+			pending = new ArrayList<>();
+			for (SMLBatchResult.Failure<ParticipantEntity> f : result.failed())
+				if (attempt < maxRetries && !job.cancelled && isTemporary(f.error()))
+					pending.add(f.participant());
+				else {
+					job.addFailure(f.participant(), f.error());
+					accounted.add(f.participant().getOid());
+				}
+		}
+		return done;
+	}
+
+	/**
+	 * Executes the directory operation on each of the given Participants, retrying the operation when it fails
+	 * because of a temporary problem.
+	 *
+	 * @param job		the job
+	 * @param todo		the Participants to publish in or remove from the directory
+	 * @param accounted	the <i>oids</i> of the Participants counted as succeeded or failed, to which the failed
+	 * 					Participants are added
+	 * @return	the Participants for which the operation succeeded
+	 * @throws InterruptedException	when the worker is interrupted because the server shuts down
+	 */
+	private List<ParticipantEntity> executeInDirectory(Job job, List<ParticipantEntity> todo, Set<Long> accounted)
+																						throws InterruptedException {
+		final DirectoryIntegrationService directory = getDirectoryService();
+		List<ParticipantEntity> done = new ArrayList<>(todo.size());
+		for (ParticipantEntity p : todo) {
+			for (int attempt = 0; ; attempt++) {
+				if (attempt > 0)
+					backoff(attempt);
+				rateLimiter.acquire();
+				try {
+					if (job.operation == Operation.PUBLISH_IN_DIRECTORY)
+						directory.publishParticipantInfo(p);
+					else
+						directory.removeParticipantInfo(p);
+					done.add(p);
+					break;
+				} catch (DirectoryException dirError) {
+					if (attempt >= maxRetries || job.cancelled || !isTemporary(dirError)) {
+						job.addFailure(p, dirError);
+						accounted.add(p.getOid());
+						break;
+					}
+				}
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * Checks whether the given error was caused by a temporary problem, i.e. a connection error or a server error
+	 * response, so the operation can be retried.
+	 *
+	 * @param error	the error to check
+	 * @return	<code>true</code> if the operation should be retried, <code>false</code> otherwise
+	 */
+	static boolean isTemporary(Throwable error) {
+		for (Throwable t = error; t != null; t = t.getCause())
+			if (t instanceof IOException)
+				return true;
+			else if (t instanceof HttpStatusCodeException httpError)
+				return httpError.getStatusCode().is5xxServerError() || httpError.getStatusCode().value() == 429;
+		return false;
+	}
+
+	/**
+	 * Waits before retrying a failed call. The delay doubles with each attempt and a random jitter is added to prevent
+	 * that the workers retry at the same time.
+	 *
+	 * @param attempt	the number of the retry
+	 * @throws InterruptedException	when the worker is interrupted while waiting
+	 */
+	private void backoff(int attempt) throws InterruptedException {
+		final long delay = Math.min(MAX_RETRY_DELAY, retryDelay << Math.min(attempt - 1, 16));
+		TimeUnit.MILLISECONDS.sleep(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+	}
+
+	/**
+	 * Removes the oldest ended jobs when more than the configured number of ended jobs is retained.
+	 */
+	private void removeEndedJobs() {
+		synchronized (jobs) {
+			long ended = jobs.values().stream().filter(j -> j.getFinished() != null).count();
+			for (Iterator<Job> it = jobs.values().iterator(); ended > retainedJobs && it.hasNext();)
+				if (it.next().getFinished() != null) {
+					it.remove();
+					ended--;
+				}
+		}
+	}
+
+	private DirectoryIntegrationService getDirectoryService() {
+		return smpConfigService.getDirectoryIntegrationService();
+	}
+
+	/**
+	 * Holds the state and progress of a job.
+	 */
+	private class Job implements BulkJob {
+		private final String				id = UUID.randomUUID().toString();
+		private final Operation				operation;
+		private final ParticipantSelection	selection;
+		private final String				submittedBy;
+		private final Instant				submitted = Instant.now();
+		private volatile Instant			started;
+		private volatile Instant			finished;
+		private volatile State				state = State.QUEUED;
+		private volatile long				total;
+		private volatile boolean			cancelled;
+		private final AtomicLong			succeeded = new AtomicLong();
+		private final AtomicLong			failed = new AtomicLong();
+		private final List<Failure>			failures = Collections.synchronizedList(new ArrayList<>());
+
+		Job(Operation operation, ParticipantSelection selection, String submittedBy) {
+			this.operation = operation;
+			this.selection = selection;
+			this.submittedBy = submittedBy;
+		}
+
+		void start(long total) {
+			this.total = total;
+			this.started = Instant.now();
+			this.state = State.RUNNING;
+		}
+
+		void end(State endState) {
+			this.finished = Instant.now();
+			this.state = endState;
+		}
+
+		boolean isInTargetState(ParticipantEntity p) {
+			return switch (operation) {
+			case REGISTER_IN_SML -> p.isRegisteredInSML();
+			case REMOVE_FROM_SML -> !p.isRegisteredInSML();
+			case PUBLISH_IN_DIRECTORY -> p.isPublishedInDirectory();
+			case REMOVE_FROM_DIRECTORY -> !p.isPublishedInDirectory();
+			};
+		}
+
+		String getAuditAction() {
+			return switch (operation) {
+			case REGISTER_IN_SML -> "Register in SML";
+			case REMOVE_FROM_SML -> "Remove from SML";
+			case PUBLISH_IN_DIRECTORY -> "Publish in directory";
+			case REMOVE_FROM_DIRECTORY -> "Remove from directory";
+			};
+		}
+
+		void addFailure(ParticipantEntity p, Throwable error) {
+			log.warn("{} failed for Participant (ID={}) in bulk job (id={}) : {}", operation, p.getId().toString(),
+						id, Utils.getExceptionTrace(error));
+			addFailure(p.getId(), Utils.getRootCause(error).getMessage());
+		}
+
+		void addFailure(Identifier pid, String reason) {
+			if (failed.incrementAndGet() <= maxReportedFailures)
+				failures.add(new Failure(pid, reason));
+		}
+
+		@Override
+		public String getId() {
+			return id;
+		}
+
+		@Override
+		public Operation getOperation() {
+			return operation;
+		}
+
+		@Override
+		public ParticipantSelection getSelection() {
+			return selection;
+		}
+
+		@Override
+		public String getSubmittedBy() {
+			return submittedBy;
+		}
+
+		@Override
+		public State getState() {
+			return state;
+		}
+
+		@Override
+		public Instant getSubmitted() {
+			return submitted;
+		}
+
+		@Override
+		public Instant getStarted() {
+			return started;
+		}
+
+		@Override
+		public Instant getFinished() {
+			return finished;
+		}
+
+		@Override
+		public long getTotal() {
+			return total;
+		}
+
+		@Override
+		public long getSucceeded() {
+			return succeeded.get();
+		}
+
+		@Override
+		public long getFailed() {
+			return failed.get();
+		}
+
+		@Override
+		public List<Failure> getFailures() {
+			synchronized (failures) {
+				return List.copyOf(failures);
+			}
+		}
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedContact;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.MetadataExportService;
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the {@link MetadataExportService}. The meta-data is read from the database using a forward only cursor in
+ * a read-only transaction on a separate connection, so the export does not depend on, nor interferes with, the
+ * persistence context of the current request. The JDBC fetch size is set on the query so the driver retrieves the rows
+ * in batches instead of loading the complete result set into memory. Note that for some databases the driver must be
+ * configured to use a cursor for the fetch size to be applied, e.g. for MySQL <code>useCursorFetch=true</code> must be
+ * added to the connection URL.
+ * <p>
+ * The Participants and their bindings are read using a {@link StatelessSession} that only retrieves the columns needed
+ * for the export, so no entities are managed and the (eagerly fetched) bindings are not loaded for every Participant.
+ * As the templates consist of multiple related entities they are read as entities using a read-only {@link Session},
+ * which is cleared after each template is exported.
+ * <p>
+ * The export can be configured using the following property:<ul>
+ * <li><code>smp.export.fetch_size</code> : number of rows retrieved from the database at once, default 500</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+@Service
+public class MetadataExportServiceImpl implements MetadataExportService {
+
+	private static final String PARTICIPANTS_QUERY =
+		"select p.oid, p.id.value, s.oid, p.name, p.registrationCountry, p.locationInfo, p.firstRegistrationDate, "
+		+ "p.websiteURL, p.contactInfo, p.registeredInSML, p.publishedInDirectory, a "
+		+ "from Participant p left join p.id.scheme s left join p.additionalIds a order by p.oid";
+
+	private static final String BINDINGS_QUERY =
+		"select p.oid, p.id.value, s.oid, t.oid from Participant p join p.bindings t left join p.id.scheme s "
+		+ "order by p.oid, t.oid";
+
+	private static final String TEMPLATES_QUERY = "from ServiceMetadataTemplate t order by t.oid";
+
+	@Value("${smp.export.fetch_size:500}")
+	protected int	fetchSize;
+
+	@Autowired
+	protected EntityManagerFactory	emf;
+
+	@Autowired
+	protected IDSchemeRepository	idschemes;
+
+	/**
+	 * Is the callback for processing the rows retrieved by a query executed by {@link
+	 * MetadataExportServiceImpl#scroll(String, RowHandler)}.
+	 */
+	@FunctionalInterface
+	private interface RowHandler {
+		void process(Object[] row) throws IOException;
+	}
+
+	@Override
+	public long exportParticipants(ExportHandler<? super Participant> handler)
+																			throws PersistenceException, IOException {
+		log.debug("Exporting Participants (fetch size={})", fetchSize);
+		final Map<Long, IDSchemeEntity> schemes = getIDSchemes();
+		final long[] count = { 0 };
+		// There is a row for each additional identifier of a Participant and as the rows are ordered by Participant,
+		// a Participant is exported when the first row of the next Participant is read
+		final Object[] currentOid = { null };
+		final ParticipantEntity[] current = { null };
+		scroll(PARTICIPANTS_QUERY, row -> {
+			if (!row[0].equals(currentOid[0])) {
+				if (current[0] != null) {
+					handler.export(current[0]);
+					count[0]++;
+				}
+				currentOid[0] = row[0];
+				current[0] = toParticipant(row, schemes);
+			}
+			if (row[11] != null)
+				current[0].addAdditionalId(ParticipantEntity.parseAdditionalId((String) row[11]));
+		});
+		if (current[0] != null) {
+			handler.export(current[0]);
+			count[0]++;
+		}
+		log.info("Exported {} Participants", count[0]);
+		return count[0];
+	}
+
+	@Override
+	public long exportBindings(ExportHandler<? super ParticipantBindings> handler)
+																			throws PersistenceException, IOException {
+		log.debug("Exporting bindings (fetch size={})", fetchSize);
+		final Map<Long, IDSchemeEntity> schemes = getIDSchemes();
+		final long[] count = { 0 };
+		// The rows are ordered by Participant, so the bindings of a Participant are exported when the first row of the
+		// next Participant is read
+		final Object[][] current = { null };
+		final List<Long> templateIds = new ArrayList<>();
+		scroll(BINDINGS_QUERY, row -> {
+			if (current[0] != null && !current[0][0].equals(row[0])) {
+				handler.export(toBindings(current[0], schemes, templateIds));
+				count[0]++;
+				templateIds.clear();
+			}
+			current[0] = row;
+			templateIds.add((Long) row[3]);
+		});
+		if (current[0] != null) {
+			handler.export(toBindings(current[0], schemes, templateIds));
+			count[0]++;
+		}
+		log.info("Exported bindings of {} Participants", count[0]);
+		return count[0];
+	}
+
+	@Override
+	public long exportTemplates(ExportHandler<? super ServiceMetadataTemplate> handler)
+																			throws PersistenceException, IOException {
+		log.debug("Exporting Service Metadata Templates (fetch size={})", fetchSize);
+		long count = 0;
+		try (Session session = emf.unwrap(SessionFactory.class).openSession()) {
+			session.setDefaultReadOnly(true);
+			Transaction tx = session.beginTransaction();
+			try (ScrollableResults<ServiceMetadataTemplateEntity> templates =
+						session.createSelectionQuery(TEMPLATES_QUERY, ServiceMetadataTemplateEntity.class)
+							   .setFetchSize(fetchSize).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+				while (templates.next()) {
+					handler.export(templates.get());
+					count++;
+					session.clear();
+				}
+			} finally {
+				tx.rollback();
+			}
+		} catch (IOException writeFailure) {
+			log.warn("Export of Service Metadata Templates aborted after {} templates : {}", count,
+					 writeFailure.getMessage());
+			throw writeFailure;
+		} catch (Throwable t) {
+			log.error("An error occurred exporting the Service Metadata Templates : {}", Utils.getExceptionTrace(t));
+			throw new PersistenceException("Failed to export Service Metadata Templates", t);
+		}
+		log.info("Exported {} Service Metadata Templates", count);
+		return count;
+	}
+
+	/**
+	 * Executes the given query using a forward only cursor in a stateless session and passes the rows to the handler.
+	 *
+	 * @param query		the HQL query to execute
+	 * @param handler	the handler to process the rows
+	 * @throws PersistenceException	when an error occurs executing the query
+	 * @throws IOException			when the handler fails to process a row
+	 */
+	private void scroll(String query, RowHandler handler) throws PersistenceException, IOException {
+		try (StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession()) {
+			Transaction tx = session.beginTransaction();
+			try (ScrollableResults<Object[]> rows = session.createSelectionQuery(query, Object[].class)
+														   .setFetchSize(fetchSize).setReadOnly(true)
+														   .scroll(ScrollMode.FORWARD_ONLY)) {
+				while (rows.next())
+					handler.process(rows.get());
+			} finally {
+				// Nothing was changed, so there is nothing to commit
+				tx.rollback();
+			}
+		} catch (IOException writeFailure) {
+			log.warn("Export aborted as handler failed : {}", writeFailure.getMessage());
+			throw writeFailure;
+		} catch (Throwable t) {
+			log.error("An error occurred executing the export query ({}) : {}", query, Utils.getExceptionTrace(t));
+			throw new PersistenceException("Failed to export meta-data", t);
+		}
+	}
+
+	/**
+	 * Gets all ID Schemes registered in the SMP, mapped on their oid, so the schemes of the exported identifiers can be
+	 * resolved without a query per row.
+	 *
+	 * @return	the registered ID Schemes
+	 * @throws PersistenceException	when the ID Schemes could not be retrieved
+	 */
+	private Map<Long, IDSchemeEntity> getIDSchemes() throws PersistenceException {
+		try {
+			Map<Long, IDSchemeEntity> schemes = new HashMap<>();
+			idschemes.findAll().forEach(s -> schemes.put(s.getOid(), s));
+			return schemes;
+		} catch (Throwable t) {
+			log.error("Could not retrieve the ID Schemes : {}", Utils.getExceptionTrace(t));
+			throw new PersistenceException("Failed to retrieve ID Schemes", t);
+		}
+	}
+
+	/**
+	 * Creates the Participant object for the first row of a Participant retrieved using {@link #PARTICIPANTS_QUERY}.
+	 * The additional identifiers are not included as there is a row for each of them. The object is a transient entity
+	 * object, i.e. it is not associated with the database.
+	 *
+	 * @param row		the row
+	 * @param schemes	the registered ID Schemes, mapped on their oid
+	 * @return	the Participant
+	 */
+	private ParticipantEntity toParticipant(Object[] row, Map<Long, IDSchemeEntity> schemes) {
+		ParticipantEntity p = new ParticipantEntity();
+		p.setId(new EmbeddedIdentifier(schemes.get(row[2]), (String) row[1]));
+		p.setName((String) row[3]);
+		p.setRegistrationCountry((String) row[4]);
+		p.setLocationInfo((String) row[5]);
+		p.setFirstRegistrationDate((LocalDate) row[6]);
+		if (!Utils.isNullOrEmpty((String) row[7]))
+			try {
+				p.addWebsite(URI.create((String) row[7]).toURL());
+			} catch (MalformedURLException | IllegalArgumentException invalidURL) {
+				log.warn("Website URL of Participant ({}) is invalid and not exported : {}", p.getId().toString(),
+						 row[7]);
+			}
+		if (row[8] != null)
+			p.addContactInfo((EmbeddedContact) row[8]);
+		p.setRegisteredInSML((Boolean) row[9]);
+		p.setPublishedInDirectory((Boolean) row[10]);
+		return p;
+	}
+
+	/**
+	 * Creates the bindings object for the Participant of a row retrieved using {@link #BINDINGS_QUERY}.
+	 *
+	 * @param row			the (last) row of the Participant
+	 * @param schemes		the registered ID Schemes, mapped on their oid
+	 * @param templateIds	the identifiers of the templates bound to the Participant
+	 * @return	the bindings of the Participant
+	 */
+	private ParticipantBindings toBindings(Object[] row, Map<Long, IDSchemeEntity> schemes, List<Long> templateIds) {
+		return new ParticipantBindings(new EmbeddedIdentifier(schemes.get(row[2]), (String) row[1]),
+									   List.copyOf(templateIds));
+	}
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.Operation;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.State;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.NetworkUpdateRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryException;
+import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryIntegrationService;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLIntegrationService;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the <i>outbox</i> for the updates of the SML and directory that result from changes to the Participant
+ * meta-data. Instead of calling the SML or directory while the database transaction is open, the {@link
+ * ParticipantsServiceImpl} writes the update as a {@link NetworkUpdateEntity} in the same transaction as the change
+ * of the meta-data. The pending updates are executed by a scheduled task once the transaction is committed, so the
+ * response time of the management operations and the use of database connections no longer depend on the response
+ * time of the SML and directory.
+ * <p>
+ * The updates of a Participant are executed in the order they were created. When an update fails because of a
+ * temporary problem it is retried with an increasing delay and the later updates of the Participant wait until it has
+ * been executed. When an update fails permanently, or the maximum number of attempts is reached, it is marked as
+ * failed, the later updates of the same service for the Participant are cancelled and the registration state of the
+ * Participant is reverted. Executed and failed updates are retained for the configured number of days so their
+ * status can be checked.
+ * <p>
+ * Updates of the directory are not executed immediately but after a short delay, so that updates of the same
+ * Participant requested within this window, for example when its business card is synchronised several times in a
+ * row, can be merged and only the final state is sent to the directory. An update is only merged with the last
+ * pending update of the Participant, so the order of the updates of the SML and directory is preserved.
+ * <p>
+ * Multiple instances of the server can share the database. To ensure an update is executed by only one of them, an
+ * instance first claims the update by increasing its number of attempts and postponing its next attempt for the
+ * configured claim timeout, using an update that only succeeds when the update was not changed since it was read. When
+ * the instance fails before completing the execution, another instance will retry the update after the timeout.
+ * <p>
+ * The outbox can be configured using the following properties:<ul>
+ * <li><code>smp.network.outbox.enabled</code> : indicates whether the updates should be executed asynchronously using
+ * 		the outbox, default <code>false</code></li>
+ * <li><code>smp.network.outbox.interval</code> : the time in milliseconds between the checks for pending updates,
+ * 		default 1000</li>
+ * <li><code>smp.network.outbox.batch_size</code> : maximum number of updates retrieved in one batch, default 100</li>
+ * <li><code>smp.network.outbox.max_attempts</code> : maximum number of attempts to execute an update, default 10</li>
+ * <li><code>smp.network.outbox.retry_delay</code> : the delay in milliseconds before the first retry, which doubles
+ * 		with each further retry up to one hour, default 5000</li>
+ * <li><code>smp.network.outbox.coalesce_window</code> : the time in milliseconds a directory update is delayed so it
+ * 		can be merged with later updates of the Participant, default 5000. Use 0 to disable merging</li>
+ * <li><code>smp.network.outbox.retention</code> : the number of days executed and failed updates are retained,
+ * 		default 7</li>
+ * <li><code>smp.network.outbox.claim_timeout</code> : the time in milliseconds an update claimed for execution is
+ * 		not retried by another instance, default 300000. Should exceed the time needed to execute an update</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class NetworkUpdateOutbox {
+	/**
+	 * The username used in the audit log records of failed updates
+	 */
+	private static final String AUDIT_USER = "system";
+	/**
+	 * The maximum delay between retries in milliseconds
+	 */
+	private static final long MAX_RETRY_DELAY = 3_600_000;
+
+	@Value("${smp.network.outbox.enabled:false}")
+	protected boolean	enabled;
+
+	@Value("${smp.network.outbox.batch_size:100}")
+	protected int		batchSize;
+
+	@Value("${smp.network.outbox.max_attempts:10}")
+	protected int		maxAttempts;
+
+	@Value("${smp.network.outbox.retry_delay:5000}")
+	protected long		retryDelay;
+
+	@Value("${smp.network.outbox.coalesce_window:5000}")
+	protected long		coalesceWindow;
+
+	@Value("${smp.network.outbox.retention:7}")
+	protected int		retention;
+
+	@Value("${smp.network.outbox.claim_timeout:300000}")
+	protected long		claimTimeout;
+
+	@Autowired
+	protected NetworkUpdateRepository	updates;
+
+	@Autowired
+	protected ParticipantRepository		participants;
+
+	@Autowired
+	protected SMPServerAdminService		smpConfigService;
+
+	@Autowired
+	protected AuditLogService			auditSvc;
+
+	@Autowired
+	protected IdUtils					idUtils;
+
+	@Autowired
+	protected MetadataChangeTracker		changeTracker;
+
+	@Autowired
+	protected PlatformTransactionManager	txManager;
+
+	/**
+	 * @return	<code>true</code> when the updates of the SML and directory should be executed using the outbox,
+	 * 			<code>false</code> when they should be executed directly
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Adds an update of the SML or directory for the given Participant to the outbox. This method must be called in
+	 * the transaction that changes the Participant's meta-data, so the update is only executed when that transaction
+	 * is committed. When a directory update is added while the last pending update of the Participant is a directory
+	 * update still waiting for the coalesce window to end and not claimed for execution, the two updates are merged.
+	 *
+	 * @param user	the User that requested the update
+	 * @param p		the Participant to update in the SML or directory
+	 * @param op	the update to execute
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void add(UserDetails user, ParticipantEntity p, Operation op) {
+		final String participantId = IdUtils.toIDString(p.getId());
+		if (!op.isSMLUpdate() && coalesceWindow > 0) {
+			NetworkUpdateEntity last = updates.findFirstByParticipantIdAndStateOrderByOidDesc(participantId,
+																							  State.PENDING);
+			if (last != null && !last.getOperation().isSMLUpdate() && last.getAttempts() == 0
+				&& last.getNextAttempt().isAfter(Instant.now())) {
+				final Operation merged = last.getOperation().mergeWith(op);
+				if (updates.mergeOperation(last.getOid(), merged, State.PENDING) == 1) {
+					log.trace("Merged {} of Participant (ID={}) with pending {}", op, participantId,
+								last.getOperation());
+					return;
+				}
+			}
+		}
+		log.trace("Adding {} of Participant (ID={}) to outbox", op, participantId);
+		NetworkUpdateEntity u = new NetworkUpdateEntity(p.getOid(), participantId, op, user.getUsername());
+		if (!op.isSMLUpdate())
+			u.setNextAttempt(u.getCreated().plusMillis(coalesceWindow));
+		updates.save(u);
+	}
+
+	/**
+	 * Gets the updates of the SML and directory for the given Participant that are pending or retained after
+	 * execution.
+	 *
+	 * @param p	the Participant
+	 * @return	the updates of the Participant, ordered by their creation
+	 */
+	public List<NetworkUpdateEntity> getUpdates(ParticipantEntity p) {
+		return updates.findByParticipantIdOrderByOid(IdUtils.toIDString(p.getId()));
+	}
+
+	/**
+	 * Executes the pending updates. The updates are retrieved in batches until there are no more updates that can be
+	 * executed now. As the batch only contains the oldest pending update of each Participant, the updates of a
+	 * Participant are executed in order. Each update is claimed before it is executed and skipped when it has already
+	 * been claimed by another instance.
+	 */
+	@Scheduled(fixedDelayString = "${smp.network.outbox.interval:1000}",
+			   initialDelayString = "${smp.network.outbox.interval:1000}")
+	public synchronized void dispatch() {
+		if (!enabled)
+			return;
+		try {
+			List<NetworkUpdateEntity> batch;
+			while (!(batch = updates.findExecutable(State.PENDING, Instant.now(), Limit.of(batchSize))).isEmpty()) {
+				log.debug("Executing {} pending network updates", batch.size());
+				for (NetworkUpdateEntity u : batch)
+					try {
+						if (updates.claim(u.getOid(), u.getVersion(), State.PENDING,
+										  Instant.now().plusMillis(claimTimeout)) == 1)
+							execute(updates.findById(u.getOid()).get());
+						else
+							log.debug("{} of Participant (ID={}) already claimed", u.getOperation(),
+										u.getParticipantId());
+					} catch (OptimisticLockingFailureException claimExpired) {
+						// The claim expired during the execution and the update was taken over by another instance
+						log.warn("{} of Participant (ID={}) was taken over while executed", u.getOperation(),
+									u.getParticipantId());
+					}
+			}
+		} catch (Exception dispatchFailure) {
+			log.error("An error occurred executing the pending network updates : {}",
+						Utils.getExceptionTrace(dispatchFailure));
+		}
+	}
+
+	/**
+	 * Executes the given update and saves its new processing state.
+	 *
+	 * @param u	the update to execute, already claimed by this instance
+	 */
+	private void execute(NetworkUpdateEntity u) {
+		final ParticipantEntity p = getParticipant(u);
+		try {
+			if (p == null)
+				throw new IllegalStateException("Participant ID uses an unknown ID scheme");
+			if (u.getOperation() == Operation.UPDATE_IN_DIRECTORY && p.getOid() == null)
+				log.debug("Skipping directory update of deleted Participant (ID={})", u.getParticipantId());
+			else {
+				log.trace("Executing {} of Participant (ID={}), attempt {}", u.getOperation(), u.getParticipantId(),
+							u.getAttempts());
+				switch (u.getOperation()) {
+				case REGISTER_IN_SML -> getSMLService().registerParticipant(p);
+				case REMOVE_FROM_SML -> getSMLService().deregisterParticipant(p);
+				case PUBLISH_IN_DIRECTORY, UPDATE_IN_DIRECTORY -> getDirectoryService().publishParticipantInfo(p);
+				case REMOVE_FROM_DIRECTORY -> getDirectoryService().removeParticipantInfo(p);
+				}
+				log.info("Executed {} of Participant (ID={})", u.getOperation(), u.getParticipantId());
+			}
+			u.setState(State.DELIVERED);
+			u.setProcessed(Instant.now());
+			u.setLastError(null);
+		} catch (SMLException | DirectoryException | RuntimeException updateFailed) {
+			u.setLastError(updateFailed.getMessage() != null ? updateFailed.getMessage()
+															 : updateFailed.getClass().getSimpleName());
+			if (u.getAttempts() < maxAttempts && BulkJobServiceImpl.isTemporary(updateFailed)) {
+				final long delay = Math.min(MAX_RETRY_DELAY, retryDelay << Math.min(u.getAttempts() - 1, 20));
+				u.setNextAttempt(Instant.now().plusMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1)));
+				log.warn("{} of Participant (ID={}) failed, retry at {} : {}", u.getOperation(), u.getParticipantId(),
+							u.getNextAttempt(), u.getLastError());
+			} else {
+				log.error("{} of Participant (ID={}) failed permanently : {}", u.getOperation(), u.getParticipantId(),
+							Utils.getExceptionTrace(updateFailed));
+				u.setState(State.FAILED);
+				u.setProcessed(Instant.now());
+				cancelDependentUpdates(u);
+				if (p != null)
+					revertState(u, p);
+			}
+		}
+		updates.save(u);
+	}
+
+	/**
+	 * Cancels the pending updates of the Participant that were created after the given failed update and that update
+	 * the same service. As these updates assume the failed update was executed, e.g. a removal from the SML after a
+	 * failed registration, they cannot be executed anymore.
+	 *
+	 * @param failed	the update that failed permanently
+	 */
+	private void cancelDependentUpdates(NetworkUpdateEntity failed) {
+		for (NetworkUpdateEntity u : updates.findByParticipantIdOrderByOid(failed.getParticipantId()))
+			if (u.getState() == State.PENDING && u.getOid() > failed.getOid()
+				&& u.getOperation().isSMLUpdate() == failed.getOperation().isSMLUpdate()) {
+				log.warn("Cancelling {} of Participant (ID={}) as preceding {} failed", u.getOperation(),
+							u.getParticipantId(), failed.getOperation());
+				u.setState(State.FAILED);
+				u.setProcessed(Instant.now());
+				u.setLastError("Cancelled because preceding " + failed.getOperation() + " failed");
+				updates.save(u);
+			}
+	}
+
+	/**
+	 * Gets the Participant to update. When the Participant has been deleted, a transient entity object containing only
+	 * the Participant's identifier is returned, which is sufficient to remove it from the SML and directory.
+	 *
+	 * @param u	the update to execute
+	 * @return	the Participant to update, or <code>null</code> if the Participant was deleted and its identifier can
+	 * 			not be parsed anymore
+	 */
+	private ParticipantEntity getParticipant(NetworkUpdateEntity u) {
+		ParticipantEntity p = u.getParticipantOid() != null ? participants.findById(u.getParticipantOid()).orElse(null)
+															: null;
+		if (p != null)
+			return p;
+		try {
+			p = new ParticipantEntity();
+			p.setId(idUtils.toEmbeddedIdentifier(idUtils.parseIDString(u.getParticipantId())));
+			return p;
+		} catch (NoSuchElementException unknownScheme) {
+			log.warn("Cannot parse identifier of deleted Participant (ID={})", u.getParticipantId());
+			return null;
+		}
+	}
+
+	/**
+	 * Reverts the registration state of the Participant after an update failed permanently, so it again reflects the
+	 * state in the SML or directory, and logs the failure in the audit log.
+	 *
+	 * @param u	the failed update
+	 * @param p	the Participant that should have been updated
+	 */
+	private void revertState(NetworkUpdateEntity u, ParticipantEntity p) {
+		if (p.getOid() != null && u.getOperation() != Operation.UPDATE_IN_DIRECTORY) {
+			final boolean added = u.getOperation() == Operation.REMOVE_FROM_SML
+									|| u.getOperation() == Operation.REMOVE_FROM_DIRECTORY;
+			try {
+				new TransactionTemplate(txManager).executeWithoutResult(tx -> {
+					if (u.getOperation().isSMLUpdate())
+						participants.setRegisteredInSML(List.of(p.getOid()), added, LocalDateTime.now());
+					else
+						participants.setPublishedInDirectory(List.of(p.getOid()), added, LocalDateTime.now());
+					changeTracker.registerBulkChange();
+				});
+			} catch (Exception saveFailure) {
+				log.error("Could not revert state of Participant (ID={}) : {}", u.getParticipantId(),
+							Utils.getExceptionTrace(saveFailure));
+			}
+		}
+		auditSvc.log(new AuditLogRecord(Instant.now(), AUDIT_USER, "Failed " + u.getOperation(), p.getAuditLogId(),
+										u.getLastError()));
+	}
+
+	/**
+	 * Removes the executed and failed updates that are older than the configured retention period. This is a
+	 * scheduled action that runs once a day.
+	 */
+	@Scheduled(cron = "@daily")
+	public void cleanUp() {
+		log.trace("Cleaning up network update outbox");
+		try {
+			final Instant before = Instant.now().minus(retention, ChronoUnit.DAYS);
+			int removed = updates.deleteProcessedBefore(State.DELIVERED, before)
+						+ updates.deleteProcessedBefore(State.FAILED, before);
+			log.debug("Removed {} network updates from outbox", removed);
+		} catch (Exception e) {
+			log.error("An error occurred cleaning up the network update outbox : {}", Utils.getExceptionTrace(e));
+		}
+	}
+
+	private SMLIntegrationService getSMLService() {
+		return smpConfigService.getSMLIntegrationService();
+	}
+
+	private DirectoryIntegrationService getDirectoryService() {
+		return smpConfigService.getDirectoryIntegrationService();
+	}
+}
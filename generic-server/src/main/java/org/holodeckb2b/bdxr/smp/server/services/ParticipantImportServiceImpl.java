@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceMetadataTemplateRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.ConstraintViolationException;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService;
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the {@link ParticipantImportService}. The records are read from the iterator until a chunk is complete,
+ * after which the chunk is validated and saved in one transaction:<ol>
+ * <li>the business card data of each record is validated in the same way as when a single Participant is added;</li>
+ * <li>the identifiers of all records in the chunk are checked for existing registrations using one query. Like the
+ * 		duplicate check done when adding a single Participant, the transaction uses the <i>serializable</i> isolation
+ * 		level so the check is not invalidated by a Participant that is added concurrently. As the earlier chunks have
+ * 		already been committed, this also finds the records that duplicate a record of an earlier chunk, so only the
+ * 		duplicates within the chunk itself need to be tracked;</li>
+ * <li>the Service Metadata Templates referenced by the chunk that were not used by an earlier chunk are retrieved using
+ * 		one query;</li>
+ * <li>the new Participants, including their bindings, are persisted, which is executed by Hibernate using JDBC batch
+ * 		inserts (see <code>hibernate.jdbc.batch_size</code>);</li>
+ * <li>one audit log record listing the imported Participants is written.</li></ol>
+ * After the chunk is saved the entities are detached so the persistence context does not grow during the import, and
+ * handed over to the consumer of the imported Participants. Apart from the results of the records, no state that
+ * depends on the number of imported Participants is kept.
+ * <p>
+ * The import can be configured using the following property:<ul>
+ * <li><code>smp.import.chunk_size</code> : number of records saved in one transaction, default 500</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+@Service
+public class ParticipantImportServiceImpl implements ParticipantImportService {
+
+	/**
+	 * The action used in the audit log records of an import
+	 */
+	static final String AUDIT_ACTION = "Import Participants";
+
+	@Value("${smp.import.chunk_size:500}")
+	protected int	chunkSize;
+
+	@Autowired
+	protected ParticipantRepository	participants;
+
+	@Autowired
+	protected ServiceMetadataTemplateRepository	templates;
+
+	@Autowired
+	protected AuditLogService		auditSvc;
+
+	@Autowired
+	protected IdUtils				idUtils;
+
+	@Autowired
+	protected EntityManager			em;
+
+	@Autowired
+	protected PlatformTransactionManager	txManager;
+
+	private TransactionTemplate		txTemplate;
+
+	/**
+	 * A valid record together with the entity object of the new Participant
+	 */
+	private record Candidate(ImportRecord record, ParticipantEntity entity) {
+	}
+
+	@PostConstruct
+	void init() {
+		txTemplate = new TransactionTemplate(txManager);
+		txTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+	}
+
+	@Override
+	public ImportResult importParticipants(UserDetails user, Iterator<ImportRecord> records,
+										   Consumer<List<? extends Participant>> chunkImported)
+																						throws PersistenceException {
+		log.debug("Starting import of Participants (chunk size={})", chunkSize);
+		final List<RowResult> results = new ArrayList<>();
+		// The templates checked so far, mapped on their oid to an indication whether the template exists
+		final Map<Long, Boolean> knownTemplates = new HashMap<>();
+		String abortReason = null;
+		List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+		boolean more = true;
+		while (more) {
+			try {
+				more = records.hasNext();
+				if (more)
+					chunk.add(records.next());
+			} catch (RuntimeException readFailure) {
+				log.warn("Aborting import as next record could not be read : {}", readFailure.getMessage());
+				abortReason = readFailure.getMessage();
+				more = false;
+			}
+			if (chunk.size() == chunkSize || (!more && !chunk.isEmpty())) {
+				List<ParticipantEntity> imported = importChunk(user, chunk, knownTemplates, results);
+				if (chunkImported != null && !imported.isEmpty())
+					chunkImported.accept(imported);
+				chunk = new ArrayList<>(chunkSize);
+			}
+		}
+		final ImportResult result = new ImportResult(results, abortReason);
+		log.info("Imported {} of {} Participants{}", result.count(Outcome.IMPORTED), results.size(),
+				 abortReason != null ? ", import aborted" : "");
+		return result;
+	}
+
+	/**
+	 * Validates and saves a chunk of records.
+	 *
+	 * @param user				the User importing the Participants
+	 * @param chunk				the records to import
+	 * @param knownTemplates	the Service Metadata Templates checked so far, updated with the templates referenced by
+	 * 							this chunk
+	 * @param results			the list to which the results of the records are added
+	 * @return	the Participants imported from the chunk
+	 * @throws PersistenceException when the chunk could not be saved
+	 */
+	private List<ParticipantEntity> importChunk(UserDetails user, List<ImportRecord> chunk,
+												Map<Long, Boolean> knownTemplates, List<RowResult> results)
+																						throws PersistenceException {
+		log.trace("Importing chunk of {} records, starting at row {}", chunk.size(), chunk.get(0).row());
+		final List<RowResult> chunkResults = new ArrayList<>(chunk.size());
+		final List<ParticipantEntity> saved = new ArrayList<>(chunk.size());
+		try {
+			txTemplate.executeWithoutResult(tx -> {
+				List<Candidate> valid = validate(chunk, chunkResults);
+				Set<String> existing = participants.findIdsByValues(valid.stream()
+																.map(c -> c.entity().getId().getValue().toLowerCase())
+																.collect(Collectors.toSet()))
+															.stream().map(EmbeddedIdentifier::toString)
+															.collect(Collectors.toSet());
+				checkTemplates(valid, knownTemplates);
+				// The identifiers imported from this chunk, earlier chunks are found by the query above
+				final Set<String> importedIds = new HashSet<>();
+				for (Candidate c : valid) {
+					final ImportRecord rec = c.record();
+					final ParticipantEntity entity = c.entity();
+					final String pid = entity.getId().toString();
+					if (existing.contains(pid) || !importedIds.add(pid)) {
+						chunkResults.add(new RowResult(rec.row(), rec.participantId(), Outcome.DUPLICATE,
+													   "Participant already exists"));
+						continue;
+					}
+					Long unknown = rec.templateIds().stream().filter(t -> !knownTemplates.get(t)).findFirst()
+																								.orElse(null);
+					if (unknown != null) {
+						importedIds.remove(pid);
+						chunkResults.add(new RowResult(rec.row(), rec.participantId(), Outcome.REJECTED,
+													   "Unknown Service Metadata Template (id=" + unknown + ")"));
+						continue;
+					}
+					rec.templateIds().stream().distinct().forEach(t ->
+								entity.addBinding(em.getReference(ServiceMetadataTemplateEntity.class, t)));
+					em.persist(entity);
+					saved.add(entity);
+					chunkResults.add(new RowResult(rec.row(), rec.participantId(), Outcome.IMPORTED, null));
+				}
+				if (!saved.isEmpty()) {
+					em.flush();
+					auditSvc.log(new AuditLogRecord(Instant.now(), user.getUsername(), AUDIT_ACTION, null,
+													"Imported " + saved.size() + " Participants : "
+													+ saved.stream().map(ParticipantEntity::getAuditLogId)
+																	.collect(Collectors.joining(","))));
+				}
+				em.clear();
+			});
+		} catch (Throwable t) {
+			log.error("An error occurred saving the chunk of Participants starting at row {} : {}",
+						chunk.get(0).row(), Utils.getExceptionTrace(t));
+			throw new PersistenceException("Failed to import Participants", t);
+		}
+		chunkResults.sort((a, b) -> Integer.compare(a.row(), b.row()));
+		results.addAll(chunkResults);
+		log.debug("Imported {} of {} records, starting at row {}", saved.size(), chunk.size(), chunk.get(0).row());
+		return saved;
+	}
+
+	/**
+	 * Validates the records of a chunk and creates the entity objects of the valid ones. Records that are invalid are
+	 * reported as rejected.
+	 *
+	 * @param chunk		the records to validate
+	 * @param results	the list to which the results of the rejected records are added
+	 * @return	the valid records together with the entity object of the new Participant, in the order of the records
+	 */
+	private List<Candidate> validate(List<ImportRecord> chunk, List<RowResult> results) {
+		List<Candidate> valid = new ArrayList<>(chunk.size());
+		for (ImportRecord rec : chunk) {
+			if (rec.participant() == null) {
+				results.add(new RowResult(rec.row(), rec.participantId(), Outcome.REJECTED, rec.error()));
+				continue;
+			}
+			try {
+				ParticipantsServiceImpl.validateRegistrationData(rec.participant());
+				ParticipantEntity entity = new ParticipantEntity();
+				entity.setId(idUtils.toEmbeddedIdentifier(rec.participant().getId()));
+				ParticipantsServiceImpl.copyRegistrationData(rec.participant(), entity);
+				valid.add(new Candidate(rec, entity));
+			} catch (NoSuchElementException unknownScheme) {
+				results.add(new RowResult(rec.row(), rec.participantId(), Outcome.REJECTED, "Unknown ID Scheme"));
+			} catch (ConstraintViolationException invalid) {
+				results.add(new RowResult(rec.row(), rec.participantId(), Outcome.REJECTED, invalid.getMessage()));
+			} catch (RuntimeException invalid) {
+				results.add(new RowResult(rec.row(), rec.participantId(), Outcome.REJECTED,
+										  "Invalid data : " + invalid.getMessage()));
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Checks which of the Service Metadata Templates referenced by the given records exist. Only the templates that
+	 * were not checked for an earlier chunk are retrieved from the database.
+	 *
+	 * @param candidates		the valid records to check the templates of
+	 * @param knownTemplates	the templates checked so far, updated with the result of the check
+	 */
+	private void checkTemplates(List<Candidate> candidates, Map<Long, Boolean> knownTemplates) {
+		Set<Long> unchecked = new HashSet<>();
+		candidates.forEach(c -> c.record().templateIds().stream().filter(t -> !knownTemplates.containsKey(t))
+																			.forEach(unchecked::add));
+		if (unchecked.isEmpty())
+			return;
+		log.trace("Checking {} Service Metadata Templates", unchecked.size());
+		unchecked.forEach(t -> knownTemplates.put(t, Boolean.FALSE));
+		templates.findAllById(unchecked).forEach(smt -> knownTemplates.put(smt.getOid(), Boolean.TRUE));
+	}
+}
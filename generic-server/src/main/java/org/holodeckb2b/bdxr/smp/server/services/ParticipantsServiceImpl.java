@@ -1,12 +1,18 @@
 package org.holodeckb2b.bdxr.smp.server.services;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -16,32 +22,44 @@ import org.holodeckb2b.bdxr.smp.server.datamodel.Identifier;
 import org.holodeckb2b.bdxr.smp.server.datamodel.NetworkServicesData;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
 import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedContact;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.Operation;
 import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
 import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
 import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkBindingResult;
 import org.holodeckb2b.bdxr.smp.server.services.core.ConstraintViolationException;
 import org.holodeckb2b.bdxr.smp.server.services.core.ConstraintViolationException.ViolationType;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantSelection;
 import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantsService;
 import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
 import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
 import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryException;
 import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryIntegrationService;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult.Failure;
 import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
 import org.holodeckb2b.bdxr.smp.server.services.network.SMLIntegrationService;
 import org.holodeckb2b.commons.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Implements the {@link ParticipantsService}.
+ * <p>
+ * The bulk operations on the bindings of Participants process the selected Participants in chunks, which size can be
+ * configured using the <code>smp.bindings.chunk_size</code> property, default 1000.
  * 
  * @author Sander Fieten (sander at holodeck-b2b.org)
  */
@@ -53,7 +71,25 @@ public class ParticipantsServiceImpl
 
 	@Autowired
 	protected SMPServerAdminService	smpConfigService;
+
+	@Autowired
+	protected NetworkUpdateOutbox	outbox;
+
+	@Autowired
+	protected MetadataChangeTracker	changeTracker;
+
+	@Autowired
+	protected PlatformTransactionManager	txManager;
+
+	@Value("${smp.bindings.chunk_size:1000}")
+	protected int	bindingsChunkSize;
 	
+	/**
+	 * The maximum number of Participants processed in one batch of a bulk SML operation. After each batch the updated
+	 * SML registration state of the processed Participants is saved.
+	 */
+	private static final int SML_BATCH_SIZE = 1000;
+
 	private SMLIntegrationService 			smlService;
 	private DirectoryIntegrationService 	directoryService;
 		
@@ -99,6 +135,19 @@ public class ParticipantsServiceImpl
 		
 		ParticipantEntity entity = new ParticipantEntity();
 		entity.setId(idUtils.toEmbeddedIdentifier(p.getId()));
+		copyRegistrationData(p, entity);
+		
+		return executeCRUD(CrudOps.Add, user, entity);
+	}
+
+	/**
+	 * Copies the business card data of the given Participant meta-data to the entity object of a new Participant. As 
+	 * the entity can only store one website and contact, only the first ones are copied.
+	 * 
+	 * @param p			the Participant meta-data to copy
+	 * @param entity	the entity object of the new Participant
+	 */
+	static void copyRegistrationData(Participant p, ParticipantEntity entity) {
 		entity.setName(p.getName());
 		entity.setRegistrationCountry(p.getRegistrationCountry());		
 		entity.setFirstRegistrationDate(p.getFirstRegistrationDate());
@@ -121,8 +170,6 @@ public class ParticipantsServiceImpl
 		}				
 		if (p.getAdditionalIds() != null) 
 			p.getAdditionalIds().forEach(id -> entity.addAdditionalId(id));
-		
-		return executeCRUD(CrudOps.Add, user, entity);
 	}
 
 	@Override
@@ -149,7 +196,7 @@ public class ParticipantsServiceImpl
 		
 		if (updated.isPublishedInDirectory()) {
 			log.trace("Notify directory about update of Participant meta-data");
-			getDirectoryService().publishParticipantInfo(updated);
+			updateNetwork(user, updated, Operation.UPDATE_IN_DIRECTORY);
 		}
 		return updated;
 	}
@@ -162,7 +209,7 @@ public class ParticipantsServiceImpl
 	 * @param p	the Participant meta-data to validate
 	 * @throws ConstraintViolationException when either of the fields fails validation
 	 */
-	private void validateRegistrationData(Participant p) throws ConstraintViolationException {
+	static void validateRegistrationData(Participant p) throws ConstraintViolationException {
 		String country = p.getRegistrationCountry();
 		if (!Utils.isNullOrEmpty(country) && country.length() != 2) {
 			log.warn("Participant (ID={}) contains an invalid country code : {}", p.getId().toString(), country);
@@ -177,17 +224,46 @@ public class ParticipantsServiceImpl
 
 	@Override
 	public void deleteParticipant(UserDetails user, Participant p) throws PersistenceException {
+		if (!outbox.isEnabled()) {
+			removeParticipant(user, p);
+			return;
+		}
+		// The removals from the directory and SML are added to the outbox in the same transaction as the deletion of
+		// the Participant. Without the outbox the SML and directory are called directly, which must not be done while
+		// holding a database connection, so only then a transaction is started.
+		PersistenceException failure = new TransactionTemplate(txManager).execute(tx -> {
+			try {
+				removeParticipant(user, p);
+				return null;
+			} catch (PersistenceException deleteFailed) {
+				tx.setRollbackOnly();
+				return deleteFailed;
+			}
+		});
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Removes the Participant from the directory and SML and deletes it.
+	 *
+	 * @param user	the User executing the operation
+	 * @param p		the Participant to delete
+	 * @throws PersistenceException	when the Participant could not be removed from the directory or SML or could not
+	 * 								be deleted
+	 */
+	private void removeParticipant(UserDetails user, Participant p) throws PersistenceException {
 		ParticipantEntity entity = checkManaged(p);
 		
 		boolean isPublished = entity.isPublishedInDirectory();
 		try {
 			if (isPublished) {
 				log.trace("Remove Participant (ID={}) from directory", entity.getId().toString());
-				getDirectoryService().removeParticipantInfo(entity);
+				updateNetwork(user, entity, Operation.REMOVE_FROM_DIRECTORY);
 			}
 			if (entity.isRegisteredInSML() && Utils.isNullOrEmpty(entity.getSMLMigrationCode())) {
 				log.trace("Remove Participant (ID={}) from SML", entity.getId().toString());
-				getSMLService().deregisterParticipant(entity);
+				updateNetwork(user, entity, Operation.REMOVE_FROM_SML);
 			} else if (entity.isRegisteredInSML()) {
 				log.debug("Not removing Participant (ID={}) from SML as it is migrated", entity.getId().toString());
 			}
@@ -335,6 +411,202 @@ public class ParticipantsServiceImpl
 		}
 	}
 
+	@Override
+	public BulkBindingResult bindToSMT(UserDetails user, ParticipantSelection selection, ServiceMetadataTemplate smt)
+			throws PersistenceException {
+		return updateBindings(user, BindingOperation.BIND, selection, smt, null);
+	}
+
+	@Override
+	public BulkBindingResult removeSMTBinding(UserDetails user, ParticipantSelection selection,
+											  ServiceMetadataTemplate smt) throws PersistenceException {
+		return updateBindings(user, BindingOperation.UNBIND, selection, smt, null);
+	}
+
+	@Override
+	public BulkBindingResult replaceSMTBinding(UserDetails user, ParticipantSelection selection,
+											   ServiceMetadataTemplate current, ServiceMetadataTemplate replacement)
+			throws PersistenceException {
+		if (replacement == null || current == null || current.getId().equals(replacement.getId()))
+			throw new IllegalArgumentException("A different Service Metadata Template must be used as replacement");
+		return updateBindings(user, BindingOperation.REPLACE, selection, current, replacement);
+	}
+
+	/**
+	 * Enumerates the operations that can be executed on the bindings of a set of Participants
+	 */
+	private enum BindingOperation {
+		BIND("Add Service to Participants"), UNBIND("Remove Service from Participants"),
+		REPLACE("Replace Service of Participants");
+
+		private final String auditAction;
+
+		private BindingOperation(String action) {
+			this.auditAction = action;
+		}
+	}
+
+	/**
+	 * Executes an operation on the bindings of the selected Participants. The selected Participants are processed in
+	 * chunks. For each chunk one query is executed to determine which Participants must be updated, after which their
+	 * bindings are updated directly in the binding table and their last modification time stamp is set, all in one
+	 * transaction. As this bypasses the Hibernate events, the change is registered with the {@link
+	 * MetadataChangeTracker} so the cached query responses are invalidated.
+	 *
+	 * @param user			the User executing the operation, required for audit logging
+	 * @param op			the operation to execute
+	 * @param selection		the Participants to process
+	 * @param smt			the SMT to bind, remove or replace
+	 * @param replacement	the SMT to bind instead of <code>smt</code>, only used for {@link BindingOperation#REPLACE}
+	 * @return	the result of the operation
+	 * @throws PersistenceException when an error occurs updating the bindings
+	 */
+	private BulkBindingResult updateBindings(UserDetails user, BindingOperation op, ParticipantSelection selection,
+											 ServiceMetadataTemplate smt, ServiceMetadataTemplate replacement)
+																						throws PersistenceException {
+		if (selection == null || selection.type() == ParticipantSelection.Type.PENDING)
+			throw new IllegalArgumentException("Participants must be selected by template or list");
+		final Long smtOid = checkManagedSMT(smt).getOid();
+		final Long replOid = replacement != null ? checkManagedSMT(replacement).getOid() : null;
+
+		// The audit details are prepared up front as the persistence context is cleared when processing the chunks
+		StringBuilder details = new StringBuilder("SMT: id=").append(smtOid).append(",name=").append(smt.getName())
+												.append(",svcID=").append(smt.getService().getId().toString());
+		if (replacement != null)
+			details.append(";Replacement SMT: id=").append(replOid).append(",name=").append(replacement.getName())
+				   .append(",svcID=").append(replacement.getService().getId().toString());
+
+		log.debug("Starting bulk {} of SMT (OID={}) for Participants selected by {}", op, smtOid, selection.type());
+		final TransactionTemplate txTemplate = new TransactionTemplate(txManager);
+		final List<org.holodeckb2b.bdxr.common.datamodel.Identifier> unknown = new ArrayList<>();
+		final long[] counts = new long[2];
+		Throwable failure = null;
+		try {
+			for (Iterator<List<Long>> chunks = selectParticipants(selection, unknown); chunks.hasNext();) {
+				final List<Long> chunk = chunks.next();
+				counts[0] += chunk.size();
+				counts[1] += txTemplate.execute(tx -> {
+					final List<Long> changed;
+					if (op == BindingOperation.BIND) {
+						changed = new ArrayList<>(chunk);
+						changed.removeAll(repo.findOidsBoundTo(smtOid, chunk));
+						if (!changed.isEmpty())
+							repo.addBindings(smtOid, changed);
+					} else {
+						changed = repo.findOidsBoundTo(smtOid, chunk);
+						if (!changed.isEmpty()) {
+							if (op == BindingOperation.REPLACE)
+								repo.addBindings(replOid, changed);
+							repo.removeBindings(smtOid, changed);
+						}
+					}
+					if (!changed.isEmpty()) {
+						repo.touch(changed, LocalDateTime.now());
+						changeTracker.registerBulkChange();
+					}
+					return changed.size();
+				});
+				log.trace("Processed chunk of {} Participants, {} updated so far", chunk.size(), counts[1]);
+			}
+		} catch (Throwable t) {
+			log.error("An error occurred during bulk {} of SMT (OID={}) after updating {} Participants : {}", op,
+						smtOid, counts[1], Utils.getExceptionTrace(t));
+			failure = t;
+		}
+
+		details.append(";Updated ").append(counts[1]).append(" of ").append(counts[0]).append(" selected Participants");
+		if (failure != null)
+			details.append(" (aborted)");
+		auditSvc.log(new AuditLogRecord(Instant.now(), user.getUsername(), op.auditAction, null, details.toString()));
+
+		if (failure != null)
+			throw new PersistenceException("Failed to update bindings", failure);
+		log.info("Completed bulk {} of SMT (OID={}), updated {} of {} selected Participants", op, smtOid, counts[1],
+					counts[0]);
+		return new BulkBindingResult(counts[0], counts[1], unknown);
+	}
+
+	/**
+	 * Checks that the given Service Metadata Template is managed by the server.
+	 *
+	 * @param smt	the SMT to check
+	 * @return	the SMT entity object
+	 * @throws IllegalArgumentException when the given SMT is not managed
+	 */
+	private static ServiceMetadataTemplateEntity checkManagedSMT(ServiceMetadataTemplate smt) {
+		if (!(smt instanceof ServiceMetadataTemplateEntity) || ((ServiceMetadataTemplateEntity) smt).getOid() == null) {
+			log.warn("Provided SMT for bulk binding operation is not managed");
+			throw new IllegalArgumentException("Service Metadata Template instance is not managed");
+		}
+		return (ServiceMetadataTemplateEntity) smt;
+	}
+
+	/**
+	 * Gets the <i>oids</i> of the selected Participants in chunks. When Participants are selected by the template
+	 * they are bound to, the chunks are retrieved by <i>oid</i> order so the selection is not affected by changes to
+	 * the bindings of the Participants in earlier chunks. When the Participants are explicitly listed, the identifiers
+	 * of each chunk are resolved using one query.
+	 *
+	 * @param selection	the Participants to select
+	 * @param unknown	the list to which the listed Identifiers of Participants that do not exist are added
+	 * @return	iterator over the chunks of <i>oids</i>
+	 */
+	private Iterator<List<Long>> selectParticipants(ParticipantSelection selection,
+								List<org.holodeckb2b.bdxr.common.datamodel.Identifier> unknown) {
+		if (selection.type() == ParticipantSelection.Type.BOUND_TO_SMT) {
+			final Long selectOid = checkManagedSMT(selection.smt()).getOid();
+			return new Iterator<>() {
+				List<Long> next = repo.findOidsSupporting(selectOid, 0L, bindingsChunkSize);
+
+				@Override
+				public boolean hasNext() {
+					return !next.isEmpty();
+				}
+
+				@Override
+				public List<Long> next() {
+					if (next.isEmpty())
+						throw new NoSuchElementException();
+					List<Long> chunk = next;
+					next = chunk.size() < bindingsChunkSize ? List.of()
+								: repo.findOidsSupporting(selectOid, chunk.get(chunk.size() - 1), bindingsChunkSize);
+					return chunk;
+				}
+			};
+		} else {
+			final Iterator<? extends org.holodeckb2b.bdxr.common.datamodel.Identifier> ids = selection.ids().iterator();
+			return new Iterator<>() {
+				@Override
+				public boolean hasNext() {
+					return ids.hasNext();
+				}
+
+				@Override
+				public List<Long> next() {
+					Map<String, org.holodeckb2b.bdxr.common.datamodel.Identifier> chunk = new HashMap<>();
+					while (chunk.size() < bindingsChunkSize && ids.hasNext()) {
+						org.holodeckb2b.bdxr.common.datamodel.Identifier pid = ids.next();
+						try {
+							chunk.put(idUtils.toEmbeddedIdentifier(pid).toString(), pid);
+						} catch (NoSuchElementException unknownScheme) {
+							unknown.add(pid);
+						}
+					}
+					Set<Long> oids = new LinkedHashSet<>();
+					if (!chunk.isEmpty())
+						repo.findOidsByValues(chunk.values().stream().map(pid -> pid.getValue().toLowerCase())
+																	 .collect(Collectors.toSet()))
+							.forEach(r -> {
+								if (chunk.remove(r[1].toString()) != null)
+									oids.add((Long) r[0]);
+							});
+					unknown.addAll(chunk.values());
+					return new ArrayList<>(oids);
+				}
+			};
+		}
+	}
+
 	/**
 	 * Helper method to create an audit log entry for (un)binding of a SMT.
 	 * 
@@ -371,7 +643,7 @@ public class ParticipantsServiceImpl
 			entity.setRegisteredInSML(true);
 			repo.save(entity);
 			log.trace("Registering Participant (ID={}) in SML", entity.getId().toString());
-			getSMLService().registerParticipant(entity);
+			updateNetwork(user, entity, Operation.REGISTER_IN_SML);
 			auditSvc.log(new AuditLogRecord(Instant.now(), user.getUsername(), "Register in SML", 
 						entity.getAuditLogId(), null));
 			log.info("Registered Participant (ID={}) in SML", entity.getId().toString());
@@ -527,7 +799,7 @@ public class ParticipantsServiceImpl
 			entity.setRegisteredInSML(false);
 			repo.save(entity);
 			log.trace("Removing Participant (ID={}) from SML", p.getId().toString());
-			getSMLService().deregisterParticipant(entity);
+			updateNetwork(user, entity, Operation.REMOVE_FROM_SML);
 			auditSvc.log(new AuditLogRecord(Instant.now(), user.getUsername(), "Remove from SML", 
 					entity.getAuditLogId(), null));
 			log.info("Removed Participant (ID={}) from SML", entity.getId().toString());
@@ -539,6 +811,95 @@ public class ParticipantsServiceImpl
 		}
 	}
 
+	@Override
+	public SMLBatchResult<? extends Participant> registerInSML(UserDetails user,
+										Collection<? extends Participant> participants) throws PersistenceException {
+		if (!isSMLRegistrationAvailable()) {
+			log.warn("Attempt to register {} Participants in SML, but SML is not available", participants.size());
+			throw new SMLException("SML registration not available");
+		}
+		return executeSMLBatch(user, participants, true);
+	}
+
+	@Override
+	public SMLBatchResult<? extends Participant> removeFromSML(UserDetails user,
+										Collection<? extends Participant> participants) throws PersistenceException {
+		return executeSMLBatch(user, participants, false);
+	}
+
+	/**
+	 * Executes the registration or removal of a set of Participants in/from the SML. The Participants are processed in
+	 * batches of at most {@link #SML_BATCH_SIZE} Participants. For each batch the SML is updated first after which the
+	 * new registration state of the Participants for which the update succeeded is saved. Unlike the operations on a
+	 * single Participant the update of the SML can therefore not be rolled back when saving the registration state
+	 * fails.
+	 *
+	 * @param user			the User executing the operation, required for audit logging
+	 * @param participants	the Participants to register in or remove from the SML
+	 * @param register		<code>true</code> when the Participants should be registered in the SML,<br/>
+	 * 						<code>false</code> when they should be removed
+	 * @return	the result of the operation, containing the updated Participant registrations
+	 * @throws PersistenceException when one of the given Participant instances is not managed
+	 */
+	private SMLBatchResult<ParticipantEntity> executeSMLBatch(UserDetails user,
+											Collection<? extends Participant> participants, boolean register)
+																						throws PersistenceException {
+		List<ParticipantEntity> entities = new ArrayList<>(participants.size());
+		for (Participant p : participants)
+			entities.add(checkManaged(p));
+		final String action = register ? "Register in SML" : "Remove from SML";
+		final boolean checkPublication = !register && getDirectoryService() != null
+											&& getDirectoryService().isSMLRegistrationRequired();
+
+		List<ParticipantEntity> completed = new ArrayList<>(entities.size());
+		List<Failure<ParticipantEntity>> failed = new ArrayList<>();
+		for (int i = 0; i < entities.size(); i += SML_BATCH_SIZE) {
+			List<ParticipantEntity> chunk = entities.subList(i, Math.min(i + SML_BATCH_SIZE, entities.size()));
+			Map<Long, ParticipantEntity> current = repo.findAllById(chunk.stream().map(ParticipantEntity::getOid)
+																				 .collect(Collectors.toList()))
+													.stream().collect(Collectors.toMap(ParticipantEntity::getOid,
+																					   Function.identity()));
+			List<ParticipantEntity> batch = new ArrayList<>(chunk.size());
+			for (ParticipantEntity p : chunk) {
+				ParticipantEntity entity = current.get(p.getOid());
+				if (entity == null) {
+					log.warn("Participant (ID={}) does not exist anymore", p.getId().toString());
+					failed.add(new Failure<>(p, new SMLException("Participant does not exist anymore")));
+				} else if (entity.isRegisteredInSML() == register) {
+					log.debug("Ignoring request to {} Participant (ID={}) as it is already {}", action.toLowerCase(),
+								entity.getId().toString(), register ? "registered" : "not registered");
+					completed.add(entity);
+				} else if (checkPublication && entity.isPublishedInDirectory()) {
+					log.warn("Cannot remove Participant (ID={}) from SML as it's published in directory",
+							entity.getId().toString());
+					failed.add(new Failure<>(entity, new SMLException("Participant is still published in directory")));
+				} else
+					batch.add(entity);
+			}
+			if (batch.isEmpty())
+				continue;
+
+			log.trace("Executing {} for {} Participants", action, batch.size());
+			SMLBatchResult<ParticipantEntity> result = register ? getSMLService().registerParticipants(batch)
+																: getSMLService().deregisterParticipants(batch);
+			result.failed().forEach(f -> log.error("{} failed for Participant (ID={}) : {}", action,
+											f.participant().getId().toString(), Utils.getExceptionTrace(f.error())));
+			failed.addAll(result.failed());
+			if (result.completed().isEmpty())
+				continue;
+
+			log.trace("Update Participant meta-data");
+			result.completed().forEach(e -> e.setRegisteredInSML(register));
+			List<ParticipantEntity> saved = repo.saveAll(result.completed());
+			Instant now = Instant.now();
+			saved.forEach(e -> auditSvc.log(new AuditLogRecord(now, user.getUsername(), action, e.getAuditLogId(),
+																null)));
+			completed.addAll(saved);
+		}
+		log.info("Executed {} for {} Participants, {} failed", action, entities.size(), failed.size());
+		return new SMLBatchResult<>(completed, failed);
+	}
+
 	@Override
 	public boolean isDirectoryPublicationAvailable() {
 		DirectoryIntegrationService dirService = getDirectoryService();
@@ -562,7 +923,7 @@ public class ParticipantsServiceImpl
 			entity.setPublishedInDirectory(true);
 			repo.save(entity);
 			log.trace("Publishing Participant (ID={}) to directory", entity.getId().toString());
-			getDirectoryService().publishParticipantInfo(entity);
+			updateNetwork(user, entity, Operation.PUBLISH_IN_DIRECTORY);
 			auditSvc.log(new AuditLogRecord(Instant.now(), user.getUsername(), "Publish in directory", 
 						entity.getAuditLogId(), null));
 			log.info("Published Participant (ID={}) in directory", entity.getId().toString());
@@ -588,7 +949,7 @@ public class ParticipantsServiceImpl
 			entity.setPublishedInDirectory(false);
 			repo.save(entity);
 			log.trace("Removing Participant (ID={}) from directory", entity.getId().toString());
-			getDirectoryService().removeParticipantInfo(entity);
+			updateNetwork(user, entity, Operation.REMOVE_FROM_DIRECTORY);
 			auditSvc.log(new AuditLogRecord(Instant.now(), user.getUsername(), "Remove from directory", 
 						entity.getAuditLogId(), null));
 			log.info("Removed Participant (ID={}) from directory", entity.getId().toString());
@@ -600,6 +961,31 @@ public class ParticipantsServiceImpl
 		} 	
 	}
 	
+	/**
+	 * Executes the update of the SML or directory for the given Participant. When the outbox is enabled the update is
+	 * added to the {@link NetworkUpdateOutbox} and executed after the current transaction is committed, otherwise the
+	 * SML or directory is called directly.
+	 *
+	 * @param user	the User executing the operation
+	 * @param p		the Participant to update in the SML or directory
+	 * @param op	the update to execute
+	 * @throws SMLException	when the SML is called directly and the update fails
+	 * @throws DirectoryException	when the directory is called directly and the update fails
+	 */
+	private void updateNetwork(UserDetails user, ParticipantEntity p, Operation op) throws SMLException,
+																						DirectoryException {
+		if (outbox.isEnabled()) {
+			outbox.add(user, p, op);
+			return;
+		}
+		switch (op) {
+		case REGISTER_IN_SML -> getSMLService().registerParticipant(p);
+		case REMOVE_FROM_SML -> getSMLService().deregisterParticipant(p);
+		case PUBLISH_IN_DIRECTORY, UPDATE_IN_DIRECTORY -> getDirectoryService().publishParticipantInfo(p);
+		case REMOVE_FROM_DIRECTORY -> getDirectoryService().removeParticipantInfo(p);
+		}
+	}
+
 	private SMLIntegrationService getSMLService() {
 		return smlService == null ? smlService = smpConfigService.getSMLIntegrationService() : smlService;
 	}
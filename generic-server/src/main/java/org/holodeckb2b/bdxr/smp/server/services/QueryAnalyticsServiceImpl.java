@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.holodeckb2b.bdxr.smp.server.db.entities.QueryVolumeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.QueryVolumeRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.MetadataExportService.ExportHandler;
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.bdxr.smp.server.services.query.DailyQueryVolume;
+import org.holodeckb2b.bdxr.smp.server.services.query.PeriodQueryVolume;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryAnalyticsService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the {@link QueryAnalyticsService}. A batch of query volumes is first aggregated per day, Participant,
+ * Service, responder and status and then added to the stored volumes using <i>upsert</i> statements, see {@link
+ * QueryVolumeRepository#upsert(Collection)}. As the counts are incremented by the database, multiple SMP server
+ * instances sharing the database can add volumes concurrently without losing counts.
+ * <p>
+ * The retention period of the query volumes can be configured using the <code>smp.query.analytics.retention</code>
+ * property that specifies the number of days to keep the volumes. The default retention period is 400 days, so
+ * volumes can be compared over a full year.
+ * <p>
+ * As the Participant and Service IDs are taken from the query paths, any client can create new volumes by querying
+ * non-existing Participants. Therefore the number of volumes stored per day is limited by the <code>
+ * smp.query.analytics.max_volumes_per_day</code> property, default 100.000. When a batch would exceed the limit, the
+ * stored keys of the batch's volumes are looked up and the counts of the volumes that are not stored yet and do not
+ * fit are added to the volume of {@link QueryVolume#OTHER_PARTICIPANTS} with the same responder and status. As
+ * instances may add volumes concurrently, the limit can be slightly exceeded. The query volumes are exported using a
+ * cursor that retrieves <code>smp.export.fetch_size</code> rows at once, default 500.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Service
+@Slf4j
+public class QueryAnalyticsServiceImpl implements QueryAnalyticsService {
+
+	@Autowired
+	private QueryVolumeRepository	volumes;
+
+	/**
+	 * The retention period for the query volumes (in days)
+	 */
+	@Value("${smp.query.analytics.retention:400}")
+	private int retentionPeriod;
+
+	/**
+	 * The maximum number of query volumes stored per day
+	 */
+	@Value("${smp.query.analytics.max_volumes_per_day:100000}")
+	private int maxVolumesPerDay;
+
+	@Value("${smp.export.fetch_size:500}")
+	private int fetchSize;
+
+	@Autowired
+	private EntityManagerFactory	emf;
+
+	/**
+	 * The maximum number of keys checked in one query when the limit of volumes per day would be exceeded
+	 */
+	private static final int KEY_CHECK_SIZE = 1000;
+
+	private static final String EXPORT_QUERY =
+		"select new org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume(v.queryDay, v.participant, v.service, "
+		+ "v.responder, v.status, v.queryCount) from QueryVolume v where v.queryDay between :from and :to "
+		+ "order by v.queryDay, v.participant, v.service, v.responder, v.status";
+
+	/**
+	 * Key used to match a new volume to a stored one
+	 */
+	private record VolumeKey(LocalDate day, String participant, String service, String responder, int status) {}
+
+	@Override
+	@Transactional(rollbackFor = PersistenceException.class)
+	public void addQueryVolumes(Collection<QueryVolume> batch) throws PersistenceException {
+		if (Utils.isNullOrEmpty(batch))
+			return;
+
+		log.trace("Adding batch of {} query volumes", batch.size());
+		Map<VolumeKey, QueryVolume> added = new HashMap<>(batch.size());
+		for (QueryVolume v : batch) {
+			QueryVolume n = new QueryVolume(v.day(), truncate(v.participant(), QueryVolumeEntity.MAX_PARTICIPANT_LEN),
+											truncate(v.service(), QueryVolumeEntity.MAX_SERVICE_LEN),
+											v.responder() != null ? v.responder() : "", v.status(), v.count());
+			added.merge(new VolumeKey(n.day(), n.participant(), n.service(), n.responder(), n.status()), n,
+						(v1, v2) -> new QueryVolume(v1.day(), v1.participant(), v1.service(), v1.responder(),
+													v1.status(), v1.count() + v2.count()));
+		}
+		try {
+			Collection<QueryVolume> limited = limitPerDay(added.values());
+			volumes.upsert(limited);
+			log.debug("Added batch of {} query volumes ({} distinct, {} stored)", batch.size(), added.size(),
+						limited.size());
+		} catch (Throwable t) {
+			log.error("Error while adding query volumes: {}", Utils.getExceptionTrace(t));
+			throw new PersistenceException("Failed to add query volumes", t);
+		}
+	}
+
+	/**
+	 * Limits the number of volumes stored per day to the configured maximum. Only when the number of stored volumes
+	 * of a day plus the number of new volumes of that day exceeds the maximum, it is checked which of the new volumes
+	 * are already stored. The counts of the volumes that are not stored yet and do not fit are combined per responder
+	 * and status in a volume of {@link QueryVolume#OTHER_PARTICIPANTS}.
+	 *
+	 * @param batch	the aggregated volumes to add, unique per day, Participant, Service, responder and status
+	 * @return	the volumes to store, unique per day, Participant, Service, responder and status
+	 */
+	private Collection<QueryVolume> limitPerDay(Collection<QueryVolume> batch) {
+		Map<LocalDate, List<QueryVolume>> perDay = batch.stream().collect(Collectors.groupingBy(QueryVolume::day));
+		List<QueryVolume> limited = new ArrayList<>(batch.size());
+		for (List<QueryVolume> dayVolumes : perDay.values()) {
+			final LocalDate day = dayVolumes.get(0).day();
+			long room = maxVolumesPerDay - volumes.countByQueryDay(day);
+			if (dayVolumes.size() <= room) {
+				limited.addAll(dayVolumes);
+				continue;
+			}
+
+			Map<String, QueryVolume> byKey = new HashMap<>(dayVolumes.size());
+			dayVolumes.forEach(v -> byKey.put(QueryVolumeEntity.keyOf(v), v));
+			List<String> keys = new ArrayList<>(byKey.keySet());
+			Set<String> stored = new HashSet<>();
+			for (int i = 0; i < keys.size(); i += KEY_CHECK_SIZE)
+				stored.addAll(volumes.findExistingKeys(keys.subList(i, Math.min(i + KEY_CHECK_SIZE, keys.size()))));
+			Map<VolumeKey, QueryVolume> dayLimited = new HashMap<>(dayVolumes.size());
+			int others = 0;
+			for (Map.Entry<String, QueryVolume> e : byKey.entrySet()) {
+				QueryVolume v = e.getValue();
+				if (!stored.contains(e.getKey()) && room-- <= 0) {
+					v = new QueryVolume(day, QueryVolume.OTHER_PARTICIPANTS, "", v.responder(), v.status(), v.count());
+					others++;
+				}
+				dayLimited.merge(new VolumeKey(day, v.participant(), v.service(), v.responder(), v.status()), v,
+								 (v1, v2) -> new QueryVolume(v1.day(), v1.participant(), v1.service(),
+															 v1.responder(), v1.status(), v1.count() + v2.count()));
+			}
+			if (others > 0)
+				log.warn("Maximum number of query volumes for {} reached, added {} volumes to other Participants",
+						 day, others);
+			limited.addAll(dayLimited.values());
+		}
+		return limited;
+	}
+
+	@Override
+	public List<DailyQueryVolume> getDailyVolumes(LocalDate from, LocalDate to) throws PersistenceException {
+		try {
+			log.trace("Retrieving daily query volumes from {} to {}", from, to);
+			return volumes.sumPerDay(from, to);
+		} catch (Throwable t) {
+			log.error("Error while retrieving daily query volumes: {}", Utils.getExceptionTrace(t));
+			throw new PersistenceException("Failed to retrieve query volumes", t);
+		}
+	}
+
+	@Override
+	public List<PeriodQueryVolume> getTopVolumes(LocalDate from, LocalDate to, int max) throws PersistenceException {
+		try {
+			log.trace("Retrieving top {} query volumes from {} to {}", max, from, to);
+			return volumes.sumPerParticipant(from, to, Limit.of(max));
+		} catch (Throwable t) {
+			log.error("Error while retrieving top query volumes: {}", Utils.getExceptionTrace(t));
+			throw new PersistenceException("Failed to retrieve query volumes", t);
+		}
+	}
+
+	@Override
+	public long exportQueryVolumes(LocalDate from, LocalDate to, ExportHandler<? super QueryVolume> handler)
+																			throws PersistenceException, IOException {
+		log.debug("Exporting query volumes from {} to {} (fetch size={})", from, to, fetchSize);
+		long count = 0;
+		try (StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession()) {
+			Transaction tx = session.beginTransaction();
+			try (ScrollableResults<QueryVolume> rows = session.createSelectionQuery(EXPORT_QUERY, QueryVolume.class)
+															  .setParameter("from", from).setParameter("to", to)
+															  .setFetchSize(fetchSize).setReadOnly(true)
+															  .scroll(ScrollMode.FORWARD_ONLY)) {
+				while (rows.next()) {
+					handler.export(rows.get());
+					count++;
+				}
+			} finally {
+				// Nothing was changed, so there is nothing to commit
+				tx.rollback();
+			}
+		} catch (IOException writeFailure) {
+			log.warn("Export of query volumes aborted after {} volumes : {}", count, writeFailure.getMessage());
+			throw writeFailure;
+		} catch (Throwable t) {
+			log.error("An error occurred exporting the query volumes : {}", Utils.getExceptionTrace(t));
+			throw new PersistenceException("Failed to export query volumes", t);
+		}
+		log.debug("Exported {} query volumes", count);
+		return count;
+	}
+
+	/**
+	 * Cleans up the query volumes, removing volumes older than the configured retention period. This is a scheduled
+	 * action that runs once a day.
+	 */
+	@Scheduled(cron = "@daily")
+	@Transactional
+	public void cleanUp() {
+		log.trace("Cleaning up query volumes");
+		try {
+			volumes.deleteByQueryDayBefore(LocalDate.now(ZoneOffset.UTC).minusDays(retentionPeriod));
+			log.debug("Query volumes cleaned up");
+		} catch (Exception e) {
+			log.error("An error occurred cleaning up the query volumes : {}", Utils.getExceptionTrace(e));
+		}
+	}
+
+	private static String truncate(String s, int maxLen) {
+		return s == null ? "" : s.length() > maxLen ? s.substring(0, maxLen) : s;
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import java.security.SecureRandom;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.holodeckb2b.bdxr.smp.server.services.query.HotQuery;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the {@link QueryStatisticsService} using a <i>count-min sketch</i> to estimate the query frequencies in
+ * constant memory and a bounded set of the most frequently executed queries. Registering a query costs one atomic
+ * increment per row of the sketch and does not take a lock. When a query is a new candidate for the set of most
+ * executed queries, it is only added to a bounded set of candidates. The set of most executed queries is updated with
+ * the candidates by a background task, so the request thread does not need to search for the query to evict. The
+ * indices in the sketch are derived from a 64 bit hash that is seeded with a random value on start up, so clients
+ * cannot construct query paths that collide on purpose.
+ * <p>
+ * All counts are halved periodically so the statistics reflect the recent traffic. The size of the sketch, the number
+ * of queries to track and the decay schedule can be configured using the following properties:<ul>
+ * <li><code>smp.query.stats.sketch_width</code> : number of counters per row of the sketch, rounded up to a power of
+ * 		2, default 16384</li>
+ * <li><code>smp.query.stats.sketch_depth</code> : number of rows of the sketch, default 4</li>
+ * <li><code>smp.query.stats.top_k</code> : the number of most executed queries to track, default 100</li>
+ * <li><code>smp.query.stats.update_interval</code> : interval in milliseconds at which the set of most executed
+ * 		queries is updated with the new candidates, default 1000</li>
+ * <li><code>smp.query.stats.decay_cron</code> : cron expression specifying when the counts are halved, default
+ * 		every hour</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Service
+@Slf4j
+public class QueryStatisticsServiceImpl implements QueryStatisticsService {
+
+	@Value("${smp.query.stats.sketch_width:16384}")
+	private int	width;
+
+	@Value("${smp.query.stats.sketch_depth:4}")
+	private int	depth;
+
+	@Value("${smp.query.stats.top_k:100}")
+	private int	topK;
+
+	/**
+	 * The maximum number of candidates waiting to be added to the set of most executed queries, relative to its size
+	 */
+	private static final int CANDIDATES_FACTOR = 4;
+
+	/**
+	 * Constants of the MurmurHash3 mixing functions
+	 */
+	private static final long C1 = 0x87C37B91114253D5L;
+	private static final long C2 = 0x4CF5AD432745937FL;
+
+	/**
+	 * The counters of the sketch, with the rows stored consecutively
+	 */
+	private AtomicLongArray	sketch;
+
+	/**
+	 * The bit mask to apply to the hash to get the index within a row
+	 */
+	private int	mask;
+
+	/**
+	 * The seed of the hash function
+	 */
+	private long	seed;
+
+	/**
+	 * The most executed queries with their estimated count
+	 */
+	private final Map<String, Long> mostQueried = new ConcurrentHashMap<>();
+
+	/**
+	 * The lowest count in the set of most executed queries when the set is full. A query must exceed this count to
+	 * become a member of the set.
+	 */
+	private volatile long	threshold;
+
+	/**
+	 * The queries that are candidates for the set of most executed queries and the number of candidates
+	 */
+	private final Map<String, Boolean> candidates = new ConcurrentHashMap<>();
+	private final AtomicInteger	candidateCount = new AtomicInteger();
+
+	@PostConstruct
+	void init() {
+		int w = Integer.highestOneBit(Math.max(width, 16) - 1) << 1;
+		log.trace("Initialising query statistics sketch ({}x{}), tracking top {} queries", depth, w, topK);
+		sketch = new AtomicLongArray(depth * w);
+		mask = w - 1;
+		seed = new SecureRandom().nextLong();
+	}
+
+	@Override
+	public void registerQuery(String queryPath) {
+		final long h = hash(queryPath);
+		final int h1 = (int) h, h2 = (int) (h >>> 32) | 1;
+		long estimate = Long.MAX_VALUE;
+		for (int i = 0; i < depth; i++)
+			estimate = Math.min(estimate, sketch.incrementAndGet(i * (mask + 1) + ((h1 + i * h2) & mask)));
+
+		if (mostQueried.replace(queryPath, estimate) == null && estimate > threshold)
+			addCandidate(queryPath);
+	}
+
+	@Override
+	public long getEstimatedCount(String queryPath) {
+		final long h = hash(queryPath);
+		final int h1 = (int) h, h2 = (int) (h >>> 32) | 1;
+		long estimate = Long.MAX_VALUE;
+		for (int i = 0; i < depth; i++)
+			estimate = Math.min(estimate, sketch.get(i * (mask + 1) + ((h1 + i * h2) & mask)));
+		return estimate;
+	}
+
+	@Override
+	public List<HotQuery> getMostQueried() {
+		updateMostQueried();
+		return mostQueried.entrySet().stream().map(e -> new HotQuery(e.getKey(), e.getValue()))
+								.sorted(Comparator.comparingLong(HotQuery::count).reversed()).toList();
+	}
+
+	/**
+	 * Halves all counts so older queries gradually lose weight compared to recent ones.
+	 */
+	@Scheduled(cron = "${smp.query.stats.decay_cron:0 0 * * * *}")
+	public synchronized void decay() {
+		log.trace("Decaying query statistics");
+		for (int i = 0; i < sketch.length(); i++)
+			sketch.updateAndGet(i, c -> c >>> 1);
+		mostQueried.replaceAll((q, c) -> c >>> 1);
+		mostQueried.values().removeIf(c -> c == 0);
+		threshold = mostQueried.size() < topK ? 0 : threshold >>> 1;
+	}
+
+	/**
+	 * Updates the set of most executed queries with the candidates registered since the last update, removing the
+	 * queries with the lowest counts when the set grows beyond its maximum size.
+	 */
+	@Scheduled(fixedDelayString = "${smp.query.stats.update_interval:1000}",
+				initialDelayString = "${smp.query.stats.update_interval:1000}")
+	public synchronized void updateMostQueried() {
+		for (Iterator<String> it = candidates.keySet().iterator(); it.hasNext();) {
+			final String queryPath = it.next();
+			it.remove();
+			candidateCount.decrementAndGet();
+			final long count = getEstimatedCount(queryPath);
+			if (count > threshold)
+				mostQueried.put(queryPath, count);
+		}
+		if (mostQueried.size() > topK) {
+			List<Map.Entry<String, Long>> byCount = mostQueried.entrySet().stream()
+								.map(e -> Map.entry(e.getKey(), e.getValue()))
+								.sorted(Map.Entry.comparingByValue(Comparator.reverseOrder())).toList();
+			byCount.subList(topK, byCount.size()).forEach(e -> mostQueried.remove(e.getKey()));
+			threshold = byCount.get(topK - 1).getValue();
+		}
+	}
+
+	/**
+	 * Adds a query to the set of candidates for the set of most executed queries. When the maximum number of
+	 * candidates is reached the query is ignored, it will be offered again when it is executed after the next update.
+	 *
+	 * @param queryPath	the query to add
+	 */
+	private void addCandidate(String queryPath) {
+		if (candidateCount.get() < CANDIDATES_FACTOR * topK && candidates.putIfAbsent(queryPath, Boolean.TRUE) == null)
+			candidateCount.incrementAndGet();
+	}
+
+	/**
+	 * Calculates a seeded 64 bit hash of the query path using the mixing functions of MurmurHash3, processing four
+	 * characters at a time. The two halves are used as independent hashes to derive the indices in each row of the
+	 * sketch.
+	 *
+	 * @param queryPath	the query path
+	 * @return	64 bit hash value
+	 */
+	private long hash(String queryPath) {
+		final int len = queryPath.length();
+		long h = seed;
+		int i = 0;
+		for (; i + 4 <= len; i += 4) {
+			h ^= mixK(queryPath.charAt(i) | (long) queryPath.charAt(i + 1) << 16
+					  | (long) queryPath.charAt(i + 2) << 32 | (long) queryPath.charAt(i + 3) << 48);
+			h = Long.rotateLeft(h, 27) * 5 + 0x52DCE729;
+		}
+		if (i < len) {
+			long k = 0;
+			for (int shift = 0; i < len; i++, shift += 16)
+				k |= (long) queryPath.charAt(i) << shift;
+			h ^= mixK(k);
+		}
+		h ^= len;
+		h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+		h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return h ^ (h >>> 33);
+	}
+
+	private static long mixK(long k) {
+		return Long.rotateLeft(k * C1, 31) * C2;
+	}
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.Operation;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.State;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.NetworkUpdateRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantsService;
+import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reconciles the SML registration state of the Participants as stored in the database with the actual registrations
+ * in the SML. The local state can get out of sync with the SML, for example when saving the new state fails after a
+ * bulk registration in the SML succeeded.
+ * <p>
+ * The reconciliation is done by joining the list of Participants registered in the SML by this SMP, which is retrieved
+ * page by page, with the Participants that are marked as registered in the database. To be able to handle hundreds of
+ * thousands of Participants, neither side is loaded completely into memory. Instead a sorted index containing a 64 bit
+ * hash of each locally registered Participant's identifier is built, i.e. 8 bytes per Participant, which is then
+ * probed with the identifiers retrieved from the SML. Participants found in the SML but not in the index are checked
+ * against the database. After all pages have been processed, the Participants in the index that were not found in the
+ * SML are the ones that are marked as registered but aren't.
+ * <p>
+ * Both the discrepancies are logged and, when repair is requested, fixed by updating the local registration state in
+ * batches, as the SML is the authoritative source for the registrations. Participants that are registered in the SML by
+ * this SMP but are unknown to the server are only reported, as they need to be removed from the SML manually.
+ * Participants for which an update of the SML is still pending in the {@link NetworkUpdateOutbox} are skipped, as their
+ * local registration state already reflects the state the SML will have once the update is executed.
+ * <p>
+ * The job can be configured using the following properties:<ul>
+ * <li><code>smp.sml.reconciliation.cron</code> : cron expression specifying when to run the reconciliation, by
+ * 		default it is not run automatically</li>
+ * <li><code>smp.sml.reconciliation.repair</code> : indicates whether scheduled runs should repair the discrepancies
+ * 		or only report them, default <code>false</code></li>
+ * <li><code>smp.sml.reconciliation.batch_size</code> : number of Participants read from and updated in the database
+ * 		in one batch, default 1000</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class SMLReconciliationJob {
+	/**
+	 * The username used in the audit log records of the repaired registrations
+	 */
+	private static final String AUDIT_USER = "system";
+	/**
+	 * The operations of the outbox that update the SML registration
+	 */
+	private static final List<Operation> SML_UPDATES = List.of(Operation.REGISTER_IN_SML, Operation.REMOVE_FROM_SML);
+
+	@Value("${smp.sml.reconciliation.repair:false}")
+	protected boolean	repair;
+
+	@Value("${smp.sml.reconciliation.batch_size:1000}")
+	protected int		batchSize;
+
+	@Autowired
+	protected SMPServerAdminService	smpConfigService;
+
+	@Autowired
+	protected ParticipantsService	participantsSvc;
+
+	@Autowired
+	protected ParticipantRepository	participants;
+
+	@Autowired
+	protected IDSchemeRepository	idSchemes;
+
+	@Autowired
+	protected AuditLogService		auditSvc;
+
+	@Autowired
+	protected NetworkUpdateRepository	updates;
+
+	@Autowired
+	protected MetadataChangeTracker	changeTracker;
+
+	@Autowired
+	protected PlatformTransactionManager	txManager;
+
+	/**
+	 * Indicates whether a reconciliation is currently running
+	 */
+	private final AtomicBoolean		running = new AtomicBoolean();
+
+	/**
+	 * Contains the result of a reconciliation run.
+	 *
+	 * @param registeredInSML	number of Participants registered in the SML by this SMP
+	 * @param registeredLocally	number of Participants marked as registered in the SML in the database
+	 * @param notMarkedLocally	number of Participants registered in the SML but not marked as such in the database
+	 * @param notInSML			number of Participants marked as registered in the database but not registered in
+	 * 							the SML
+	 * @param unknown			number of Participants registered in the SML by this SMP that don't exist on the server
+	 * @param repaired			indicates whether the local registration state was repaired
+	 */
+	public record Report(long registeredInSML, long registeredLocally, long notMarkedLocally, long notInSML,
+						 long unknown, boolean repaired) {
+
+		/**
+		 * @return <code>true</code> when the SML registrations and the local registration state are consistent
+		 */
+		public boolean isConsistent() {
+			return notMarkedLocally == 0 && notInSML == 0 && unknown == 0;
+		}
+	}
+
+	@Scheduled(cron = "${smp.sml.reconciliation.cron:-}")
+	void scheduledReconciliation() {
+		try {
+			reconcile(repair);
+		} catch (SMLException | IllegalStateException reconciliationFailed) {
+			log.error("Could not reconcile the SML registrations : {}", Utils.getExceptionTrace(reconciliationFailed));
+		}
+	}
+
+	/**
+	 * Reconciles the SML registration state of the Participants in the database with the actual registrations in the
+	 * SML.
+	 *
+	 * @param repair	<code>true</code> when the local registration state should be repaired,<br/>
+	 * 					<code>false</code> when discrepancies should only be reported
+	 * @return	the result of the reconciliation
+	 * @throws SMLException when the SML is not available or an error occurs retrieving the registered Participants
+	 * @throws IllegalStateException when another reconciliation is already running
+	 */
+	public Report reconcile(boolean repair) throws SMLException {
+		if (!participantsSvc.isSMLRegistrationAvailable()) {
+			log.warn("Cannot reconcile SML registrations as the SML is not available");
+			throw new SMLException("SML registration not available");
+		}
+		if (!running.compareAndSet(false, true))
+			throw new IllegalStateException("Reconciliation of SML registrations already running");
+		try {
+			log.info("Start reconciliation of SML registrations{}", repair ? " with repair" : "");
+			Report report = new Run(repair).execute();
+			if (report.isConsistent())
+				log.info("Reconciled SML registrations, all {} registered Participants are consistent",
+							report.registeredInSML());
+			else
+				log.warn("Reconciled SML registrations: {} registered in SML, {} marked locally, {} not marked locally,"
+						+ " {} not in SML, {} unknown{}", report.registeredInSML(), report.registeredLocally(),
+						report.notMarkedLocally(), report.notInSML(), report.unknown(), repair ? " (repaired)" : "");
+			return report;
+		} finally {
+			running.set(false);
+		}
+	}
+
+	/**
+	 * Calculates the hash of the given identifier that is used in the index of locally registered Participants. It
+	 * uses the 64 bit FNV-1a algorithm on the identifier's string representation, which already takes the case
+	 * sensitivity of the identifier into account.
+	 *
+	 * @param id	the identifier
+	 * @return	64 bit hash of the identifier
+	 */
+	static long hash(EmbeddedIdentifier id) {
+		final String s = id.toString();
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		return h;
+	}
+
+	/**
+	 * Holds the state of a single reconciliation run.
+	 */
+	private class Run {
+		private final boolean repair;
+
+		/**
+		 * The sorted hashes of the identifiers of the Participants marked as registered in the database
+		 */
+		private long[]	index;
+		/**
+		 * Indicates for each entry in the index whether the Participant was found in the SML
+		 */
+		private BitSet	matched;
+		/**
+		 * Cache of the ID Schemes, needed to convert the identifiers retrieved from the SML
+		 */
+		private final Map<String, Optional<IDSchemeEntity>> schemes = new HashMap<>();
+
+		private long inSML, notMarked, notInSML, unknown;
+
+		Run(boolean repair) {
+			this.repair = repair;
+		}
+
+		Report execute() throws SMLException {
+			buildIndex();
+			smpConfigService.getSMLIntegrationService().listRegisteredParticipants(this::probe);
+			sweep();
+			return new Report(inSML, index.length, notMarked, notInSML, unknown, repair);
+		}
+
+		/**
+		 * Builds the index of Participants marked as registered in the SML.
+		 */
+		private void buildIndex() {
+			long[] hashes = new long[Math.max(16, batchSize)];
+			int size = 0;
+			List<Object[]> batch;
+			Long after = 0L;
+			do {
+				batch = participants.findSMLRegisteredIds(after, Limit.of(batchSize));
+				for (Object[] r : batch) {
+					if (size == hashes.length)
+						hashes = Arrays.copyOf(hashes, size * 2);
+					hashes[size++] = hash((EmbeddedIdentifier) r[1]);
+					after = (Long) r[0];
+				}
+			} while (batch.size() == batchSize);
+			index = Arrays.copyOf(hashes, size);
+			Arrays.sort(index);
+			matched = new BitSet(size);
+			log.debug("Built index of {} Participants marked as registered in SML", size);
+		}
+
+		/**
+		 * Processes a page of Participants registered in the SML. The Participants are marked as matched in the index
+		 * and the ones not in the index are checked against the database.
+		 *
+		 * @param page	the identifiers of the Participants registered in the SML
+		 * @return	<code>true</code> as all pages must be processed
+		 */
+		private boolean probe(List<Identifier> page) {
+			List<EmbeddedIdentifier> candidates = new ArrayList<>();
+			for (Identifier smlId : page) {
+				inSML++;
+				EmbeddedIdentifier id = toLocalId(smlId);
+				if (id == null) {
+					log.warn("Participant ({}::{}) is registered in SML by this SMP, but its ID scheme is unknown",
+								smlId.getScheme() != null ? smlId.getScheme().getSchemeId() : "", smlId.getValue());
+					unknown++;
+				} else if (!markMatched(hash(id)))
+					candidates.add(id);
+			}
+			List<Long> update = new ArrayList<>();
+			final Set<String> pending = withPendingUpdate(candidates);
+			for (EmbeddedIdentifier id : candidates) {
+				if (pending.contains(IdUtils.toIDString(id))) {
+					log.debug("Skipping Participant ({}) as it has a pending SML update", id.toString());
+					continue;
+				}
+				ParticipantEntity p = participants.findByIdentifier(id);
+				if (p == null) {
+					log.warn("Participant ({}) is registered in SML by this SMP, but does not exist", id.toString());
+					unknown++;
+				} else if (!p.isRegisteredInSML()) {
+					log.info("Participant ({}) is registered in SML, but not marked as registered", id.toString());
+					notMarked++;
+					update.add(p.getOid());
+				}
+				// Otherwise the Participant has been registered after the index was built
+			}
+			if (repair && !update.isEmpty())
+				saveRegistrationState(update, true);
+			return true;
+		}
+
+		/**
+		 * Checks the Participants marked as registered in the database against the index to find the ones that were
+		 * not found in the SML.
+		 */
+		private void sweep() {
+			List<Object[]> batch;
+			Long after = 0L;
+			do {
+				batch = participants.findSMLRegisteredIds(after, Limit.of(batchSize));
+				Map<Long, EmbeddedIdentifier> notFound = new LinkedHashMap<>();
+				for (Object[] r : batch) {
+					after = (Long) r[0];
+					int i = Arrays.binarySearch(index, hash((EmbeddedIdentifier) r[1]));
+					// Participants that are not in the index have been registered after the index was built
+					if (i >= 0 && !isMatched(i))
+						notFound.put(after, (EmbeddedIdentifier) r[1]);
+				}
+				final Set<String> pending = withPendingUpdate(notFound.values());
+				List<Long> missing = new ArrayList<>();
+				notFound.forEach((oid, id) -> {
+					if (pending.contains(IdUtils.toIDString(id)))
+						log.debug("Skipping Participant ({}) as it has a pending SML update", id.toString());
+					else {
+						log.info("Participant ({}) is marked as registered, but not registered in SML", id.toString());
+						notInSML++;
+						missing.add(oid);
+					}
+				});
+				if (repair && !missing.isEmpty())
+					saveRegistrationState(missing, false);
+			} while (batch.size() == batchSize);
+		}
+
+		/**
+		 * Marks the entries in the index with the given hash as matched.
+		 *
+		 * @param h	the hash of the identifier
+		 * @return	<code>true</code> if the index contains the hash, <code>false</code> otherwise
+		 */
+		private boolean markMatched(long h) {
+			int i = Arrays.binarySearch(index, h);
+			if (i < 0)
+				return false;
+			for (int j = i; j >= 0 && index[j] == h; j--)
+				matched.set(j);
+			for (int j = i + 1; j < index.length && index[j] == h; j++)
+				matched.set(j);
+			return true;
+		}
+
+		private boolean isMatched(int i) {
+			return matched.get(i);
+		}
+
+		/**
+		 * Gets which of the given Participants have a pending update of the SML in the outbox.
+		 *
+		 * @param ids	the identifiers of the Participants
+		 * @return	the string representations of the identifiers of the Participants with a pending SML update
+		 */
+		private Set<String> withPendingUpdate(Collection<EmbeddedIdentifier> ids) {
+			if (ids.isEmpty())
+				return Set.of();
+			return new HashSet<>(updates.findWithPendingUpdate(ids.stream().map(IdUtils::toIDString).toList(),
+															   State.PENDING, SML_UPDATES));
+		}
+
+		/**
+		 * Converts the identifier retrieved from the SML into an {@link EmbeddedIdentifier} using the ID Scheme
+		 * registered on the server.
+		 *
+		 * @param smlId	the identifier as retrieved from the SML
+		 * @return	the converted identifier, or <code>null</code> if the ID Scheme is not registered on the server
+		 */
+		private EmbeddedIdentifier toLocalId(Identifier smlId) {
+			if (smlId.getScheme() == null)
+				return new EmbeddedIdentifier(smlId.getValue());
+			return schemes.computeIfAbsent(smlId.getScheme().getSchemeId(),
+										   s -> Optional.ofNullable(idSchemes.findByIdentifier(s)))
+						  .map(s -> new EmbeddedIdentifier(s, smlId.getValue())).orElse(null);
+		}
+
+		/**
+		 * Updates the SML registration state of the given Participants in a single transaction and logs one audit
+		 * record for the batch. The identifiers of the updated Participants are included in the application log.
+		 *
+		 * @param oids			the <i>oids</i> of the Participants to update
+		 * @param registered	the new registration state
+		 */
+		private void saveRegistrationState(List<Long> oids, boolean registered) {
+			int updated = new TransactionTemplate(txManager).execute(tx -> {
+				int n = participants.setRegisteredInSML(oids, registered, LocalDateTime.now());
+				changeTracker.registerBulkChange();
+				return n;
+			});
+			auditSvc.log(new AuditLogRecord(Instant.now(), AUDIT_USER, "Reconcile SML registration", null,
+											"RegisteredInSML=" + registered + ";Updated " + updated + " Participants"));
+			log.debug("Updated SML registration state of {} Participants to {}", updated, registered);
+		}
+	}
+}
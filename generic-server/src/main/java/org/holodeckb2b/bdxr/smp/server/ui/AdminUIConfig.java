@@ -23,6 +23,7 @@ import org.holodeckb2b.bdxr.smp.server.ui.auth.UserRole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementContextAutoConfiguration;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -37,7 +38,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 @Configuration
 @ComponentScan("org.holodeckb2b.bdxr.smp.server.ui")
 @PropertySource(value = "file:${smp.home:.}/admin-ui.properties", ignoreResourceNotFound = true)
-@EnableAutoConfiguration
+@EnableAutoConfiguration(exclude = { ManagementContextAutoConfiguration.class })
 public class AdminUIConfig {
 	private static final String DEFAULT_UID = "admin@smp.holodeck-b2b.org";
 
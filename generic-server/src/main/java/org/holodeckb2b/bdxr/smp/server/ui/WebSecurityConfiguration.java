@@ -77,7 +77,8 @@ public class WebSecurityConfiguration {
                         "/login*"
                         ).permitAll()
                 .requestMatchers("/verify/*", "/mfa/register/*").access(getAuthorizationManager())
-                .requestMatchers("/settings/users/**", "/settings/smpcert/**", "/auditlog/**").hasRole(UserRole.ADMIN.name())
+                .requestMatchers("/settings/users/**", "/settings/smpcert/**", "/settings/diagnostics/**",
+                		"/auditlog/**").hasRole(UserRole.ADMIN.name())
                 .anyRequest().authenticated())
         		// The custom AuthenticationTrustResolver is used to ensure that users are redirected to the login page
         		// when they try to access a page that requires authentication before completing the 2FA 
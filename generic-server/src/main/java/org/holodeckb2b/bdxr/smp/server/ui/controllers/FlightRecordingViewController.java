@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.ui.controllers;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.AuditLogWriteEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.NetworkCallEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.ParticipantLookupEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.QueryDispatchEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.ResponseBuildEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.SMPEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.SerialisationEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.SigningEvent;
+import org.holodeckb2b.bdxr.smp.server.ui.auth.UserAccount;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller for the page on which administrators can start a JDK Flight Recorder recording of the SMP server and
+ * download it when completed. Besides the default JVM events the recording contains the {@link SMPEvent}s emitted by
+ * the server. To limit the impact on a production server only one recording can be active at a time and both its
+ * duration and size are bounded by the <code>smp.ui.jfr.max_duration</code> (in minutes) and <code>
+ * smp.ui.jfr.max_size</code> settings. When a new recording is started while the previous one is still being
+ * downloaded, the previous recording is closed when its last download completes.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Controller
+@Slf4j
+@RequestMapping("settings/diagnostics")
+public class FlightRecordingViewController {
+
+	private static final List<Class<? extends SMPEvent>> SMP_EVENTS = List.of(QueryDispatchEvent.class,
+						ParticipantLookupEvent.class, ResponseBuildEvent.class, SigningEvent.class,
+						SerialisationEvent.class, NetworkCallEvent.class, AuditLogWriteEvent.class);
+
+	@Value("${smp.ui.jfr.max_duration:10}")
+	protected int	maxDuration;
+
+	@Value("${smp.ui.jfr.max_size:250MB}")
+	protected DataSize	maxSize;
+
+	@Autowired
+	protected AuditLogService	auditSvc;
+
+	/**
+	 * The current, or last completed, recording
+	 */
+	private Recording	recording;
+
+	/**
+	 * The number of downloads in progress per recording
+	 */
+	private final Map<Recording, Integer> downloads = new IdentityHashMap<>();
+
+	/**
+	 * Information on the current recording as shown on the page
+	 */
+	public record RecordingInfo(String state, LocalDateTime started, long duration, long size) {}
+
+	@GetMapping({"","/"})
+	public String getOverview(Model m) {
+		synchronized (this) {
+			if (recording != null)
+				m.addAttribute("recording", new RecordingInfo(recording.getState().name(),
+									recording.getStartTime() != null ?
+										LocalDateTime.ofInstant(recording.getStartTime(), ZoneOffset.UTC) : null,
+									recording.getDuration().toMinutes(), recording.getSize()));
+		}
+		m.addAttribute("maxDuration", maxDuration);
+		return "diagnostics";
+	}
+
+	@PostMapping("/start")
+	public String startRecording(@AuthenticationPrincipal UserAccount user,
+								 @RequestParam(name = "duration", defaultValue = "5") int duration) {
+		duration = Math.max(1, Math.min(duration, maxDuration));
+		synchronized (this) {
+			if (recording != null && recording.getState() == RecordingState.RUNNING) {
+				log.warn("A flight recording is already running");
+				return "redirect:/settings/diagnostics";
+			}
+			if (recording != null && !downloads.containsKey(recording))
+				recording.close();
+			try {
+				recording = new Recording(Configuration.getConfiguration("default"));
+			} catch (Exception noConfig) {
+				log.error("Could not load the default recording configuration : {}", Utils.getExceptionTrace(noConfig));
+				recording = new Recording();
+			}
+			recording.setName("Holodeck SMP");
+			SMP_EVENTS.forEach(e -> recording.enable(e));
+			recording.setToDisk(true);
+			recording.setMaxSize(maxSize.toBytes());
+			recording.setDuration(Duration.ofMinutes(duration));
+			recording.start();
+		}
+		log.info("Started flight recording for {} minutes", duration);
+		auditSvc.log(new AuditLogRecord(Instant.now(), user.getUsername(), "Start flight recording", null,
+										"Duration: " + duration + " minutes"));
+		return "redirect:/settings/diagnostics";
+	}
+
+	@PostMapping("/stop")
+	public String stopRecording() {
+		synchronized (this) {
+			if (recording != null && recording.getState() == RecordingState.RUNNING) {
+				recording.stop();
+				log.info("Stopped flight recording");
+			}
+		}
+		return "redirect:/settings/diagnostics";
+	}
+
+	@GetMapping("/download")
+	public ResponseEntity<StreamingResponseBody> downloadRecording() {
+		final Recording r;
+		synchronized (this) {
+			r = recording;
+			if (r == null || r.getState() != RecordingState.STOPPED)
+				return ResponseEntity.notFound().build();
+			downloads.merge(r, 1, Integer::sum);
+		}
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentDisposition(ContentDisposition.attachment().filename("smp-recording_"
+					+ DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(r.getStartTime().atZone(ZoneOffset.UTC))
+					+ ".jfr").build());
+		return ResponseEntity.ok()
+					.headers(headers)
+					.contentType(MediaType.APPLICATION_OCTET_STREAM)
+					.body(out -> {
+						try (InputStream in = r.getStream(null, null)) {
+							if (in != null)
+								in.transferTo(out);
+						} finally {
+							downloadCompleted(r);
+						}
+					});
+	}
+
+	/**
+	 * Registers that a download of the given recording has completed and closes the recording when it is no longer the
+	 * current recording and no other downloads are in progress.
+	 *
+	 * @param r	the downloaded recording
+	 */
+	private synchronized void downloadCompleted(Recording r) {
+		if (downloads.merge(r, -1, (c, d) -> c + d == 0 ? null : c + d) == null && r != recording)
+			r.close();
+	}
+
+	@PreDestroy
+	synchronized void closeRecording() {
+		downloads.keySet().forEach(Recording::close);
+		if (recording != null)
+			recording.close();
+	}
+}
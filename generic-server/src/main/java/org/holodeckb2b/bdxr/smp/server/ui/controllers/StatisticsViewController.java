@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.ui.controllers;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.bdxr.smp.server.services.query.DailyQueryVolume;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryAnalyticsService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Controller for the page showing the statistics on the queries executed on the SMP server. Besides the most executed
+ * queries the page shows the query volumes per day and the Participants and Services queried most in a selected
+ * period. The query volumes of the selected period can also be exported as CSV file. As the export can be large, the
+ * period that can be exported at once is limited by the <code>smp.ui.statistics.max_export_days</code> property,
+ * default 31 days. When a longer period is requested, only the last days of the period are exported.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Controller
+@RequestMapping("/statistics")
+public class StatisticsViewController {
+
+	@Value("${smp.ui.maxitems_per_page:50}")
+	private int maxItemsPerPage;
+
+	@Value("${smp.ui.statistics.max_export_days:31}")
+	private int maxExportDays;
+
+	@Autowired
+	protected QueryStatisticsService	queryStats;
+
+	@Autowired
+	protected QueryAnalyticsService		analytics;
+
+	/**
+	 * Totals of the query volumes on a single day
+	 */
+	public record DayTotals(LocalDate day, long total, long ok, long notFound, long other) {}
+
+	@GetMapping({"","/"})
+	public String getOverview(
+							  @RequestParam(name = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+							  @RequestParam(name = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+							  Model m) throws PersistenceException {
+		if (to == null)
+			to = LocalDate.now(ZoneOffset.UTC);
+		if (from == null || from.isAfter(to))
+			from = to.minusDays(6);
+
+		Map<LocalDate, DayTotals> totals = new TreeMap<>();
+		for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1))
+			totals.put(d, new DayTotals(d, 0, 0, 0, 0));
+		for (DailyQueryVolume v : analytics.getDailyVolumes(from, to))
+			totals.computeIfPresent(v.day(), (d, t) -> new DayTotals(d, t.total() + v.count(),
+														t.ok() + (v.status() == 200 ? v.count() : 0),
+														t.notFound() + (v.status() == 404 ? v.count() : 0),
+														t.other() + (v.status() != 200 && v.status() != 404 ? v.count() : 0)));
+
+		m.addAttribute("hotQueries", queryStats.getMostQueried());
+		m.addAttribute("from", from);
+		m.addAttribute("to", to);
+		m.addAttribute("dayTotals", totals.values());
+		m.addAttribute("topVolumes", analytics.getTopVolumes(from, to, maxItemsPerPage));
+		m.addAttribute("maxExportDays", maxExportDays);
+		return "statistics";
+	}
+
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportVolumes(
+							  @RequestParam(name = "from") @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+							  @RequestParam(name = "to") @DateTimeFormat(iso = ISO.DATE) LocalDate to)
+							  throws PersistenceException {
+		if (from.isAfter(to))
+			from = to;
+		else if (from.isBefore(to.minusDays(maxExportDays - 1)))
+			from = to.minusDays(maxExportDays - 1);
+		final LocalDate start = from;
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentDisposition(ContentDisposition.attachment()
+												.filename("query-volumes_" + start + "_" + to + ".csv").build());
+		return ResponseEntity.ok()
+					.headers(headers)
+					.contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+					.body(out -> {
+						Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+						w.write("day,participant,service,responder,status,count\r\n");
+						try {
+							analytics.exportQueryVolumes(start, to, v ->
+								w.write(String.join(",", v.day().toString(), csvValue(v.participant()),
+													csvValue(v.service()), csvValue(v.responder()),
+													Integer.toString(v.status()), Long.toString(v.count())) + "\r\n"));
+						} catch (PersistenceException dbError) {
+							throw new IOException("Could not export query volumes", dbError);
+						}
+						w.flush();
+					});
+	}
+
+	/**
+	 * Converts the given string into a CSV value. Values starting with a character that spreadsheet applications
+	 * interpret as the start of a formula are prefixed with a single quote so they are shown as text.
+	 *
+	 * @param s	the string to convert
+	 * @return	the CSV value
+	 */
+	private static String csvValue(String s) {
+		final boolean formula = !s.isEmpty() && "=+-@\t\r".indexOf(s.charAt(0)) >= 0;
+		return !formula && s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0 ? s
+							: "\"" + (formula ? "'" : "") + s.replace("\"", "\"\"") + '"';
+	}
+}
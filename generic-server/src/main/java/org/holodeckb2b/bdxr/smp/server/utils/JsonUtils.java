@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.utils;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Contains utility methods for the log records that are formatted as JSON objects directly into a {@link
+ * StringBuilder}, without the overhead of a JSON generator per record. The escaping of the strings is done by Jackson.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public final class JsonUtils {
+
+	private JsonUtils() {}
+
+	/**
+	 * Appends the given string as a JSON string value, i.e. quoted and with the special characters escaped.
+	 *
+	 * @param b	the builder to append the value to
+	 * @param s	the string to append, <code>null</code> is appended as the JSON <code>null</code> value
+	 * @return	the builder
+	 */
+	public static StringBuilder appendString(StringBuilder b, String s) {
+		if (s == null)
+			return b.append("null");
+		b.append('"');
+		JsonStringEncoder.getInstance().quoteAsString(s, b);
+		return b.append('"');
+	}
+}
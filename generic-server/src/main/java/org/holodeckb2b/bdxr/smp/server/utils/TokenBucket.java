@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implements a token bucket rate limiter that can be shared by multiple threads. The bucket is filled with the
+ * configured number of tokens per second, up to the configured capacity which determines the maximum burst size.
+ * Each call to {@link #acquire()} takes one token from the bucket, blocking the calling thread until a token becomes
+ * available.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class TokenBucket {
+
+	private final double	capacity;
+	private final double	nanosPerToken;
+
+	private double	tokens;
+	private long	lastRefill;
+
+	/**
+	 * Creates a new bucket that is initially full.
+	 *
+	 * @param ratePerSecond	the number of tokens added to the bucket per second, must be positive
+	 * @param capacity		the maximum number of tokens in the bucket, must be at least 1
+	 */
+	public TokenBucket(double ratePerSecond, int capacity) {
+		if (ratePerSecond <= 0 || capacity < 1)
+			throw new IllegalArgumentException("Rate must be positive and capacity at least 1");
+		this.capacity = capacity;
+		this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+		this.tokens = capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Takes a token from the bucket, waiting until one is available.
+	 *
+	 * @throws InterruptedException when the thread is interrupted while waiting for a token
+	 */
+	public void acquire() throws InterruptedException {
+		long wait;
+		while ((wait = tryAcquire()) > 0)
+			TimeUnit.NANOSECONDS.sleep(wait);
+	}
+
+	/**
+	 * Tries to take a token from the bucket.
+	 *
+	 * @return	0 when a token was taken, otherwise the number of nanoseconds until the next token becomes available
+	 */
+	private synchronized long tryAcquire() {
+		final long now = System.nanoTime();
+		tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+		lastRefill = now;
+		if (tokens >= 1) {
+			tokens -= 1;
+			return 0;
+		} else
+			return (long) Math.ceil((1 - tokens) * nanosPerToken);
+	}
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
+import org.holodeckb2b.bdxr.smp.datamodel.EndpointInfo;
+import org.holodeckb2b.bdxr.smp.datamodel.impl.CertificateImpl;
+import org.holodeckb2b.bdxr.smp.datamodel.impl.ProcessGroupImpl;
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ProcessGroup;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedProcessIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EndpointEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ProcessInfoEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.TransportProfileEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.EndpointRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ProcessRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceMetadataTemplateRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.TransportProfileRepository;
+import org.holodeckb2b.commons.testing.TestUtils;
+import org.holodeckb2b.commons.security.KeystoreUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@DataJpaTest
+@ContextConfiguration(classes = { CommonServerConfig.class })
+@DirtiesContext(classMode = ClassMode.AFTER_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatasetSnapshotTest {
+	private static final int PARTICIPANTS = 300;
+
+	@Autowired
+	DataSource		dataSource;
+
+	@Autowired
+	ParticipantRepository	participants;
+
+	@Autowired
+	IDSchemeRepository		idSchemes;
+
+	@Autowired
+	TransportProfileRepository	transportProfiles;
+
+	@Autowired
+	ProcessRepository		processes;
+
+	@Autowired
+	ServiceRepository		services;
+
+	@Autowired
+	EndpointRepository		endpoints;
+
+	@Autowired
+	ServiceMetadataTemplateRepository	templates;
+
+	@Autowired
+	PlatformTransactionManager	txManager;
+
+	@BeforeEach
+	@AfterEach
+	void clearDatabase() throws SQLException {
+		List<String> tables = new ArrayList<>(SnapshotFormat.TABLES);
+		tables.add(SnapshotFormat.AUDIT_LOG_TABLE);
+		try (Connection c = dataSource.getConnection(); Statement s = c.createStatement()) {
+			for (int i = tables.size() - 1; i >= 0; i--)
+				s.executeUpdate("delete from " + tables.get(i));
+		}
+	}
+
+	@Test
+	void testDumpAndRestore() throws Exception {
+		createDataset();
+		try (Connection c = dataSource.getConnection(); Statement s = c.createStatement()) {
+			s.executeUpdate("insert into audit_log (oid, timestamp, username, action, subject, details) values "
+							+ "(1, current_timestamp, 'tester', 'Snapshot', 'Test', 'Audit record to dump')");
+		}
+		final long[] before = countRows();
+
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		DatasetSnapshot dumped = assertDoesNotThrow(() -> new DatasetDumper(dataSource, 50).dump(archive, true));
+
+		assertTrue(dumped.includesAuditLog());
+		assertEquals(SnapshotFormat.TABLES.size() + 1, dumped.rows().size());
+		assertEquals(PARTICIPANTS, dumped.rows().get("participant"));
+		assertEquals(1, dumped.rows().get(SnapshotFormat.AUDIT_LOG_TABLE));
+
+		// Restoring into a database that already contains data is not possible
+		assertThrows(IllegalStateException.class, () -> new DatasetRestorer(dataSource, 100)
+															.restore(new ByteArrayInputStream(archive.toByteArray())));
+
+		clearDatabase();
+		DatasetSnapshot restored = assertDoesNotThrow(() -> new DatasetRestorer(dataSource, 100)
+															.restore(new ByteArrayInputStream(archive.toByteArray())));
+
+		assertEquals(dumped.rows(), restored.rows());
+		assertEquals(dumped.created(), restored.created());
+		assertArrayEquals(before, countRows());
+		try (Connection c = dataSource.getConnection()) {
+			assertTrue(DatasetDumper.tableExists(c.getMetaData(), "participant"));
+			try (ResultSet rs = c.getMetaData().getIndexInfo(null, null, "PARTICIPANT", false, false)) {
+				List<String> indexes = new ArrayList<>();
+				while (rs.next())
+					indexes.add(rs.getString("INDEX_NAME"));
+				assertTrue(indexes.contains("IDX_PART_ID"));
+				assertTrue(indexes.contains("IDX_PART_LCNAME"));
+			}
+		}
+
+		new TransactionTemplate(txManager).executeWithoutResult(tx -> {
+			ParticipantEntity p = participants.findByIdentifier(
+							new EmbeddedIdentifier(idSchemes.findByIdentifier("T-SNAP-IDS"),
+												   participantId(150)));
+			assertNotNull(p);
+			assertNotNull(p.getName());
+			assertNotNull(p.getFirstRegistrationDate());
+			assertEquals(1, p.getAdditionalIds().size());
+			assertFalse(p.getBoundSMT().isEmpty());
+			for (ServiceMetadataTemplate smt : p.getBoundSMT())
+				for (ProcessGroup pg : smt.getProcessMetadata())
+					for (EndpointInfo ep : pg.getEndpoints()) {
+						assertNotNull(ep.getServiceActivationDate());
+						assertNotNull(ep.getCertificates().iterator().next().getX509Cert());
+					}
+		});
+	}
+
+	@Test
+	void testRejectInvalidArchive() throws Exception {
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		new DatasetDumper(dataSource, 50).dump(archive, false);
+		final byte[] complete = archive.toByteArray();
+
+		assertThrows(Exception.class, () -> new DatasetRestorer(dataSource, 100)
+												.restore(new ByteArrayInputStream(Arrays.copyOf(complete, 20))));
+		assertThrows(Exception.class, () -> new DatasetRestorer(dataSource, 100)
+												.restore(new ByteArrayInputStream("Not an archive".getBytes())));
+	}
+
+	/**
+	 * Creates a small data set with all kinds of meta-data registrations that are included in a snapshot.
+	 */
+	private void createDataset() throws Exception {
+		final X509Certificate cert = (X509Certificate) KeystoreUtils.readKeyPairFromPKCS12(
+												TestUtils.getTestResource("testkey1.p12"), null).getCertificate();
+		new TransactionTemplate(txManager).executeWithoutResult(tx -> {
+			IDSchemeEntity scheme = idSchemes.save(new IDSchemeEntity("T-SNAP-IDS", false));
+			TransportProfileEntity tp = new TransportProfileEntity();
+			tp.setId(new EmbeddedIdentifier("T-SNAP-TP"));
+			tp = transportProfiles.save(tp);
+			ProcessEntity proc = new ProcessEntity();
+			proc.setId(new EmbeddedProcessIdentifier("T-SNAP-PROC"));
+			proc = processes.save(proc);
+
+			List<EndpointEntity> eps = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				EndpointEntity ep = new EndpointEntity();
+				ep.setName("Endpoint " + i);
+				ep.setTransportProfile(tp);
+				ep.setUrl("http://snapshot.holodeck-smp.org/" + i);
+				ep.setServiceActivationDate(ZonedDateTime.now());
+				ep.addCertificate(new CertificateImpl(cert, "sign"));
+				eps.add(endpoints.save(ep));
+			}
+
+			List<ServiceMetadataTemplateEntity> smts = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				ServiceEntity svc = new ServiceEntity();
+				svc.setId(new EmbeddedIdentifier("T-SNAP-SVC-" + i));
+				svc = services.save(svc);
+				ProcessInfoEntity pi = new ProcessInfoEntity();
+				pi.setProcess(proc);
+				ProcessGroupImpl pg = new ProcessGroupImpl();
+				pg.addProcessInfo(pi);
+				pg.addEndpoint(eps.get(i % eps.size()));
+				ServiceMetadataTemplateEntity smt = new ServiceMetadataTemplateEntity();
+				smt.setName("Template " + i);
+				smt.setService(svc);
+				smt.addProcessGroup(pg);
+				smts.add(templates.save(smt));
+			}
+
+			for (int i = 0; i < PARTICIPANTS; i++) {
+				ParticipantEntity p = new ParticipantEntity();
+				p.setId(new EmbeddedIdentifier(scheme, participantId(i)));
+				p.setName("Participant " + i);
+				p.setFirstRegistrationDate(LocalDate.now());
+				p.addAdditionalId(new IdentifierImpl("GLN-" + i));
+				p.addBinding(smts.get(i % smts.size()));
+				participants.save(p);
+			}
+		});
+	}
+
+	private static String participantId(int i) {
+		return String.format("9998:%08d", i);
+	}
+
+	private long[] countRows() throws SQLException {
+		List<String> tables = new ArrayList<>(SnapshotFormat.TABLES);
+		tables.add(SnapshotFormat.AUDIT_LOG_TABLE);
+		long[] counts = new long[tables.size()];
+		try (Connection c = dataSource.getConnection(); Statement s = c.createStatement()) {
+			for (int i = 0; i < counts.length; i++)
+				try (ResultSet rs = s.executeQuery("select count(*) from " + tables.get(i))) {
+					rs.next();
+					counts[i] = rs.getLong(1);
+				}
+		}
+		return counts;
+	}
+}
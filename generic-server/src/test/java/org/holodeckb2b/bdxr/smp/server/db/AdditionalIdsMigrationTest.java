@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+
+import javax.sql.DataSource;
+
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
+import org.holodeckb2b.bdxr.smp.datamodel.impl.IDSchemeImpl;
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@ContextConfiguration(classes = { CommonServerConfig.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AdditionalIdsMigrationTest {
+
+	@Autowired
+	AdditionalIdsMigration	migration;
+
+	@Autowired
+	ParticipantRepository	repo;
+
+	@Autowired
+	DataSource		dataSource;
+
+	@AfterEach
+	void cleanup() {
+		repo.deleteAll();
+	}
+
+	@Test
+	void testMigrate() throws SQLException {
+		ParticipantEntity p1 = new ParticipantEntity();
+		p1.setId(new EmbeddedIdentifier("PartId-M-1"));
+		p1 = repo.save(p1);
+		ParticipantEntity p2 = new ParticipantEntity();
+		p2.setId(new EmbeddedIdentifier("PartId-M-2"));
+		p2 = repo.save(p2);
+		ParticipantEntity p3 = new ParticipantEntity();
+		p3.setId(new EmbeddedIdentifier("PartId-M-3"));
+		p3 = repo.save(p3);
+
+		final IdentifierImpl addId1 = new IdentifierImpl("0192:123456789", new IDSchemeImpl("iso6523-actorid-upis",
+																							  false));
+		final IdentifierImpl addId2 = new IdentifierImpl("NL-VAT-1234", new IDSchemeImpl("T-IDS-CS", true));
+		final IdentifierImpl addId3 = new IdentifierImpl("GLN-5790000435951");
+		try (Connection c = dataSource.getConnection(); Statement s = c.createStatement()) {
+			s.execute("alter table participant add column additional_ids varchar(1024)");
+			s.executeUpdate("update participant set additional_ids = '"
+							+ ParticipantEntity.convertAdditionalId(addId1) + ","
+							+ ParticipantEntity.convertAdditionalId(addId2) + "' where oid = " + p1.getOid());
+			s.executeUpdate("update participant set additional_ids = '"
+							+ ParticipantEntity.convertAdditionalId(addId3) + ","
+							+ ParticipantEntity.convertAdditionalId(addId1) + "' where oid = " + p2.getOid());
+		}
+
+		migration.migrate();
+
+		try (Connection c = dataSource.getConnection();
+			 ResultSet rs = c.getMetaData().getColumns(null, null, "PARTICIPANT", "ADDITIONAL_IDS")) {
+			assertFalse(rs.next());
+		}
+		assertEquals(2, repo.findById(p1.getOid()).get().getAdditionalIds().size());
+		assertEquals(2, repo.findById(p2.getOid()).get().getAdditionalIds().size());
+		assertTrue(repo.findById(p3.getOid()).get().getAdditionalIds().isEmpty());
+
+		Collection<ParticipantEntity> found = repo.findByAdditionalId(addId1);
+		assertEquals(2, found.size());
+		final Long oid1 = p1.getOid(), oid2 = p2.getOid();
+		assertTrue(found.stream().allMatch(p -> p.getOid().equals(oid1) || p.getOid().equals(oid2)));
+		found = repo.findByAdditionalId(new IdentifierImpl("nl-vat-1234", new IDSchemeImpl("T-IDS-CS", true)));
+		assertTrue(found.isEmpty());
+		found = repo.findByAdditionalId(addId2);
+		assertEquals(1, found.size());
+		assertEquals(p1.getOid(), found.iterator().next().getOid());
+		found = repo.findByAdditionalId(new IdentifierImpl("gln-5790000435951"));
+		assertEquals(1, found.size());
+		assertEquals(p2.getOid(), found.iterator().next().getOid());
+
+		// A second run should not do anything
+		migration.migrate();
+		assertEquals(2, repo.findByAdditionalId(addId1).size());
+	}
+}
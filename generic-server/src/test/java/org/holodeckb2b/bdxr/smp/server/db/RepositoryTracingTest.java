@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+@SpringBootTest(classes = { CommonServerConfig.class, RepositoryTracingTest.CollectingExporter.class },
+				properties = { "management.tracing.sampling.probability=1.0" })
+@AutoConfigureObservability(metrics = false)
+class RepositoryTracingTest {
+
+	@TestConfiguration
+	static class CollectingExporter implements SpanExporter {
+		static final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+		@Bean
+		SpanExporter collectingExporter() {
+			return this;
+		}
+
+		@Override
+		public CompletableResultCode export(Collection<SpanData> s) {
+			spans.addAll(s);
+			return CompletableResultCode.ofSuccess();
+		}
+
+		@Override
+		public CompletableResultCode flush() {
+			return CompletableResultCode.ofSuccess();
+		}
+
+		@Override
+		public CompletableResultCode shutdown() {
+			return CompletableResultCode.ofSuccess();
+		}
+	}
+
+	@Autowired
+	ParticipantRepository	repo;
+
+	@Autowired
+	Tracer	tracer;
+
+	@Autowired
+	SdkTracerProvider	tracerProvider;
+
+	@BeforeEach
+	void clear() {
+		CollectingExporter.spans.clear();
+	}
+
+	@Test
+	void testTraceInSpan() {
+		Span parent = tracer.nextSpan().name("test").start();
+		try (Tracer.SpanInScope inScope = tracer.withSpan(parent)) {
+			repo.count();
+		} finally {
+			parent.end();
+		}
+		tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+		SpanData repoSpan = CollectingExporter.spans.stream()
+									.filter(s -> s.getName().equals("ParticipantRepository.count")).findFirst()
+									.orElseThrow();
+		assertEquals(parent.context().spanId(), repoSpan.getParentSpanId());
+		assertEquals(parent.context().traceId(), repoSpan.getTraceId());
+	}
+
+	@Test
+	void testNoTraceOutsideSpan() {
+		repo.count();
+		tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+		assertTrue(CollectingExporter.spans.isEmpty());
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session.events.auto="
+							+ "org.holodeckb2b.bdxr.smp.server.db.SQLStatementStatistics")
+@ContextConfiguration(classes = { CommonServerConfig.class })
+class SQLStatementStatisticsTest {
+
+	@Autowired
+	ParticipantRepository	repo;
+
+	@Test
+	void testCountStatements() {
+		long count = SQLStatementStatistics.getStatementCount();
+		long nanos = SQLStatementStatistics.getStatementNanos();
+
+		repo.count();
+		repo.findAll();
+
+		assertEquals(count + 2, SQLStatementStatistics.getStatementCount());
+		assertTrue(SQLStatementStatistics.getStatementNanos() > nanos);
+	}
+}
@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.URL;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import org.holodeckb2b.bdxr.common.datamodel.Identifier;
 import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
@@ -195,4 +196,26 @@ class ParticipantEntityTest extends BaseEntityTest<ParticipantEntity> {
 		assertEquals(1, updated.getAdditionalIds().size());
 		assertFalse(found.getAdditionalIds().contains(id2rm));
 	}
-}
\ No newline at end of file
+
+	@Test
+	void testAdditionalIdChangeUpdatesLastModified() throws InterruptedException {
+		ParticipantEntity pe = new ParticipantEntity();
+		pe.setId(new EmbeddedIdentifier("T-PID-1"));
+		pe.addAdditionalId(new IdentifierImpl("ADDID-1"));
+
+		assertDoesNotThrow(() -> save(pe));
+		final LocalDateTime saved = reload(pe).getLastModified();
+
+		Thread.sleep(10);
+		pe.addAdditionalId(new IdentifierImpl("ADDID-2"));
+		em.flush();
+		final LocalDateTime added = reload(pe).getLastModified();
+		assertTrue(added.isAfter(saved));
+
+		Thread.sleep(10);
+		pe.removeAdditionalId(new IdentifierImpl("ADDID-1"));
+		em.flush();
+		assertTrue(reload(pe).getLastModified().isAfter(added));
+		assertEquals(1, pe.getAdditionalIds().size());
+	}
+}
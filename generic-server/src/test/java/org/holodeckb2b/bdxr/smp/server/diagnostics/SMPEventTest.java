@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class SMPEventTest {
+
+	@Test
+	void testRecordEvents() throws Exception {
+		Path dump = Files.createTempFile("smp-event-test", ".jfr");
+		try (Recording r = new Recording()) {
+			r.enable(QueryDispatchEvent.class);
+			r.enable(NetworkCallEvent.class);
+			r.start();
+
+			QueryDispatchEvent qe = new QueryDispatchEvent();
+			qe.begin();
+			qe.responder = "TestResponder";
+			qe.status = 404;
+			qe.complete("0088:123456", "busdox-docid-qns::doc", "participant_not_found");
+
+			NetworkCallEvent ne = new NetworkCallEvent();
+			ne.target = "SML";
+			ne.operation = "createSMP";
+			ne.begin();
+			ne.complete(null, null, "ok");
+
+			r.stop();
+			r.dump(dump);
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+			RecordedEvent q = events.stream().filter(e -> e.getEventType().getName()
+														.equals("org.holodeckb2b.smp.QueryDispatch")).findFirst().get();
+			assertEquals("0088:123456", q.getString("participant"));
+			assertEquals("busdox-docid-qns::doc", q.getString("service"));
+			assertEquals("participant_not_found", q.getString("outcome"));
+			assertEquals("TestResponder", q.getString("responder"));
+			assertEquals(404, q.getInt("status"));
+
+			RecordedEvent n = events.stream().filter(e -> e.getEventType().getName()
+														.equals("org.holodeckb2b.smp.NetworkCall")).findFirst().get();
+			assertNull(n.getString("participant"));
+			assertEquals("SML", n.getString("target"));
+			assertEquals("ok", n.getString("outcome"));
+		} finally {
+			Files.deleteIfExists(dump);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.util.FileSystemUtils;
+
+@SpringBootTest(classes = { AccessLog.class },
+				properties = { "smp.query.accesslog.file=./target/accesslog-test/query-access.log",
+							   "smp.query.accesslog.buffer_size=16",
+							   "smp.query.accesslog.max_file_size=1KB",
+							   "smp.query.accesslog.max_files=2",
+							   "smp.query.accesslog.digest=true" })
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+@TestMethodOrder(OrderAnnotation.class)
+class AccessLogTest {
+
+	private static final Path T_LOG_DIR = Path.of("./target/accesslog-test");
+	private static final Path T_LOG_FILE = T_LOG_DIR.resolve("query-access.log");
+
+	@Autowired
+	private AccessLog	accessLog;
+
+	@BeforeAll
+	static void cleanup() throws IOException {
+		FileSystemUtils.deleteRecursively(T_LOG_DIR);
+	}
+
+	@Test
+	@Order(1)
+	void testWriteRecord() throws IOException {
+		accessLog.log("/bdxr-smp-2/iso6523-actorid-upis::0088:123/services/busdox-docid-qns::urn:doc",
+					  String.class, 200, false, 1234, 1000, 2_000_000, 3000);
+		accessLog.log("/iso6523-actorid-upis::0088:\"456\"", null, 404, true, -1, 1000, 0, 0);
+		assertTrue(accessLog.sync(5000));
+
+		List<String> lines = Files.readAllLines(T_LOG_FILE);
+		assertEquals(2, lines.size());
+		String r1 = lines.get(0);
+		assertTrue(r1.startsWith("{\"timestamp\":\""));
+		assertTrue(r1.contains("\"responder\":\"String\""));
+		assertTrue(r1.contains("\"participant\":\"iso6523-actorid-upis::0088:123\""));
+		assertTrue(r1.contains("\"service\":\"busdox-docid-qns::urn:doc\""));
+		assertTrue(r1.contains("\"status\":200"));
+		assertTrue(r1.contains("\"cacheHit\":false"));
+		assertTrue(r1.contains("\"bytes\":1234"));
+		assertTrue(r1.contains("\"lookupMicros\":1,\"processMicros\":2000,\"serialiseMicros\":3}"));
+		String r2 = lines.get(1);
+		assertTrue(r2.contains("\"responder\":null"));
+		assertTrue(r2.contains("\"participant\":\"iso6523-actorid-upis::0088:\\\"456\\\"\""));
+		assertTrue(r2.contains("\"service\":null"));
+		assertTrue(r2.contains("\"cacheHit\":true"));
+		assertFalse(r2.contains("\"bytes\""));
+	}
+
+	@Test
+	@Order(2)
+	void testRollOver() throws IOException {
+		for (int i = 0; i < 100; i++) {
+			accessLog.log("/iso6523-actorid-upis::0088:" + i, String.class, 200, false, 1234, 1000, 2000, 3000);
+			assertTrue(accessLog.sync(5000));
+		}
+
+		assertTrue(Files.exists(T_LOG_FILE));
+		assertTrue(Files.size(T_LOG_FILE) <= 1024 + 512);
+		assertTrue(Files.exists(T_LOG_DIR.resolve("query-access.log.1")));
+		assertTrue(Files.exists(T_LOG_DIR.resolve("query-access.log.2")));
+		assertFalse(Files.exists(T_LOG_DIR.resolve("query-access.log.3")));
+	}
+
+	@Test
+	@Order(3)
+	void testLogForReplay() throws IOException {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(HttpHeaders.ACCEPT, "application/xml");
+		headers.add(HttpHeaders.USER_AGENT, "test");
+		byte[] content = "<Response/>".getBytes(StandardCharsets.UTF_8);
+		accessLog.log("/iso6523-actorid-upis::0088%3A123", headers, String.class, 200, true, content, content.length,
+					  1000, 0, 0);
+		assertTrue(accessLog.sync(5000));
+
+		List<String> lines = Files.readAllLines(T_LOG_FILE);
+		String r = lines.get(lines.size() - 1);
+		assertTrue(r.contains("\"path\":\"/iso6523-actorid-upis::0088%3A123\""));
+		assertTrue(r.contains("\"participant\":\"iso6523-actorid-upis::0088:123\""));
+		assertTrue(r.contains("\"headers\":{\"Accept\":\"application/xml\"}"));
+		assertTrue(r.contains("\"digest\":\"" + ResponseDigest.calculate(content) + "\""));
+	}
+
+	@Test
+	@Order(4)
+	void testDropWhenFull() {
+		for (int i = 0; i < 10000; i++)
+			accessLog.log("/iso6523-actorid-upis::0088:" + i, String.class, 200, false, 1234, 1000, 2000, 3000);
+		assertTrue(accessLog.sync(5000));
+	}
+
+	@Test
+	@Order(5)
+	void testRollOverOnBytes() throws IOException {
+		String multiByteId = "\u4e2d".repeat(40);
+		for (int i = 0; i < 20; i++) {
+			accessLog.log("/iso6523-actorid-upis::" + multiByteId + i, String.class, 200, false, 1234, 1000, 2000, 3000);
+			assertTrue(accessLog.sync(5000));
+		}
+
+		List<String> lines = Files.readAllLines(T_LOG_FILE, StandardCharsets.UTF_8);
+		long lastLine = lines.get(lines.size() - 1).getBytes(StandardCharsets.UTF_8).length + 1;
+		assertTrue(Files.size(T_LOG_FILE) - lastLine < 1024);
+	}
+
+	@Test
+	@Order(6)
+	void testRollOverFailure() throws IOException {
+		// A non empty directory with the name of the oldest file prevents the roll over
+		Files.deleteIfExists(T_LOG_DIR.resolve("query-access.log.1"));
+		Files.deleteIfExists(T_LOG_DIR.resolve("query-access.log.2"));
+		Files.createDirectories(T_LOG_DIR.resolve("query-access.log.2"));
+		Files.createFile(T_LOG_DIR.resolve("query-access.log.2").resolve("blocker"));
+		final int existing = Files.readAllLines(T_LOG_FILE).size();
+		for (int i = 0; i < 20; i++) {
+			accessLog.log("/iso6523-actorid-upis::0088:" + i, String.class, 200, false, 1234, 1000, 2000, 3000);
+			assertTrue(accessLog.sync(5000));
+		}
+
+		assertEquals(existing + 20, Files.readAllLines(T_LOG_FILE).size());
+		assertFalse(Files.exists(T_LOG_DIR.resolve("query-access.log.1")));
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class QueryMetricsTest {
+
+	private SimpleMeterRegistry	registry;
+	private QueryMetrics		metrics;
+	private SlowQueryLog		slowQueryLog;
+
+	@BeforeEach
+	void setup() {
+		registry = new SimpleMeterRegistry();
+		metrics = new QueryMetrics();
+		metrics.registry = registry;
+		slowQueryLog = mock(SlowQueryLog.class);
+		metrics.slowQueryLog = slowQueryLog;
+	}
+
+	@Test
+	void testRecordStages() {
+		metrics.startRequest("/test");
+		metrics.recordStage(QueryStage.DB_LOOKUP, 1000);
+		metrics.recordStage(QueryStage.DB_LOOKUP, 500);
+		metrics.recordStage(QueryStage.SIGNING, 2000);
+		metrics.completeRequest(String.class, 200, false, 5000, 123);
+
+		Timer total = registry.find("smp.query.requests").tags("responder", "String", "status", "200", "cache", "miss")
+							  .timer();
+		assertNotNull(total);
+		assertEquals(1, total.count());
+		assertEquals(5000, total.totalTime(TimeUnit.NANOSECONDS));
+
+		Timer db = registry.find("smp.query.stage").tags("stage", QueryStage.DB_LOOKUP.getTag()).timer();
+		assertNotNull(db);
+		assertEquals(1500, db.totalTime(TimeUnit.NANOSECONDS));
+		assertNotNull(registry.find("smp.query.stage").tags("stage", QueryStage.SIGNING.getTag()).timer());
+		assertNull(registry.find("smp.query.stage").tags("stage", QueryStage.SERIALISATION.getTag()).timer());
+
+		assertEquals(123, registry.find("smp.query.response.size").summary().totalAmount());
+		assertNull(registry.find("smp.query.errors").counter());
+	}
+
+	@Test
+	void testRecordError() {
+		metrics.startRequest("/test");
+		metrics.recordErrorCause("participant_not_found");
+		metrics.completeRequest(String.class, 404, false, 1000, -1);
+
+		assertEquals(1, registry.find("smp.query.errors").tags("cause", "participant_not_found", "status", "404")
+								.counter().count());
+		assertNull(registry.find("smp.query.response.size").summary());
+	}
+
+	@Test
+	void testIgnoreOutsideRequest() {
+		metrics.recordStage(QueryStage.RESPONSE_BUILD, 1000);
+		metrics.startRequest("/test");
+		metrics.completeRequest(null, 200, true, 100, 10);
+		metrics.recordStage(QueryStage.RESPONSE_BUILD, 1000);
+
+		assertNull(registry.find("smp.query.stage").timer());
+		assertNotNull(registry.find("smp.query.requests").tags("responder", "none", "cache", "hit").timer());
+	}
+
+	@Test
+	void testStreamedRequest() {
+		metrics.startRequest("/test");
+		metrics.recordStage(QueryStage.DB_LOOKUP, 1000);
+		QueryMetrics.RequestMetrics pending = metrics.suspendRequest();
+
+		metrics.recordStage(QueryStage.DB_LOOKUP, 1000);
+		assertNull(registry.find("smp.query.requests").timer());
+
+		metrics.completeStreamedRequest(pending, String.class, 404, 5000, 2000, 50);
+
+		assertEquals(5000, registry.find("smp.query.requests").tags("status", "404").timer()
+									.totalTime(TimeUnit.NANOSECONDS));
+		assertEquals(1000, registry.find("smp.query.stage").tags("stage", QueryStage.DB_LOOKUP.getTag()).timer()
+									.totalTime(TimeUnit.NANOSECONDS));
+		assertEquals(2000, registry.find("smp.query.stage").tags("stage", QueryStage.SERIALISATION.getTag()).timer()
+									.totalTime(TimeUnit.NANOSECONDS));
+		assertEquals(50, registry.find("smp.query.response.size").summary().totalAmount());
+	}
+
+	@Test
+	void testSlowQuery() {
+		when(slowQueryLog.isSlow(anyLong())).thenAnswer(i -> (long) i.getArgument(0) >= 1000);
+
+		metrics.startRequest("/fast");
+		metrics.completeRequest(String.class, 200, false, 999, 10);
+		verify(slowQueryLog, never()).log(any(), any(), anyInt(), anyBoolean(), anyLong(), any(), anyLong(),
+										  anyLong(), anyLong());
+
+		metrics.startRequest("/slow");
+		metrics.recordStage(QueryStage.SIGNING, 800);
+		metrics.completeRequest(String.class, 200, false, 1000, 10);
+		verify(slowQueryLog).log(eq("/slow"), eq("String"), eq(200), eq(false), eq(1000L),
+								 argThat(s -> s[QueryStage.SIGNING.ordinal()] == 800), eq(0L), eq(0L), eq(10L));
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+import org.holodeckb2b.bdxr.smp.server.services.query.IQueryResponder;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryAnalyticsService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest(classes = { QueryAppConfig.class },
+				properties = { "smp.query.cache.snapshot_file=./target/response-cache-test.snapshot",
+							   "smp.query.analytics.max_pending=3",
+							   "smp.query.accesslog.enabled=false" })
+class QueryVolumeCollectorTest {
+
+	@MockitoBean
+	private SMPServerAdminService 	adminService;
+
+	@MockitoBean
+	private MetadataChangeTracker	changeTracker;
+
+	@MockitoBean
+	private QueryStatisticsService	queryStats;
+
+	@MockitoBean
+	private QueryAnalyticsService	analytics;
+
+	@MockitoBean
+	private QueryMapper				queryMapper;
+
+	@Autowired
+	private QueryVolumeCollector	collector;
+
+	@BeforeEach
+	void setup() {
+		collector.flush();
+		reset(analytics);
+		when(queryMapper.getResponderFor(startsWith("/test"))).thenReturn(mock(IQueryResponder.class));
+	}
+
+	@Test
+	void testSplitQueryPath() {
+		assertArrayEquals(new String[] { "iso6523-actorid-upis::0088:123", "" },
+				QueryVolumeCollector.splitQueryPath("/iso6523-actorid-upis::0088:123"));
+		assertArrayEquals(new String[] { "iso6523-actorid-upis::0088:123", "busdox-docid-qns::urn:doc" },
+				QueryVolumeCollector.splitQueryPath("/bdxr-smp-2/iso6523-actorid-upis%3A%3A0088%3A123"
+													+ "/services/busdox-docid-qns%3A%3Aurn%3Adoc"));
+	}
+
+	@Test
+	void testAggregate() throws PersistenceException {
+		collector.registerQuery("/test/P1/services/S1", 200);
+		collector.registerQuery("/test/P1/services/S1", 200);
+		collector.registerQuery("/test/P1/services/S1", 404);
+		collector.registerQuery(null, 501);
+		verify(analytics, never()).addQueryVolumes(any());
+
+		collector.flush();
+
+		Collection<QueryVolume> batch = captureBatch();
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		assertEquals(3, batch.size());
+		String responder = batch.stream().filter(v -> !v.participant().isEmpty()).findFirst().get().responder();
+		assertTrue(responder.startsWith("IQueryResponder"));
+		assertTrue(batch.contains(new QueryVolume(today, "P1", "S1", responder, 200, 2)));
+		assertTrue(batch.contains(new QueryVolume(today, "P1", "S1", responder, 404, 1)));
+		assertTrue(batch.contains(new QueryVolume(today, "", "", "", 501, 1)));
+
+		reset(analytics);
+		collector.flush();
+		verify(analytics, never()).addQueryVolumes(any());
+	}
+
+	@Test
+	void testRetryOnFailure() throws PersistenceException {
+		collector.registerQuery("/test/P1/services/S1", 200);
+		doThrow(new PersistenceException("test")).when(analytics).addQueryVolumes(anyCollection());
+
+		collector.flush();
+
+		reset(analytics);
+		collector.registerQuery("/test/P1/services/S1", 200);
+		collector.flush();
+
+		Collection<QueryVolume> batch = captureBatch();
+		assertEquals(1, batch.size());
+		assertEquals(2, batch.iterator().next().count());
+	}
+
+	@Test
+	void testMaxPending() throws PersistenceException {
+		for (int i = 1; i <= 5; i++)
+			collector.registerQuery("/test/P" + i, 200);
+
+		collector.flush();
+
+		Collection<QueryVolume> batch = captureBatch();
+		assertEquals(4, batch.size());
+		assertTrue(batch.stream().anyMatch(v -> v.participant().isEmpty() && v.count() == 2));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Collection<QueryVolume> captureBatch() throws PersistenceException {
+		ArgumentCaptor<Collection<QueryVolume>> captor = ArgumentCaptor.forClass(Collection.class);
+		verify(analytics, times(1)).addQueryVolumes(captor.capture());
+		return captor.getValue();
+	}
+}
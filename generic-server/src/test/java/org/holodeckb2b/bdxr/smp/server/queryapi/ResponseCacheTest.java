@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.holodeckb2b.bdxr.smp.server.datamodel.SMPServerMetadata;
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
+import org.holodeckb2b.bdxr.smp.server.queryapi.ResponseCache.CachedResponse;
+import org.holodeckb2b.bdxr.smp.server.queryapi.ResponseCache.Revision;
+import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryAnalyticsService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
+import org.holodeckb2b.commons.security.KeystoreUtils;
+import org.holodeckb2b.commons.testing.TestUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@SpringBootTest(classes = { QueryAppConfig.class },
+				properties = { "smp.query.cache.snapshot_file=./target/response-cache-test.snapshot",
+							   "smp.query.accesslog.enabled=false" })
+class ResponseCacheTest {
+
+	@MockitoBean
+	private SMPServerAdminService 	adminService;
+
+	@MockitoBean
+	private MetadataChangeTracker	changeTracker;
+
+	@MockitoBean
+	private QueryAnalyticsService	analytics;
+
+	@MockitoBean
+	private QueryStatisticsService	queryStats;
+
+	@Autowired
+	private ResponseCache	cache;
+
+	private static X509Certificate T_CERT_1;
+	private static X509Certificate T_CERT_2;
+
+	private static long	changes = 0;
+
+	private static final byte[] T_CONTENT = "<Response/>".getBytes(StandardCharsets.UTF_8);
+
+	@BeforeAll
+	static void loadCerts() {
+		try {
+			T_CERT_1 = (X509Certificate) KeystoreUtils.readKeyPairFromPKCS12(TestUtils.getTestResource("testkey1.p12"),
+																			 null).getCertificate();
+			T_CERT_2 = (X509Certificate) KeystoreUtils.readKeyPairFromPKCS12(TestUtils.getTestResource("testkey2.p12"),
+																			 null).getCertificate();
+		} catch (Exception e) {
+			fail(e);
+		}
+	}
+
+	@BeforeEach
+	void setup() {
+		setServerCert(T_CERT_1);
+		when(changeTracker.getContentRevision()).thenReturn("rev-1");
+		registerChange();
+		cache.clear();
+	}
+
+	@Test
+	void testCacheResponse() {
+		Revision r = cache.getCurrentRevision();
+		assertNotNull(r);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Test", "value");
+		cache.put("/test/1", r, HttpStatus.OK, headers, T_CONTENT);
+
+		CachedResponse cached = cache.get("/test/1");
+		assertNotNull(cached);
+		assertEquals(HttpStatus.OK, cached.status());
+		assertEquals("value", cached.headers().getFirst("X-Test"));
+		assertArrayEquals(T_CONTENT, cached.content());
+		assertNull(cache.get("/test/2"));
+	}
+
+	@Test
+	void testInvalidateOnChange() {
+		cache.put("/test/1", cache.getCurrentRevision(), HttpStatus.OK, null, T_CONTENT);
+		assertNotNull(cache.get("/test/1"));
+
+		registerChange();
+		when(changeTracker.getContentRevision()).thenReturn("rev-2");
+
+		assertNull(cache.get("/test/1"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void testIgnoreOutdatedResponse() {
+		Revision r = cache.getCurrentRevision();
+
+		registerChange();
+		cache.put("/test/1", r, HttpStatus.OK, null, T_CONTENT);
+
+		assertNull(cache.get("/test/1"));
+	}
+
+	@Test
+	void testConcurrentRevisionCheck() throws Exception {
+		cache.put("/test/1", cache.getCurrentRevision(), HttpStatus.OK, null, T_CONTENT);
+
+		// Periodic check by another thread, no local changes, so the last known revision can still be used
+		ReflectionTestUtils.setField(cache, "nextRevisionCheck", 0L);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread checker = startBlockingCheck(release);
+		assertNotNull(cache.get("/test/1"));
+		release.countDown();
+		checker.join();
+
+		// Local change being checked by another thread, so the cache must not be used
+		registerChange();
+		release = new CountDownLatch(1);
+		checker = startBlockingCheck(release);
+		assertNull(cache.get("/test/1"));
+		assertNull(cache.getCurrentRevision());
+		release.countDown();
+		checker.join();
+
+		when(changeTracker.getContentRevision()).thenReturn("rev-1");
+	}
+
+	/**
+	 * Starts a thread that checks the cache revision and blocks while retrieving the content revision until the
+	 * given latch is released.
+	 */
+	private Thread startBlockingCheck(CountDownLatch release) throws InterruptedException {
+		CountDownLatch checking = new CountDownLatch(1);
+		when(changeTracker.getContentRevision()).thenAnswer(i -> {
+			checking.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return "rev-1";
+		});
+		Thread checker = new Thread(() -> cache.get("/test/1"));
+		checker.start();
+		checking.await(5, TimeUnit.SECONDS);
+		return checker;
+	}
+
+	@Test
+	void testReloadSnapshot() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Test", "value");
+		cache.put("/test/1", cache.getCurrentRevision(), HttpStatus.OK, headers, T_CONTENT);
+		cache.put("/test/2", cache.getCurrentRevision(), HttpStatus.OK, null, T_CONTENT);
+
+		cache.saveSnapshot();
+		cache.clear();
+		cache.loadSnapshot();
+
+		assertEquals(2, cache.size());
+		CachedResponse cached = cache.get("/test/1");
+		assertNotNull(cached);
+		assertEquals("value", cached.headers().getFirst("X-Test"));
+		assertArrayEquals(T_CONTENT, cached.content());
+		cached = cache.get("/test/2");
+		assertNotNull(cached);
+		assertNull(cached.headers());
+	}
+
+	@Test
+	void testDiscardSnapshotOnRevisionChange() {
+		cache.put("/test/1", cache.getCurrentRevision(), HttpStatus.OK, null, T_CONTENT);
+		cache.saveSnapshot();
+		cache.clear();
+
+		registerChange();
+		when(changeTracker.getContentRevision()).thenReturn("rev-2");
+		cache.loadSnapshot();
+
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void testDiscardSnapshotOnCertChange() {
+		cache.put("/test/1", cache.getCurrentRevision(), HttpStatus.OK, null, T_CONTENT);
+		cache.saveSnapshot();
+		cache.clear();
+
+		registerChange();
+		setServerCert(T_CERT_2);
+		cache.loadSnapshot();
+
+		assertEquals(0, cache.size());
+	}
+
+	private void registerChange() {
+		when(changeTracker.getChangeCount()).thenReturn(++changes);
+	}
+
+	private void setServerCert(X509Certificate cert) {
+		SMPServerMetadata metadata = mock(SMPServerMetadata.class);
+		when(metadata.getCertificate()).thenReturn(cert);
+		when(adminService.getServerMetadata()).thenReturn(metadata);
+	}
+}
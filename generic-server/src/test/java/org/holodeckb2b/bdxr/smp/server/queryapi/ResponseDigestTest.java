@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.queryapi;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ResponseDigestTest {
+
+	@Test
+	void testIgnoreSignature() {
+		String sig1 = "<ds:Signature xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\"><ds:SignatureValue>AAAA"
+					+ "</ds:SignatureValue></ds:Signature>";
+		String sig2 = "<ds:Signature xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\"><ds:SignatureValue>BBBB"
+					+ "</ds:SignatureValue></ds:Signature>";
+		String other = "<Signature xmlns=\"http://www.w3.org/2000/09/xmldsig#\"><SignatureValue>CCCC"
+					+ "</SignatureValue></Signature>";
+
+		String d1 = ResponseDigest.calculate(bytes("<SSM><SM>data</SM>" + sig1 + "</SSM>"));
+		assertEquals(d1, ResponseDigest.calculate(bytes("<SSM><SM>data</SM>" + sig2 + "</SSM>")));
+		assertEquals(d1, ResponseDigest.calculate(bytes("<SSM><SM>data</SM>" + other + "</SSM>")));
+		assertEquals(d1, ResponseDigest.calculate(bytes("<SSM><SM>data</SM></SSM>")));
+		assertNotEquals(d1, ResponseDigest.calculate(bytes("<SSM><SM>changed</SM>" + sig1 + "</SSM>")));
+	}
+
+	@Test
+	void testNoSignature() {
+		assertEquals(ResponseDigest.calculate(bytes("<SG><Ref/></SG>")),
+					 ResponseDigest.calculate(bytes("<SG><Ref/></SG>")));
+		assertNotEquals(ResponseDigest.calculate(bytes("<SG><Ref/></SG>")),
+						ResponseDigest.calculate(bytes("<SG><Ref2/></SG>")));
+		assertNotEquals(ResponseDigest.calculate(bytes("<SignatureInformation>a</SignatureInformation>")),
+						ResponseDigest.calculate(bytes("<SignatureInformation>b</SignatureInformation>")));
+	}
+
+	@Test
+	void testStreamed() {
+		byte[] content = bytes("<SSM><SM>data</SM><ds:Signature xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\">"
+							  + "<ds:SignatureValue>AAAA</ds:SignatureValue></ds:Signature><<Signature>x</SSM>");
+		String expected = ResponseDigest.calculate(content);
+		assertEquals(ResponseDigest.calculate(bytes("<SSM><SM>data</SM><<Signature>x</SSM>")), expected);
+		// The result must not depend on how the content is split over the writes
+		for (int i = 1; i <= content.length; i++) {
+			final int chunk = i;
+			assertEquals(expected, assertDoesNotThrow(() -> streamed(content, chunk)));
+		}
+	}
+
+	@Test
+	void testUnterminatedSignature() {
+		assertNotEquals(ResponseDigest.calculate(bytes("<SSM>")),
+						ResponseDigest.calculate(bytes("<SSM><ds:Signature>AAAA")));
+		assertNotEquals(ResponseDigest.calculate(bytes("<SSM>")), ResponseDigest.calculate(bytes("<SSM><ds:Sig")));
+	}
+
+	@Test
+	void testEmpty() {
+		assertNull(ResponseDigest.calculate(null));
+		assertNull(ResponseDigest.calculate(new byte[0]));
+	}
+
+	private static String streamed(byte[] content, int chunk) throws IOException {
+		try (ResponseDigest.DigestingStream s = new ResponseDigest.DigestingStream()) {
+			for (int off = 0; off < content.length; off += chunk)
+				if (chunk == 1)
+					s.write(content[off]);
+				else
+					s.write(content, off, Math.min(chunk, content.length - off));
+			return s.getDigest();
+		}
+	}
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+}
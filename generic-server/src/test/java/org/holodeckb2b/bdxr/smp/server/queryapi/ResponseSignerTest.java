@@ -33,7 +33,10 @@ import javax.xml.crypto.dsig.XMLSignatureFactory;
 import javax.xml.crypto.dsig.dom.DOMValidateContext;
 import javax.xml.parsers.DocumentBuilderFactory;
 
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
 import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryAnalyticsService;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
 import org.holodeckb2b.commons.security.KeystoreUtils;
 import org.holodeckb2b.commons.testing.TestUtils;
 import org.junit.jupiter.api.BeforeAll;
@@ -46,11 +49,20 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 
-@SpringBootTest(classes = { QueryAppConfig.class })
+@SpringBootTest(classes = { QueryAppConfig.class }, properties = { "smp.query.accesslog.enabled=false" })
 class ResponseSignerTest {
 
 	@MockitoBean
 	private SMPServerAdminService 		adminService;
+
+	@MockitoBean
+	private MetadataChangeTracker		changeTracker;
+
+	@MockitoBean
+	private QueryAnalyticsService		analytics;
+
+	@MockitoBean
+	private QueryStatisticsService		queryStats;
 	
 	@Autowired
 	private ResponseSigner 	signer;
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceMetadataTemplateRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJob;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJobService.Operation;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantSelection;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest(classes = { CommonServerConfig.class },
+				properties = { "smp.bulk.chunk_size=3", "smp.bulk.workers=2", "smp.bulk.rate_limit=1000",
+							   "smp.bulk.retry_delay=10" })
+class BulkJobServiceImplTest {
+
+	@MockitoBean
+	private AuditLogService 		auditService;
+
+	@Autowired
+	private ParticipantRepository	participants;
+
+	@Autowired
+	private ServiceRepository		services;
+
+	@Autowired
+	private ServiceMetadataTemplateRepository smtRepo;
+
+	@Autowired
+	private IDSchemeRepository		idschemes;
+
+	@Autowired
+	private TestSMLIntegrator 		smlIntegrator;
+
+	@Autowired
+	private TestDirectoryIntegrator dirIntegrator;
+
+	@Autowired
+	private BulkJobServiceImpl		jobService;
+
+	private static final TestUser T_USER = new TestUser();
+
+	private IDSchemeEntity	ids;
+
+	@BeforeEach
+	void setup() {
+		reset(auditService);
+		participants.deleteAll();
+		smtRepo.deleteAll();
+		services.deleteAll();
+		idschemes.deleteAll();
+		smlIntegrator.reset();
+		dirIntegrator.reset();
+		ids = idschemes.save(new IDSchemeEntity("TestIDScheme", false));
+	}
+
+	@Test
+	void testRegisterPendingInSML() {
+		List<ParticipantEntity> saved = createParticipants(10, null);
+		// The first two Participants are already registered
+		for (int i = 0; i < 2; i++) {
+			saved.get(i).setRegisteredInSML(true);
+			smlIntegrator.participants.add(saved.get(i).getId());
+		}
+		participants.saveAll(saved.subList(0, 2));
+		// The third Participant is registered by "another SMP"
+		smlIntegrator.participants.add(saved.get(2).getId());
+
+		BulkJob job = runJob(Operation.REGISTER_IN_SML, ParticipantSelection.pending());
+
+		assertEquals(BulkJob.State.COMPLETED, job.getState());
+		assertEquals(8, job.getTotal());
+		assertEquals(7, job.getSucceeded());
+		assertEquals(1, job.getFailed());
+		assertEquals(saved.get(2).getId(), job.getFailures().get(0).participantId());
+		assertEquals(10, smlIntegrator.participants.size());
+		assertFalse(participants.findById(saved.get(2).getOid()).get().isRegisteredInSML());
+		for (int i = 3; i < 10; i++)
+			assertTrue(participants.findById(saved.get(i).getOid()).get().isRegisteredInSML());
+		assertAudited(job, "7 succeeded and 1 failed of 8");
+	}
+
+	@Test
+	void testRetryTemporaryFailure() {
+		List<ParticipantEntity> saved = createParticipants(3, null);
+		List<EmbeddedIdentifier> selected = new ArrayList<>(saved.stream().map(ParticipantEntity::getId).toList());
+		selected.add(new EmbeddedIdentifier(ids, "9999:unknown"));
+
+		smlIntegrator.rejectNextWith(new SMLException("Connection error", new IOException("Connection reset")));
+
+		BulkJob job = runJob(Operation.REGISTER_IN_SML, ParticipantSelection.of(selected));
+
+		assertEquals(BulkJob.State.COMPLETED, job.getState());
+		assertEquals(4, job.getTotal());
+		assertEquals(3, job.getSucceeded());
+		assertEquals(1, job.getFailed());
+		assertEquals("Unknown Participant", job.getFailures().get(0).reason());
+		assertEquals(3, smlIntegrator.participants.size());
+		assertAudited(job, "3 succeeded and 1 failed of 4");
+	}
+
+	@Test
+	void testUnexpectedChunkFailure() {
+		List<ParticipantEntity> saved = createParticipants(3, null);
+		// The first Participant is already registered and counted as succeeded before the chunk fails
+		saved.get(0).setRegisteredInSML(true);
+		participants.save(saved.get(0));
+		smlIntegrator.participants.add(saved.get(0).getId());
+
+		smlIntegrator.failNextWith(new IllegalStateException("Unexpected error"));
+
+		BulkJob job = runJob(Operation.REGISTER_IN_SML,
+							 ParticipantSelection.of(saved.stream().map(ParticipantEntity::getId).toList()));
+
+		assertEquals(BulkJob.State.COMPLETED, job.getState());
+		assertEquals(3, job.getTotal());
+		assertEquals(1, job.getSucceeded());
+		assertEquals(2, job.getFailed());
+		assertFalse(job.getFailures().stream().anyMatch(f -> f.participantId().equals(saved.get(0).getId())));
+		assertAudited(job, "1 succeeded and 2 failed of 3");
+	}
+
+	@Test
+	void testPublishBoundToSMT() {
+		ServiceEntity svc = new ServiceEntity();
+		svc.setId(new EmbeddedIdentifier("SvcId-T-1"));
+		svc = services.save(svc);
+		ServiceMetadataTemplateEntity smt = new ServiceMetadataTemplateEntity();
+		smt.setService(svc);
+		final ServiceMetadataTemplateEntity storedSMT = smtRepo.save(smt);
+		createParticipants(4, null);
+		List<ParticipantEntity> bound = createParticipants(5, storedSMT);
+
+		BulkJob job = runJob(Operation.PUBLISH_IN_DIRECTORY, ParticipantSelection.boundTo(storedSMT));
+
+		assertEquals(BulkJob.State.COMPLETED, job.getState());
+		assertEquals(5, job.getTotal());
+		assertEquals(5, job.getSucceeded());
+		assertEquals(0, job.getFailed());
+		assertEquals(5, dirIntegrator.publications.size());
+		bound.forEach(p -> assertTrue(participants.findById(p.getOid()).get().isPublishedInDirectory()));
+		assertAudited(job, "5 succeeded and 0 failed of 5");
+	}
+
+	private List<ParticipantEntity> createParticipants(int n, ServiceMetadataTemplateEntity smt) {
+		List<ParticipantEntity> saved = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			ParticipantEntity p = new ParticipantEntity();
+			p.setId(new EmbeddedIdentifier(ids, "9999:" + (smt != null ? "bound" : "test") + i));
+			p.setName("Test Participant " + i);
+			if (smt != null)
+				p.addBinding(smt);
+			saved.add(participants.save(p));
+		}
+		return saved;
+	}
+
+	private void assertAudited(BulkJob job, String result) {
+		ArgumentCaptor<AuditLogRecord> captor = ArgumentCaptor.forClass(AuditLogRecord.class);
+		verify(auditService).log(captor.capture());
+		assertEquals(T_USER.getUsername(), captor.getValue().username());
+		assertTrue(captor.getValue().details().contains(job.getId()));
+		assertTrue(captor.getValue().details().contains(result));
+	}
+
+	private BulkJob runJob(Operation op, ParticipantSelection selection) {
+		BulkJob job = assertDoesNotThrow(() -> jobService.submit(T_USER, op, selection));
+		assertNotNull(jobService.getJob(job.getId()));
+		for (int i = 0; i < 200 && job.getFinished() == null; i++)
+			assertDoesNotThrow(() -> Thread.sleep(50));
+		if (job.getFinished() == null)
+			fail("Job did not finish in time");
+		return job;
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedContact;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceMetadataTemplateRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.MetadataExportService.ParticipantBindings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(classes = { CommonServerConfig.class }, properties = { "smp.export.fetch_size=2" })
+class MetadataExportServiceImplTest {
+
+	@Autowired
+	private ParticipantRepository	participants;
+
+	@Autowired
+	private ServiceRepository		services;
+
+	@Autowired
+	private ServiceMetadataTemplateRepository smtRepo;
+
+	@Autowired
+	private IDSchemeRepository		idschemes;
+
+	@Autowired
+	private MetadataExportServiceImpl exportService;
+
+	private IDSchemeEntity	ids;
+	private ServiceMetadataTemplateEntity smt1, smt2;
+
+	@BeforeEach
+	void setup() throws Exception {
+		cleanup();
+		ids = idschemes.save(new IDSchemeEntity("TestIDScheme", false));
+
+		ServiceEntity svc = new ServiceEntity();
+		svc.setId(new EmbeddedIdentifier("SvcId-T-1"));
+		svc = services.save(svc);
+		smt1 = new ServiceMetadataTemplateEntity();
+		smt1.setService(svc);
+		smt1.setName("Template 1");
+		smt1 = smtRepo.save(smt1);
+		smt2 = new ServiceMetadataTemplateEntity();
+		smt2.setService(svc);
+		smt2.setName("Template 2");
+		smt2 = smtRepo.save(smt2);
+
+		ParticipantEntity p1 = new ParticipantEntity();
+		p1.setId(new EmbeddedIdentifier(ids, "9999:export1"));
+		p1.setName("Participant 1");
+		p1.setRegistrationCountry("NL");
+		p1.setFirstRegistrationDate(LocalDate.of(2025, 5, 1));
+		p1.addWebsite(new URL("https://www.holodeck-b2b.org"));
+		p1.addContactInfo(new EmbeddedContact("Contact", null, null, "info@holodeck-b2b.org", null));
+		p1.addAdditionalId(new IdentifierImpl("12345678", "KVK"));
+		p1.setRegisteredInSML(true);
+		p1.addBinding(smt1);
+		p1.addBinding(smt2);
+		participants.save(p1);
+
+		ParticipantEntity p2 = new ParticipantEntity();
+		p2.setId(new EmbeddedIdentifier(ids, "9999:export2"));
+		participants.save(p2);
+
+		ParticipantEntity p3 = new ParticipantEntity();
+		p3.setId(new EmbeddedIdentifier("export3"));
+		p3.addBinding(smt2);
+		participants.save(p3);
+	}
+
+	@AfterEach
+	void cleanup() {
+		participants.deleteAll();
+		smtRepo.deleteAll();
+		services.deleteAll();
+		idschemes.deleteAll();
+	}
+
+	@Test
+	void testExportParticipants() {
+		List<Participant> exported = new ArrayList<>();
+
+		assertEquals(3, assertDoesNotThrow(() -> exportService.exportParticipants(exported::add)));
+
+		assertEquals(3, exported.size());
+		Participant p1 = exported.get(0);
+		assertEquals(new EmbeddedIdentifier(ids, "9999:export1"), p1.getId());
+		assertEquals("Participant 1", p1.getName());
+		assertEquals("NL", p1.getRegistrationCountry());
+		assertEquals(LocalDate.of(2025, 5, 1), p1.getFirstRegistrationDate());
+		assertEquals("https://www.holodeck-b2b.org", p1.getWebsites().iterator().next().toString());
+		assertEquals("info@holodeck-b2b.org", p1.getContactInfo().iterator().next().getEmailAddress());
+		assertEquals(1, p1.getAdditionalIds().size());
+		assertEquals("12345678", p1.getAdditionalIds().iterator().next().getValue());
+		assertTrue(p1.isRegisteredInSML());
+		assertTrue(exported.get(1).getContactInfo().isEmpty());
+		assertEquals(new EmbeddedIdentifier("export3"), exported.get(2).getId());
+	}
+
+	@Test
+	void testExportBindings() {
+		List<ParticipantBindings> exported = new ArrayList<>();
+
+		assertEquals(2, assertDoesNotThrow(() -> exportService.exportBindings(exported::add)));
+
+		assertEquals(new EmbeddedIdentifier(ids, "9999:export1"), exported.get(0).participantId());
+		assertEquals(List.of(smt1.getOid(), smt2.getOid()), exported.get(0).templateIds());
+		assertEquals(new EmbeddedIdentifier("export3"), exported.get(1).participantId());
+		assertEquals(List.of(smt2.getOid()), exported.get(1).templateIds());
+	}
+
+	@Test
+	void testExportTemplates() {
+		List<String> exported = new ArrayList<>();
+
+		assertEquals(2, assertDoesNotThrow(() -> exportService.exportTemplates(
+																	(ServiceMetadataTemplate t) -> {
+																		// The template must be fully loaded
+																		t.getProcessMetadata().size();
+																		exported.add(t.getName());
+																	})));
+
+		assertEquals(List.of("Template 1", "Template 2"), exported);
+	}
+
+	@Test
+	void testAbortOnHandlerFailure() {
+		final int[] handled = { 0 };
+
+		assertThrows(IOException.class, () -> exportService.exportParticipants(p -> {
+			if (++handled[0] == 2)
+				throw new IOException("Connection closed");
+		}));
+		assertEquals(2, handled[0]);
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.Operation;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.State;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.NetworkUpdateRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.AopTestUtils;
+
+@SpringBootTest(classes = { CommonServerConfig.class },
+				properties = { "smp.network.outbox.enabled=true", "smp.network.outbox.interval=3600000",
+							   "smp.network.outbox.retry_delay=0", "smp.network.outbox.max_attempts=3",
+							   "smp.network.outbox.coalesce_window=0" })
+class NetworkUpdateOutboxTest {
+
+	@MockitoBean
+	private AuditLogService 		auditService;
+
+	@Autowired
+	private ParticipantRepository	participants;
+
+	@Autowired
+	private IDSchemeRepository		idschemes;
+
+	@Autowired
+	private NetworkUpdateRepository	updates;
+
+	@Autowired
+	private TestSMLIntegrator 		smlIntegrator;
+
+	@Autowired
+	private TestDirectoryIntegrator dirIntegrator;
+
+	@Autowired
+	private ParticipantsServiceImpl	partMgmtService;
+
+	@Autowired
+	private NetworkUpdateOutbox		outbox;
+
+	private static final TestUser T_USER = new TestUser();
+
+	private ParticipantEntity	saved;
+
+	@BeforeEach
+	void setup() {
+		reset(auditService);
+		updates.deleteAll();
+		participants.deleteAll();
+		idschemes.deleteAll();
+		smlIntegrator.reset();
+		dirIntegrator.reset();
+		IDSchemeEntity ids = idschemes.save(new IDSchemeEntity("TestIDScheme", false));
+		ParticipantEntity p = new ParticipantEntity();
+		p.setId(new EmbeddedIdentifier(ids, "9999:test1"));
+		p.setName("Test Participant");
+		saved = participants.save(p);
+	}
+
+	@Test
+	void testQueuedUntilDispatched() {
+		assertTrue(assertDoesNotThrow(() -> partMgmtService.registerInSML(T_USER, saved)).isRegisteredInSML());
+		assertTrue(assertDoesNotThrow(() -> partMgmtService.publishInDirectory(T_USER, saved))
+																						.isPublishedInDirectory());
+
+		assertTrue(smlIntegrator.participants.isEmpty());
+		assertTrue(dirIntegrator.publications.isEmpty());
+		List<NetworkUpdateEntity> queued = outbox.getUpdates(saved);
+		assertEquals(2, queued.size());
+		assertEquals(Operation.REGISTER_IN_SML, queued.get(0).getOperation());
+		assertEquals(Operation.PUBLISH_IN_DIRECTORY, queued.get(1).getOperation());
+		assertTrue(queued.stream().allMatch(u -> u.getState() == State.PENDING));
+
+		outbox.dispatch();
+
+		assertTrue(smlIntegrator.participants.contains(saved.getId()));
+		assertTrue(dirIntegrator.publications.contains(saved.getId()));
+		assertTrue(outbox.getUpdates(saved).stream().allMatch(u -> u.getState() == State.DELIVERED));
+	}
+
+	@Test
+	void testRetryInOrder() {
+		ParticipantEntity registered = (ParticipantEntity) assertDoesNotThrow(
+															() -> partMgmtService.registerInSML(T_USER, saved));
+		assertDoesNotThrow(() -> partMgmtService.removeFromSML(T_USER, registered));
+
+		smlIntegrator.rejectNextWith(new SMLException("Connection error", new IOException("Connection reset")));
+
+		outbox.dispatch();
+
+		assertTrue(smlIntegrator.participants.isEmpty());
+		List<NetworkUpdateEntity> executed = outbox.getUpdates(saved);
+		assertEquals(State.DELIVERED, executed.get(0).getState());
+		assertEquals(2, executed.get(0).getAttempts());
+		assertEquals(State.DELIVERED, executed.get(1).getState());
+		assertEquals(1, executed.get(1).getAttempts());
+		assertFalse(participants.findById(saved.getOid()).get().isRegisteredInSML());
+	}
+
+	@Test
+	void testPermanentFailure() {
+		ParticipantEntity registered = (ParticipantEntity) assertDoesNotThrow(
+															() -> partMgmtService.registerInSML(T_USER, saved));
+		assertDoesNotThrow(() -> partMgmtService.removeFromSML(T_USER, registered));
+		reset(auditService);
+
+		smlIntegrator.rejectNextWith(new SMLException("Already registered"));
+
+		outbox.dispatch();
+
+		List<NetworkUpdateEntity> failed = outbox.getUpdates(saved);
+		assertEquals(State.FAILED, failed.get(0).getState());
+		assertEquals("Already registered", failed.get(0).getLastError());
+		assertEquals(State.FAILED, failed.get(1).getState());
+		assertEquals(0, failed.get(1).getAttempts());
+		assertFalse(participants.findById(saved.getOid()).get().isRegisteredInSML());
+
+		ArgumentCaptor<AuditLogRecord> captor = ArgumentCaptor.forClass(AuditLogRecord.class);
+		verify(auditService).log(captor.capture());
+		assertEquals("Failed REGISTER_IN_SML", captor.getValue().action());
+		assertEquals(saved.getAuditLogId(), captor.getValue().subject());
+	}
+
+	@Test
+	void testDeletedParticipant() {
+		assertDoesNotThrow(() -> partMgmtService.registerInSML(T_USER, saved));
+		outbox.dispatch();
+		assertTrue(smlIntegrator.participants.contains(saved.getId()));
+
+		assertDoesNotThrow(() -> partMgmtService.deleteParticipant(T_USER,
+																	participants.findById(saved.getOid()).get()));
+		assertFalse(participants.existsById(saved.getOid()));
+		assertTrue(smlIntegrator.participants.contains(saved.getId()));
+
+		outbox.dispatch();
+
+		assertTrue(smlIntegrator.participants.isEmpty());
+		List<NetworkUpdateEntity> executed = outbox.getUpdates(saved);
+		assertEquals(Operation.REMOVE_FROM_SML, executed.get(1).getOperation());
+		assertEquals(State.DELIVERED, executed.get(1).getState());
+	}
+
+	@Test
+	void testCoalesceDirectoryUpdates() {
+		final NetworkUpdateOutbox target = AopTestUtils.getTargetObject(outbox);
+		target.coalesceWindow = 60000;
+		try {
+			assertDoesNotThrow(() -> partMgmtService.publishInDirectory(T_USER, saved));
+			for (int i = 1; i <= 3; i++) {
+				ParticipantEntity current = participants.findById(saved.getOid()).get();
+				current.setName("New name " + i);
+				assertDoesNotThrow(() -> partMgmtService.updateParticipant(T_USER, current));
+			}
+			assertDoesNotThrow(() -> partMgmtService.registerInSML(T_USER, saved));
+			assertDoesNotThrow(() -> partMgmtService.updateParticipant(T_USER,
+															participants.findById(saved.getOid()).get()));
+
+			List<NetworkUpdateEntity> queued = outbox.getUpdates(saved);
+			assertEquals(3, queued.size());
+			assertEquals(Operation.PUBLISH_IN_DIRECTORY, queued.get(0).getOperation());
+			assertEquals(Operation.REGISTER_IN_SML, queued.get(1).getOperation());
+			assertEquals(Operation.UPDATE_IN_DIRECTORY, queued.get(2).getOperation());
+
+			outbox.dispatch();
+			assertTrue(dirIntegrator.publications.isEmpty());
+			assertTrue(smlIntegrator.participants.isEmpty());
+
+			queued.forEach(u -> u.setNextAttempt(Instant.now()));
+			updates.saveAll(queued);
+			outbox.dispatch();
+
+			assertEquals(2, dirIntegrator.publications.size());
+			assertTrue(smlIntegrator.participants.contains(saved.getId()));
+			assertTrue(outbox.getUpdates(saved).stream().allMatch(u -> u.getState() == State.DELIVERED));
+		} finally {
+			target.coalesceWindow = 0;
+		}
+	}
+
+	@Test
+	void testClaimedByOtherInstance() {
+		assertDoesNotThrow(() -> partMgmtService.registerInSML(T_USER, saved));
+		NetworkUpdateEntity u = outbox.getUpdates(saved).get(0);
+		assertEquals(1, updates.claim(u.getOid(), u.getVersion(), State.PENDING, Instant.now().plusSeconds(60)));
+		assertEquals(0, updates.claim(u.getOid(), u.getVersion(), State.PENDING, Instant.now().plusSeconds(60)));
+
+		outbox.dispatch();
+
+		assertTrue(smlIntegrator.participants.isEmpty());
+		u = outbox.getUpdates(saved).get(0);
+		assertEquals(State.PENDING, u.getState());
+		assertEquals(1, u.getAttempts());
+
+		// The other instance did not complete the execution, so the update is taken over when the claim expires
+		u.setNextAttempt(Instant.now());
+		updates.save(u);
+		outbox.dispatch();
+
+		assertTrue(smlIntegrator.participants.contains(saved.getId()));
+		u = outbox.getUpdates(saved).get(0);
+		assertEquals(State.DELIVERED, u.getState());
+		assertEquals(2, u.getAttempts());
+	}
+}
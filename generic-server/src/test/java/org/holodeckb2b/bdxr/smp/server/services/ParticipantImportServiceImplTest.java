@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ServiceMetadataTemplateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceMetadataTemplateRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.ImportRecord;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.ImportResult;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.Outcome;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.RowResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest(classes = { CommonServerConfig.class }, properties = { "smp.import.chunk_size=2" })
+class ParticipantImportServiceImplTest {
+
+	@MockitoBean
+	private AuditLogService 		auditService;
+
+	@Autowired
+	private ParticipantRepository	participants;
+
+	@Autowired
+	private ServiceRepository		services;
+
+	@Autowired
+	private ServiceMetadataTemplateRepository smtRepo;
+
+	@Autowired
+	private IDSchemeRepository		idschemes;
+
+	@Autowired
+	private ParticipantImportServiceImpl importService;
+
+	private static final TestUser T_USER = new TestUser();
+
+	private IDSchemeEntity	ids;
+
+	@BeforeEach
+	void setup() {
+		reset(auditService);
+		participants.deleteAll();
+		smtRepo.deleteAll();
+		services.deleteAll();
+		idschemes.deleteAll();
+		ids = idschemes.save(new IDSchemeEntity("TestIDScheme", false));
+	}
+
+	@Test
+	void testImport() {
+		ServiceEntity svc = new ServiceEntity();
+		svc.setId(new EmbeddedIdentifier("SvcId-T-1"));
+		svc = services.save(svc);
+		ServiceMetadataTemplateEntity smt = new ServiceMetadataTemplateEntity();
+		smt.setService(svc);
+		final ServiceMetadataTemplateEntity storedSMT = smtRepo.save(smt);
+
+		ParticipantEntity existing = new ParticipantEntity();
+		existing.setId(new EmbeddedIdentifier(ids, "9999:existing"));
+		participants.save(existing);
+
+		ParticipantEntity invalidCountry = createParticipant("9999:invalid");
+		invalidCountry.setRegistrationCountry("NLD");
+
+		List<ImportRecord> records = List.of(
+				ImportRecord.of(1, "p1", createParticipant("9999:new1"), List.of(storedSMT.getOid())),
+				ImportRecord.of(2, "p2", createParticipant("9999:EXISTING"), null),
+				ImportRecord.of(3, "p3", createParticipant("9999:new2"), null),
+				ImportRecord.of(4, "p4", createParticipant("9999:NEW1"), null),
+				ImportRecord.of(5, "p5", invalidCountry, null),
+				ImportRecord.of(6, "p6", createParticipant("9999:new3"), List.of(storedSMT.getOid() + 1)),
+				ImportRecord.invalid(7, "p7", "Unknown ID Scheme"));
+
+		List<List<? extends Participant>> chunks = new ArrayList<>();
+		ImportResult result = assertDoesNotThrow(() -> importService.importParticipants(T_USER, records.iterator(),
+																						chunks::add));
+
+		assertNull(result.abortReason());
+		assertEquals(7, result.rows().size());
+		for (int i = 0; i < 7; i++)
+			assertEquals(i + 1, result.rows().get(i).row());
+		List<Outcome> expected = List.of(Outcome.IMPORTED, Outcome.DUPLICATE, Outcome.IMPORTED, Outcome.DUPLICATE,
+										 Outcome.REJECTED, Outcome.REJECTED, Outcome.REJECTED);
+		assertEquals(expected, result.rows().stream().map(RowResult::outcome).toList());
+		assertEquals(2, result.count(Outcome.IMPORTED));
+		// The duplicate in the second chunk of the Participant imported in the first chunk is found in the database
+		assertEquals(2, chunks.size());
+		assertEquals(new EmbeddedIdentifier(ids, "9999:new1"), chunks.get(0).get(0).getId());
+		assertEquals(new EmbeddedIdentifier(ids, "9999:new2"), chunks.get(1).get(0).getId());
+
+		assertEquals(3, participants.count());
+		ParticipantEntity imported = participants.findByIdentifier(new EmbeddedIdentifier(ids, "9999:new1"));
+		assertNotNull(imported);
+		assertEquals("Participant 9999:new1", imported.getName());
+		assertEquals("NL", imported.getRegistrationCountry());
+		assertEquals(1, imported.getBoundSMT().size());
+		assertEquals(storedSMT.getOid(), ((ServiceMetadataTemplateEntity) imported.getBoundSMT().iterator().next())
+																										.getOid());
+		// Only the first two chunks contain an imported Participant
+		verify(auditService, times(2)).log(any());
+	}
+
+	@Test
+	void testAbortOnReadFailure() {
+		Iterator<ImportRecord> failing = new Iterator<>() {
+			int row = 0;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public ImportRecord next() {
+				if (++row > 3)
+					throw new IllegalStateException("Malformed record at row " + row);
+				return ImportRecord.of(row, "p" + row, createParticipant("9999:new" + row), null);
+			}
+		};
+
+		ImportResult result = assertDoesNotThrow(() -> importService.importParticipants(T_USER, failing, null));
+
+		assertEquals("Malformed record at row 4", result.abortReason());
+		assertEquals(3, result.rows().size());
+		assertTrue(result.rows().stream().allMatch(r -> r.outcome() == Outcome.IMPORTED));
+		assertEquals(3, participants.count());
+	}
+
+	@Test
+	void testDuplicatesWithinImport() {
+		List<ImportRecord> records = List.of(
+				ImportRecord.of(1, "p1", createParticipant("9999:dup"), null),
+				ImportRecord.of(2, "p2", createParticipant("9999:DUP"), null),
+				ImportRecord.of(3, "p3", createParticipant("9999:dup"), null));
+
+		ImportResult result = assertDoesNotThrow(() -> importService.importParticipants(T_USER, records.iterator(),
+																						null));
+
+		assertEquals(List.of(Outcome.IMPORTED, Outcome.DUPLICATE, Outcome.DUPLICATE),
+					 result.rows().stream().map(RowResult::outcome).toList());
+		assertEquals(1, participants.count());
+	}
+
+	private ParticipantEntity createParticipant(String id) {
+		ParticipantEntity p = new ParticipantEntity();
+		p.setId(new EmbeddedIdentifier(ids, id));
+		p.setName("Participant " + id);
+		p.setRegistrationCountry("NL");
+		p.setFirstRegistrationDate(LocalDate.now());
+		return p;
+	}
+}
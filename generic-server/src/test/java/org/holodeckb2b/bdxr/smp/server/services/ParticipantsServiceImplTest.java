@@ -34,15 +34,19 @@ import static org.mockito.Mockito.when;
 
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
 import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
 import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Contact;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.db.MetadataChangeTracker;
 import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
 import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
 import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
@@ -52,17 +56,22 @@ import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
 import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
 import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceMetadataTemplateRepository;
 import org.holodeckb2b.bdxr.smp.server.db.repos.ServiceRepository;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkBindingResult;
 import org.holodeckb2b.bdxr.smp.server.services.core.ConstraintViolationException;
 import org.holodeckb2b.bdxr.smp.server.services.core.ConstraintViolationException.ViolationType;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantSelection;
 import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult;
 import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
 import org.holodeckb2b.commons.util.Utils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.AopTestUtils;
 
 @SpringBootTest(classes = { CommonServerConfig.class })
 class ParticipantsServiceImplTest {
@@ -90,6 +99,9 @@ class ParticipantsServiceImplTest {
 	
 	@Autowired
 	private ParticipantsServiceImpl partMgmtService;
+
+	@Autowired
+	private MetadataChangeTracker	changeTracker;
 		
 	private static final TestUser T_USER = new TestUser();
 	
@@ -103,6 +115,14 @@ class ParticipantsServiceImplTest {
 		smlIntegrator.reset();
 		dirIntegrator.reset();
 	}
+
+	@AfterEach
+	void cleanup() {
+		participants.deleteAll();
+		smtRepo.deleteAll();
+		services.deleteAll();
+		idschemes.deleteAll();
+	}
 		
 	@Test
 	void testAddParticipant() {
@@ -414,6 +434,52 @@ class ParticipantsServiceImplTest {
 		verify(auditService, never()).log(any(AuditLogRecord.class));			
 	}
 	
+	@Test
+	void testBulkSMLRegistration() {
+		IDSchemeEntity ids1 = idschemes.save(new IDSchemeEntity("TestIDScheme", false));
+		List<Participant> saved = new ArrayList<>();
+		for (int i = 1; i <= 3; i++) {
+			Participant p = mock(Participant.class);
+			when(p.getId()).thenReturn(new EmbeddedIdentifier(ids1, "9999:test" + i));
+			when(p.getName()).thenReturn("Test Participant " + i);
+			saved.add(assertDoesNotThrow(() -> partMgmtService.addParticipant(T_USER, p)));
+		}
+		// Registration of the second Participant should fail as it is already registered by "another SMP"
+		smlIntegrator.participants.add(saved.get(1).getId());
+
+		reset(auditService);
+
+		SMLBatchResult<? extends Participant> registered = assertDoesNotThrow(() ->
+																		partMgmtService.registerInSML(T_USER, saved));
+
+		assertEquals(2, registered.completed().size());
+		assertTrue(registered.completed().stream().allMatch(Participant::isRegisteredInSML));
+		assertEquals(1, registered.failed().size());
+		assertEquals(saved.get(1).getId(), registered.failed().get(0).participant().getId());
+		assertNotNull(registered.failed().get(0).error());
+
+		assertTrue(participants.findById(((ParticipantEntity) saved.get(0)).getOid()).get().isRegisteredInSML());
+		assertFalse(participants.findById(((ParticipantEntity) saved.get(1)).getOid()).get().isRegisteredInSML());
+		assertTrue(participants.findById(((ParticipantEntity) saved.get(2)).getOid()).get().isRegisteredInSML());
+
+		ArgumentCaptor<AuditLogRecord> captor = ArgumentCaptor.forClass(AuditLogRecord.class);
+		verify(auditService, times(2)).log(captor.capture());
+		assertTrue(captor.getAllValues().stream().allMatch(ar -> "Register in SML".equals(ar.action())));
+
+		smlIntegrator.participants.remove(saved.get(1).getId());
+		reset(auditService);
+
+		SMLBatchResult<? extends Participant> removed = assertDoesNotThrow(() ->
+																		partMgmtService.removeFromSML(T_USER, saved));
+
+		assertTrue(removed.isComplete());
+		assertEquals(3, removed.completed().size());
+		assertTrue(removed.completed().stream().noneMatch(Participant::isRegisteredInSML));
+		assertTrue(smlIntegrator.participants.isEmpty());
+		// Only the two registered Participants should have been removed
+		verify(auditService, times(2)).log(any(AuditLogRecord.class));
+	}
+
 	@Test
 	void testSMLMigrationFailure() {
 		IDSchemeEntity ids1 = idschemes.save(new IDSchemeEntity("TestIDScheme", false));
@@ -627,6 +693,77 @@ class ParticipantsServiceImplTest {
 		assertTrue(ar.details().contains(storedSMT.getService().getId().toString()));
 	}
 	
+	@Test
+	void testBulkBindingOperations() {
+		ServiceEntity svc = new ServiceEntity();
+		svc.setId(new EmbeddedIdentifier("SvcId-T-1"));
+		svc = services.save(svc);
+		List<ServiceMetadataTemplateEntity> smts = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			ServiceMetadataTemplateEntity smt = new ServiceMetadataTemplateEntity();
+			smt.setService(svc);
+			smt.setName("SMT-" + i);
+			smts.add(smtRepo.save(smt));
+		}
+		final ServiceMetadataTemplateEntity smtA = smts.get(0), smtB = smts.get(1), smtC = smts.get(2);
+		for (int i = 1; i <= 4; i++) {
+			ParticipantEntity p = new ParticipantEntity();
+			p.setId(new EmbeddedIdentifier("PartId-T-" + i));
+			if (i <= 3)
+				p.addBinding(smtA);
+			if (i == 2)
+				p.addBinding(smtB);
+			participants.save(p);
+		}
+
+		ParticipantsServiceImpl target = AopTestUtils.getTargetObject(partMgmtService);
+		final int chunkSize = target.bindingsChunkSize;
+		target.bindingsChunkSize = 2;
+		try {
+			final long changes = changeTracker.getChangeCount();
+			BulkBindingResult r = assertDoesNotThrow(() -> partMgmtService.bindToSMT(T_USER,
+																	ParticipantSelection.boundTo(smtA), smtB));
+			assertEquals(3, r.selected());
+			assertEquals(2, r.updated());
+			assertTrue(changeTracker.getChangeCount() > changes);
+			for (int i = 1; i <= 3; i++)
+				assertBoundTo("PartId-T-" + i, smtA, smtB);
+
+			r = assertDoesNotThrow(() -> partMgmtService.replaceSMTBinding(T_USER, ParticipantSelection.boundTo(smtA),
+																			smtA, smtC));
+			assertEquals(3, r.selected());
+			assertEquals(3, r.updated());
+			for (int i = 1; i <= 3; i++)
+				assertBoundTo("PartId-T-" + i, smtB, smtC);
+
+			r = assertDoesNotThrow(() -> partMgmtService.removeSMTBinding(T_USER, ParticipantSelection.of(List.of(
+												new EmbeddedIdentifier("PartId-T-1"), new EmbeddedIdentifier("PartId-T-4"),
+												new EmbeddedIdentifier("PartId-T-9"))), smtB));
+			assertEquals(2, r.selected());
+			assertEquals(1, r.updated());
+			assertEquals(1, r.unknown().size());
+			assertEquals("PartId-T-9", r.unknown().get(0).getValue());
+			assertBoundTo("PartId-T-1", smtC);
+			assertBoundTo("PartId-T-4");
+		} finally {
+			target.bindingsChunkSize = chunkSize;
+		}
+
+		ArgumentCaptor<AuditLogRecord> captor = ArgumentCaptor.forClass(AuditLogRecord.class);
+		verify(auditService, times(3)).log(captor.capture());
+		assertEquals(List.of("Add Service to Participants", "Replace Service of Participants",
+							 "Remove Service from Participants"),
+					 captor.getAllValues().stream().map(AuditLogRecord::action).toList());
+		assertTrue(captor.getAllValues().get(0).details().contains("Updated 2 of 3"));
+	}
+
+	private void assertBoundTo(String partId, ServiceMetadataTemplateEntity... smts) {
+		ParticipantEntity p = participants.findByIdentifier(new EmbeddedIdentifier(partId));
+		assertEquals(Set.of(smts).stream().map(ServiceMetadataTemplateEntity::getOid).collect(Collectors.toSet()),
+					 p.getBoundSMT().stream().map(smt -> ((ServiceMetadataTemplateEntity) smt).getOid())
+					 						 .collect(Collectors.toSet()));
+	}
+
 	@Test
 	void testFindByName() {
 		for(int i = 0; i < 20; i++) {
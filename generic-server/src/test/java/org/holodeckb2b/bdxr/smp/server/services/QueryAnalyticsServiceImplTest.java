@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.db.repos.QueryVolumeRepository;
+import org.holodeckb2b.bdxr.smp.server.services.query.DailyQueryVolume;
+import org.holodeckb2b.bdxr.smp.server.services.query.PeriodQueryVolume;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryVolume;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@SpringBootTest(classes = { CommonServerConfig.class })
+class QueryAnalyticsServiceImplTest {
+
+	private static final LocalDate T_DAY = LocalDate.of(2025, 3, 18);
+
+	@Autowired
+	private QueryVolumeRepository	repo;
+
+	@Autowired
+	private QueryAnalyticsServiceImpl	analytics;
+
+	@AfterEach
+	void cleanup() {
+		repo.deleteAll();
+		ReflectionTestUtils.setField(analytics, "maxVolumesPerDay", 100000);
+	}
+
+	@Test
+	void testAddNew() {
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 10),
+				new QueryVolume(T_DAY, "P1", "", "Responder", 200, 5),
+				new QueryVolume(T_DAY, "P2", "S1", "Responder", 404, 1),
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 2))));
+
+		assertEquals(3, repo.count());
+		List<QueryVolume> stored = export(T_DAY, T_DAY);
+		assertEquals(3, stored.size());
+		assertEquals(new QueryVolume(T_DAY, "P1", "", "Responder", 200, 5), stored.get(0));
+		assertEquals(new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 12), stored.get(1));
+		assertEquals(new QueryVolume(T_DAY, "P2", "S1", "Responder", 404, 1), stored.get(2));
+	}
+
+	@Test
+	void testAddToExisting() {
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 10),
+				new QueryVolume(T_DAY.plusDays(1), "P1", "S1", "Responder", 200, 3))));
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 5),
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 500, 1))));
+
+		assertEquals(3, repo.count());
+		List<QueryVolume> stored = export(T_DAY, T_DAY.plusDays(1));
+		assertEquals(3, stored.size());
+		assertEquals(new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 15), stored.get(0));
+		assertEquals(new QueryVolume(T_DAY, "P1", "S1", "Responder", 500, 1), stored.get(1));
+		assertEquals(new QueryVolume(T_DAY.plusDays(1), "P1", "S1", "Responder", 200, 3), stored.get(2));
+	}
+
+	@Test
+	void testGetPeriod() {
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY.minusDays(1), "P1", "S1", "Responder", 200, 1),
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 2),
+				new QueryVolume(T_DAY.plusDays(1), "P1", "S1", "Responder", 200, 3))));
+
+		List<QueryVolume> stored = export(T_DAY, T_DAY.plusDays(5));
+		assertEquals(2, stored.size());
+		assertTrue(stored.stream().noneMatch(v -> v.day().isBefore(T_DAY)));
+	}
+
+	@Test
+	void testTruncateLongIds() {
+		String longSvcId = "S".repeat(2000);
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", longSvcId, "Responder", 200, 1))));
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", longSvcId, "Responder", 200, 1))));
+
+		List<QueryVolume> stored = export(T_DAY, T_DAY);
+		assertEquals(1, stored.size());
+		assertEquals(2, stored.get(0).count());
+	}
+
+	@Test
+	void testAddLargeBatch() {
+		List<QueryVolume> batch = new ArrayList<>();
+		for (int i = 0; i < 2500; i++)
+			batch.add(new QueryVolume(T_DAY, "P" + i, "S1", "Responder", 200, 1));
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(batch));
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(batch));
+
+		assertEquals(2500, repo.count());
+		List<QueryVolume> stored = export(T_DAY, T_DAY);
+		assertTrue(stored.stream().allMatch(v -> v.count() == 2));
+	}
+
+	@Test
+	void testDailyVolumes() {
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 10),
+				new QueryVolume(T_DAY, "P2", "S1", "Responder", 200, 5),
+				new QueryVolume(T_DAY, "P2", "S2", "Responder", 404, 1),
+				new QueryVolume(T_DAY.plusDays(1), "P1", "S1", "Responder", 200, 3),
+				new QueryVolume(T_DAY.plusDays(2), "P1", "S1", "Responder", 200, 3))));
+
+		List<DailyQueryVolume> daily = assertDoesNotThrow(() -> analytics.getDailyVolumes(T_DAY, T_DAY.plusDays(1)));
+		assertEquals(List.of(new DailyQueryVolume(T_DAY, 200, 15), new DailyQueryVolume(T_DAY, 404, 1),
+							 new DailyQueryVolume(T_DAY.plusDays(1), 200, 3)), daily);
+	}
+
+	@Test
+	void testTopVolumes() {
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 10),
+				new QueryVolume(T_DAY.plusDays(1), "P1", "S1", "Responder", 200, 3),
+				new QueryVolume(T_DAY, "P2", "S1", "Responder", 200, 12),
+				new QueryVolume(T_DAY, "P3", "S1", "Responder", 404, 1))));
+
+		List<PeriodQueryVolume> top = assertDoesNotThrow(() -> analytics.getTopVolumes(T_DAY, T_DAY.plusDays(1), 2));
+		assertEquals(List.of(new PeriodQueryVolume("P1", "S1", "Responder", 200, 13),
+							 new PeriodQueryVolume("P2", "S1", "Responder", 200, 12)), top);
+	}
+
+	@Test
+	void testLimitPerDay() {
+		ReflectionTestUtils.setField(analytics, "maxVolumesPerDay", 3);
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 1),
+				new QueryVolume(T_DAY, "P2", "S1", "Responder", 200, 1))));
+		assertDoesNotThrow(() -> analytics.addQueryVolumes(List.of(
+				new QueryVolume(T_DAY, "P1", "S1", "Responder", 200, 1),
+				new QueryVolume(T_DAY, "P3", "S1", "Responder", 200, 1),
+				new QueryVolume(T_DAY, "P4", "S1", "Responder", 200, 2),
+				new QueryVolume(T_DAY, "P5", "S1", "Responder", 200, 3),
+				new QueryVolume(T_DAY.plusDays(1), "P6", "S1", "Responder", 200, 1))));
+
+		List<QueryVolume> stored = export(T_DAY, T_DAY);
+		assertEquals(4, stored.size());
+		assertEquals(9, stored.stream().mapToLong(QueryVolume::count).sum());
+		assertEquals(2, stored.stream().filter(v -> v.participant().equals("P1")).findFirst().get().count());
+		assertEquals(1, stored.stream().filter(v -> v.participant().equals(QueryVolume.OTHER_PARTICIPANTS)).count());
+		assertEquals(1, export(T_DAY.plusDays(1), T_DAY.plusDays(1)).size());
+	}
+
+	private List<QueryVolume> export(LocalDate from, LocalDate to) {
+		List<QueryVolume> exported = new ArrayList<>();
+		assertEquals((long) assertDoesNotThrow(() -> analytics.exportQueryVolumes(from, to, exported::add)),
+					 exported.size());
+		return exported;
+	}
+}
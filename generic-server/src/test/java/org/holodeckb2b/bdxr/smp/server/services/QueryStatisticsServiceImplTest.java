@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.services.query.HotQuery;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+
+@SpringBootTest(classes = { QueryStatisticsServiceImpl.class }, properties = { "smp.query.stats.top_k=3" })
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+class QueryStatisticsServiceImplTest {
+
+	@Autowired
+	private QueryStatisticsServiceImpl	queryStats;
+
+	@Test
+	void testEstimate() {
+		for (int i = 0; i < 10; i++)
+			queryStats.registerQuery("/query/1");
+		queryStats.registerQuery("/query/2");
+
+		assertTrue(queryStats.getEstimatedCount("/query/1") >= 10);
+		assertTrue(queryStats.getEstimatedCount("/query/2") >= 1);
+		assertTrue(queryStats.getEstimatedCount("/query/1") > queryStats.getEstimatedCount("/query/2"));
+	}
+
+	@Test
+	void testMostQueried() {
+		for (int q = 1; q <= 6; q++)
+			for (int i = 0; i < q * 5; i++)
+				queryStats.registerQuery("/query/" + q);
+
+		List<HotQuery> hot = queryStats.getMostQueried();
+		assertEquals(3, hot.size());
+		assertEquals("/query/6", hot.get(0).queryPath());
+		assertEquals("/query/5", hot.get(1).queryPath());
+		assertEquals("/query/4", hot.get(2).queryPath());
+		assertTrue(hot.get(0).count() >= 30);
+	}
+
+	@Test
+	void testDecay() {
+		for (int i = 0; i < 8; i++)
+			queryStats.registerQuery("/query/1");
+		queryStats.registerQuery("/query/2");
+
+		queryStats.decay();
+
+		assertEquals(4, queryStats.getEstimatedCount("/query/1"));
+		List<HotQuery> hot = queryStats.getMostQueried();
+		assertEquals(1, hot.size());
+		assertEquals(4, hot.get(0).count());
+		assertFalse(hot.stream().anyMatch(q -> q.queryPath().equals("/query/2")));
+	}
+
+	@Test
+	void testManyCandidates() {
+		for (int i = 0; i < 1000; i++)
+			queryStats.registerQuery("/query/unique/" + i);
+		// The candidates are limited, so the hot query is only taken into account after the next update
+		queryStats.updateMostQueried();
+		for (int i = 0; i < 20; i++)
+			queryStats.registerQuery("/query/hot");
+
+		List<HotQuery> hot = queryStats.getMostQueried();
+		assertEquals(3, hot.size());
+		assertEquals("/query/hot", hot.get(0).queryPath());
+		assertTrue(hot.get(0).count() >= 20);
+	}
+}
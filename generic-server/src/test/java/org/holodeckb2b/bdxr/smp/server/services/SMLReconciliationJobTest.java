@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.CommonServerConfig;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogRecord;
+import org.holodeckb2b.bdxr.smp.server.auditlogging.AuditLogService;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.NetworkUpdateEntity.Operation;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.db.repos.IDSchemeRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.NetworkUpdateRepository;
+import org.holodeckb2b.bdxr.smp.server.db.repos.ParticipantRepository;
+import org.holodeckb2b.bdxr.smp.server.services.SMLReconciliationJob.Report;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@SpringBootTest(classes = { CommonServerConfig.class }, properties = { "smp.sml.reconciliation.batch_size=3" })
+class SMLReconciliationJobTest {
+
+	@MockitoBean
+	private AuditLogService 		auditService;
+
+	@Autowired
+	private ParticipantRepository	participants;
+
+	@Autowired
+	private IDSchemeRepository		idschemes;
+
+	@Autowired
+	private NetworkUpdateRepository	updates;
+
+	@Autowired
+	private TestSMLIntegrator 		smlIntegrator;
+
+	@Autowired
+	private SMLReconciliationJob	job;
+
+	private List<ParticipantEntity>	saved;
+
+	@BeforeEach
+	void setup() {
+		reset(auditService);
+		cleanup();
+		smlIntegrator.reset();
+
+		IDSchemeEntity ids = idschemes.save(new IDSchemeEntity("TestIDScheme", false));
+		saved = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			ParticipantEntity p = new ParticipantEntity();
+			p.setId(new EmbeddedIdentifier(ids, "9999:test" + i));
+			p.setName("Test Participant " + i);
+			// The first 7 Participants are marked as registered, of which the first 6 are registered in the SML
+			p.setRegisteredInSML(i <= 7);
+			saved.add(participants.save(p));
+			if (i <= 6)
+				smlIntegrator.participants.add(p.getId());
+		}
+	}
+
+	@AfterEach
+	void cleanup() {
+		updates.deleteAll();
+		participants.deleteAll();
+		idschemes.deleteAll();
+	}
+
+	@Test
+	void testConsistent() {
+		smlIntegrator.participants.add(saved.get(6).getId());
+
+		Report report = assertDoesNotThrow(() -> job.reconcile(true));
+
+		assertTrue(report.isConsistent());
+		assertEquals(7, report.registeredInSML());
+		assertEquals(7, report.registeredLocally());
+		verify(auditService, never()).log(any(AuditLogRecord.class));
+	}
+
+	@Test
+	void testReportOnly() {
+		// Registered in SML, but not marked locally
+		smlIntegrator.participants.add(saved.get(8).getId());
+		// Registered in SML, but unknown
+		smlIntegrator.participants.add(new EmbeddedIdentifier(saved.get(0).getId().getScheme(), "9999:unknown"));
+
+		Report report = assertDoesNotThrow(() -> job.reconcile(false));
+
+		assertFalse(report.isConsistent());
+		assertEquals(8, report.registeredInSML());
+		assertEquals(7, report.registeredLocally());
+		assertEquals(1, report.notMarkedLocally());
+		assertEquals(1, report.notInSML());
+		assertEquals(1, report.unknown());
+		assertTrue(participants.findById(saved.get(6).getOid()).get().isRegisteredInSML());
+		assertFalse(participants.findById(saved.get(8).getOid()).get().isRegisteredInSML());
+		verify(auditService, never()).log(any(AuditLogRecord.class));
+	}
+
+	@Test
+	void testRepair() {
+		smlIntegrator.participants.add(saved.get(8).getId());
+
+		Report report = assertDoesNotThrow(() -> job.reconcile(true));
+
+		assertEquals(1, report.notMarkedLocally());
+		assertEquals(1, report.notInSML());
+		assertFalse(participants.findById(saved.get(6).getOid()).get().isRegisteredInSML());
+		assertTrue(participants.findById(saved.get(8).getOid()).get().isRegisteredInSML());
+		verify(auditService, times(2)).log(any(AuditLogRecord.class));
+
+		assertTrue(assertDoesNotThrow(() -> job.reconcile(false)).isConsistent());
+	}
+
+	@Test
+	void testSkipPendingUpdates() {
+		smlIntegrator.participants.add(saved.get(8).getId());
+		// The registration of the 7th and removal of the 9th Participant are still pending in the outbox
+		updates.save(new NetworkUpdateEntity(saved.get(6).getOid(), IdUtils.toIDString(saved.get(6).getId()),
+											 Operation.REGISTER_IN_SML, "test"));
+		updates.save(new NetworkUpdateEntity(saved.get(8).getOid(), IdUtils.toIDString(saved.get(8).getId()),
+											 Operation.REMOVE_FROM_SML, "test"));
+
+		Report report = assertDoesNotThrow(() -> job.reconcile(true));
+
+		assertTrue(report.isConsistent());
+		assertTrue(participants.findById(saved.get(6).getOid()).get().isRegisteredInSML());
+		assertFalse(participants.findById(saved.get(8).getOid()).get().isRegisteredInSML());
+		verify(auditService, never()).log(any(AuditLogRecord.class));
+	}
+}
@@ -15,9 +15,12 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package org.holodeckb2b.bdxr.smp.server.services;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import org.holodeckb2b.bdxr.common.datamodel.Identifier;
 import org.holodeckb2b.bdxr.smp.datamodel.Certificate;
@@ -48,6 +51,7 @@ public class TestSMLIntegrator implements SMLIntegrationService {
 	
 	private SMLException	rejection = null;
 	private boolean rejected;
+	private RuntimeException failure = null;
 	
 	public void reset() {
 		smp = null;
@@ -55,12 +59,17 @@ public class TestSMLIntegrator implements SMLIntegrationService {
 		requireSMPCertRegistration = false;
 		participants.clear();
 		migrations.clear();
+		failure = null;
 	}
 	
 	public void rejectNextWith(SMLException e) {
 		rejection = e;
 		rejected = false;
 	}
+
+	public void failNextWith(RuntimeException e) {
+		failure = e;
+	}
 	
 	@Override
 	public String getSMLName() {
@@ -125,6 +134,15 @@ public class TestSMLIntegrator implements SMLIntegrationService {
 		return participants.contains(p.getId());
 	}
 
+	@Override
+	public void listRegisteredParticipants(Predicate<List<Identifier>> pageHandler) throws SMLException {
+		checkRejection();
+		List<Identifier> all = new ArrayList<>(participants);
+		boolean next = true;
+		for (int i = 0; next && i < all.size(); i += 2)
+			next = pageHandler.test(all.subList(i, Math.min(i + 2, all.size())));
+	}
+
 	@Override
 	public void registerMigrationCode(Participant p, String code) throws SMLException {
 		checkRejection();
@@ -141,6 +159,11 @@ public class TestSMLIntegrator implements SMLIntegrationService {
 	}
 
 	private void checkRejection() throws SMLException {
+		if (failure != null) {
+			RuntimeException e = failure;
+			failure = null;
+			throw e;
+		}
 		if (rejection != null && !rejected) {
 			rejected = true;
 			throw rejection;	
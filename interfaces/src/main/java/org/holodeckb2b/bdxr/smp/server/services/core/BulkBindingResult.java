@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.core;
+
+import java.util.List;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+
+/**
+ * Is the result of an operation on the bindings of a set of Participants to a Service Metadata Template, i.e. the
+ * binding, removal or replacement of a template for multiple Participants at once. As Participants that already were
+ * in the requested state are skipped, the result contains both the number of selected Participants and the number of
+ * Participants that were actually updated.
+ *
+ * @param selected	the number of selected Participants that exist
+ * @param updated	the number of Participants which bindings were changed
+ * @param unknown	the Identifiers of the explicitly listed Participants that do not exist
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ * @see ParticipantsService#bindToSMT(org.springframework.security.core.userdetails.UserDetails, ParticipantSelection,
+ * 		org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate)
+ */
+public record BulkBindingResult(long selected, long updated, List<? extends Identifier> unknown) {
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.core;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJobService.Operation;
+
+/**
+ * Provides a view on the state and progress of a bulk job executed by the {@link BulkJobService}. As the job is
+ * executed in the background, the values returned by an instance change while the job is running.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface BulkJob {
+
+	/**
+	 * Enumerates the states of a bulk job.
+	 */
+	enum State { QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+	/**
+	 * Contains the information on a Participant for which the operation failed.
+	 *
+	 * @param participantId	the Identifier of the Participant
+	 * @param reason		description of why the operation failed
+	 */
+	record Failure(Identifier participantId, String reason) {}
+
+	/**
+	 * @return the identifier of the job
+	 */
+	String getId();
+
+	/**
+	 * @return the operation executed by the job
+	 */
+	Operation getOperation();
+
+	/**
+	 * @return the selection of Participants processed by the job
+	 */
+	ParticipantSelection getSelection();
+
+	/**
+	 * @return the name of the User that submitted the job
+	 */
+	String getSubmittedBy();
+
+	/**
+	 * @return the current state of the job
+	 */
+	State getState();
+
+	/**
+	 * @return the time the job was submitted
+	 */
+	Instant getSubmitted();
+
+	/**
+	 * @return the time the execution of the job started, <code>null</code> if the job has not started yet
+	 */
+	Instant getStarted();
+
+	/**
+	 * @return the time the execution of the job ended, <code>null</code> if the job has not ended yet
+	 */
+	Instant getFinished();
+
+	/**
+	 * Gets the number of Participants to be processed by the job. When the Participants are selected based on their
+	 * state or binding, this is the number of Participants that matched the selection when the job was started and the
+	 * actual number of processed Participants may differ when Participants are changed while the job is running.
+	 *
+	 * @return the (expected) number of Participants to be processed by the job
+	 */
+	long getTotal();
+
+	/**
+	 * @return the number of Participants for which the operation was executed successfully, including the ones that
+	 * 			were already in the requested state
+	 */
+	long getSucceeded();
+
+	/**
+	 * @return the number of Participants for which the operation failed
+	 */
+	long getFailed();
+
+	/**
+	 * Gets the Participants for which the operation failed. To limit the memory usage of the job, the number of
+	 * failures that is reported is limited and therefore the list can be shorter than indicated by {@link #getFailed()}.
+	 *
+	 * @return the Participants for which the operation failed and the reason why
+	 */
+	List<Failure> getFailures();
+}
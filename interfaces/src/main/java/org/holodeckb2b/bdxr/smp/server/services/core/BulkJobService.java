@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.core;
+
+import java.util.Collection;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Defines the interface of the service that executes operations on the SML registration or directory publication of
+ * large numbers of Participants. Instead of executing the operation directly, as done by the {@link
+ * ParticipantsService}, the operations are executed as jobs in the background. The progress and result of a job can
+ * be retrieved using the {@link BulkJob} object returned when the job is submitted or using {@link #getJob(String)}.
+ * <p>
+ * Implementations should execute the calls to the SML and directory concurrently, while limiting the rate of the calls
+ * to prevent overloading the network services, and retry an operation when it fails because of a temporary problem.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface BulkJobService {
+
+	/**
+	 * Enumerates the operations that can be executed by a bulk job.
+	 */
+	enum Operation { REGISTER_IN_SML, REMOVE_FROM_SML, PUBLISH_IN_DIRECTORY, REMOVE_FROM_DIRECTORY }
+
+	/**
+	 * Submits a new job to execute the given operation on the selected Participants.
+	 *
+	 * @param user		the User submitting the job, required for audit logging
+	 * @param operation	the operation to execute
+	 * @param selection	the Participants to execute the operation on
+	 * @return	the submitted job
+	 * @throws PersistenceException	when the network service needed for the operation is not available or when the
+	 * 								selected Participants cannot be determined
+	 */
+	BulkJob submit(UserDetails user, Operation operation, ParticipantSelection selection) throws PersistenceException;
+
+	/**
+	 * Gets the job with the given identifier. Jobs are only retained for a limited time after they have ended.
+	 *
+	 * @param jobId	the identifier of the job
+	 * @return	the job with the given identifier, or <code>null</code> if no such job exists (anymore)
+	 */
+	BulkJob getJob(String jobId);
+
+	/**
+	 * @return all jobs that are queued, running or have recently ended
+	 */
+	Collection<? extends BulkJob> getJobs();
+
+	/**
+	 * Cancels the job with the given identifier. Participants that are being processed when the job is cancelled are
+	 * still completed, but no new Participants will be processed.
+	 *
+	 * @param jobId	the identifier of the job to cancel
+	 * @return	<code>true</code> if the job was cancelled, <code>false</code> if the job does not exist or has already
+	 * 			ended
+	 */
+	boolean cancel(String jobId);
+}
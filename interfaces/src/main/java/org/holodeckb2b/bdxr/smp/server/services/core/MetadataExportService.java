@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.core;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+
+/**
+ * Defines the interface of the service for exporting the meta-data registered in the SMP. Where the other services
+ * return collections of all meta-data objects, the export service reads the meta-data from the database using a cursor
+ * and passes the objects one at a time to an {@link ExportHandler}, for example to write them to the response of an
+ * HTTP request. The objects passed to the handler are detached from the database and should not be retained by the
+ * handler, so the memory use of the export does not depend on the number of objects exported.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface MetadataExportService {
+
+	/**
+	 * Is the callback that processes the exported objects.
+	 *
+	 * @param <T>	the type of the exported objects
+	 */
+	@FunctionalInterface
+	interface ExportHandler<T> {
+
+		/**
+		 * Processes the next exported object.
+		 *
+		 * @param item	the exported object
+		 * @throws IOException	when the object cannot be written to the export's destination. This aborts the export.
+		 */
+		void export(T item) throws IOException;
+	}
+
+	/**
+	 * Represents the bindings of a Participant to Service Metadata Templates.
+	 *
+	 * @param participantId	the Participant Identifier
+	 * @param templateIds	the identifiers of the Service Metadata Templates bound to the Participant
+	 */
+	record ParticipantBindings(Identifier participantId, List<Long> templateIds) {
+	}
+
+	/**
+	 * Exports the business card data and the registration status in the SML and directory of all Participants. The
+	 * bindings of the Participants are not included, these are exported using {@link #exportBindings(ExportHandler)}.
+	 *
+	 * @param handler	the handler to pass the Participants to
+	 * @return	the number of exported Participants
+	 * @throws PersistenceException	when an error occurs reading the Participants from the database
+	 * @throws IOException			when the handler fails to process a Participant
+	 */
+	long exportParticipants(ExportHandler<? super Participant> handler) throws PersistenceException, IOException;
+
+	/**
+	 * Exports the bindings of the Participants to Service Metadata Templates. Participants that are not bound to any
+	 * template are not included.
+	 *
+	 * @param handler	the handler to pass the bindings to, one call per Participant
+	 * @return	the number of exported Participants
+	 * @throws PersistenceException	when an error occurs reading the bindings from the database
+	 * @throws IOException			when the handler fails to process the bindings of a Participant
+	 */
+	long exportBindings(ExportHandler<? super ParticipantBindings> handler) throws PersistenceException, IOException;
+
+	/**
+	 * Exports all Service Metadata Templates.
+	 *
+	 * @param handler	the handler to pass the templates to
+	 * @return	the number of exported templates
+	 * @throws PersistenceException	when an error occurs reading the templates from the database
+	 * @throws IOException			when the handler fails to process a template
+	 */
+	long exportTemplates(ExportHandler<? super ServiceMetadataTemplate> handler)
+																			throws PersistenceException, IOException;
+}
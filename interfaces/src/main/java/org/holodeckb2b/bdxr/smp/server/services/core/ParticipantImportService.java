@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.core;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Defines the interface of the service for the import of large numbers of new Participants at once. Where the {@link
+ * ParticipantsService#addParticipant(UserDetails, Participant)} method adds a single Participant in its own transaction,
+ * the import service processes the Participants in chunks, using one transaction, one check for existing registrations
+ * and one audit log record per chunk.
+ * <p>
+ * The Participants to import are provided as an {@link Iterator} so they can be read incrementally from the source,
+ * for example an uploaded file. The result of the import is reported per record. The imported Participants are not
+ * collected but handed over to the caller per chunk, so they can be processed further, for example registered in the
+ * SML, while the import continues.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface ParticipantImportService {
+
+	/**
+	 * Enumerates the possible outcomes of the import of a record.
+	 */
+	enum Outcome {
+		/**
+		 * The Participant has been added
+		 */
+		IMPORTED,
+		/**
+		 * The Participant was not added because a Participant with the same identifier already exists, either in the
+		 * database or earlier in the import
+		 */
+		DUPLICATE,
+		/**
+		 * The Participant was not added because the record contains invalid data
+		 */
+		REJECTED
+	}
+
+	/**
+	 * Represents a record to import.
+	 *
+	 * @param row			the sequence number of the record in the source, used to report the result
+	 * @param participantId	the Participant Identifier as included in the source
+	 * @param participant	the meta-data of the new Participant, <code>null</code> if the record could not be parsed
+	 * @param templateIds	the identifiers of the Service Metadata Templates to bind to the Participant, may be empty
+	 * @param error			description of why the record could not be parsed, <code>null</code> if it was parsed
+	 * 						successfully
+	 */
+	record ImportRecord(int row, String participantId, Participant participant, Collection<Long> templateIds,
+						String error) {
+
+		/**
+		 * Creates a record for a Participant that could be parsed.
+		 *
+		 * @param row			the sequence number of the record in the source
+		 * @param participantId	the Participant Identifier as included in the source
+		 * @param participant	the meta-data of the new Participant
+		 * @param templateIds	the identifiers of the Service Metadata Templates to bind to the Participant
+		 * @return	the new record
+		 */
+		public static ImportRecord of(int row, String participantId, Participant participant,
+									  Collection<Long> templateIds) {
+			return new ImportRecord(row, participantId, participant, templateIds != null ? templateIds : List.of(),
+									null);
+		}
+
+		/**
+		 * Creates a record for a Participant that could not be parsed. The record is not imported but reported as
+		 * {@link Outcome#REJECTED}.
+		 *
+		 * @param row			the sequence number of the record in the source
+		 * @param participantId	the Participant Identifier as included in the source, may be <code>null</code>
+		 * @param error			description of the problem
+		 * @return	the new record
+		 */
+		public static ImportRecord invalid(int row, String participantId, String error) {
+			return new ImportRecord(row, participantId, null, List.of(), error);
+		}
+	}
+
+	/**
+	 * Represents the result of the import of a single record.
+	 *
+	 * @param row			the sequence number of the record in the source
+	 * @param participantId	the Participant Identifier as included in the source
+	 * @param outcome		the outcome of the import
+	 * @param reason		description of why the Participant was not imported, <code>null</code> if it was
+	 */
+	record RowResult(int row, String participantId, Outcome outcome, String reason) {
+	}
+
+	/**
+	 * Is the result of an import.
+	 *
+	 * @param rows			the results of the individual records, in the order of the records
+	 * @param abortReason	description of why the import was aborted before all records were processed, <code>null
+	 * 						</code> if all records were processed
+	 */
+	record ImportResult(List<RowResult> rows, String abortReason) {
+
+		/**
+		 * @param outcome	the outcome to count
+		 * @return	the number of records with the given outcome
+		 */
+		public long count(Outcome outcome) {
+			return rows.stream().filter(r -> r.outcome() == outcome).count();
+		}
+	}
+
+	/**
+	 * Imports the given Participants. The records are processed in chunks and each chunk is saved in its own
+	 * transaction, so the Participants of the chunks that were completed remain imported when a later chunk fails.
+	 * Records which identifier is already registered, or occurs earlier in the import, are skipped. When the iterator
+	 * throws an exception, for example because the source is malformed, the records read so far are imported and the
+	 * import is aborted.
+	 * <p>
+	 * The business card data and bindings to Service Metadata Templates of the Participants are imported, but the new
+	 * Participants are not registered in the SML nor published in the directory. To do so the caller can provide a
+	 * consumer that is called with the Participants imported in a chunk once the chunk has been saved.
+	 *
+	 * @param user			the User importing the Participants, required for audit logging
+	 * @param records		the records to import
+	 * @param chunkImported	consumer of the Participants imported in a chunk, called after the chunk has been saved.
+	 * 						The Participants are detached entity objects that should only be used to further process
+	 * 						the new Participants. May be <code>null</code>
+	 * @return	the result of the import
+	 * @throws PersistenceException	when an error occurs saving a chunk of Participants. The Participants of earlier
+	 * 								chunks are imported
+	 */
+	ImportResult importParticipants(UserDetails user, Iterator<ImportRecord> records,
+									Consumer<List<? extends Participant>> chunkImported) throws PersistenceException;
+}
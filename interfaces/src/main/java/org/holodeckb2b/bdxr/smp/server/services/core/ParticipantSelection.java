@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.core;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+
+/**
+ * Specifies which Participants should be processed by a bulk job. The Participants can be selected:<ul>
+ * <li>based on their current state, i.e. all Participants for which the job's operation has not been executed yet,
+ * 		for example all Participants that are not registered in the SML when registering Participants in the SML;</li>
+ * <li>based on the Service Metadata Template they are bound to;</li>
+ * <li>by an explicit list of Participant Identifiers, for example from a file uploaded by the user.</li></ul>
+ *
+ * @param type	the type of selection
+ * @param smt	the Service Metadata Template the Participants must be bound to, only used when the type is
+ * 				{@link Type#BOUND_TO_SMT}
+ * @param ids	the Identifiers of the Participants to process, only used when the type is {@link Type#LIST}
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ * @see BulkJobService
+ */
+public record ParticipantSelection(Type type, ServiceMetadataTemplate smt, List<? extends Identifier> ids) {
+
+	/**
+	 * Enumerates the ways Participants can be selected.
+	 */
+	public enum Type { PENDING, BOUND_TO_SMT, LIST }
+
+	/**
+	 * @return a selection of all Participants for which the job's operation has not been executed yet
+	 */
+	public static ParticipantSelection pending() {
+		return new ParticipantSelection(Type.PENDING, null, null);
+	}
+
+	/**
+	 * @param smt	the Service Metadata Template
+	 * @return a selection of all Participants bound to the given Service Metadata Template
+	 */
+	public static ParticipantSelection boundTo(ServiceMetadataTemplate smt) {
+		if (smt == null)
+			throw new IllegalArgumentException("A Service Metadata Template must be specified");
+		return new ParticipantSelection(Type.BOUND_TO_SMT, smt, null);
+	}
+
+	/**
+	 * @param ids	the Identifiers of the Participants to select
+	 * @return a selection of the Participants with the given Identifiers
+	 */
+	public static ParticipantSelection of(Collection<? extends Identifier> ids) {
+		if (ids == null || ids.isEmpty())
+			throw new IllegalArgumentException("At least one Participant Identifier must be specified");
+		return new ParticipantSelection(Type.LIST, null, List.copyOf(ids));
+	}
+}
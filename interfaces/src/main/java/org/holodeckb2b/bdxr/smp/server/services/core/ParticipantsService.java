@@ -23,6 +23,7 @@ import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
 import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryException;
 import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryIntegrationService;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult;
 import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
 import org.holodeckb2b.bdxr.smp.server.services.network.SMLIntegrationService;
 import org.springframework.data.domain.Page;
@@ -190,6 +191,57 @@ public interface ParticipantsService {
 	 * @throws PersistenceException	when an error occurs removing the SMT from the Participant
 	 */
 	Participant removeSMTBinding(UserDetails user, Participant p, ServiceMetadataTemplate smt) throws PersistenceException;
+
+	/**
+	 * Binds the given <i>Service Metadata Template</i> to all selected <i>Participants</i>. Participants that are 
+	 * already bound to the template are skipped. The bindings are added in chunks, each saved in its own transaction, 
+	 * and one audit log record is written for the complete operation.
+	 * 
+	 * @param user		User adding the SMT to the Participants, required for audit logging
+	 * @param selection	the Participants to bind the SMT to, either the Participants bound to another SMT or an 
+	 * 					explicit list
+	 * @param smt		SMT to bind to the Participants
+	 * @return	the result of the operation
+	 * @throws PersistenceException	when an error occurs binding the SMT to the Participants. As each chunk is saved 
+	 * 								separately, the Participants processed before the error remain bound to the SMT
+	 * @since 3.1.0
+	 */
+	BulkBindingResult bindToSMT(UserDetails user, ParticipantSelection selection, ServiceMetadataTemplate smt) 
+																							throws PersistenceException;
+
+	/**
+	 * Removes the given <i>Service Metadata Template</i> from all selected <i>Participants</i>. Like {@link 
+	 * #bindToSMT(UserDetails, ParticipantSelection, ServiceMetadataTemplate)} the bindings are removed in chunks and 
+	 * one audit log record is written for the complete operation.
+	 * 
+	 * @param user		User removing the SMT from the Participants, required for audit logging
+	 * @param selection	the Participants from which the SMT should be removed
+	 * @param smt		the SMT to remove from the Participants
+	 * @return	the result of the operation
+	 * @throws PersistenceException	when an error occurs removing the SMT from the Participants
+	 * @since 3.1.0
+	 */
+	BulkBindingResult removeSMTBinding(UserDetails user, ParticipantSelection selection, ServiceMetadataTemplate smt)
+																							throws PersistenceException;
+
+	/**
+	 * Replaces the binding to the given <i>Service Metadata Template</i> with a binding to another template for all 
+	 * selected <i>Participants</i> that are bound to the current template. Like {@link #bindToSMT(UserDetails, 
+	 * ParticipantSelection, ServiceMetadataTemplate)} the bindings are replaced in chunks and one audit log record is 
+	 * written for the complete operation.
+	 * 
+	 * @param user			User replacing the SMT, required for audit logging
+	 * @param selection		the Participants on which to replace the SMT, use {@link ParticipantSelection#boundTo(
+	 * 						ServiceMetadataTemplate)} with the current template to replace it for all Participants
+	 * @param current		the SMT to replace
+	 * @param replacement	the SMT to bind instead
+	 * @return	the result of the operation
+	 * @throws PersistenceException	when an error occurs replacing the SMT
+	 * @since 3.1.0
+	 */
+	BulkBindingResult replaceSMTBinding(UserDetails user, ParticipantSelection selection, 
+										ServiceMetadataTemplate current, ServiceMetadataTemplate replacement) 
+																							throws PersistenceException;
 	
 	/**
 	 * Indicates whether an SML service is available in the network and the SMP can register Participants in it. This
@@ -212,6 +264,23 @@ public interface ParticipantsService {
 	 * @throws PersistenceException when the given Participant instance is not managed 
 	 */
 	Participant registerInSML(UserDetails user, Participant p) throws SMLException, PersistenceException;
+
+	/**
+	 * Registers a set of Participants in the network's SML. The SML registration is executed in batches so only a
+	 * small number of calls to the SML is needed. As the registration may fail for individual Participants, the result
+	 * is reported per Participant. Participants that are already registered in the SML are skipped and reported as
+	 * successfully registered. As with the registration of a single Participant, this method should only be called
+	 * when the integration with SML is available and ready for registration of Participants.
+	 *
+	 * @param user			the User registering the Participants in the SML, required for audit logging
+	 * @param participants	the Participants to register in the SML
+	 * @return	the result of the registration, containing the updated Participant registrations
+	 * @throws SMLException when the SML registration is not available
+	 * @throws PersistenceException when one of the given Participant instances is not managed
+	 * @since 3.1.0
+	 */
+	SMLBatchResult<? extends Participant> registerInSML(UserDetails user, Collection<? extends Participant> participants)
+																				throws SMLException, PersistenceException;
 	
 	/**
 	 * Migrates the existing Participant registration in the network's SML from another SMP to the current SMP. This 
@@ -270,6 +339,21 @@ public interface ParticipantsService {
 	 * @throws PersistenceException when the given Participant instance is not managed
 	 */
 	Participant removeFromSML(UserDetails user, Participant p) throws SMLException, PersistenceException;	
+
+	/**
+	 * Removes a set of Participants from the network's SML. The removal is executed in batches so only a small number
+	 * of calls to the SML is needed. The result of the removal is reported per Participant. Participants that are not
+	 * registered in the SML are skipped and reported as successfully removed. The removal fails for Participants that
+	 * are published in the directory when directory publication requires SML registration.
+	 *
+	 * @param user			the User removing the Participants from the SML, required for audit logging
+	 * @param participants	the Participants to remove from the SML
+	 * @return	the result of the removal, containing the updated Participant registrations
+	 * @throws PersistenceException when one of the given Participant instances is not managed
+	 * @since 3.1.0
+	 */
+	SMLBatchResult<? extends Participant> removeFromSML(UserDetails user, Collection<? extends Participant> participants)
+																				throws SMLException, PersistenceException;
 		
 	/**
 	 * Indicates whether a directory service is available in the network and the SMP can publish Participants in it. 
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.network;
+
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+
+/**
+ * Is the result of a batch operation on the SML registration of a set of Participants, i.e. the registration or
+ * removal of multiple Participants at once. As the operation may succeed for some of the Participants and fail for
+ * others, the result lists both the Participants that were processed successfully and the ones that failed together
+ * with the reason why.
+ *
+ * @param <P>		the type of the Participant meta-data objects
+ * @param completed	the Participants for which the operation was executed successfully
+ * @param failed	the Participants for which the operation failed
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ * @see SMLIntegrationService#registerParticipants(List)
+ * @see SMLIntegrationService#deregisterParticipants(List)
+ */
+public record SMLBatchResult<P extends Participant>(List<P> completed, List<Failure<P>> failed) {
+
+	/**
+	 * Represents a Participant for which the operation failed.
+	 *
+	 * @param <P>			the type of the Participant meta-data objects
+	 * @param participant	the Participant for which the operation failed
+	 * @param error			the exception describing why the operation failed
+	 */
+	public record Failure<P extends Participant>(P participant, SMLException error) {
+	}
+
+	/**
+	 * @return <code>true</code> when the operation was executed successfully for all Participants,
+	 * 		   <code>false</code> otherwise
+	 */
+	public boolean isComplete() {
+		return failed.isEmpty();
+	}
+}
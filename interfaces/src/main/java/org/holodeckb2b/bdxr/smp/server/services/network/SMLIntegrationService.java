@@ -16,6 +16,11 @@
  */
 package org.holodeckb2b.bdxr.smp.server.services.network;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
 import org.holodeckb2b.bdxr.smp.datamodel.Certificate;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.datamodel.SMPServerMetadata;
@@ -113,7 +118,61 @@ public interface SMLIntegrationService {
 	 * @see #isAvailable()
 	 */
 	void deregisterParticipant(Participant p) throws SMLException;
-	
+
+	/**
+	 * Registers a set of Participants in the SML. Implementations should use the bulk operations offered by the SML,
+	 * if available, to limit the number of calls to the SML. As the registration may fail for individual Participants,
+	 * for example because they are already registered by another SMP server, the result of the operation is reported
+	 * per Participant.
+	 * <p>
+	 * The default implementation registers each Participant separately using {@link #registerParticipant(Participant)}.
+	 *
+	 * @param <P>	the type of the Participant meta-data objects
+	 * @param participants	the meta-data of the Participants to register
+	 * @return	the result of the registration, indicating for which Participants the registration succeeded and for
+	 * 			which it failed
+	 * @since 3.1.0
+	 */
+	default <P extends Participant> SMLBatchResult<P> registerParticipants(List<P> participants) {
+		List<P> completed = new ArrayList<>(participants.size());
+		List<SMLBatchResult.Failure<P>> failed = new ArrayList<>();
+		for (P p : participants)
+			try {
+				registerParticipant(p);
+				completed.add(p);
+			} catch (SMLException registrationFailure) {
+				failed.add(new SMLBatchResult.Failure<>(p, registrationFailure));
+			}
+		return new SMLBatchResult<>(completed, failed);
+	}
+
+	/**
+	 * Removes the registrations of a set of Participants from the SML. Implementations should use the bulk operations
+	 * offered by the SML, if available, to limit the number of calls to the SML. The result of the operation is
+	 * reported per Participant.
+	 * <p>
+	 * The default implementation removes each Participant separately using {@link
+	 * #deregisterParticipant(Participant)}.
+	 *
+	 * @param <P>	the type of the Participant meta-data objects
+	 * @param participants	the Participant meta-data registrations that should be removed from the SML
+	 * @return	the result of the removal, indicating for which Participants the removal succeeded and for which it
+	 * 			failed
+	 * @since 3.1.0
+	 */
+	default <P extends Participant> SMLBatchResult<P> deregisterParticipants(List<P> participants) {
+		List<P> completed = new ArrayList<>(participants.size());
+		List<SMLBatchResult.Failure<P>> failed = new ArrayList<>();
+		for (P p : participants)
+			try {
+				deregisterParticipant(p);
+				completed.add(p);
+			} catch (SMLException removalFailure) {
+				failed.add(new SMLBatchResult.Failure<>(p, removalFailure));
+			}
+		return new SMLBatchResult<>(completed, failed);
+	}
+
 	/**
 	 * Checks if the Participant is registered in the SML by this SMP server. Note that a negative answer does not mean
 	 * the Participant is not registered in SML, only that it is not registered by this SMP server. Trying to 
@@ -126,6 +185,25 @@ public interface SMLIntegrationService {
 	 * @throws SMLException when there is an error executing the query to the SML
 	 */
 	boolean isRegistered(Participant p) throws SMLException;
+
+	/**
+	 * Retrieves the identifiers of the Participants registered in the SML by this SMP server. As the number of
+	 * registered Participants can be large, the identifiers are retrieved from the SML page by page and each page is
+	 * passed to the given handler as soon as it is retrieved. This ensures the complete list never needs to be held in
+	 * memory.
+	 * <p>
+	 * The default implementation throws an {@link UnsupportedOperationException} to indicate the SML does not support
+	 * listing the registered Participants.
+	 *
+	 * @param pageHandler	called for each page of identifiers retrieved from the SML. The handler returns
+	 * 						<code>true</code> when the next page should be retrieved and <code>false</code> when the
+	 * 						listing can be stopped
+	 * @throws SMLException when there is an error retrieving the list of registered Participants from the SML
+	 * @since 3.1.0
+	 */
+	default void listRegisteredParticipants(Predicate<List<Identifier>> pageHandler) throws SMLException {
+		throw new UnsupportedOperationException("Listing of registered Participants not supported by SML");
+	}
 	
 	/**
 	 * Prepares the migration of the Participant by registering the migration code in the SML.
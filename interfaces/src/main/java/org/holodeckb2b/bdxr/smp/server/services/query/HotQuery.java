@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.query;
+
+/**
+ * Represents a query that is among the most frequently executed queries on the SMP server, together with an estimate
+ * of how often it was executed. As older queries are gradually decayed the count is not an absolute number of
+ * executions, but should be used to compare queries with each other.
+ *
+ * @param queryPath	the path of the query, i.e. the request URL excluding the server's base URL. The path identifies
+ * 					the queried Participant and, in case of a query for service meta-data, the Service
+ * @param count		estimated number of recent executions of the query
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public record HotQuery(String queryPath, long count) {
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.query;
+
+/**
+ * Represents the number of queries executed in a period for a Participant and Service, handled by a query responder
+ * and completed with a specific HTTP status code, i.e. the sum of the {@link QueryVolume}s of all days in the period.
+ *
+ * @param participant	the queried Participant ID as included in the query path, see {@link QueryVolume#participant()}
+ * @param service		the queried Service ID as included in the query path, see {@link QueryVolume#service()}
+ * @param responder		the name of the query responder that handled the queries
+ * @param status		the HTTP status code of the responses
+ * @param count			the number of executed queries
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public record PeriodQueryVolume(String participant, String service, String responder, int status, long count) {
+}
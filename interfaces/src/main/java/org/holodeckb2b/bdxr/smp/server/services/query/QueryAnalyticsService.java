@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.query;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.holodeckb2b.bdxr.smp.server.services.core.MetadataExportService.ExportHandler;
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+
+/**
+ * Defines the Holodeck SMP Spring Service that manages the historical query volumes of the SMP server. The volumes are
+ * stored per day and Participant, Service, query responder and HTTP status code, so they can be used for capacity
+ * planning.
+ * <p>
+ * The query volumes are not registered per query but in batches of volumes which have been aggregated by the query
+ * API before they are added to the stored volumes. 
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface QueryAnalyticsService {
+
+	/**
+	 * Adds the given query volumes to the stored volumes. When there already is a stored volume for the same day,
+	 * Participant, Service, responder and status, the count of the given volume is added to it.
+	 * <p>
+	 * As the Participant and Service IDs are taken from the query paths, which also include the IDs of unknown
+	 * Participants, the number of volumes stored per day is limited. When the limit is reached, the counts of new
+	 * Participants and Services are added to the volume of {@link QueryVolume#OTHER_PARTICIPANTS} with the same
+	 * responder and status, so the daily totals remain correct.
+	 *
+	 * @param volumes	the query volumes to add
+	 * @throws PersistenceException	when an error occurs saving the query volumes
+	 */
+	void addQueryVolumes(Collection<QueryVolume> volumes) throws PersistenceException;
+
+	/**
+	 * Gets the total number of queries per day and HTTP status code in the given period.
+	 *
+	 * @param from	the first day of the period
+	 * @param to	the last day of the period
+	 * @return	the daily query volumes in the given period, ordered by day and status
+	 * @throws PersistenceException	when an error occurs retrieving the query volumes
+	 */
+	List<DailyQueryVolume> getDailyVolumes(LocalDate from, LocalDate to) throws PersistenceException;
+
+	/**
+	 * Gets the Participants and Services queried most in the given period.
+	 *
+	 * @param from	the first day of the period
+	 * @param to	the last day of the period
+	 * @param max	the maximum number of volumes to return
+	 * @return	the highest query volumes per Participant, Service, responder and status in the given period, ordered
+	 * 			by descending count
+	 * @throws PersistenceException	when an error occurs retrieving the query volumes
+	 */
+	List<PeriodQueryVolume> getTopVolumes(LocalDate from, LocalDate to, int max) throws PersistenceException;
+
+	/**
+	 * Exports the stored query volumes of the given period. The volumes are read from the database using a cursor and
+	 * passed to the handler one by one, ordered by day, Participant, Service, responder and status, so the number of
+	 * volumes in the period does not affect the memory used.
+	 *
+	 * @param from		the first day of the period
+	 * @param to		the last day of the period
+	 * @param handler	the handler to process the query volumes
+	 * @return	the number of exported query volumes
+	 * @throws PersistenceException	when an error occurs retrieving the query volumes
+	 * @throws IOException			when the handler fails to process a query volume
+	 */
+	long exportQueryVolumes(LocalDate from, LocalDate to, ExportHandler<? super QueryVolume> handler)
+																			throws PersistenceException, IOException;
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.query;
+
+import java.util.List;
+
+/**
+ * Defines the Holodeck SMP Spring Service that keeps track of which queries are executed on the SMP server and how
+ * often, so it is known which Participants and Services are actually queried. As the number of distinct queries can be
+ * very large, the service only provides estimates of the query frequencies and only keeps track of the most often
+ * executed queries. Counts are decayed over time so the statistics reflect the recent query traffic.
+ * <p>
+ * Registration of a query is done for each request processed by the query responder and must therefore be cheap and
+ * not block.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public interface QueryStatisticsService {
+
+	/**
+	 * Registers the execution of the given query.
+	 *
+	 * @param queryPath	the path of the executed query
+	 */
+	void registerQuery(String queryPath);
+
+	/**
+	 * Gets the estimated number of recent executions of the given query. The estimate may be higher than the actual
+	 * number of executions, but never lower.
+	 *
+	 * @param queryPath	the path of the query
+	 * @return	the estimated number of recent executions
+	 */
+	long getEstimatedCount(String queryPath);
+
+	/**
+	 * Gets the list of most frequently executed queries, ordered by descending count.
+	 *
+	 * @return	the most frequently executed queries
+	 */
+	List<HotQuery> getMostQueried();
+}
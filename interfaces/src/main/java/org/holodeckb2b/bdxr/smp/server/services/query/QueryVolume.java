@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.query;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the number of queries executed on a specific day for a Participant and Service, handled by a query
+ * responder and completed with a specific HTTP status code. 
+ *
+ * @param day			the day (in UTC) on which the queries were executed
+ * @param participant	the queried Participant ID as included in the query path, empty string if the query path
+ * 						could not be mapped to a query responder or {@link #OTHER_PARTICIPANTS} if the volume combines
+ * 						the queries that were not stored separately because the maximum number of volumes for the day
+ * 						was reached
+ * @param service		the queried Service ID as included in the query path, empty string if the query did not
+ * 						request the meta-data of a specific Service
+ * @param responder		the name of the query responder that handled the queries, empty string if no responder
+ * 						was available
+ * @param status		the HTTP status code of the responses
+ * @param count			the number of executed queries
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public record QueryVolume(LocalDate day, String participant, String service, String responder, int status,
+						  long count) {
+
+	/**
+	 * The Participant ID used for the volume that combines the queries that could not be stored separately because
+	 * the maximum number of volumes per day was reached. As it is not a valid query path segment, it cannot be mistaken
+	 * for a queried Participant ID.
+	 */
+	public static final String OTHER_PARTICIPANTS = "*";
+}
@@ -16,13 +16,23 @@
  */
 package org.holodeckb2b.bdxr.smp.server.mgmtapi;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
 import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
 import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.ResponseFactory;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkBindingOperationType;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkBindingRequestElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkBindingResultElement;
 import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ServiceMetadataBindingsElement;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkBindingResult;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantSelection;
 import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantsService;
 import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
 import org.holodeckb2b.bdxr.smp.server.services.core.SMTMgmtService;
@@ -35,7 +45,9 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -44,7 +56,7 @@ import org.springframework.web.server.ResponseStatusException;
 import lombok.extern.slf4j.Slf4j;
 
 @RestController
-@RequestMapping("/participants/{partID}/bindings")
+@RequestMapping("/participants")
 @Slf4j
 public class BindingsController {
 
@@ -60,7 +72,7 @@ public class BindingsController {
 	@Autowired
 	protected SMTMgmtService smtSvc;
 	
-	@GetMapping(produces = MediaType.APPLICATION_XML_VALUE )
+	@GetMapping(value = "/{partID}/bindings", produces = MediaType.APPLICATION_XML_VALUE )
 	public ServiceMetadataBindingsElement getBindings(@PathVariable("partID") String partID) {
 		log.debug("Request to list all bindings for Participant {}", partID);
 		try {		
@@ -71,7 +83,7 @@ public class BindingsController {
 		}
 	}
 	
-	@PutMapping("/{smtID}")
+	@PutMapping("/{partID}/bindings/{smtID}")
 	@ResponseStatus(HttpStatus.CREATED)	
 	public void addBinding(@PathVariable("partID") String partID, @PathVariable("smtID") String templateId) {
 		log.debug("Request to bind SMT {} to Participant {}", templateId, partID);
@@ -99,7 +111,7 @@ public class BindingsController {
 		}
 	}
 	
-	@DeleteMapping("/{smtID}")
+	@DeleteMapping("/{partID}/bindings/{smtID}")
 	@ResponseStatus(HttpStatus.ACCEPTED)
 	public void removeBinding(@PathVariable("partID") String partID, @PathVariable("smtID") String templateId) {
 		log.debug("Request to remove binding of SMT {} to Participant {}", templateId, partID);
@@ -127,6 +139,78 @@ public class BindingsController {
 		}	
 	}
 	
+	@PostMapping(value = "/bindings", consumes = MediaType.APPLICATION_XML_VALUE,
+				 produces = MediaType.APPLICATION_XML_VALUE)
+	public BulkBindingResultElement updateBindings(@RequestBody BulkBindingRequestElement request) {
+		final BulkBindingOperationType op = request.getOperation();
+		log.debug("Request to {} SMT {} for multiple Participants", op, request.getTemplateId());
+		try {
+			ServiceMetadataTemplate template = findTemplate(request.getTemplateId());
+			ParticipantSelection selection = request.getBoundToTemplate() != null ?
+										ParticipantSelection.boundTo(findTemplate(request.getBoundToTemplate()))
+									  : ParticipantSelection.of(parseParticipantIDs(request.getParticipantIDs()));
+			BulkBindingResult result = switch (op) {
+				case BIND -> participantsSvc.bindToSMT(mgmtAPIUser, selection, template);
+				case UNBIND -> participantsSvc.removeSMTBinding(mgmtAPIUser, selection, template);
+				case REPLACE -> {
+					if (request.getReplacementId() == null) {
+						log.warn("No replacement template specified in request to replace SMT {}", template.getId());
+						throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+					}
+					yield participantsSvc.replaceSMTBinding(mgmtAPIUser, selection, template,
+															findTemplate(request.getReplacementId()));
+				}
+			};
+			log.info("Executed bulk {} of SMT {}, updated {} of {} selected Participants", op, template.getId(),
+						result.updated(), result.selected());
+			return ResponseFactory.createBulkBindingResponse(result);
+		} catch (IllegalArgumentException invalidRequest) {
+			log.warn("Invalid request to {} SMT {} : {}", op, request.getTemplateId(), invalidRequest.getMessage());
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+		} catch (PersistenceException dbError) {
+			log.error("Error during bulk {} of SMT ({}) : {}", op, request.getTemplateId(),
+						Utils.getExceptionTrace(dbError));
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	/**
+	 * Helper method to retrieve the Service Metadata Template referenced in a bulk request from the database.
+	 *
+	 * @param templateId	the identifier of the template
+	 * @return	the template
+	 * @throws ResponseStatusException when no template with the given identifier exists (NOT_FOUND)
+	 * @throws PersistenceException when an error occurs retrieving the template
+	 */
+	private ServiceMetadataTemplate findTemplate(BigInteger templateId) throws PersistenceException {
+		ServiceMetadataTemplate template = smtSvc.getTemplate(templateId.longValue());
+		if (template == null) {
+			log.warn("No template with ID ({}) is found", templateId);
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
+		return template;
+	}
+
+	/**
+	 * Helper method to parse the Participant Identifiers included in a bulk request. As the result of the operation
+	 * reports the Participants that do not exist, an Identifier with an unknown ID Scheme does not result in an error
+	 * response but is passed to the service as is.
+	 *
+	 * @param partIDs	the Participant Identifiers from the request
+	 * @return	the parsed Identifiers
+	 */
+	private List<Identifier> parseParticipantIDs(List<String> partIDs) {
+		List<Identifier> ids = new ArrayList<>(partIDs.size());
+		for (String partID : partIDs)
+			try {
+				ids.add(idUtils.parseIDString(partID));
+			} catch (NoSuchElementException unknownScheme) {
+				int sep = partID.indexOf("::");
+				ids.add(new IdentifierImpl(partID.substring(sep + 2), partID.substring(0, sep)));
+			}
+		return ids;
+	}
+
 	/**
 	 * Helper method to retrieve the Participant registration from the database.
 	 * 
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2023 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.mgmtapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
+import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.ResponseFactory;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkJobElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkJobRequestElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkJobsElement;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJob;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJobService;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJobService.Operation;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantSelection;
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.bdxr.smp.server.services.core.SMTMgmtService;
+import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryException;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.holodeckb2b.commons.util.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Provides the <code>/jobs</code> resource to submit and monitor bulk jobs that register or remove Participants
+ * in/from the SML or publish or remove them in/from the directory.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@RestController
+@RequestMapping("/jobs")
+@Slf4j
+public class BulkJobsController {
+
+	@Autowired
+	protected User	mgmtAPIUser;
+
+	@Autowired
+	protected IdUtils idUtils;
+
+	@Autowired
+	protected BulkJobService	jobSvc;
+
+	@Autowired
+	protected SMTMgmtService	smtSvc;
+
+	@PostMapping(consumes = MediaType.APPLICATION_XML_VALUE, produces = MediaType.APPLICATION_XML_VALUE)
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	public BulkJobElement submitJob(@RequestBody BulkJobRequestElement request) {
+		final Operation op = Operation.valueOf(request.getOperation().name());
+		log.debug("Request to submit bulk job to {}", op);
+		try {
+			ParticipantSelection selection;
+			if (request.getBoundToTemplate() != null) {
+				ServiceMetadataTemplate template = smtSvc.getTemplate(request.getBoundToTemplate().longValue());
+				if (template == null) {
+					log.warn("Unable to submit bulk job as no template with ID ({}) is found",
+								request.getBoundToTemplate());
+					throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+				}
+				selection = ParticipantSelection.boundTo(template);
+			} else if (!Utils.isNullOrEmpty(request.getParticipantIDs()))
+				selection = ParticipantSelection.of(parseParticipantIDs(request.getParticipantIDs()));
+			else
+				selection = ParticipantSelection.pending();
+
+			BulkJob job = jobSvc.submit(mgmtAPIUser, op, selection);
+			log.info("Submitted bulk job (id={}) to {}", job.getId(), op);
+			return ResponseFactory.createBulkJobResponse(job);
+		} catch (SMLException | DirectoryException notAvailable) {
+			log.warn("Cannot submit bulk job to {} : {}", op, notAvailable.getMessage());
+			throw new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY);
+		} catch (PersistenceException pe) {
+			log.error("Error occurred submitting bulk job : {}", Utils.getExceptionTrace(pe));
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_XML_VALUE)
+	public BulkJobsElement getJobs() {
+		log.debug("Request to list bulk jobs");
+		BulkJobsElement response = new BulkJobsElement();
+		jobSvc.getJobs().forEach(j -> response.getBulkJobs().add(ResponseFactory.createBulkJobResponse(j)));
+		return response;
+	}
+
+	@GetMapping(value = "/{jobID}", produces = MediaType.APPLICATION_XML_VALUE)
+	public BulkJobElement getJob(@PathVariable("jobID") String jobID) {
+		log.debug("Request to get bulk job {}", jobID);
+		BulkJob job = jobSvc.getJob(jobID);
+		if (job == null) {
+			log.debug("Bulk job {} not found", jobID);
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
+		return ResponseFactory.createBulkJobResponse(job);
+	}
+
+	@DeleteMapping("/{jobID}")
+	@ResponseStatus(HttpStatus.ACCEPTED)
+	public void cancelJob(@PathVariable("jobID") String jobID) {
+		log.debug("Request to cancel bulk job {}", jobID);
+		if (!jobSvc.cancel(jobID)) {
+			log.debug("Bulk job {} not found or already ended", jobID);
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
+		log.info("Cancelled bulk job {}", jobID);
+	}
+
+	/**
+	 * Helper method to parse the Participant Identifiers included in the request. As the job reports the Participants
+	 * that could not be processed, an Identifier with an unknown ID Scheme does not result in an error response but is
+	 * passed to the job as is.
+	 *
+	 * @param partIDs	the Participant Identifiers from the request
+	 * @return	the parsed Identifiers
+	 */
+	private List<Identifier> parseParticipantIDs(List<String> partIDs) {
+		List<Identifier> ids = new ArrayList<>(partIDs.size());
+		for (String partID : partIDs)
+			try {
+				ids.add(idUtils.parseIDString(partID));
+			} catch (NoSuchElementException unknownScheme) {
+				int sep = partID.indexOf("::");
+				ids.add(new IdentifierImpl(partID.substring(sep + 2), partID.substring(0, sep)));
+			}
+		return ids;
+	}
+}
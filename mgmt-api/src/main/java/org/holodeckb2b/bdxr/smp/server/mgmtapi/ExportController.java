@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.mgmtapi;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.exports.NDJSONExportWriter;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.exports.XMLExportWriter;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.ResponseFactory;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ExportedParticipantType;
+import org.holodeckb2b.bdxr.smp.server.services.core.MetadataExportService;
+import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the <code>/export</code> resources of the management API which can be used to export all Participants,
+ * their bindings and the Service Metadata Templates. Unlike the other resources, which build the complete response
+ * document in memory, the export resources write the response while the meta-data is read from the database by the
+ * {@link MetadataExportService}, so the memory used does not depend on the number of exported objects.
+ * <p>
+ * The Participants and bindings can be exported as XML or as newline delimited JSON, which is selected using the
+ * <code>format</code> parameter. The templates are only exported as XML as their structure is defined by the OASIS SMP
+ * specification. When the <code>gzip</code> parameter is set to <i>true</i> the response is compressed and the <code>
+ * Content-Encoding</code> header is set accordingly.
+ * <p>
+ * As the response is committed before the export has completed, an error that occurs during the export cannot be
+ * reported using the status code. In that case the response is aborted without completing the document, i.e. the XML
+ * document is not well-formed and the gzip stream is not terminated.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@RestController
+@RequestMapping("/export")
+@Slf4j
+public class ExportController {
+
+	/**
+	 * The media type of newline delimited JSON documents
+	 */
+	static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Enumerates the supported export formats
+	 */
+	private enum Format { XML, NDJSON }
+
+	@Autowired
+	protected MetadataExportService	exportSvc;
+
+	/**
+	 * Writes the export to the given output stream.
+	 */
+	@FunctionalInterface
+	private interface Exporter {
+		long export(OutputStream os) throws PersistenceException, IOException;
+	}
+
+	@GetMapping("/participants")
+	public void exportParticipants(@RequestParam(defaultValue = "xml") String format,
+								   @RequestParam(defaultValue = "false") boolean gzip, HttpServletResponse response) {
+		log.debug("Request to export Participants (format={},gzip={})", format, gzip);
+		if (parseFormat(format) == Format.XML)
+			stream(response, MediaType.APPLICATION_XML_VALUE, gzip, os -> {
+				XMLExportWriter w = new XMLExportWriter(os, "ParticipantExport");
+				long n = exportSvc.exportParticipants(p -> w.write("Participant", ExportedParticipantType.class,
+																	ResponseFactory.createParticipantExport(p)));
+				w.finish();
+				return n;
+			});
+		else
+			stream(response, NDJSON_MEDIA_TYPE, gzip, os -> {
+				NDJSONExportWriter w = new NDJSONExportWriter(os);
+				long n = exportSvc.exportParticipants(w::write);
+				w.finish();
+				return n;
+			});
+	}
+
+	@GetMapping("/bindings")
+	public void exportBindings(@RequestParam(defaultValue = "xml") String format,
+							   @RequestParam(defaultValue = "false") boolean gzip, HttpServletResponse response) {
+		log.debug("Request to export bindings (format={},gzip={})", format, gzip);
+		if (parseFormat(format) == Format.XML)
+			stream(response, MediaType.APPLICATION_XML_VALUE, gzip, os -> {
+				XMLExportWriter w = new XMLExportWriter(os, "BindingsExport");
+				long n = exportSvc.exportBindings(b -> {
+					try {
+						w.write(ResponseFactory.createBindingsExport(b));
+					} catch (InstantiationException e) {
+						throw new IOException("Could not create XML for bindings", e);
+					}
+				});
+				w.finish();
+				return n;
+			});
+		else
+			stream(response, NDJSON_MEDIA_TYPE, gzip, os -> {
+				NDJSONExportWriter w = new NDJSONExportWriter(os);
+				long n = exportSvc.exportBindings(w::write);
+				w.finish();
+				return n;
+			});
+	}
+
+	@GetMapping("/templates")
+	public void exportTemplates(@RequestParam(defaultValue = "xml") String format,
+								@RequestParam(defaultValue = "false") boolean gzip, HttpServletResponse response) {
+		log.debug("Request to export Service Metadata Templates (format={},gzip={})", format, gzip);
+		if (parseFormat(format) != Format.XML)
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Templates can only be exported as XML");
+		stream(response, MediaType.APPLICATION_XML_VALUE, gzip, os -> {
+			XMLExportWriter w = new XMLExportWriter(os, "ServiceMetadataTemplates");
+			long n = exportSvc.exportTemplates(t -> {
+				try {
+					w.write(ResponseFactory.createTemplateExport(t));
+				} catch (InstantiationException e) {
+					throw new IOException("Could not create XML for template", e);
+				}
+			});
+			w.finish();
+			return n;
+		});
+	}
+
+	/**
+	 * Parses the value of the <code>format</code> parameter.
+	 *
+	 * @param format	the parameter value
+	 * @return	the requested format
+	 * @throws ResponseStatusException with status 400 when the format is not supported
+	 */
+	private static Format parseFormat(String format) {
+		try {
+			return Format.valueOf(format.trim().toUpperCase());
+		} catch (IllegalArgumentException unknown) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format : " + format);
+		}
+	}
+
+	/**
+	 * Executes the export and writes it directly to the response, compressing it when requested.
+	 *
+	 * @param response		the HTTP response
+	 * @param contentType	the media type of the export
+	 * @param gzip			indicates whether the response should be compressed
+	 * @param exporter		the function executing the export
+	 * @throws ResponseStatusException with status 500 when an error occurs reading the meta-data from the database
+	 */
+	private void stream(HttpServletResponse response, String contentType, boolean gzip, Exporter exporter) {
+		response.setContentType(contentType);
+		if (gzip)
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		try {
+			OutputStream os = response.getOutputStream();
+			os = gzip ? new GZIPOutputStream(os, BUFFER_SIZE) : new BufferedOutputStream(os, BUFFER_SIZE);
+			long n = exporter.export(os);
+			os.close();
+			log.debug("Exported {} objects", n);
+		} catch (IOException clientGone) {
+			log.warn("Could not write export to client : {}", clientGone.getMessage());
+		} catch (PersistenceException dbError) {
+			log.error("Export aborted due to database error{}", response.isCommitted() ? " after response was sent" : "");
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+}
@@ -19,6 +19,8 @@ package org.holodeckb2b.bdxr.smp.server.mgmtapi;
 import java.util.Collections;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementContextAutoConfiguration;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.context.annotation.Bean;
@@ -38,7 +40,8 @@ import org.springframework.security.core.userdetails.User;
 @PropertySources({
 	@PropertySource("classpath:/mgmt-api-defaults.properties"),
 	@PropertySource(value = "file:${smp.home:.}/mgmt-api.properties", ignoreResourceNotFound = true)})
-@EnableAutoConfiguration(exclude = { SecurityAutoConfiguration.class })
+@EnableAutoConfiguration(exclude = { SecurityAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class,
+									 ManagementContextAutoConfiguration.class })
 public class MgmtAppConfig {
 	
 	@Bean
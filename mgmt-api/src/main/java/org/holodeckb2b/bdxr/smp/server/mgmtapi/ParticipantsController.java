@@ -16,13 +16,34 @@
  */
 package org.holodeckb2b.bdxr.smp.server.mgmtapi;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
 import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.imports.CSVImportRecordReader;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.imports.ImportRecordReader;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.imports.XMLImportRecordReader;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.ResponseFactory;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportResultElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ParticipantListElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.SMLBatchResultElement;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJob;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJobService;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.ImportResult;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.Outcome;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantSelection;
 import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantsService;
 import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult;
 import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
 import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
 import org.holodeckb2b.commons.util.Utils;
@@ -34,7 +55,9 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -60,6 +83,12 @@ public class ParticipantsController {
 	@Autowired
 	protected IdUtils idUtils;
 	
+	@Autowired
+	protected ParticipantImportService	importSvc;
+	
+	@Autowired
+	protected BulkJobService	jobSvc;
+	
 	@PutMapping("/{partID}")
 	@ResponseStatus(HttpStatus.CREATED)
 	public void addParticipant(@PathVariable("partID") String partID, 
@@ -184,6 +213,151 @@ public class ParticipantsController {
 		}
 	}
 		
+	@PostMapping(value = "/sml/register", consumes = MediaType.APPLICATION_XML_VALUE,
+				 produces = MediaType.APPLICATION_XML_VALUE)
+	public SMLBatchResultElement registerParticipantsInSML(@RequestBody ParticipantListElement request) {
+		log.debug("Request to register {} Participants in SML", request.getParticipantIDs().size());
+		Map<String, String> rejected = new LinkedHashMap<>();
+		List<Participant> participants = findParticipants(request, rejected);
+		try {
+			SMLBatchResult<? extends Participant> result = participantsSvc.registerInSML(mgmtAPIUser, participants);
+			log.info("Registered {} Participants in SML, {} failed", result.completed().size(),
+					 result.failed().size() + rejected.size());
+			return ResponseFactory.createSMLBatchResponse(result, rejected);
+		} catch (SMLException smlRegFailed) {
+			log.error("Error during registration of Participants in SML : {}", Utils.getExceptionTrace(smlRegFailed));
+			throw new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY);
+		} catch (PersistenceException pe) {
+			log.error("Error occurred updating Participants meta-data : {}", Utils.getExceptionTrace(pe));
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	@PostMapping(value = "/sml/remove", consumes = MediaType.APPLICATION_XML_VALUE,
+				 produces = MediaType.APPLICATION_XML_VALUE)
+	public SMLBatchResultElement removeParticipantsFromSML(@RequestBody ParticipantListElement request) {
+		log.debug("Request to remove {} Participants from SML", request.getParticipantIDs().size());
+		Map<String, String> rejected = new LinkedHashMap<>();
+		List<Participant> participants = findParticipants(request, rejected);
+		try {
+			SMLBatchResult<? extends Participant> result = participantsSvc.removeFromSML(mgmtAPIUser, participants);
+			log.info("Removed {} Participants from SML, {} failed", result.completed().size(),
+					 result.failed().size() + rejected.size());
+			return ResponseFactory.createSMLBatchResponse(result, rejected);
+		} catch (SMLException smlRemovalFailed) {
+			log.error("Error occurred removing Participants from SML : {}", Utils.getExceptionTrace(smlRemovalFailed));
+			throw new ResponseStatusException(HttpStatus.FAILED_DEPENDENCY);
+		} catch (PersistenceException pe) {
+			log.error("Error occurred updating Participants meta-data : {}", Utils.getExceptionTrace(pe));
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+	}
+
+	@PostMapping(value = "/import", consumes = MediaType.APPLICATION_XML_VALUE,
+				 produces = MediaType.APPLICATION_XML_VALUE)
+	public ImportResultElement importParticipantsFromXML(InputStream body,
+														 @RequestParam(defaultValue = "false") boolean registerInSML) {
+		log.debug("Request to import Participants from XML document");
+		return importParticipants(() -> new XMLImportRecordReader(body, idUtils), registerInSML);
+	}
+
+	@PostMapping(value = "/import", consumes = "text/csv", produces = MediaType.APPLICATION_XML_VALUE)
+	public ImportResultElement importParticipantsFromCSV(InputStream body,
+														 @RequestParam(defaultValue = "false") boolean registerInSML) {
+		log.debug("Request to import Participants from CSV document");
+		return importParticipants(() -> new CSVImportRecordReader(body, idUtils), registerInSML);
+	}
+
+	/**
+	 * Helper method to import the Participants read from the request body and, if requested, submit a bulk job for
+	 * each imported chunk to register its Participants in the SML. As the Participants are already imported when a job
+	 * is submitted, a failure to submit the job does not result in an error response but is reported as a warning and
+	 * no further jobs are submitted.
+	 *
+	 * @param readerFactory	supplier of the reader of the request body
+	 * @param registerInSML	indicates whether the imported Participants should be registered in the SML
+	 * @return	the result of the import
+	 * @throws ResponseStatusException when the request body cannot be read (BAD_REQUEST) or an error occurs saving the
+	 * 								   Participants (INTERNAL_SERVER_ERROR)
+	 */
+	private ImportResultElement importParticipants(Supplier<ImportRecordReader> readerFactory, boolean registerInSML)
+																						throws ResponseStatusException {
+		ImportRecordReader reader;
+		try {
+			reader = readerFactory.get();
+		} catch (IllegalStateException malformed) {
+			log.warn("Cannot import Participants from invalid document : {}", malformed.getMessage());
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, malformed.getMessage());
+		}
+		final List<BulkJob> jobs = new ArrayList<>();
+		final StringBuilder warning = new StringBuilder();
+		Consumer<List<? extends Participant>> queueRegistration = imported -> {
+			if (!warning.isEmpty())
+				return;
+			try {
+				BulkJob job = jobSvc.submit(mgmtAPIUser, BulkJobService.Operation.REGISTER_IN_SML,
+											ParticipantSelection.of(imported.stream().map(Participant::getId).toList()));
+				log.debug("Submitted bulk job (id={}) to register {} imported Participants in SML", job.getId(),
+						  imported.size());
+				jobs.add(job);
+			} catch (PersistenceException notSubmitted) {
+				log.warn("Cannot submit bulk job to register imported Participants in SML : {}",
+						 notSubmitted.getMessage());
+				warning.append(jobs.isEmpty() ? "Imported Participants are not registered in the SML : "
+											  : "Not all imported Participants are registered in the SML : ")
+					   .append(notSubmitted.getMessage());
+			}
+		};
+		ImportResult result;
+		try {
+			result = importSvc.importParticipants(mgmtAPIUser, reader, registerInSML ? queueRegistration : null);
+		} catch (PersistenceException pe) {
+			log.error("Error occurred importing Participants : {}", Utils.getExceptionTrace(pe));
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+		log.info("Imported {} Participants, {} duplicates and {} rejected{}", result.count(Outcome.IMPORTED),
+				 result.count(Outcome.DUPLICATE), result.count(Outcome.REJECTED),
+				 jobs.isEmpty() ? "" : ", submitted " + jobs.size() + " bulk jobs to register them in SML");
+		return ResponseFactory.createImportResponse(result, jobs, !warning.isEmpty() ? warning.toString() : null);
+	}
+
+	/**
+	 * Helper method to retrieve the Participant registrations included in a bulk request from the database. Unlike
+	 * {@link #findParticipant(String)} invalid or unknown Participant Identifiers don't result in an error response,
+	 * but are reported as failed in the response.
+	 *
+	 * @param request	the list of Participant Identifiers from the request
+	 * @param rejected	map to which the Participant Identifiers that could not be found are added, together with the
+	 * 					reason why
+	 * @return	the Participant registrations found in the database
+	 * @throws ResponseStatusException when an error occurs checking the Participant registrations
+	 * 								   (INTERNAL_SERVER_ERROR)
+	 */
+	private List<Participant> findParticipants(ParticipantListElement request, Map<String, String> rejected)
+																						throws ResponseStatusException {
+		List<Participant> participants = new ArrayList<>(request.getParticipantIDs().size());
+		for (String partID : request.getParticipantIDs()) {
+			try {
+				Participant p = participantsSvc.getParticipant(idUtils.toEmbeddedIdentifier(
+																				idUtils.parseIDString(partID)));
+				if (p != null)
+					participants.add(p);
+				else {
+					log.debug("Participant with PartID ({}) not found", partID);
+					rejected.put(partID, "Unknown Participant");
+				}
+			} catch (NoSuchElementException unknownScheme) {
+				log.warn("ID Scheme of given Participant ID ({}) not found!", partID);
+				rejected.put(partID, "Unknown ID Scheme");
+			} catch (PersistenceException pe) {
+				log.error("Unexpected error checking for Participant (PID={}) : {}", partID,
+							Utils.getExceptionTrace(pe));
+				throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+			}
+		}
+		return participants;
+	}
+
 	/**
 	 * Helper method to retrieve the Participant registration from the database.
 	 * 
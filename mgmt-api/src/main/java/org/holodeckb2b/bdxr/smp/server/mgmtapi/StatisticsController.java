@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.mgmtapi;
+
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.ResponseFactory;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.QueryStatisticsElement;
+import org.holodeckb2b.bdxr.smp.server.services.query.QueryStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Provides the <code>/statistics</code> resource to retrieve the statistics on the queries executed on the SMP server.
+ * As the statistics are collected in memory by the query responder, they are only available when the management API
+ * runs in the same server instance.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@RestController
+@RequestMapping("/statistics")
+@Slf4j
+public class StatisticsController {
+
+	@Autowired
+	protected QueryStatisticsService  queryStats;
+
+	@GetMapping(path = "/queries", produces = MediaType.APPLICATION_XML_VALUE)
+	public QueryStatisticsElement getMostQueried() {
+		log.debug("Request for most executed queries");
+		return ResponseFactory.createQueryStatisticsResponse(queryStats.getMostQueried());
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.mgmtapi.exports;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Set;
+
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.smp.server.datamodel.Contact;
+import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.services.core.MetadataExportService.ParticipantBindings;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes an export as <a href="https://github.com/ndjson/ndjson-spec">newline delimited JSON</a>, i.e. each exported
+ * item is written as a JSON object on a separate line. The field names of the objects are the same as the element
+ * names used in the XML export, but starting with a lower case letter, and fields without value are left out.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class NDJSONExportWriter {
+
+	private static final JsonFactory JSON_FACTORY = JsonFactory.builder().build();
+
+	private final JsonGenerator	generator;
+
+	/**
+	 * Creates a new writer that writes to the given output stream.
+	 *
+	 * @param os	the output stream to write the items to
+	 * @throws IOException	when the writer cannot be created
+	 */
+	public NDJSONExportWriter(OutputStream os) throws IOException {
+		generator = JSON_FACTORY.createGenerator(os, JsonEncoding.UTF8);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		// Every object is written on its own line, separated by only a newline
+		generator.setRootValueSeparator(null);
+	}
+
+	/**
+	 * Writes the exported Participant.
+	 *
+	 * @param p	the Participant meta-data registration
+	 * @throws IOException	when the Participant cannot be written
+	 */
+	public void write(Participant p) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("participantID", IdUtils.toIDString(p.getId()));
+		writeOptional("name", p.getName());
+		writeOptional("countryCode", p.getRegistrationCountry());
+		writeOptional("geographicalInformation", p.getLocationInfo());
+		LocalDate regDate = p.getFirstRegistrationDate();
+		if (regDate != null)
+			generator.writeStringField("registrationDate", regDate.toString());
+		if (!p.getWebsites().isEmpty())
+			generator.writeStringField("website", p.getWebsites().iterator().next().toString());
+		Set<Contact> contacts = p.getContactInfo();
+		if (!contacts.isEmpty()) {
+			Contact c = contacts.iterator().next();
+			generator.writeObjectFieldStart("contact");
+			writeOptional("name", c.getName());
+			writeOptional("jobTitle", c.getJobTitle());
+			writeOptional("department", c.getDepartment());
+			writeOptional("email", c.getEmailAddress());
+			writeOptional("telephone", c.getTelephone());
+			generator.writeEndObject();
+		}
+		if (!p.getAdditionalIds().isEmpty()) {
+			generator.writeArrayFieldStart("additionalIDs");
+			for (Identifier id : p.getAdditionalIds())
+				generator.writeString(id.getScheme() != null ? IdUtils.toIDString(id) : id.getValue());
+			generator.writeEndArray();
+		}
+		generator.writeBooleanField("registeredInSML", p.isRegisteredInSML());
+		generator.writeBooleanField("publishedInDirectory", p.isPublishedInDirectory());
+		endLine();
+	}
+
+	/**
+	 * Writes the exported bindings of a Participant.
+	 *
+	 * @param b	the bindings of the Participant
+	 * @throws IOException	when the bindings cannot be written
+	 */
+	public void write(ParticipantBindings b) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("participantID", IdUtils.toIDString(b.participantId()));
+		generator.writeArrayFieldStart("templateIds");
+		for (Long t : b.templateIds())
+			generator.writeNumber(t);
+		generator.writeEndArray();
+		endLine();
+	}
+
+	/**
+	 * Flushes the items written so far to the output stream.
+	 *
+	 * @throws IOException	when the items cannot be written
+	 */
+	public void finish() throws IOException {
+		generator.flush();
+	}
+
+	private void writeOptional(String field, String value) throws IOException {
+		if (value != null)
+			generator.writeStringField(field, value);
+	}
+
+	private void endLine() throws IOException {
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+}
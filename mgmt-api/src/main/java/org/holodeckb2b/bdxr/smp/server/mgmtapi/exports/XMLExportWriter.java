@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.mgmtapi.exports;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ObjectFactory;
+import org.holodeckb2b.commons.util.Utils;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+
+/**
+ * Writes an exported XML document incrementally. The root element is written using StAX and each exported item is
+ * marshalled as a separate fragment directly to the output stream, so only the item currently being written is held in
+ * memory. The document is only complete when {@link #finish()} is called, so when the export is aborted the output is
+ * not a well-formed XML document and the client can detect that the export failed.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class XMLExportWriter {
+
+	/**
+	 * The namespace of the exported documents
+	 */
+	public static final String NS = "http://holodeck-smp.org/schemas/2025/05/server/api/metadata";
+
+	private static final XMLOutputFactory XOF = XMLOutputFactory.newFactory();
+	private static final JAXBContext	  JAXB_CTX;
+	static {
+		try {
+			JAXB_CTX = JAXBContext.newInstance(ObjectFactory.class);
+		} catch (JAXBException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final XMLStreamWriter	writer;
+	private final Marshaller		marshaller;
+
+	/**
+	 * Creates a new writer and writes the start of the document to the given output stream.
+	 *
+	 * @param os	the output stream to write the document to
+	 * @param root	the local name of the root element of the document
+	 * @throws IOException	when the start of the document cannot be written
+	 */
+	public XMLExportWriter(OutputStream os, String root) throws IOException {
+		try {
+			writer = XOF.createXMLStreamWriter(os, StandardCharsets.UTF_8.name());
+			writer.setDefaultNamespace(NS);
+			writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+			writer.writeStartElement(NS, root);
+			writer.writeDefaultNamespace(NS);
+			marshaller = JAXB_CTX.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+		} catch (XMLStreamException | JAXBException e) {
+			throw new IOException("Could not start XML document : " + Utils.getRootCause(e).getMessage(), e);
+		}
+	}
+
+	/**
+	 * Writes an exported item as child element of the root element.
+	 *
+	 * @param item	the JAXB object of the item, either an object representing a global element or a {@link JAXBElement}
+	 * @throws IOException	when the item cannot be written
+	 */
+	public void write(Object item) throws IOException {
+		try {
+			marshaller.marshal(item, writer);
+		} catch (JAXBException e) {
+			throw new IOException("Could not write exported item : " + Utils.getRootCause(e).getMessage(), e);
+		}
+	}
+
+	/**
+	 * Writes an exported item as child element of the root element.
+	 *
+	 * @param <T>		the type of the item
+	 * @param name		the local name of the element
+	 * @param type		the JAXB class of the element's type
+	 * @param item		the JAXB object of the item
+	 * @throws IOException	when the item cannot be written
+	 */
+	public <T> void write(String name, Class<T> type, T item) throws IOException {
+		write(new JAXBElement<>(new QName(NS, name), type, item));
+	}
+
+	/**
+	 * Completes the document by writing the end of the root element.
+	 *
+	 * @throws IOException	when the end of the document cannot be written
+	 */
+	public void finish() throws IOException {
+		try {
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.flush();
+		} catch (XMLStreamException e) {
+			throw new IOException("Could not complete XML document : " + Utils.getRootCause(e).getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.mgmtapi.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportedContactType;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportedParticipantType;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.ImportRecord;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.holodeckb2b.commons.util.Utils;
+
+/**
+ * Reads the Participants to import from a CSV document as specified in RFC 4180, i.e. with comma separated fields that
+ * can be enclosed in double quotes. The document is read one record at a time. The first record must be a header that
+ * names the columns, so the columns can be in any order and optional columns can be left out. The following columns
+ * are supported, of which only <code>ParticipantID</code> is required:<ul>
+ * <li><code>ParticipantID</code> : the Participant Identifier in the same format as in the URL of the
+ * 		<code>/participants</code> resources, but without URL encoding</li>
+ * <li><code>Name</code>, <code>CountryCode</code>, <code>GeographicalInformation</code>, <code>Website</code></li>
+ * <li><code>RegistrationDate</code> : formatted as <code>yyyy-MM-dd</code></li>
+ * <li><code>ContactName</code>, <code>ContactJobTitle</code>, <code>ContactDepartment</code>,
+ * 		<code>ContactEmail</code>, <code>ContactTelephone</code></li>
+ * <li><code>AdditionalIDs</code> : the additional identifiers, separated by semicolons</li>
+ * <li><code>TemplateIds</code> : the identifiers of the Service Metadata Templates to bind, separated by
+ * 		semicolons</li></ul>
+ * The column names are case insensitive and unknown columns are ignored.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class CSVImportRecordReader extends ImportRecordReader {
+
+	private static final String[] CONTACT_COLUMNS = { "contactname", "contactjobtitle", "contactdepartment",
+													  "contactemail", "contacttelephone" };
+
+	private static final DatatypeFactory DTF;
+	static {
+		try {
+			DTF = DatatypeFactory.newInstance();
+		} catch (DatatypeConfigurationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final Reader				reader;
+	// The index of each column in the records, mapped on the lower case column name
+	private final Map<String, Integer>	columns = new HashMap<>();
+	// The line number of the current record, used for reporting errors
+	private int							line = 0;
+
+	/**
+	 * Creates a new reader for the given UTF-8 encoded CSV document.
+	 *
+	 * @param is		the input stream to read the document from
+	 * @param idUtils	the utility to resolve ID Schemes
+	 * @throws IllegalStateException when the document cannot be read or the header does not include the
+	 * 								 <code>ParticipantID</code> column
+	 */
+	public CSVImportRecordReader(InputStream is, IdUtils idUtils) throws IllegalStateException {
+		super(idUtils);
+		reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+		List<String> header = readRecord();
+		if (header == null)
+			throw new IllegalStateException("Missing header");
+		// The header may start with a byte order mark, which is not part of the column name
+		for (int i = 0; i < header.size(); i++)
+			columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(), i);
+		if (!columns.containsKey("participantid"))
+			throw new IllegalStateException("Header does not contain the ParticipantID column");
+	}
+
+	@Override
+	protected ImportRecord readNext(int row) throws IllegalStateException {
+		List<String> fields;
+		do {
+			fields = readRecord();
+		} while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+		if (fields == null)
+			return null;
+
+		ImportedParticipantType p = new ImportedParticipantType();
+		p.setParticipantID(get(fields, "participantid"));
+		try {
+			p.setName(get(fields, "name"));
+			p.setCountryCode(get(fields, "countrycode"));
+			p.setGeographicalInformation(get(fields, "geographicalinformation"));
+			p.setWebsite(get(fields, "website"));
+			String date = get(fields, "registrationdate");
+			if (date != null)
+				p.setRegistrationDate(DTF.newXMLGregorianCalendar(date));
+			String[] contact = new String[CONTACT_COLUMNS.length];
+			boolean hasContact = false;
+			for (int i = 0; i < CONTACT_COLUMNS.length; i++)
+				hasContact |= (contact[i] = get(fields, CONTACT_COLUMNS[i])) != null;
+			if (hasContact) {
+				ImportedContactType c = new ImportedContactType();
+				c.setName(contact[0]);
+				c.setJobTitle(contact[1]);
+				c.setDepartment(contact[2]);
+				c.setEmail(contact[3]);
+				c.setTelephone(contact[4]);
+				p.setContact(c);
+			}
+			for (String id : split(get(fields, "additionalids")))
+				p.getAdditionalIDs().add(id);
+			for (String t : split(get(fields, "templateids")))
+				p.getTemplateIds().add(new BigInteger(t));
+		} catch (IllegalArgumentException invalidValue) {
+			return ImportRecord.invalid(row, p.getParticipantID(), "Invalid data : " + invalidValue.getMessage());
+		}
+		return toRecord(row, p);
+	}
+
+	/**
+	 * Gets the value of the given column from the record.
+	 *
+	 * @param fields	the fields of the record
+	 * @param column	the lower case name of the column
+	 * @return	the trimmed value of the column, or <code>null</code> if the column is not included or empty
+	 */
+	private String get(List<String> fields, String column) {
+		Integer i = columns.get(column);
+		String value = i != null && i < fields.size() ? fields.get(i).trim() : null;
+		return Utils.isNullOrEmpty(value) ? null : value;
+	}
+
+	/**
+	 * Splits a multi-valued field into its values.
+	 *
+	 * @param value	the value of the field, may be <code>null</code>
+	 * @return	the non-empty values
+	 */
+	private static List<String> split(String value) {
+		List<String> values = new ArrayList<>();
+		if (value != null)
+			for (String v : value.split(";"))
+				if (!v.isBlank())
+					values.add(v.trim());
+		return values;
+	}
+
+	/**
+	 * Reads the next record from the document. A quoted field may contain commas, line breaks and double quotes, which
+	 * must be escaped by another double quote.
+	 *
+	 * @return	the fields of the record, or <code>null</code> if the end of the document has been reached
+	 * @throws IllegalStateException when the document cannot be read or contains an unterminated quoted field
+	 */
+	private List<String> readRecord() throws IllegalStateException {
+		try {
+			int c = reader.read();
+			if (c < 0)
+				return null;
+			line++;
+			final int startLine = line;
+			List<String> fields = new ArrayList<>();
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false;
+			while (true) {
+				if (quoted) {
+					if (c < 0)
+						throw new IllegalStateException("Unterminated quoted field starting at line " + startLine);
+					else if (c == '"') {
+						reader.mark(1);
+						if (reader.read() == '"')
+							field.append('"');
+						else {
+							reader.reset();
+							quoted = false;
+						}
+					} else {
+						if (c == '\n')
+							line++;
+						field.append((char) c);
+					}
+				} else if (c == '"' && field.isEmpty())
+					quoted = true;
+				else if (c == ',') {
+					fields.add(field.toString());
+					field.setLength(0);
+				} else if (c == '\n' || c < 0) {
+					int len = field.length();
+					if (len > 0 && field.charAt(len - 1) == '\r')
+						field.setLength(len - 1);
+					fields.add(field.toString());
+					return fields;
+				} else
+					field.append((char) c);
+				c = reader.read();
+			}
+		} catch (IOException readError) {
+			throw new IllegalStateException("Error reading CSV document at line " + line + " : "
+											+ readError.getMessage());
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.mgmtapi.imports;
+
+import java.math.BigInteger;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedContact;
+import org.holodeckb2b.bdxr.smp.server.db.entities.EmbeddedIdentifier;
+import org.holodeckb2b.bdxr.smp.server.db.entities.IDSchemeEntity;
+import org.holodeckb2b.bdxr.smp.server.db.entities.ParticipantEntity;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportedContactType;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportedParticipantType;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.ImportRecord;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.holodeckb2b.commons.util.Utils;
+
+/**
+ * Is the base class for the readers of the documents that can be used to import Participants. A reader reads the
+ * Participants one at a time from the request body and provides them as {@link ImportRecord}s to the {@link
+ * ParticipantImportService}. The subclasses parse the next Participant from the document and can use {@link
+ * #toRecord(int, ImportedParticipantType)} to convert it into the record. When the data of a Participant is
+ * invalid, for example because its identifier uses an unknown ID Scheme, the record is marked as invalid so it is
+ * reported as rejected. When the document itself is malformed the reader throws an {@link IllegalStateException},
+ * which aborts the import.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public abstract class ImportRecordReader implements Iterator<ImportRecord> {
+
+	private final IdUtils	idUtils;
+	// The ID Schemes used in the import, cached to prevent a query for every Participant. A null value indicates the
+	// scheme is not managed by the SMP
+	private final Map<String, IDSchemeEntity> schemes = new HashMap<>();
+
+	private ImportRecord			next;
+	private int						row = 0;
+	private boolean					ended = false;
+
+	/**
+	 * Creates a new reader that uses the given utility to resolve the ID Schemes of the Participant Identifiers.
+	 *
+	 * @param idUtils	the utility to resolve ID Schemes
+	 */
+	protected ImportRecordReader(IdUtils idUtils) {
+		this.idUtils = idUtils;
+	}
+
+	/**
+	 * Reads the next Participant from the document.
+	 *
+	 * @param row	the sequence number of the Participant in the document
+	 * @return	the import record of the next Participant, or <code>null</code> if the end of the document has been
+	 * 			reached
+	 * @throws IllegalStateException when the document is malformed or cannot be read
+	 */
+	protected abstract ImportRecord readNext(int row) throws IllegalStateException;
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !ended) {
+			next = readNext(row + 1);
+			ended = next == null;
+		}
+		return next != null;
+	}
+
+	@Override
+	public ImportRecord next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		ImportRecord r = next;
+		next = null;
+		row++;
+		return r;
+	}
+
+	/**
+	 * Converts the Participant read from the document into an import record.
+	 *
+	 * @param row	the sequence number of the Participant in the document
+	 * @param p		the Participant as read from the document
+	 * @return	the import record
+	 */
+	protected ImportRecord toRecord(int row, ImportedParticipantType p) {
+		final String partID = p.getParticipantID() != null ? p.getParticipantID().trim() : null;
+		if (Utils.isNullOrEmpty(partID))
+			return ImportRecord.invalid(row, null, "Missing Participant ID");
+		try {
+			ParticipantEntity participant = new ParticipantEntity();
+			participant.setId(parseParticipantID(partID));
+			participant.setName(p.getName());
+			participant.setRegistrationCountry(p.getCountryCode());
+			participant.setLocationInfo(p.getGeographicalInformation());
+			if (p.getRegistrationDate() != null)
+				participant.setFirstRegistrationDate(p.getRegistrationDate().toGregorianCalendar().toZonedDateTime()
+																								.toLocalDate());
+			if (!Utils.isNullOrEmpty(p.getWebsite()))
+				participant.addWebsite(URI.create(p.getWebsite().trim()).toURL());
+			ImportedContactType c = p.getContact();
+			if (c != null)
+				participant.addContactInfo(new EmbeddedContact(c.getName(), c.getJobTitle(), c.getDepartment(),
+															   c.getEmail(), c.getTelephone()));
+			p.getAdditionalIDs().stream().filter(id -> !Utils.isNullOrEmpty(id))
+										 .forEach(id -> participant.addAdditionalId(IdentifierImpl.from(id.trim())));
+
+			return ImportRecord.of(row, partID, participant,
+								   p.getTemplateIds().stream().map(BigInteger::longValue).toList());
+		} catch (NoSuchElementException unknownScheme) {
+			return ImportRecord.invalid(row, partID, "Unknown ID Scheme");
+		} catch (MalformedURLException | IllegalArgumentException invalidData) {
+			return ImportRecord.invalid(row, partID, "Invalid data : " + invalidData.getMessage());
+		}
+	}
+
+	/**
+	 * Parses the Participant Identifier, which uses the same format as in the URL of the <code>/participants</code>
+	 * resources, but without URL encoding.
+	 *
+	 * @param partID	the string representation of the Participant Identifier
+	 * @return	the identifier
+	 * @throws NoSuchElementException when the identifier's ID Scheme is not managed by the SMP
+	 */
+	private EmbeddedIdentifier parseParticipantID(String partID) throws NoSuchElementException {
+		final int sep = partID.indexOf("::");
+		final String schemeId = partID.substring(0, Math.max(0, sep));
+		final String value = sep < 0 ? partID : partID.substring(sep + 2);
+		if (Utils.isNullOrEmpty(schemeId))
+			return new EmbeddedIdentifier(value);
+
+		IDSchemeEntity scheme;
+		if (schemes.containsKey(schemeId))
+			scheme = schemes.get(schemeId);
+		else {
+			try {
+				scheme = idUtils.toEmbeddedIdentifier(new IdentifierImpl(value, schemeId)).getScheme();
+			} catch (NoSuchElementException unknownScheme) {
+				scheme = null;
+			}
+			schemes.put(schemeId, scheme);
+		}
+		if (scheme == null)
+			throw new NoSuchElementException("No IDScheme registered with the scheme ID=" + schemeId);
+		return new EmbeddedIdentifier(scheme, value);
+	}
+}
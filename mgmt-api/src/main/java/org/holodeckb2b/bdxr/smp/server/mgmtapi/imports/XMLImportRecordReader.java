@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.mgmtapi.imports;
+
+import java.io.InputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportedParticipantType;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.ImportRecord;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
+import org.holodeckb2b.commons.util.Utils;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+
+/**
+ * Reads the Participants to import from an XML document with the <code>ParticipantImport</code> root element. The
+ * document is parsed incrementally using StAX and only the <code>Participant</code> element currently being read is
+ * unmarshalled, so the size of the document is not limited by the available memory.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class XMLImportRecordReader extends ImportRecordReader {
+
+	private static final String NS = "http://holodeck-smp.org/schemas/2025/05/server/api/metadata";
+	private static final QName ROOT = new QName(NS, "ParticipantImport");
+	private static final QName PARTICIPANT = new QName(NS, "Participant");
+
+	private static final XMLInputFactory XIF;
+	private static final JAXBContext	 JAXB_CTX;
+	static {
+		XIF = XMLInputFactory.newFactory();
+		XIF.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		XIF.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		try {
+			JAXB_CTX = JAXBContext.newInstance(ImportedParticipantType.class);
+		} catch (JAXBException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final XMLStreamReader	reader;
+	private final Unmarshaller		unmarshaller;
+
+	/**
+	 * Creates a new reader for the given XML document.
+	 *
+	 * @param is		the input stream to read the document from
+	 * @param idUtils	the utility to resolve ID Schemes
+	 * @throws IllegalStateException when the document cannot be read or does not have the expected root element
+	 */
+	public XMLImportRecordReader(InputStream is, IdUtils idUtils) throws IllegalStateException {
+		super(idUtils);
+		try {
+			reader = XIF.createXMLStreamReader(is);
+			reader.nextTag();
+			if (!ROOT.equals(reader.getName()))
+				throw new IllegalStateException("Unexpected root element " + reader.getName());
+			reader.next();
+			unmarshaller = JAXB_CTX.createUnmarshaller();
+		} catch (XMLStreamException | JAXBException e) {
+			throw new IllegalStateException("Malformed XML document : " + Utils.getRootCause(e).getMessage());
+		}
+	}
+
+	@Override
+	protected ImportRecord readNext(int row) throws IllegalStateException {
+		try {
+			while (reader.hasNext()) {
+				if (reader.isStartElement() && PARTICIPANT.equals(reader.getName()))
+					return toRecord(row, unmarshaller.unmarshal(reader, ImportedParticipantType.class).getValue());
+				else
+					reader.next();
+			}
+			return null;
+		} catch (XMLStreamException | JAXBException e) {
+			throw new IllegalStateException("Malformed XML document after row " + (row - 1) + " : "
+											+ Utils.getRootCause(e).getMessage());
+		}
+	}
+}
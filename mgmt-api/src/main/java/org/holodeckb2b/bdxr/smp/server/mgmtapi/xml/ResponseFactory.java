@@ -19,7 +19,15 @@ package org.holodeckb2b.bdxr.smp.server.mgmtapi.xml;
 import java.math.BigInteger;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.GregorianCalendar;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.datatype.DatatypeConstants;
+import javax.xml.datatype.XMLGregorianCalendar;
 
 import org.holodeckb2b.bdxr.common.datamodel.Identifier;
 import org.holodeckb2b.bdxr.smp.datamodel.Certificate;
@@ -30,13 +38,33 @@ import org.holodeckb2b.bdxr.smp.datamodel.RedirectionV2;
 import org.holodeckb2b.bdxr.smp.datamodel.impl.CertificateImpl;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkBindingResultElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkJobElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.BulkOperationType;
 import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.CertificateElement;
 import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.EndpointElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ExportedParticipantType;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportedContactType;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportResultElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ImportRowResultType;
 import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ProcessMetadataElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.QueryStatisticType;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.QueryStatisticsElement;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.SMLBatchFailureType;
+import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.SMLBatchResultElement;
 import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ServiceMetadataBindingsElement;
 import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ServiceMetadataTemplateElement;
 import org.holodeckb2b.bdxr.smp.server.mgmtapi.xml.v2025.ServiceMetadataTemplatesElement;
 import org.holodeckb2b.bdxr.smp.server.queryapi.oasisv2.AbstractResponseFactory;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkBindingResult;
+import org.holodeckb2b.bdxr.smp.server.services.core.BulkJob;
+import org.holodeckb2b.bdxr.smp.server.services.core.MetadataExportService.ParticipantBindings;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.ImportResult;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.Outcome;
+import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantImportService.RowResult;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult;
+import org.holodeckb2b.bdxr.smp.server.services.query.HotQuery;
+import org.holodeckb2b.bdxr.smp.server.utils.IdUtils;
 import org.holodeckb2b.commons.util.Utils;
 import org.oasis_open.docs.bdxr.ns.smp._2.aggregatecomponents.ProcessType;
 import org.oasis_open.docs.bdxr.ns.smp._2.aggregatecomponents.RedirectType;
@@ -103,6 +131,203 @@ public class ResponseFactory extends AbstractResponseFactory {
 		return SMTFactoryHolder.factory.createSMBElement(p);
 	}
 	
+	/**
+	 * Creates a new {@link QueryStatisticsElement} instance which represents the XML document that contains the list of
+	 * most frequently executed queries.
+	 *
+	 * @param queries	the most frequently executed queries
+	 * @return	JAXB object containing the XML representation of the query statistics
+	 * @since 3.1.0
+	 */
+	public static QueryStatisticsElement createQueryStatisticsResponse(List<HotQuery> queries) {
+		QueryStatisticsElement stats = new QueryStatisticsElement();
+		for (HotQuery q : queries) {
+			QueryStatisticType qs = new QueryStatisticType();
+			qs.setQueryPath(q.queryPath());
+			qs.setCount(BigInteger.valueOf(q.count()));
+			stats.getQueries().add(qs);
+		}
+		return stats;
+	}
+
+	/**
+	 * Creates a new {@link SMLBatchResultElement} instance which represents the XML document that contains the result
+	 * of a bulk SML operation.
+	 *
+	 * @param result	the result of the SML operation on the Participants that were found
+	 * @param rejected	the Participant Identifiers from the request that could not be processed, mapped to the reason
+	 * 					why
+	 * @return	JAXB object containing the XML representation of the result
+	 * @since 3.1.0
+	 */
+	public static SMLBatchResultElement createSMLBatchResponse(SMLBatchResult<? extends Participant> result,
+															   Map<String, String> rejected) {
+		SMLBatchResultElement response = new SMLBatchResultElement();
+		response.setCompleted(BigInteger.valueOf(result.completed().size()));
+		rejected.forEach((id, reason) -> response.getFailures().add(createFailure(id, reason)));
+		for (SMLBatchResult.Failure<? extends Participant> f : result.failed())
+			response.getFailures().add(createFailure(IdUtils.toIDString(f.participant().getId()),
+													 Utils.getRootCause(f.error()).getMessage()));
+		return response;
+	}
+
+	/**
+	 * Creates a new {@link BulkJobElement} instance which represents the XML document that contains the state and
+	 * progress of a bulk job. The Participants for which the operation failed are only included when the job has
+	 * ended.
+	 *
+	 * @param job	the bulk job
+	 * @return	JAXB object containing the XML representation of the bulk job
+	 * @since 3.1.0
+	 */
+	public static BulkJobElement createBulkJobResponse(BulkJob job) {
+		BulkJobElement response = new BulkJobElement();
+		response.setJobID(job.getId());
+		response.setOperation(BulkOperationType.valueOf(job.getOperation().name()));
+		response.setState(job.getState().name());
+		response.setSubmittedBy(job.getSubmittedBy());
+		response.setSubmitted(toDateTime(job.getSubmitted()));
+		response.setStarted(toDateTime(job.getStarted()));
+		response.setFinished(toDateTime(job.getFinished()));
+		response.setTotal(BigInteger.valueOf(job.getTotal()));
+		response.setSucceeded(BigInteger.valueOf(job.getSucceeded()));
+		response.setFailed(BigInteger.valueOf(job.getFailed()));
+		if (job.getFinished() != null)
+			job.getFailures().forEach(f -> response.getFailures().add(
+											createFailure(IdUtils.toIDString(f.participantId()), f.reason())));
+		return response;
+	}
+
+	/**
+	 * Creates a new {@link ImportResultElement} instance which represents the XML document that contains the result of
+	 * an import of Participants.
+	 *
+	 * @param result	the result of the import
+	 * @param jobs		the bulk jobs submitted to register the imported Participants in the SML, empty if no job was
+	 * 					submitted
+	 * @param warning	description of why a bulk job to register the imported Participants in the SML could not be
+	 * 					submitted, <code>null</code> if there is no problem
+	 * @return	JAXB object containing the XML representation of the import result
+	 * @since 3.1.0
+	 */
+	public static ImportResultElement createImportResponse(ImportResult result, List<? extends BulkJob> jobs,
+														   String warning) {
+		ImportResultElement response = new ImportResultElement();
+		response.setImported(BigInteger.valueOf(result.count(Outcome.IMPORTED)));
+		response.setDuplicates(BigInteger.valueOf(result.count(Outcome.DUPLICATE)));
+		response.setRejected(BigInteger.valueOf(result.count(Outcome.REJECTED)));
+		response.setAborted(result.abortReason());
+		jobs.forEach(job -> response.getBulkJobs().add(createBulkJobResponse(job)));
+		response.setWarning(warning);
+		for (RowResult r : result.rows()) {
+			ImportRowResultType row = new ImportRowResultType();
+			row.setRowNumber(r.row());
+			row.setParticipantID(r.participantId());
+			row.setOutcome(r.outcome().name());
+			row.setReason(r.reason());
+			response.getRows().add(row);
+		}
+		return response;
+	}
+
+	/**
+	 * Creates a new {@link BulkBindingResultElement} instance which represents the XML document that contains the
+	 * result of a bulk operation on the bindings of Participants.
+	 *
+	 * @param result	the result of the operation
+	 * @return	JAXB object containing the XML representation of the result
+	 * @since 3.1.0
+	 */
+	public static BulkBindingResultElement createBulkBindingResponse(BulkBindingResult result) {
+		BulkBindingResultElement response = new BulkBindingResultElement();
+		response.setSelected(BigInteger.valueOf(result.selected()));
+		response.setUpdated(BigInteger.valueOf(result.updated()));
+		result.unknown().forEach(id -> response.getUnknownParticipantIDs().add(IdUtils.toIDString(id)));
+		return response;
+	}
+
+	/**
+	 * Creates a new {@link ServiceMetadataTemplateElement} instance which is the XML representation of a single
+	 * Service Metadata Template, used when the templates are exported one at a time.
+	 *
+	 * @param t	the Service Metadata Template
+	 * @return	JAXB object containing the XML representation of the Service Metadata Template
+	 * @throws InstantiationException	when the XML could not be created
+	 * @since 3.1.0
+	 */
+	public static ServiceMetadataTemplateElement createTemplateExport(ServiceMetadataTemplate t)
+																						throws InstantiationException {
+		return SMTFactoryHolder.factory.createServiceMetadataTemplate(t);
+	}
+
+	/**
+	 * Creates a new {@link ServiceMetadataBindingsElement} instance which is the XML representation of the exported
+	 * bindings of a Participant.
+	 *
+	 * @param b	the bindings of the Participant
+	 * @return	JAXB object containing the XML representation of the bindings
+	 * @throws InstantiationException	when the XML could not be created
+	 * @since 3.1.0
+	 */
+	public static ServiceMetadataBindingsElement createBindingsExport(ParticipantBindings b)
+																						throws InstantiationException {
+		ServiceMetadataBindingsElement smb = new ServiceMetadataBindingsElement();
+		smb.setParticipantID(SMTFactoryHolder.factory.convertID(b.participantId(), ParticipantIDType.class));
+		b.templateIds().forEach(t -> smb.getTemplateIds().add(BigInteger.valueOf(t)));
+		return smb;
+	}
+
+	/**
+	 * Creates a new {@link ExportedParticipantType} instance which is the XML representation of an exported
+	 * Participant. The Participant Identifier and additional identifiers are formatted in the same way as in the
+	 * documents used to import Participants.
+	 *
+	 * @param p	the Participant meta-data registration
+	 * @return	JAXB object containing the XML representation of the Participant
+	 * @since 3.1.0
+	 */
+	public static ExportedParticipantType createParticipantExport(Participant p) {
+		ExportedParticipantType xp = new ExportedParticipantType();
+		xp.setParticipantID(IdUtils.toIDString(p.getId()));
+		xp.setName(p.getName());
+		xp.setCountryCode(p.getRegistrationCountry());
+		xp.setGeographicalInformation(p.getLocationInfo());
+		LocalDate regDate = p.getFirstRegistrationDate();
+		if (regDate != null)
+			xp.setRegistrationDate(DTF.newXMLGregorianCalendarDate(regDate.getYear(), regDate.getMonthValue(),
+												regDate.getDayOfMonth(), DatatypeConstants.FIELD_UNDEFINED));
+		p.getWebsites().stream().findFirst().ifPresent(w -> xp.setWebsite(w.toString()));
+		p.getContactInfo().stream().findFirst().ifPresent(c -> {
+			ImportedContactType xc = new ImportedContactType();
+			xc.setName(c.getName());
+			xc.setJobTitle(c.getJobTitle());
+			xc.setDepartment(c.getDepartment());
+			xc.setEmail(c.getEmailAddress());
+			xc.setTelephone(c.getTelephone());
+			xp.setContact(xc);
+		});
+		p.getAdditionalIds().forEach(id -> xp.getAdditionalIDs().add(id.getScheme() != null ? IdUtils.toIDString(id)
+																							 : id.getValue()));
+		xp.setRegisteredInSML(p.isRegisteredInSML());
+		xp.setPublishedInDirectory(p.isPublishedInDirectory());
+		return xp;
+	}
+
+	private static XMLGregorianCalendar toDateTime(Instant i) {
+		if (i == null)
+			return null;
+		GregorianCalendar c = new GregorianCalendar();
+		c.setTimeInMillis(i.toEpochMilli());
+		return DTF.newXMLGregorianCalendar(c);
+	}
+
+	private static SMLBatchFailureType createFailure(String participantId, String reason) {
+		SMLBatchFailureType failure = new SMLBatchFailureType();
+		failure.setParticipantID(participantId);
+		failure.setReason(reason);
+		return failure;
+	}
+
 	private ServiceMetadataBindingsElement createSMBElement(Participant p) throws InstantiationException {
 		ServiceMetadataBindingsElement smb = new ServiceMetadataBindingsElement();		
 		smb.setParticipantID(convertID(p.getId(), ParticipantIDType.class));	
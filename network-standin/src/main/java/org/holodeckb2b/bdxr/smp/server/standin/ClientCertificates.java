@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin;
+
+import java.security.cert.X509Certificate;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Provides access to the client certificate used by the SMP to set up the TLS connection, which identifies the SMP
+ * to the SML and Directory.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public final class ClientCertificates {
+
+	/**
+	 * Identity used for requests without client certificate when these are allowed
+	 */
+	public static final String ANONYMOUS = "anonymous";
+
+	private ClientCertificates() {}
+
+	/**
+	 * Gets the identity of the client that sent the request, which is the subject of its certificate.
+	 *
+	 * @param request			the request
+	 * @param requireCertificate indicates whether the client must use a certificate
+	 * @return	the subject DN of the client certificate, {@link #ANONYMOUS} when no certificate was used and none is
+	 * 			required, or <code>null</code> when no certificate was used but one is required
+	 */
+	public static String getClientId(HttpServletRequest request, boolean requireCertificate) {
+		X509Certificate[] certs = (X509Certificate[]) request.getAttribute("jakarta.servlet.request.X509Certificate");
+		if (certs != null && certs.length > 0)
+			return certs[0].getSubjectX500Principal().getName();
+		else
+			return requireCertificate ? null : ANONYMOUS;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Defines how the network service simulated by the stand-in behaves with respect to latency and failures. The settings
+ * are configured separately for the SML and Directory using the <code>standin.sml.*</code> and <code>
+ * standin.directory.*</code> properties:<ul>
+ * <li><code>latency</code> : the minimum time it takes to respond to a request, default 0</li>
+ * <li><code>jitter</code> : the maximum additional time, selected at random, it takes to respond, default 0</li>
+ * <li><code>failure_rate</code> : the fraction of requests, between 0 and 1, that fail, default 0</li>
+ * <li><code>failure_type</code> : how a request fails, see {@link FailureType}, default <code>error</code></li>
+ * <li><code>timeout_delay</code> : the time the response is delayed for <code>timeout</code> failures, default 60s
+ * 		</li>
+ * </ul>
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class NetworkBehaviour {
+
+	/**
+	 * The ways in which a request can fail
+	 */
+	public enum FailureType {
+		/**
+		 * The request is not processed and an error is returned, i.e. an <code>InternalErrorFault</code> by the SML or
+		 * HTTP 500 by the Directory
+		 */
+		ERROR,
+		/**
+		 * The request is not processed and HTTP 503 is returned without content
+		 */
+		UNAVAILABLE,
+		/**
+		 * The request is processed, but only after the timeout delay, so the client will normally not receive the
+		 * response
+		 */
+		TIMEOUT
+	}
+
+	private Duration	latency = Duration.ZERO;
+	private Duration	jitter = Duration.ZERO;
+	private double		failureRate = 0;
+	private FailureType	failureType = FailureType.ERROR;
+	private Duration	timeoutDelay = Duration.ofSeconds(60);
+
+	/**
+	 * @return the time to wait before processing a request, i.e. the latency plus a random part of the jitter
+	 */
+	Duration nextDelay() {
+		return jitter.isZero() ? latency
+							   : latency.plusNanos(ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1));
+	}
+
+	/**
+	 * @return <code>true</code> if the next request should fail, <code>false</code> otherwise
+	 */
+	boolean nextFails() {
+		return failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+	}
+}
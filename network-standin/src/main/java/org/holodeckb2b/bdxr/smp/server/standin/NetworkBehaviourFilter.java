@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies the configured {@link NetworkBehaviour} to the requests to one of the simulated network services by delaying
+ * the request and injecting failures.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+public class NetworkBehaviourFilter extends OncePerRequestFilter {
+
+	/**
+	 * The simulated network services
+	 */
+	public enum Target { SML, DIRECTORY }
+
+	/**
+	 * The SOAP Fault returned by the SML for an <code>ERROR</code> failure
+	 */
+	private static final byte[] SML_ERROR = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<S:Envelope xmlns:S=\"http://schemas.xmlsoap.org/soap/envelope/\"><S:Body><S:Fault>"
+			+ "<faultcode>S:Server</faultcode><faultstring>Injected failure</faultstring><detail>"
+			+ "<InternalErrorFault xmlns=\"http://busdox.org/serviceMetadata/locator/1.0/\">"
+			+ "<FaultMessage>Injected failure</FaultMessage></InternalErrorFault>"
+			+ "</detail></S:Fault></S:Body></S:Envelope>").getBytes(StandardCharsets.UTF_8);
+
+	private final Target			target;
+	private final NetworkBehaviour	behaviour;
+
+	private final LongAdder	requests = new LongAdder();
+	private final LongAdder	failures = new LongAdder();
+
+	NetworkBehaviourFilter(Target target, NetworkBehaviour behaviour) {
+		this.target = target;
+		this.behaviour = behaviour;
+		log.info("{} stand-in: latency={}, jitter={}, failure rate={}, failure type={}", target,
+				 behaviour.getLatency(), behaviour.getJitter(), behaviour.getFailureRate(), behaviour.getFailureType());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+																					throws ServletException, IOException {
+		requests.increment();
+		pause(behaviour.nextDelay());
+		if (behaviour.nextFails()) {
+			failures.increment();
+			log.debug("Inject {} failure for {} request", behaviour.getFailureType(), target);
+			switch (behaviour.getFailureType()) {
+			case ERROR:
+				response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+				if (target == Target.SML) {
+					response.setContentType("text/xml;charset=UTF-8");
+					response.getOutputStream().write(SML_ERROR);
+				}
+				return;
+			case UNAVAILABLE:
+				response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+				return;
+			case TIMEOUT:
+				pause(behaviour.getTimeoutDelay());
+			}
+		}
+		chain.doFilter(request, response);
+	}
+
+	/**
+	 * @return the number of requests received
+	 */
+	public long getRequests() {
+		return requests.sum();
+	}
+
+	/**
+	 * @return the number of requests for which a failure was injected
+	 */
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	/**
+	 * Resets the request and failure counters.
+	 */
+	void reset() {
+		requests.reset();
+		failures.reset();
+	}
+
+	private static void pause(Duration d) throws IOException {
+		if (d.isZero())
+			return;
+		try {
+			Thread.sleep(d.toMillis(), d.toNanosPart() % 1_000_000);
+		} catch (InterruptedException interrupted) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted");
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin;
+
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.holodeckb2b.bdxr.smp.server.standin.NetworkBehaviourFilter.Target;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.ws.config.annotation.EnableWs;
+import org.springframework.ws.transport.http.MessageDispatcherServlet;
+
+/**
+ * Is a local stand-in for the Peppol SML and Directory that can be used to test and benchmark the network integration
+ * of the SMP server without access to the Peppol network. The stand-in implements:<ul>
+ * <li>the SOAP services of the SML used by the SMP, i.e. <code>manageservicemetadata</code>, <code>
+ * 		manageparticipantidentifier</code> (including the list operations) and <code>bdmslservice</code>. They are
+ * 		available under <code>«standin.sml.path»</code>, default <code>/edelivery-sml</code>.</li>
+ * <li>the indexer REST interface of the Directory, available under <code>«standin.directory.path»/indexer/1.0/</code>,
+ * 		with the default path <code>/directory</code>.</li>
+ * </ul>
+ * The registrations are only kept in memory. As in the Peppol network the SMP is identified by the client certificate
+ * used to set up the TLS connection. The server requests a client certificate but accepts any certificate, so the SMP
+ * can use its own key pair. The server certificate can be set using the standard Spring Boot <code>server.ssl</code>
+ * properties and by default uses the self-signed certificate included in the JAR, which can be added to the trust
+ * store of the SMP using the <code>peppol.sml.ssl.truststore</code> and <code>peppol.directory.ssl.truststore</code>
+ * settings. The JAR also contains <code>standin-truststore.p12</code> (password <i>standin</i>) with just that
+ * certificate.
+ * <p>
+ * For both the SML and Directory the latency of the responses and the rate and type of failures can be configured
+ * using the <code>standin.sml.*</code> and <code>standin.directory.*</code> properties, see {@link NetworkBehaviour}.
+ * The current state of the stand-in, including the number of processed requests and injected failures, can be
+ * retrieved from <code>/standin/status</code> and reset by a <code>POST</code> to <code>/standin/reset</code>.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@SpringBootApplication
+@EnableWs
+public class NetworkStandinApplication {
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(NetworkStandinApplication.class)
+				.properties("spring.config.name=network-standin")
+				.run(args);
+	}
+
+	@Bean
+	ServletRegistrationBean<MessageDispatcherServlet> smlServlet(ApplicationContext ctx,
+														@Value("${standin.sml.path:/edelivery-sml}") String path) {
+		MessageDispatcherServlet servlet = new MessageDispatcherServlet();
+		servlet.setApplicationContext(ctx);
+		return new ServletRegistrationBean<>(servlet, path + "/*");
+	}
+
+	@Bean
+	Jaxb2Marshaller smlMarshaller() {
+		Jaxb2Marshaller marshaller = new Jaxb2Marshaller();
+		marshaller.setContextPaths("ec.services.wsdl.bdmsl.data._1", "org.busdox.servicemetadata.locator._1");
+		return marshaller;
+	}
+
+	@Bean
+	FilterRegistrationBean<NetworkBehaviourFilter> smlBehaviour(Environment env,
+														@Value("${standin.sml.path:/edelivery-sml}") String path) {
+		return behaviourFilter(env, Target.SML, path);
+	}
+
+	@Bean
+	FilterRegistrationBean<NetworkBehaviourFilter> directoryBehaviour(Environment env,
+														@Value("${standin.directory.path:/directory}") String path) {
+		return behaviourFilter(env, Target.DIRECTORY, path);
+	}
+
+	private static FilterRegistrationBean<NetworkBehaviourFilter> behaviourFilter(Environment env, Target target,
+																				  String path) {
+		NetworkBehaviour behaviour = Binder.get(env).bind("standin." + target.name().toLowerCase(),
+														  NetworkBehaviour.class).orElseGet(NetworkBehaviour::new);
+		FilterRegistrationBean<NetworkBehaviourFilter> reg =
+											new FilterRegistrationBean<>(new NetworkBehaviourFilter(target, behaviour));
+		reg.setName(target.name().toLowerCase() + "Behaviour");
+		reg.addUrlPatterns(path + "/*");
+		return reg;
+	}
+
+	/**
+	 * Configures the TLS connector to accept any client certificate, so the SMP certificate does not need to be issued
+	 * by a trusted CA. Whether the certificate is requested is set by <code>server.ssl.client-auth</code>.
+	 */
+	@Bean
+	TomcatConnectorCustomizer clientCertificateCustomizer() {
+		return connector -> {
+			for (SSLHostConfig sslConfig : connector.findSslHostConfigs())
+				sslConfig.setTrustManagerClassName(AcceptAnyClientTrustManager.class.getName());
+		};
+	}
+}
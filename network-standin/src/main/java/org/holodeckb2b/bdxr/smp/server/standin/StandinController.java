@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.holodeckb2b.bdxr.smp.server.standin.directory.DirectoryIndex;
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Provides the status of the stand-in and allows to reset it between test runs.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@RestController
+@RequestMapping("/standin")
+@Slf4j
+public class StandinController {
+
+	@Autowired
+	private SMLRegistry		sml;
+
+	@Autowired
+	private DirectoryIndex	directory;
+
+	@Autowired
+	@Qualifier("smlBehaviour")
+	private FilterRegistrationBean<NetworkBehaviourFilter>	smlBehaviour;
+
+	@Autowired
+	@Qualifier("directoryBehaviour")
+	private FilterRegistrationBean<NetworkBehaviourFilter>	directoryBehaviour;
+
+	@GetMapping("/status")
+	public Map<String, Object> status() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("sml", Map.of("smps", sml.getSMPCount(),
+								 "participants", sml.getParticipantCount(),
+								 "requests", smlBehaviour.getFilter().getRequests(),
+								 "injectedFailures", smlBehaviour.getFilter().getFailures()));
+		status.put("directory", Map.of("participants", directory.size(),
+									   "requests", directoryBehaviour.getFilter().getRequests(),
+									   "injectedFailures", directoryBehaviour.getFilter().getFailures()));
+		return status;
+	}
+
+	@PostMapping("/reset")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void reset() {
+		log.info("Reset stand-in");
+		sml.reset();
+		directory.reset();
+		smlBehaviour.getFilter().reset();
+		directoryBehaviour.getFilter().reset();
+	}
+}
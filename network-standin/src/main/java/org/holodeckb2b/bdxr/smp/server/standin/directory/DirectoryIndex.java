@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.directory;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the Participants that are indexed by the stand-in Directory in memory.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+public class DirectoryIndex {
+
+	/**
+	 * A Participant in the index
+	 *
+	 * @param participantId	the Participant identifier as provided by the SMP
+	 * @param owner			identity of the SMP that published the Participant
+	 * @param indexed		time stamp of the last publication
+	 */
+	public record Entry(String participantId, String owner, Instant indexed) {}
+
+	private final Map<String, Entry>	entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds the Participant to the index or updates its entry when it is already indexed.
+	 *
+	 * @param participantId	the Participant identifier
+	 * @param owner			identity of the SMP publishing the Participant
+	 */
+	public void index(String participantId, String owner) {
+		entries.put(key(participantId), new Entry(participantId, owner, Instant.now()));
+	}
+
+	/**
+	 * Removes the Participant from the index.
+	 *
+	 * @param participantId	the Participant identifier
+	 * @return	<code>true</code> if the Participant was indexed, <code>false</code> otherwise
+	 */
+	public boolean remove(String participantId) {
+		return entries.remove(key(participantId)) != null;
+	}
+
+	/**
+	 * @param participantId	the Participant identifier
+	 * @return	the index entry of the Participant, <code>null</code> if not indexed
+	 */
+	public Entry get(String participantId) {
+		return entries.get(key(participantId));
+	}
+
+	/**
+	 * @return the number of indexed Participants
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes all Participants from the index.
+	 */
+	public void reset() {
+		entries.clear();
+	}
+
+	/**
+	 * As Peppol Participant identifiers are case insensitive the lower case version is used as key.
+	 */
+	private static String key(String participantId) {
+		return participantId.trim().toLowerCase();
+	}
+}
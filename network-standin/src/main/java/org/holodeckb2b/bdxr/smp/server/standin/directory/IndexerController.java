@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.directory;
+
+import org.holodeckb2b.bdxr.smp.server.standin.ClientCertificates;
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLRegistry;
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLRegistry.ParticipantId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implements the indexer REST interface of the Peppol Directory used by the SMP to publish and remove Participants.
+ * The real Directory retrieves the business card of the Participant from the SMP after it has been published, the
+ * stand-in only registers the Participant in its index. When <code>standin.directory.require_sml_registration</code>
+ * is set to <i>true</i> publication is only accepted for Participants registered in the stand-in SML, which mirrors
+ * the Directory's check that the Participant can be found in the network.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@RestController
+@RequestMapping("${standin.directory.path:/directory}/indexer/1.0")
+@Slf4j
+public class IndexerController {
+
+	@Autowired
+	private DirectoryIndex	index;
+
+	@Autowired
+	private SMLRegistry		sml;
+
+	@Value("${standin.require_client_cert:true}")
+	private boolean requireClientCert;
+
+	@Value("${standin.directory.require_sml_registration:false}")
+	private boolean requireSMLRegistration;
+
+	@PutMapping({ "", "/" })
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void publish(HttpServletRequest request, @RequestBody String participantId) {
+		String client = getClient(request);
+		String pid = participantId.trim();
+		if (requireSMLRegistration && sml.getRegisteringSMP(parse(pid)) == null) {
+			log.debug("Rejecting publication of {} as it is not registered in the SML", pid);
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
+		index.index(pid, client);
+		log.debug("Indexed Participant {} for {}", pid, client);
+	}
+
+	/*
+	 * The path with the double slash is used by the SMP's Directory client as it appends "/«participant id»" to the
+	 * base URL that already ends with a slash
+	 */
+	@DeleteMapping({ "/{participantId}", "//{participantId}" })
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void remove(HttpServletRequest request, @PathVariable("participantId") String participantId) {
+		getClient(request);
+		if (!index.remove(participantId))
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		log.debug("Removed Participant {} from index", participantId);
+	}
+
+	@GetMapping("/{participantId}")
+	public DirectoryIndex.Entry get(@PathVariable("participantId") String participantId) {
+		DirectoryIndex.Entry e = index.get(participantId);
+		if (e == null)
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		return e;
+	}
+
+	private String getClient(HttpServletRequest request) {
+		String client = ClientCertificates.getClientId(request, requireClientCert);
+		if (client == null)
+			throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+		return client;
+	}
+
+	/**
+	 * Parses the string representation of a Participant identifier, i.e. <i>«scheme»::«value»</i>.
+	 */
+	private static ParticipantId parse(String pid) {
+		int sep = pid.indexOf("::");
+		if (sep < 0)
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+		return new ParticipantId(sep > 0 ? pid.substring(0, sep) : null, pid.substring(sep + 2));
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.sml;
+
+import org.busdox.transport.identifiers._1.ParticipantIdentifierType;
+import org.holodeckb2b.bdxr.smp.server.standin.ClientCertificates;
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLRegistry.ParticipantId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
+
+/**
+ * Base class of the endpoints implementing the SML services with the functions they have in common.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+abstract class AbstractSMLEndpoint {
+
+	@Autowired
+	protected SMLRegistry	registry;
+
+	@Value("${standin.require_client_cert:true}")
+	protected boolean	requireClientCert;
+
+	/**
+	 * @return the identity of the client that sent the current request
+	 * @throws SMLFault when the client did not use a certificate while that is required
+	 */
+	protected String client() {
+		String client = ClientCertificates.getClientId(((HttpServletConnection) TransportContextHolder
+										.getTransportContext().getConnection()).getHttpServletRequest(), requireClientCert);
+		if (client == null)
+			throw new SMLFault(SMLFault.Type.UNAUTHORIZED, "Client certificate required");
+		return client;
+	}
+
+	/**
+	 * Creates an empty response message, as returned by the SML for operations without response content.
+	 *
+	 * @param ctx	the message context of the request
+	 */
+	protected static void emptyResponse(MessageContext ctx) {
+		ctx.getResponse();
+	}
+
+	protected static ParticipantId toParticipantId(ParticipantIdentifierType pid) {
+		if (pid == null || pid.getValue() == null || pid.getValue().isBlank())
+			throw new SMLFault(SMLFault.Type.BAD_REQUEST, "Participant identifier missing");
+		return new ParticipantId(pid.getScheme(), pid.getValue());
+	}
+
+	protected static ParticipantIdentifierType toParticipantIdentifier(ParticipantId pid) {
+		ParticipantIdentifierType p = new ParticipantIdentifierType();
+		p.setScheme(pid.scheme());
+		p.setValue(pid.value());
+		return p;
+	}
+}
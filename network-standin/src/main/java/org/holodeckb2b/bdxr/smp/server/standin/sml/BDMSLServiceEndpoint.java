@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.sml;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.busdox.servicemetadata.locator._1.ServiceMetadataPublisherServiceForParticipantType;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.annotation.Endpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+
+import ec.services.wsdl.bdmsl.data._1.PrepareChangeCertificateType;
+import ec.services.wsdl.bdmsl.data._1.SMPAdvancedServiceForParticipantType;
+import jakarta.xml.bind.JAXBElement;
+
+/**
+ * Implements the operations of the <code>BDMSLService</code> service of the SML used by the SMP.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Endpoint
+public class BDMSLServiceEndpoint extends AbstractSMLEndpoint {
+	private static final String NS = "ec:services:wsdl:BDMSL:data:1.0";
+
+	@PayloadRoot(namespace = NS, localPart = "PrepareChangeCertificate")
+	public void prepareChangeCertificate(@RequestPayload JAXBElement<PrepareChangeCertificateType> request,
+										 MessageContext ctx) {
+		PrepareChangeCertificateType r = request.getValue();
+		X509Certificate newCert;
+		try {
+			newCert = (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(
+						new ByteArrayInputStream(r.getNewCertificatePublicKey().getBytes(StandardCharsets.US_ASCII)));
+		} catch (CertificateException | NullPointerException invalidCert) {
+			throw new SMLFault(SMLFault.Type.BAD_REQUEST, "Invalid certificate");
+		}
+		LocalDate migrationDate = r.getMigrationDate() != null ? r.getMigrationDate().toGregorianCalendar()
+																	.toZonedDateTime().toLocalDate() : null;
+		registry.prepareChangeCertificate(client(), newCert.getSubjectX500Principal().getName(), migrationDate);
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "SMPAdvancedServiceForParticipantService")
+	public void createParticipant(@RequestPayload JAXBElement<SMPAdvancedServiceForParticipantType> request,
+								  MessageContext ctx) {
+		ServiceMetadataPublisherServiceForParticipantType p = request.getValue().getCreateParticipantIdentifier();
+		if (p == null)
+			throw new SMLFault(SMLFault.Type.BAD_REQUEST, "Participant missing");
+		registry.createParticipants(client(), p.getServiceMetadataPublisherID(),
+									List.of(toParticipantId(p.getParticipantIdentifier())));
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "IsAlive")
+	public void isAlive(MessageContext ctx) {
+		emptyResponse(ctx);
+	}
+}
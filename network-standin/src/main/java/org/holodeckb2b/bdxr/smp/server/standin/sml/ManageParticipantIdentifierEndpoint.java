@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.sml;
+
+import java.util.List;
+
+import org.busdox.servicemetadata.locator._1.MigrationRecordType;
+import org.busdox.servicemetadata.locator._1.ObjectFactory;
+import org.busdox.servicemetadata.locator._1.PageRequestType;
+import org.busdox.servicemetadata.locator._1.ParticipantIdentifierPageType;
+import org.busdox.servicemetadata.locator._1.ServiceMetadataPublisherServiceForParticipantType;
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLRegistry.Page;
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLRegistry.ParticipantId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.annotation.Endpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+
+import jakarta.xml.bind.JAXBElement;
+
+/**
+ * Implements the <code>ManageBusinessIdentifier</code> service of the SML used to register Participants, including
+ * the operations to register or remove a list of Participants in one request and to list the registered Participants.
+ * The maximum number of Participants in one list request and the size of the pages returned by the list operation are
+ * set using the <code>standin.sml.max_list_size</code> and <code>standin.sml.page_size</code> properties, both 100 by
+ * default.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Endpoint
+public class ManageParticipantIdentifierEndpoint extends AbstractSMLEndpoint {
+	private static final String NS = ManageServiceMetadataEndpoint.NS;
+
+	@Value("${standin.sml.max_list_size:100}")
+	private int	maxListSize;
+
+	@Value("${standin.sml.page_size:100}")
+	private int	pageSize;
+
+	@PayloadRoot(namespace = NS, localPart = "CreateParticipantIdentifier")
+	public void create(@RequestPayload JAXBElement<ServiceMetadataPublisherServiceForParticipantType> request,
+					   MessageContext ctx) {
+		ServiceMetadataPublisherServiceForParticipantType p = request.getValue();
+		registry.createParticipants(client(), p.getServiceMetadataPublisherID(),
+									List.of(toParticipantId(p.getParticipantIdentifier())));
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "DeleteParticipantIdentifier")
+	public void delete(@RequestPayload JAXBElement<ServiceMetadataPublisherServiceForParticipantType> request,
+					   MessageContext ctx) {
+		ServiceMetadataPublisherServiceForParticipantType p = request.getValue();
+		registry.deleteParticipants(client(), p.getServiceMetadataPublisherID(),
+									List.of(toParticipantId(p.getParticipantIdentifier())));
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "CreateList")
+	public void createList(@RequestPayload JAXBElement<ParticipantIdentifierPageType> request, MessageContext ctx) {
+		ParticipantIdentifierPageType list = request.getValue();
+		registry.createParticipants(client(), list.getServiceMetadataPublisherID(), toParticipantIds(list));
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "DeleteList")
+	public void deleteList(@RequestPayload JAXBElement<ParticipantIdentifierPageType> request, MessageContext ctx) {
+		ParticipantIdentifierPageType list = request.getValue();
+		registry.deleteParticipants(client(), list.getServiceMetadataPublisherID(), toParticipantIds(list));
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "PageRequest")
+	@ResponsePayload
+	public JAXBElement<ParticipantIdentifierPageType> list(@RequestPayload JAXBElement<PageRequestType> request) {
+		PageRequestType req = request.getValue();
+		Page page = registry.listParticipants(client(), req.getServiceMetadataPublisherID(),
+											  req.getNextPageIdentifier(), pageSize);
+		ParticipantIdentifierPageType response = new ParticipantIdentifierPageType();
+		response.setServiceMetadataPublisherID(req.getServiceMetadataPublisherID());
+		page.participants().forEach(p -> response.getParticipantIdentifier().add(toParticipantIdentifier(p)));
+		response.setNextPageIdentifier(page.nextPage());
+		return new ObjectFactory().createParticipantIdentifierPage(response);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "PrepareMigrationRecord")
+	public void prepareMigrate(@RequestPayload JAXBElement<MigrationRecordType> request, MessageContext ctx) {
+		MigrationRecordType r = request.getValue();
+		registry.prepareMigration(client(), r.getServiceMetadataPublisherID(),
+								  toParticipantId(r.getParticipantIdentifier()), r.getMigrationKey());
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "CompleteMigrationRecord")
+	public void migrate(@RequestPayload JAXBElement<MigrationRecordType> request, MessageContext ctx) {
+		MigrationRecordType r = request.getValue();
+		registry.migrate(client(), r.getServiceMetadataPublisherID(), toParticipantId(r.getParticipantIdentifier()),
+						 r.getMigrationKey());
+		emptyResponse(ctx);
+	}
+
+	private List<ParticipantId> toParticipantIds(ParticipantIdentifierPageType list) {
+		if (list.getParticipantIdentifier().isEmpty())
+			throw new SMLFault(SMLFault.Type.BAD_REQUEST, "The list does not contain any participants");
+		if (list.getParticipantIdentifier().size() > maxListSize)
+			throw new SMLFault(SMLFault.Type.BAD_REQUEST, "The list contains more than " + maxListSize + " participants");
+		return list.getParticipantIdentifier().stream().map(AbstractSMLEndpoint::toParticipantId).toList();
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.sml;
+
+import org.busdox.servicemetadata.locator._1.ObjectFactory;
+import org.busdox.servicemetadata.locator._1.PublisherEndpointType;
+import org.busdox.servicemetadata.locator._1.ServiceMetadataPublisherServiceType;
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLRegistry.SMPRegistration;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.endpoint.annotation.Endpoint;
+import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
+import org.springframework.ws.server.endpoint.annotation.RequestPayload;
+import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+
+import jakarta.xml.bind.JAXBElement;
+
+/**
+ * Implements the <code>ManageServiceMetadata</code> service of the SML used to register the SMP.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Endpoint
+public class ManageServiceMetadataEndpoint extends AbstractSMLEndpoint {
+	static final String NS = "http://busdox.org/serviceMetadata/locator/1.0/";
+
+	@PayloadRoot(namespace = NS, localPart = "CreateServiceMetadataPublisherService")
+	public void create(@RequestPayload JAXBElement<ServiceMetadataPublisherServiceType> request, MessageContext ctx) {
+		ServiceMetadataPublisherServiceType smp = request.getValue();
+		PublisherEndpointType ep = getEndpoint(smp);
+		registry.createSMP(client(), smp.getServiceMetadataPublisherID(), ep.getLogicalAddress(),
+						   ep.getPhysicalAddress());
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "ReadServiceMetadataPublisherService")
+	@ResponsePayload
+	public JAXBElement<ServiceMetadataPublisherServiceType> read(
+									@RequestPayload JAXBElement<ServiceMetadataPublisherServiceType> request) {
+		SMPRegistration reg = registry.readSMP(client(), request.getValue().getServiceMetadataPublisherID());
+		ServiceMetadataPublisherServiceType smp = new ServiceMetadataPublisherServiceType();
+		smp.setServiceMetadataPublisherID(reg.getSmpId());
+		PublisherEndpointType ep = new PublisherEndpointType();
+		ep.setLogicalAddress(reg.getLogicalAddress());
+		ep.setPhysicalAddress(reg.getPhysicalAddress());
+		smp.setPublisherEndpoint(ep);
+		return new ObjectFactory().createServiceMetadataPublisherService(smp);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "UpdateServiceMetadataPublisherService")
+	public void update(@RequestPayload JAXBElement<ServiceMetadataPublisherServiceType> request, MessageContext ctx) {
+		ServiceMetadataPublisherServiceType smp = request.getValue();
+		PublisherEndpointType ep = getEndpoint(smp);
+		registry.updateSMP(client(), smp.getServiceMetadataPublisherID(), ep.getLogicalAddress(),
+						   ep.getPhysicalAddress());
+		emptyResponse(ctx);
+	}
+
+	@PayloadRoot(namespace = NS, localPart = "ServiceMetadataPublisherID")
+	public void delete(@RequestPayload JAXBElement<String> request, MessageContext ctx) {
+		registry.deleteSMP(client(), request.getValue());
+		emptyResponse(ctx);
+	}
+
+	private static PublisherEndpointType getEndpoint(ServiceMetadataPublisherServiceType smp) {
+		PublisherEndpointType ep = smp.getPublisherEndpoint();
+		if (ep == null || ep.getLogicalAddress() == null || ep.getPhysicalAddress() == null)
+			throw new SMLFault(SMLFault.Type.BAD_REQUEST, "Publisher endpoint missing");
+		return ep;
+	}
+}
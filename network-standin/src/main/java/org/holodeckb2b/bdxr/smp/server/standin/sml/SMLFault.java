@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.sml;
+
+import java.util.function.Function;
+
+import org.busdox.servicemetadata.locator._1.FaultType;
+import org.busdox.servicemetadata.locator._1.ObjectFactory;
+
+import jakarta.xml.bind.JAXBElement;
+
+/**
+ * Indicates that the SML stand-in rejects a request. It is converted into a SOAP Fault with the fault element defined
+ * in the SML interface specification as detail.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+public class SMLFault extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The types of faults defined by the SML interface
+	 */
+	public enum Type {
+		BAD_REQUEST(true, new ObjectFactory()::createBadRequestFault),
+		NOT_FOUND(true, new ObjectFactory()::createNotFoundFault),
+		UNAUTHORIZED(true, new ObjectFactory()::createUnauthorizedFault),
+		INTERNAL_ERROR(false, new ObjectFactory()::createInternalErrorFault);
+
+		private final boolean	clientFault;
+		private final Function<FaultType, JAXBElement<FaultType>> factory;
+
+		Type(boolean clientFault, Function<FaultType, JAXBElement<FaultType>> factory) {
+			this.clientFault = clientFault;
+			this.factory = factory;
+		}
+
+		/**
+		 * @return <code>true</code> if the fault is caused by the client, <code>false</code> if caused by the SML
+		 */
+		public boolean isClientFault() {
+			return clientFault;
+		}
+	}
+
+	private final Type	type;
+
+	public SMLFault(Type type, String message) {
+		super(message);
+		this.type = type;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return the fault element to include as detail of the SOAP Fault
+	 */
+	JAXBElement<FaultType> getDetail() {
+		FaultType f = new FaultType();
+		f.setFaultMessage(getMessage());
+		return type.factory.apply(f);
+	}
+}
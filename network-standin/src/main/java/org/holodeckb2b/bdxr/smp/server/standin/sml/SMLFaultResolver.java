@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.sml;
+
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.oxm.XmlMappingException;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.stereotype.Component;
+import org.springframework.ws.context.MessageContext;
+import org.springframework.ws.server.EndpointExceptionResolver;
+import org.springframework.ws.soap.SoapBody;
+import org.springframework.ws.soap.SoapFault;
+import org.springframework.ws.soap.SoapMessage;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converts a {@link SMLFault} into a SOAP Fault that contains the SML fault element as detail.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class SMLFaultResolver implements EndpointExceptionResolver, Ordered {
+
+	@Autowired
+	private Jaxb2Marshaller	marshaller;
+
+	@Override
+	public boolean resolveException(MessageContext messageContext, Object endpoint, Exception ex) {
+		if (!(ex instanceof SMLFault fault))
+			return false;
+		log.debug("Reject SML request ({}) : {}", fault.getType(), fault.getMessage());
+		SoapBody body = ((SoapMessage) messageContext.getResponse()).getSoapBody();
+		SoapFault soapFault = fault.getType().isClientFault()
+								? body.addClientOrSenderFault(fault.getMessage(), Locale.ENGLISH)
+								: body.addServerOrReceiverFault(fault.getMessage(), Locale.ENGLISH);
+		try {
+			marshaller.marshal(fault.getDetail(), soapFault.addFaultDetail().getResult());
+		} catch (XmlMappingException detailFailure) {
+			log.warn("Could not add fault detail : {}", detailFailure.getMessage());
+		}
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+}
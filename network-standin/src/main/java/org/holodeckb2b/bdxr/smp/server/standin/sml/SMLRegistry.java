@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin.sml;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLFault.Type;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the registrations of the SML stand-in. Like the real SML it keeps the SMPs, identified by their SMP ID and
+ * owned by the client that registered them, and the Participants registered by each SMP. A Participant can only be
+ * registered by one SMP at a time. Participant identifiers are compared case insensitively as is the case for the
+ * Peppol participant identifier scheme. The registrations are only kept in memory and are lost when the stand-in is
+ * stopped.
+ * <p>
+ * All operations are executed under a single lock so the list operations are atomic. As the operations themselves
+ * only take a few microseconds, this does not limit the throughput of the stand-in. The simulated latency is added
+ * before the lock is acquired.
+ *
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Component
+@Slf4j
+public class SMLRegistry {
+
+	/**
+	 * A Participant identifier
+	 *
+	 * @param scheme	the identifier scheme
+	 * @param value		the identifier value
+	 */
+	public record ParticipantId(String scheme, String value) {
+		String key() {
+			return (scheme != null ? scheme + "::" : "::") + value.toLowerCase();
+		}
+	}
+
+	/**
+	 * The registration of an SMP
+	 */
+	public static class SMPRegistration {
+		private final String	smpId;
+		private String	logicalAddress;
+		private String	physicalAddress;
+		private String	owner;
+		private String	newOwner;
+		private LocalDate	ownerChangeDate;
+		private final NavigableMap<String, ParticipantId>	participants = new TreeMap<>();
+
+		SMPRegistration(String smpId, String owner) {
+			this.smpId = smpId;
+			this.owner = owner;
+		}
+
+		public String getSmpId() {
+			return smpId;
+		}
+
+		public String getLogicalAddress() {
+			return logicalAddress;
+		}
+
+		public String getPhysicalAddress() {
+			return physicalAddress;
+		}
+	}
+
+	/**
+	 * A page of Participants registered by an SMP
+	 *
+	 * @param participants	the Participants on this page
+	 * @param nextPage		identifier of the next page, <code>null</code> if this is the last page
+	 */
+	public record Page(List<ParticipantId> participants, String nextPage) {}
+
+	private final Map<String, SMPRegistration>	smps = new HashMap<>();
+	/**
+	 * Maps the key of each registered Participant to the SMP it is registered by
+	 */
+	private final Map<String, SMPRegistration>	participants = new HashMap<>();
+	/**
+	 * The migration keys of the Participants that are prepared for migration
+	 */
+	private final Map<String, String>	migrationKeys = new HashMap<>();
+
+	public synchronized void createSMP(String client, String smpId, String logicalAddress, String physicalAddress) {
+		if (smps.containsKey(smpId))
+			throw new SMLFault(Type.BAD_REQUEST, "SMP " + smpId + " already exists");
+		SMPRegistration smp = new SMPRegistration(smpId, client);
+		smp.logicalAddress = logicalAddress;
+		smp.physicalAddress = physicalAddress;
+		smps.put(smpId, smp);
+		log.debug("Created SMP {} for {}", smpId, client);
+	}
+
+	public synchronized SMPRegistration readSMP(String client, String smpId) {
+		return getSMP(client, smpId);
+	}
+
+	public synchronized void updateSMP(String client, String smpId, String logicalAddress, String physicalAddress) {
+		SMPRegistration smp = getSMP(client, smpId);
+		smp.logicalAddress = logicalAddress;
+		smp.physicalAddress = physicalAddress;
+		log.debug("Updated SMP {}", smpId);
+	}
+
+	public synchronized void deleteSMP(String client, String smpId) {
+		SMPRegistration smp = getSMP(client, smpId);
+		smp.participants.keySet().forEach(k -> {
+			participants.remove(k);
+			migrationKeys.remove(k);
+		});
+		smps.remove(smpId);
+		log.debug("Deleted SMP {} and its {} participants", smpId, smp.participants.size());
+	}
+
+	/**
+	 * Registers the new certificate of the client that will be used from the given date.
+	 *
+	 * @param client		the current identity of the client
+	 * @param newClient		the identity of the client based on the new certificate
+	 * @param migrationDate	the date from which the new certificate will be used, when <code>null</code> the new
+	 * 						certificate can be used immediately
+	 */
+	public synchronized void prepareChangeCertificate(String client, String newClient, LocalDate migrationDate) {
+		int n = 0;
+		for (SMPRegistration smp : smps.values())
+			if (smp.owner.equals(client)) {
+				smp.newOwner = newClient;
+				smp.ownerChangeDate = migrationDate;
+				n++;
+			}
+		if (n == 0)
+			throw new SMLFault(Type.NOT_FOUND, "No SMPs registered for the client");
+		log.debug("Prepared certificate change of {} SMPs to {} at {}", n, newClient, migrationDate);
+	}
+
+	public synchronized void createParticipants(String client, String smpId, List<ParticipantId> pids) {
+		SMPRegistration smp = getSMP(client, smpId);
+		for (ParticipantId pid : pids)
+			if (participants.containsKey(pid.key()))
+				throw new SMLFault(Type.BAD_REQUEST, "Participant " + pid.key() + " is already registered");
+		for (ParticipantId pid : pids) {
+			participants.put(pid.key(), smp);
+			smp.participants.put(pid.key(), pid);
+		}
+	}
+
+	public synchronized void deleteParticipants(String client, String smpId, List<ParticipantId> pids) {
+		SMPRegistration smp = getSMP(client, smpId);
+		for (ParticipantId pid : pids)
+			if (!smp.participants.containsKey(pid.key()))
+				throw new SMLFault(Type.NOT_FOUND, "Participant " + pid.key() + " is not registered by " + smpId);
+		for (ParticipantId pid : pids) {
+			participants.remove(pid.key());
+			migrationKeys.remove(pid.key());
+			smp.participants.remove(pid.key());
+		}
+	}
+
+	/**
+	 * Gets a page of the Participants registered by the SMP, ordered by their identifier.
+	 *
+	 * @param client	the identity of the client
+	 * @param smpId		the SMP ID
+	 * @param pageId	identifier of the page to get, <code>null</code> for the first page
+	 * @param pageSize	maximum number of Participants on the page
+	 * @return	the requested page
+	 */
+	public synchronized Page listParticipants(String client, String smpId, String pageId, int pageSize) {
+		SMPRegistration smp = getSMP(client, smpId);
+		List<ParticipantId> page = new ArrayList<>(pageSize);
+		String last = null;
+		for (Map.Entry<String, ParticipantId> e : (pageId == null ? smp.participants
+																  : smp.participants.tailMap(pageId, false)).entrySet()) {
+			if (page.size() == pageSize)
+				return new Page(page, last);
+			page.add(e.getValue());
+			last = e.getKey();
+		}
+		return new Page(page, null);
+	}
+
+	public synchronized void prepareMigration(String client, String smpId, ParticipantId pid, String migrationKey) {
+		SMPRegistration smp = getSMP(client, smpId);
+		if (!smp.participants.containsKey(pid.key()))
+			throw new SMLFault(Type.NOT_FOUND, "Participant " + pid.key() + " is not registered by " + smpId);
+		migrationKeys.put(pid.key(), migrationKey);
+	}
+
+	public synchronized void migrate(String client, String smpId, ParticipantId pid, String migrationKey) {
+		SMPRegistration smp = getSMP(client, smpId);
+		SMPRegistration current = participants.get(pid.key());
+		if (current == null)
+			throw new SMLFault(Type.NOT_FOUND, "Participant " + pid.key() + " is not registered");
+		if (!migrationKey.equals(migrationKeys.get(pid.key())))
+			throw new SMLFault(Type.UNAUTHORIZED, "Invalid migration key");
+		current.participants.remove(pid.key());
+		migrationKeys.remove(pid.key());
+		participants.put(pid.key(), smp);
+		smp.participants.put(pid.key(), pid);
+	}
+
+	/**
+	 * @return the number of registered SMPs
+	 */
+	public synchronized int getSMPCount() {
+		return smps.size();
+	}
+
+	/**
+	 * @return the number of registered Participants
+	 */
+	public synchronized int getParticipantCount() {
+		return participants.size();
+	}
+
+	/**
+	 * Checks whether the given Participant is registered.
+	 *
+	 * @param pid	the Participant identifier
+	 * @return	the SMP ID of the SMP that registered the Participant, <code>null</code> if not registered
+	 */
+	public synchronized String getRegisteringSMP(ParticipantId pid) {
+		SMPRegistration smp = participants.get(pid.key());
+		return smp != null ? smp.smpId : null;
+	}
+
+	/**
+	 * Removes all registrations.
+	 */
+	public synchronized void reset() {
+		smps.clear();
+		participants.clear();
+		migrationKeys.clear();
+	}
+
+	/**
+	 * Gets the SMP registration and checks that the client is the owner of it. When the client's certificate has been
+	 * changed and the migration date has been reached, the new certificate becomes the owner.
+	 */
+	private SMPRegistration getSMP(String client, String smpId) {
+		if (client == null)
+			throw new SMLFault(Type.UNAUTHORIZED, "Client certificate required");
+		SMPRegistration smp = smps.get(smpId);
+		if (smp == null)
+			throw new SMLFault(Type.NOT_FOUND, "SMP " + smpId + " does not exist");
+		if (smp.newOwner != null && (smp.ownerChangeDate == null || !LocalDate.now().isBefore(smp.ownerChangeDate))
+			&& smp.newOwner.equals(client)) {
+			smp.owner = smp.newOwner;
+			smp.newOwner = null;
+		}
+		if (!smp.owner.equals(client))
+			throw new SMLFault(Type.UNAUTHORIZED, "SMP " + smpId + " is not owned by the client");
+		return smp;
+	}
+}
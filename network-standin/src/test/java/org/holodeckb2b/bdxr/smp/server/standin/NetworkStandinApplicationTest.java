@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.standin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.busdox.servicemetadata.locator._1.ObjectFactory;
+import org.busdox.servicemetadata.locator._1.PageRequestType;
+import org.busdox.servicemetadata.locator._1.ParticipantIdentifierPageType;
+import org.busdox.servicemetadata.locator._1.PublisherEndpointType;
+import org.busdox.servicemetadata.locator._1.ServiceMetadataPublisherServiceForParticipantType;
+import org.busdox.servicemetadata.locator._1.ServiceMetadataPublisherServiceType;
+import org.busdox.transport.identifiers._1.ParticipantIdentifierType;
+import org.holodeckb2b.bdxr.smp.server.standin.directory.DirectoryIndex;
+import org.holodeckb2b.bdxr.smp.server.standin.sml.SMLRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.oxm.jaxb.Jaxb2Marshaller;
+import org.springframework.ws.client.core.WebServiceTemplate;
+import org.springframework.ws.soap.client.SoapFaultClientException;
+
+import jakarta.xml.bind.JAXBElement;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+				properties = { "standin.require_client_cert=false", "standin.sml.max_list_size=3",
+							   "standin.sml.page_size=2" })
+class NetworkStandinApplicationTest {
+
+	private static final String T_SMP_ID = "SMP-TEST";
+	private static final String T_SCHEME = "iso6523-actorid-upis";
+
+	private static final ObjectFactory	F = new ObjectFactory();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private Jaxb2Marshaller	marshaller;
+
+	@Autowired
+	private TestRestTemplate	restTemplate;
+
+	@Autowired
+	private SMLRegistry		sml;
+
+	@Autowired
+	private DirectoryIndex	directory;
+
+	private WebServiceTemplate	wsTemplate;
+
+	@BeforeEach
+	void setup() {
+		sml.reset();
+		directory.reset();
+		wsTemplate = new WebServiceTemplate(marshaller);
+	}
+
+	@Test
+	void testSMPRegistration() {
+		callSML("manageservicemetadata", F.createCreateServiceMetadataPublisherService(smp("http://smp.test")));
+
+		ServiceMetadataPublisherServiceType read = ((JAXBElement<ServiceMetadataPublisherServiceType>)
+				callSML("manageservicemetadata", F.createReadServiceMetadataPublisherService(smp(null)))).getValue();
+		assertEquals(T_SMP_ID, read.getServiceMetadataPublisherID());
+		assertEquals("http://smp.test", read.getPublisherEndpoint().getLogicalAddress());
+
+		callSML("manageservicemetadata", F.createUpdateServiceMetadataPublisherService(smp("http://new.smp.test")));
+		read = ((JAXBElement<ServiceMetadataPublisherServiceType>)
+				callSML("manageservicemetadata", F.createReadServiceMetadataPublisherService(smp(null)))).getValue();
+		assertEquals("http://new.smp.test", read.getPublisherEndpoint().getLogicalAddress());
+
+		SoapFaultClientException fault = assertThrows(SoapFaultClientException.class, () ->
+				callSML("manageservicemetadata", F.createCreateServiceMetadataPublisherService(smp("http://smp.test"))));
+		assertEquals("SMP " + T_SMP_ID + " already exists", fault.getFaultStringOrReason());
+
+		callSML("manageservicemetadata", F.createServiceMetadataPublisherID(T_SMP_ID));
+		assertEquals(0, sml.getSMPCount());
+		assertThrows(SoapFaultClientException.class, () ->
+				callSML("manageservicemetadata", F.createReadServiceMetadataPublisherService(smp(null))));
+	}
+
+	@Test
+	void testParticipantRegistration() {
+		callSML("manageservicemetadata", F.createCreateServiceMetadataPublisherService(smp("http://smp.test")));
+
+		ServiceMetadataPublisherServiceForParticipantType p = new ServiceMetadataPublisherServiceForParticipantType();
+		p.setServiceMetadataPublisherID(T_SMP_ID);
+		p.setParticipantIdentifier(pid("0088:0"));
+		callSML("manageparticipantidentifier", F.createCreateParticipantIdentifier(p));
+
+		callSML("manageparticipantidentifier", F.createCreateList(list("0088:1", "0088:2")));
+		assertEquals(3, sml.getParticipantCount());
+		// Whole list is rejected when one of the Participants already exists
+		assertThrows(SoapFaultClientException.class, () ->
+				callSML("manageparticipantidentifier", F.createCreateList(list("0088:3", "0088:2"))));
+		assertEquals(3, sml.getParticipantCount());
+		// and when the list is too large
+		assertThrows(SoapFaultClientException.class, () ->
+				callSML("manageparticipantidentifier", F.createCreateList(list("0088:3", "0088:4", "0088:5", "0088:6"))));
+
+		PageRequestType req = new PageRequestType();
+		req.setServiceMetadataPublisherID(T_SMP_ID);
+		ParticipantIdentifierPageType page = ((JAXBElement<ParticipantIdentifierPageType>)
+									callSML("manageparticipantidentifier", F.createPageRequest(req))).getValue();
+		assertEquals(2, page.getParticipantIdentifier().size());
+		assertNotNull(page.getNextPageIdentifier());
+		req.setNextPageIdentifier(page.getNextPageIdentifier());
+		page = ((JAXBElement<ParticipantIdentifierPageType>)
+									callSML("manageparticipantidentifier", F.createPageRequest(req))).getValue();
+		assertEquals(1, page.getParticipantIdentifier().size());
+		assertNull(page.getNextPageIdentifier());
+
+		callSML("manageparticipantidentifier", F.createDeleteList(list("0088:1", "0088:2")));
+		callSML("manageparticipantidentifier", F.createDeleteParticipantIdentifier(p));
+		assertEquals(0, sml.getParticipantCount());
+	}
+
+	@Test
+	void testDirectory() {
+		String base = "http://localhost:" + port + "/directory/indexer/1.0/";
+		String pid = T_SCHEME + "::0088:123";
+
+		assertEquals(HttpStatus.NO_CONTENT, restTemplate.exchange(base, HttpMethod.PUT, new HttpEntity<>(pid),
+																  Void.class).getStatusCode());
+		assertEquals(1, directory.size());
+		assertEquals(ClientCertificates.ANONYMOUS, directory.get(pid).owner());
+
+		assertEquals(HttpStatus.NO_CONTENT, restTemplate.exchange(base + "/" + pid, HttpMethod.DELETE, null,
+																  Void.class).getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, restTemplate.exchange(base + pid, HttpMethod.DELETE, null,
+																 Void.class).getStatusCode());
+	}
+
+	@Test
+	void testStatus() {
+		callSML("manageservicemetadata", F.createCreateServiceMetadataPublisherService(smp("http://smp.test")));
+
+		Map<?, ?> status = restTemplate.getForObject("http://localhost:" + port + "/standin/status", Map.class);
+		assertEquals(1, ((Map<?, ?>) status.get("sml")).get("smps"));
+		assertTrue(((Number) ((Map<?, ?>) status.get("sml")).get("requests")).longValue() > 0);
+
+		restTemplate.postForEntity("http://localhost:" + port + "/standin/reset", null, Void.class);
+		assertEquals(0, sml.getSMPCount());
+	}
+
+	private Object callSML(String service, Object request) {
+		return wsTemplate.marshalSendAndReceive("http://localhost:" + port + "/edelivery-sml/" + service, request);
+	}
+
+	private static ServiceMetadataPublisherServiceType smp(String logicalAddress) {
+		ServiceMetadataPublisherServiceType smp = new ServiceMetadataPublisherServiceType();
+		smp.setServiceMetadataPublisherID(T_SMP_ID);
+		if (logicalAddress != null) {
+			PublisherEndpointType ep = new PublisherEndpointType();
+			ep.setLogicalAddress(logicalAddress);
+			ep.setPhysicalAddress("127.0.0.1");
+			smp.setPublisherEndpoint(ep);
+		}
+		return smp;
+	}
+
+	private static ParticipantIdentifierType pid(String value) {
+		ParticipantIdentifierType pid = new ParticipantIdentifierType();
+		pid.setScheme(T_SCHEME);
+		pid.setValue(value);
+		return pid;
+	}
+
+	private static ParticipantIdentifierPageType list(String... values) {
+		ParticipantIdentifierPageType list = new ParticipantIdentifierPageType();
+		list.setServiceMetadataPublisherID(T_SMP_ID);
+		for (String v : values)
+			list.getParticipantIdentifier().add(pid(v));
+		return list;
+	}
+}
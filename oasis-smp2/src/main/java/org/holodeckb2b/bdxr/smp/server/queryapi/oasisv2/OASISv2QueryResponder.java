@@ -25,6 +25,10 @@ import javax.xml.crypto.dsig.XMLSignatureException;
 import org.holodeckb2b.bdxr.common.datamodel.Identifier;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.ParticipantLookupEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.ResponseBuildEvent;
+import org.holodeckb2b.bdxr.smp.server.queryapi.QueryMetrics;
+import org.holodeckb2b.bdxr.smp.server.queryapi.QueryStage;
 import org.holodeckb2b.bdxr.smp.server.queryapi.ResponseSigner;
 import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantsService;
 import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
@@ -62,6 +66,8 @@ public class OASISv2QueryResponder implements IQueryResponder {
 	protected ResponseSigner	signer;
 	@Autowired
 	protected ParticipantsService participantsSvc;
+	@Autowired
+	protected QueryMetrics	metrics;
 	
 	@Value("${smp.smp2_cert_mime-type:application/pkix-cert}")
 	protected String certMimeType;
@@ -73,6 +79,7 @@ public class OASISv2QueryResponder implements IQueryResponder {
 	public QueryResponse processQuery(String queryPath, HttpHeaders headers) {
 		if (!queryPath.startsWith(URL_PREFIX)) {
 			log.error("Invalid query path: {}", queryPath);
+			metrics.recordErrorCause("invalid_path");
 			return new QueryResponse(HttpStatus.BAD_REQUEST, null, null);
 		}
 		String query = queryPath.substring(12);
@@ -83,6 +90,7 @@ public class OASISv2QueryResponder implements IQueryResponder {
 				return processServiceGroupQuery(query);
 		} catch (Throwable t) {
 			log.error("Error occurred processing the query ({}): {}", query,Utils.getExceptionTrace(t));
+			metrics.recordErrorCause("exception");
 			return new QueryResponse(HttpStatus.INTERNAL_SERVER_ERROR, null, null);
 		}
 	}
@@ -90,6 +98,7 @@ public class OASISv2QueryResponder implements IQueryResponder {
 	private QueryResponse processServiceMetadataQuery(String query) throws PersistenceException, InstantiationException, 
 			 																				XMLSignatureException {
 		log.trace("Process a ServiceMetadata query");
+		long t = System.nanoTime();
 		Identifier partID, svcID;
 		int pidEnd = query.indexOf('/');
 		String pidString = pidEnd < 0 ? query : query.substring(0, pidEnd);
@@ -98,62 +107,99 @@ public class OASISv2QueryResponder implements IQueryResponder {
 		    svcID = idUtils.parseIDString(sidString);
 		} catch (NoSuchElementException unknownScheme) {
 			log.debug("ID Scheme of queried Service ID ({}) not found!", pidString);
+			metrics.recordErrorCause("unknown_service_id_scheme");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
 		try {
 			partID = idUtils.parseIDString(pidString);
 		} catch (NoSuchElementException unknownScheme) {
 			log.debug("ID Scheme of queried Participant ID ({}) not found!", pidString);
+			metrics.recordErrorCause("unknown_participant_id_scheme");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}	
-		log.trace("Retrieve bound templates for Participant={} ", partID.toString());
+		t = recordStage(QueryStage.ID_PARSING, t);
+		log.trace("Retrieve bound templates for Participant={} ", partID);
+		ParticipantLookupEvent lookup = new ParticipantLookupEvent();
+		lookup.begin();
 		Participant p = participantsSvc.getParticipant(partID);
+		metrics.completeEvent(lookup, p != null ? "found" : "not_found");
 		ServiceMetadataTemplate smt = p == null ? null : 
-					p.getBoundSMT().stream().filter(t -> t.getService().getId().equals(svcID)).findFirst().orElse(null);
+					p.getBoundSMT().stream().filter(b -> b.getService().getId().equals(svcID)).findFirst().orElse(null);
+		t = recordStage(QueryStage.DB_LOOKUP, t);
 		if (smt == null) {
-			log.debug("No template found for Participant={} and Service={}", partID.toString(), svcID.toString());
+			log.debug("No template found for Participant={} and Service={}", partID, svcID);
+			metrics.recordErrorCause(p == null ? "participant_not_found" : "service_not_found");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
 		log.trace("Create ServiceMetadata response document");
 		Document response, signed;
+		ResponseBuildEvent build = new ResponseBuildEvent();
+		build.begin();
 		response = getSmdFactory().newResponse(partID, smt);
+		recordStage(QueryStage.RESPONSE_BUILD, t);
+		metrics.completeEvent(build, "ok");
 		log.trace("Sign the response document");
 		signed = signer.signResponse(response, SIGNING_ALG, DIGEST_ALG, C14N_ALG);
-		log.info("Completed ServiceMetadata query for Participant={} and Service={}",
-				partID.toString(), svcID.toString());
+		log.debug("Completed ServiceMetadata query for Participant={} and Service={}", partID, svcID);
 		return new QueryResponse(HttpStatus.OK, null, signed);
 	}
 
 	private QueryResponse processServiceGroupQuery(String query) throws PersistenceException, InstantiationException,
 																								XMLSignatureException {
 		log.trace("Process a ServiceGroup query");
+		long t = System.nanoTime();
 		Identifier partID;
 		try {
 			partID = idUtils.parseIDString(query);
 		} catch (NoSuchElementException unknownScheme) {
 			log.debug("ID Scheme of queried Participant ID ({}) not found!", query);
+			metrics.recordErrorCause("unknown_participant_id_scheme");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
-		log.trace("Check if Participant with ID={} exists", partID.toString());
+		t = recordStage(QueryStage.ID_PARSING, t);
+		log.trace("Check if Participant with ID={} exists", partID);
+		ParticipantLookupEvent lookup = new ParticipantLookupEvent();
+		lookup.begin();
 		Participant p = participantsSvc.getParticipant(partID);
+		metrics.completeEvent(lookup, p != null ? "found" : "not_found");
 		if (p == null) {
 			log.debug("Queried Participant ID ({}) not found!", query);
+			metrics.recordErrorCause("participant_not_found");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
 		Collection<ServiceMetadataTemplate> boundSMT = p.getBoundSMT();
 		if (boundSMT.isEmpty()) {
-			log.debug("No templates bound to Participant={}", partID.toString());
+			log.debug("No templates bound to Participant={}", partID);
+			metrics.recordErrorCause("no_bound_services");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
+		t = recordStage(QueryStage.DB_LOOKUP, t);
 		log.trace("Create ServiceGroup response document");
 		Document response, signed;
+		ResponseBuildEvent build = new ResponseBuildEvent();
+		build.begin();
 		response = getSvcGrpFactory().newResponse(p.getId(), boundSMT);
+		recordStage(QueryStage.RESPONSE_BUILD, t);
+		metrics.completeEvent(build, "ok");
 		log.trace("Sign the response document");
 		signed = signer.signResponse(response, SIGNING_ALG, DIGEST_ALG, C14N_ALG);
-		log.info("Completed ServiceGroup query for Participant={}", partID.toString());
+		log.debug("Completed ServiceGroup query for Participant={}", partID);
 		return new QueryResponse(HttpStatus.OK, null, signed);
 	}
 	
+	/**
+	 * Records the time spent on the given processing stage.
+	 *
+	 * @param stage	the completed processing stage
+	 * @param start	the start time of the stage, as given by {@link System#nanoTime()}
+	 * @return	the end time of the stage, which can be used as start time of the next stage
+	 */
+	private long recordStage(QueryStage stage, long start) {
+		long end = System.nanoTime();
+		metrics.recordStage(stage, end - start);
+		return end;
+	}
+
 	private ServiceMetadataFactory getSmdFactory() {
 		if (smdFactory == null)
 			smdFactory = new ServiceMetadataFactory(certMimeType);
@@ -22,6 +22,10 @@ import java.util.NoSuchElementException;
 
 import org.holodeckb2b.bdxr.common.datamodel.Identifier;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.ParticipantLookupEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.ResponseBuildEvent;
+import org.holodeckb2b.bdxr.smp.server.queryapi.QueryMetrics;
+import org.holodeckb2b.bdxr.smp.server.queryapi.QueryStage;
 import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantsService;
 import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
 import org.holodeckb2b.bdxr.smp.server.services.query.IQueryResponder;
@@ -52,15 +56,19 @@ public class BusinessCardResponder extends AbstractResponseFactory implements IQ
 	protected IdUtils	queryUtils;
 	@Autowired
 	protected ParticipantsService participantsSvc;
+	@Autowired
+	protected QueryMetrics	metrics;
 			
 	@Override
 	public QueryResponse processQuery(String query, HttpHeaders headers) {
 		log.trace("Process a BusinessCard query");
+		long t = System.nanoTime();
 		Identifier partID;
 		// The query must always start with "/businesscard/", so we can start looking for the participant identifier
 		// after 14 characters
 		if (query.length() < 14) {
 			log.warn("Missing ParticipantID");
+			metrics.recordErrorCause("invalid_path");
 			return new QueryResponse(HttpStatus.BAD_REQUEST, null, null);
 		}		
 		String pidString = URLDecoder.decode(query.substring(14), StandardCharsets.UTF_8);
@@ -68,23 +76,36 @@ public class BusinessCardResponder extends AbstractResponseFactory implements IQ
 			partID = queryUtils.parseIDString(pidString);
 		} catch (NoSuchElementException unknownScheme) {
 			log.warn("ID Scheme of queried Participant ID ({}) not found!", pidString);
+			metrics.recordErrorCause("unknown_participant_id_scheme");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
+		long n = System.nanoTime();
+		metrics.recordStage(QueryStage.ID_PARSING, n - t);
+		t = n;
 		
-		log.trace("Business Card requested of Participant={}", partID.toString());
+		log.trace("Business Card requested of Participant={}", partID);
 		Participant participant;
+		ParticipantLookupEvent lookup = new ParticipantLookupEvent();
+		lookup.begin();
 		try {
 			participant = participantsSvc.getParticipant(partID);
+			metrics.completeEvent(lookup, participant != null ? "found" : "not_found");
 		} catch (PersistenceException e) {
-			log.error("Error retrieving Participant (ID={}) : {}", partID.toString(), Utils.getExceptionTrace(e));
+			log.error("Error retrieving Participant (ID={}) : {}", partID, Utils.getExceptionTrace(e));
+			metrics.completeEvent(lookup, "failed");
+			metrics.recordErrorCause("exception");
 			return new QueryResponse(HttpStatus.INTERNAL_SERVER_ERROR, null, null);
 		}		
+		n = System.nanoTime();
+		metrics.recordStage(QueryStage.DB_LOOKUP, n - t);
+		t = n;
 		if (participant == null || !participant.isPublishedInDirectory()) {
-			log.warn("Got Business Card request for non-existing or not published Participant ID ({})", partID.toString());
+			log.warn("Got Business Card request for non-existing or not published Participant ID ({})", partID);
+			metrics.recordErrorCause(participant == null ? "participant_not_found" : "participant_not_published");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
 		
-		log.trace("Create BusinessCard for Participant ({})", partID.toString());
+		log.trace("Create BusinessCard for Participant ({})", partID);
 		BusinessCardType bc = new BusinessCardType();
 		IdentifierType pid = new IdentifierType();
 		pid.setScheme(partID.getScheme() == null ? null : partID.getScheme().getSchemeId());
@@ -106,11 +127,18 @@ public class BusinessCardResponder extends AbstractResponseFactory implements IQ
 		}
 		bc.getBusinessEntity().add(busInfo);			
 		
+		ResponseBuildEvent build = new ResponseBuildEvent();
+		build.begin();
 		try {
-			log.debug("Return BusinessCard of Participant ({}) to Peppol Directory indexer", partID.toString());
-			return new QueryResponse(HttpStatus.OK, null, jaxb2dom(bc));
+			log.debug("Return BusinessCard of Participant ({}) to Peppol Directory indexer", partID);
+			QueryResponse r = new QueryResponse(HttpStatus.OK, null, jaxb2dom(bc));
+			metrics.recordStage(QueryStage.RESPONSE_BUILD, System.nanoTime() - t);
+			metrics.completeEvent(build, "ok");
+			return r;
 		} catch (InstantiationException ex) {
-			log.error("Error in conversion of BusinessCard XML for Participant ({}) : {}", partID.toString(), ex.getMessage());
+			log.error("Error in conversion of BusinessCard XML for Participant ({}) : {}", partID, ex.getMessage());
+			metrics.completeEvent(build, "failed");
+			metrics.recordErrorCause("exception");
 			return new QueryResponse(HttpStatus.INTERNAL_SERVER_ERROR, null, null);
 		}
 	}
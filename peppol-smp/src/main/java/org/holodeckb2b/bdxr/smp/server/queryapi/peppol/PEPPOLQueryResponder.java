@@ -25,6 +25,10 @@ import javax.xml.crypto.dsig.XMLSignatureException;
 import org.holodeckb2b.bdxr.common.datamodel.Identifier;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.datamodel.ServiceMetadataTemplate;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.ParticipantLookupEvent;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.ResponseBuildEvent;
+import org.holodeckb2b.bdxr.smp.server.queryapi.QueryMetrics;
+import org.holodeckb2b.bdxr.smp.server.queryapi.QueryStage;
 import org.holodeckb2b.bdxr.smp.server.queryapi.ResponseSigner;
 import org.holodeckb2b.bdxr.smp.server.services.core.ParticipantsService;
 import org.holodeckb2b.bdxr.smp.server.services.core.PersistenceException;
@@ -66,6 +70,8 @@ public class PEPPOLQueryResponder implements IQueryResponder {
 	protected ParticipantsService  participantsSvc;
 	@Autowired
 	protected SMPServerAdminService	adminSvc;
+	@Autowired
+	protected QueryMetrics	metrics;
 	
 	private ServiceMetadataFactory smdFactory;
 	private ServiceGroupFactory sgFactory;
@@ -79,6 +85,7 @@ public class PEPPOLQueryResponder implements IQueryResponder {
 				return processServiceGroupQuery(query.substring(1));
 		} catch (Throwable t) {
 			log.error("Error during processing query ({}): {}", query, Utils.getExceptionTrace(t));
+			metrics.recordErrorCause("exception");
 			return new QueryResponse(HttpStatus.INTERNAL_SERVER_ERROR, null, null);
 		}
 	}
@@ -86,6 +93,7 @@ public class PEPPOLQueryResponder implements IQueryResponder {
 	private QueryResponse processServiceMetadataQuery(String query) throws PersistenceException, InstantiationException,
 			 																				XMLSignatureException {
 		log.trace("Process a ServiceMetadata query");
+		long t = System.nanoTime();
 		Identifier partID, svcID;
 		int pidEnd = query.indexOf('/', 1);
 		String pidString = pidEnd < 0 ? query : query.substring(0, pidEnd);
@@ -94,53 +102,89 @@ public class PEPPOLQueryResponder implements IQueryResponder {
 			partID = queryUtils.parseIDString(pidString);
 		} catch (NoSuchElementException unknownScheme) {
 			log.debug("ID Scheme of queried Participant ID ({}) not found!", pidString);
+			metrics.recordErrorCause("unknown_participant_id_scheme");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
 		try {
 		    svcID = queryUtils.parseIDString(sidString);
 		} catch (NoSuchElementException unknownScheme) {
 			log.debug("ID Scheme of queried Service ID ({}) not found!", pidString);
+			metrics.recordErrorCause("unknown_service_id_scheme");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
-		log.trace("Retrieve Participant={}", partID.toString());
+		t = recordStage(QueryStage.ID_PARSING, t);
+		log.trace("Retrieve Participant={}", partID);
+		ParticipantLookupEvent lookup = new ParticipantLookupEvent();
+		lookup.begin();
 		Participant p = participantsSvc.getParticipant(partID);
+		metrics.completeEvent(lookup, p != null ? "found" : "not_found");
 		ServiceMetadataTemplate smt = p == null ? null : 
-					p.getBoundSMT().stream().filter(t -> t.getService().getId().equals(svcID)).findFirst().orElse(null);
+					p.getBoundSMT().stream().filter(b -> b.getService().getId().equals(svcID)).findFirst().orElse(null);
+		t = recordStage(QueryStage.DB_LOOKUP, t);
 		if (smt == null) {
-			log.debug("No template found for Participant={} and Service={}", partID.toString(), svcID.toString());
+			log.debug("No template found for Participant={} and Service={}", partID, svcID);
+			metrics.recordErrorCause(p == null ? "participant_not_found" : "service_not_found");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
 		log.trace("Create ServiceMetadata response document");
+		ResponseBuildEvent build = new ResponseBuildEvent();
+		build.begin();
 		Document response = getSmdFactory().newResponse(p.getId(), smt);
+		recordStage(QueryStage.RESPONSE_BUILD, t);
+		metrics.completeEvent(build, "ok");
 		log.trace("Sign the response document");
 		response = signer.signResponse(response, signingAlgorithm, digestMethod, c14nAlgorithm);
-		log.info("Completed ServiceMetadata query for Participant={} and Service={}",
-				partID.toString(), svcID.toString());
+		log.debug("Completed ServiceMetadata query for Participant={} and Service={}", partID, svcID);
 		return new QueryResponse(HttpStatus.OK, null, response);
 	}
 
 	private QueryResponse processServiceGroupQuery(String query) throws PersistenceException, InstantiationException {
 		log.trace("Process a ServiceGroup query");
+		long t = System.nanoTime();
 		Identifier partID;
 		try {
 			partID = queryUtils.parseIDString(query);
 		} catch (NoSuchElementException unknownScheme) {
 			log.debug("ID Scheme of queried Participant ID ({}) not found!", query);
+			metrics.recordErrorCause("unknown_participant_id_scheme");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
-		log.trace("Check if Participant with ID={} exists", partID.toString());
+		t = recordStage(QueryStage.ID_PARSING, t);
+		log.trace("Check if Participant with ID={} exists", partID);
+		ParticipantLookupEvent lookup = new ParticipantLookupEvent();
+		lookup.begin();
 		Participant p = participantsSvc.getParticipant(partID);
+		metrics.completeEvent(lookup, p != null ? "found" : "not_found");
 		if (p  == null) {
 			log.debug("Queried Participant ID ({}) not found!", query);
+			metrics.recordErrorCause("participant_not_found");
 			return new QueryResponse(HttpStatus.NOT_FOUND, null, null);
 		}
 		Collection<ServiceMetadataTemplate> boundSMT = p.getBoundSMT();
+		t = recordStage(QueryStage.DB_LOOKUP, t);
 		log.trace("Create ServiceGroup response document");
+		ResponseBuildEvent build = new ResponseBuildEvent();
+		build.begin();
 		Document response = getSvcGrpFactory().newResponse(partID, boundSMT, adminSvc.getServerMetadata().getBaseUrl());
-		log.info("Completed ServiceGroup query for Participant={}", partID.toString());
+		recordStage(QueryStage.RESPONSE_BUILD, t);
+		metrics.completeEvent(build, "ok");
+		log.debug("Completed ServiceGroup query for Participant={}", partID);
 		return new QueryResponse(HttpStatus.OK, null, response);
 	}
 
+	/**
+	 * Records the time spent on the given processing stage.
+	 *
+	 * @param stage	the completed processing stage
+	 * @param start	the start time of the stage, as given by {@link System#nanoTime()}
+	 * @return	the end time of the stage, which can be used as start time of the next stage
+	 */
+	private long recordStage(QueryStage stage, long start) {
+		long end = System.nanoTime();
+		metrics.recordStage(stage, end - start);
+		return end;
+	}
+
 	private ServiceMetadataFactory getSmdFactory() {
 		if (smdFactory == null)
 			smdFactory = new ServiceMetadataFactory();
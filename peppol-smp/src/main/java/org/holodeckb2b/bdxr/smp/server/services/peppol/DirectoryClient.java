@@ -16,34 +16,17 @@
  */
 package org.holodeckb2b.bdxr.smp.server.services.peppol;
 
-import java.io.File;
-import java.io.IOException;
-import java.security.KeyManagementException;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.UnrecoverableKeyException;
-import java.security.cert.CertificateException;
+import java.net.URI;
 import java.security.cert.X509Certificate;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLKeyException;
 
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.BasicHttpClientConnectionManager;
-import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
-import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
-import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
-import org.apache.hc.core5.http.config.Registry;
-import org.apache.hc.core5.http.config.RegistryBuilder;
-import org.apache.hc.core5.ssl.SSLContextBuilder;
-import org.apache.hc.core5.ssl.SSLContexts;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.NetworkCallEvent;
 import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
 import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryException;
 import org.holodeckb2b.bdxr.smp.server.services.network.DirectoryIntegrationService;
@@ -51,13 +34,14 @@ import org.holodeckb2b.commons.security.CertificateUtils;
 import org.holodeckb2b.commons.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.ws.client.core.WebServiceTemplate;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -90,6 +74,24 @@ public class DirectoryClient implements DirectoryIntegrationService {
 	@Lazy
 	@Autowired
 	protected SMPServerAdminService	adminSvc;
+
+	/**
+	 * The builder for the RestTemplate, provided by Spring Boot so the requests to the Directory are observed and
+	 * the trace context is propagated
+	 */
+	@Autowired
+	protected RestTemplateBuilder	restTemplateBuilder;
+
+	/**
+	 * The maximum number of connections to the Directory that are kept open
+	 */
+	@Value("${peppol.directory.http.max_connections:10}")
+	protected int maxConnections;
+
+	/**
+	 * The HTTP client used for the calls to the Directory
+	 */
+	private PooledTLSClient<RestTemplate>	client;
 	
 	@Override
 	public String getDirectoryName() {
@@ -108,9 +110,12 @@ public class DirectoryClient implements DirectoryIntegrationService {
 	
 	@Override
 	public void publishParticipantInfo(Participant p) throws DirectoryException {		
+		NetworkCallEvent event = newEvent("publish");
 		try {
-			restTemplate().put(targetURL(), p.getId().toString());
+			execute((template, url) -> template.put(url, p.getId().toString()));
+			event.complete(p.getId(), null, "ok");
 		} catch (Exception failedRequest) {
+			event.complete(p.getId(), null, "failed");
 			Logger.getLogger(DirectoryClient.class.getName()).log(Level.SEVERE,
 					"Error registering participant in directory : {0}", Utils.getExceptionTrace(failedRequest));
 			throw new DirectoryException(failedRequest);
@@ -119,9 +124,12 @@ public class DirectoryClient implements DirectoryIntegrationService {
 
 	@Override
 	public void removeParticipantInfo(Participant p) throws DirectoryException {
+		NetworkCallEvent event = newEvent("remove");
 		try {
-			restTemplate().delete(targetURL() + "/" + p.getId().getURLEncoded());
+			execute((template, url) -> template.delete(URI.create(url + p.getId().getURLEncoded())));
+			event.complete(p.getId(), null, "ok");
 		} catch (Exception failedRequest) {
+			event.complete(p.getId(), null, "failed");
 			Logger.getLogger(DirectoryClient.class.getName()).log(Level.SEVERE,
 					"Error registering participant in directory : {0}", Utils.getExceptionTrace(failedRequest));
 			throw new DirectoryException(failedRequest);
@@ -129,89 +137,58 @@ public class DirectoryClient implements DirectoryIntegrationService {
 	}
 
 	/**
-	 * Determines the base URL of the SML interface based on the installed SMP certificate. The default Peppol URLs can
-	 * be overridden by setting the <code>peppol.sml.prod.url</code> and <code>peppol.sml.acc.url</code> application 
-	 * properties in <code>common.properties</code>.
+	 * Creates and starts a new {@link NetworkCallEvent} for a call to the Directory.
 	 *
-	 * @return	the URL where the SML interface is located
+	 * @param operation	name of the executed operation
+	 * @return	the started event
 	 */
-	private String targetURL() {
-		X509Certificate smpCert = adminSvc.getServerMetadata().getCertificate();
-		if (smpCert == null) {
-			log.error("Directory function called before SMP certificate is available!");
-			return null;
-		} else
-			return (CertificateUtils.getIssuerName(smpCert).toLowerCase().contains("test") ? testURL : prodURL)
-					+ "indexer/1.0/";		
+	private static NetworkCallEvent newEvent(String operation) {
+		NetworkCallEvent event = new NetworkCallEvent();
+		event.target = "Directory";
+		event.operation = operation;
+		event.begin();
+		return event;
 	}
-	
+
 	/**
-	 * Prepares a Spring {@link WebServiceTemplate} for a call to the SML interface.
+	 * Determines the base URL of the Directory indexer interface based on the installed SMP certificate. The default
+	 * Peppol URLs can be overridden by setting the <code>peppol.directory.prod.url</code> and 
+	 * <code>peppol.directory.acc.url</code> application properties in <code>common.properties</code>.
 	 *
-	 * @return a {@link WebServiceTemplate} instance configured for executing calls to the SML
-	 * @throws SSLException
+	 * @param smpCert	the current SMP certificate
+	 * @return	the URL where the Directory indexer interface is located
 	 */
-	private RestTemplate restTemplate() throws SSLException {
-		RestTemplate restTemplate = new RestTemplate();
-
-		SSLConnectionSocketFactory sslFactory = verifyHostname ?
-													new SSLConnectionSocketFactory(sslContext()) :
-													new SSLConnectionSocketFactory(sslContext(),
-																				   NoopHostnameVerifier.INSTANCE);
-
-		Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
-				.register("https", sslFactory)
-				.register("http", new PlainConnectionSocketFactory())
-				.build();
-		
-		CloseableHttpClient httpClient = HttpClients.custom()
-				.setConnectionManager(new BasicHttpClientConnectionManager(socketFactoryRegistry))
-				.build();
-        
-		ClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-        
-		restTemplate.setRequestFactory(requestFactory);
-
-		return restTemplate;
+	private String targetURL(X509Certificate smpCert) {
+		return (CertificateUtils.getIssuerName(smpCert).toLowerCase().contains("test") ? testURL : prodURL)
+				+ "indexer/1.0/";		
 	}
 
 	/**
-	 * Creates the <code>SSLContext</code> for the connections to the SML. It uses the given SMP key pair for client
-	 * authentication and can use a customised trust store for validation of the SML server certificate. To use a
-	 * customised trust store the <code>peppol.directory.ssl.truststore</code> and 
-	 * <code>peppol.directory.ssl.truststore</code> application properties should be set in 
-	 * <code>common.properties</code>.
+	 * Executes a call to the Directory. The {@link RestTemplate} and its pooled HTTP client are re-used for all calls
+	 * until the SMP certificate or the trust store changes.
 	 *
-	 * @return	the SSLContext for creating connections to the SML
-	 * @throws SSLException	when either the key pair for client authentication or the custom trust store for server
-	 *						authentication cannot be processed
+	 * @param call	the call to execute, given the template and the base URL of the indexer interface
+	 * @throws SSLException	when no SMP certificate is available or the TLS configuration for the connection to the
+	 * 						Directory cannot be created
 	 */
-	private SSLContext sslContext() throws SSLException {
-		SSLContextBuilder ctxBldr = SSLContexts.custom();
-		try {
-			char[] pwd = new char[] {};
-			KeyStore keyStore = KeyStore.getInstance("JKS");
-			keyStore.load(null, null);
-			keyStore.setEntry("1", adminSvc.getActiveKeyPair(), new KeyStore.PasswordProtection(pwd));
-			ctxBldr.loadKeyMaterial(keyStore, pwd);
-		} catch (IOException | KeyStoreException | NoSuchAlgorithmException | UnrecoverableKeyException
-				| CertificateException keyFailure) {
-			throw new SSLKeyException("Could not create key store for client authentication");
-		}
-		try {
-			if (!Utils.isNullOrEmpty(sslTrustStorePath))
-				ctxBldr.loadTrustMaterial(new File(sslTrustStorePath), sslTrustStorePwd.toCharArray());
-		} catch (NoSuchAlgorithmException | KeyStoreException | CertificateException | IOException trustFailure) {
-			throw new SSLKeyException("Could not load specified trust store for TLS authentication");
-		}
-		try {
-			return ctxBldr.build();
-		} catch (NoSuchAlgorithmException | KeyManagementException ex) {
-			Logger.getLogger(SMLClient.class.getName()).severe("Error creating SSL context : "
-																+ Utils.getExceptionTrace(ex));
-			throw new SSLException("Could not setup SSL context for Directory connection", ex);
+	private void execute(BiConsumer<RestTemplate, String> call) throws SSLException {
+		X509Certificate smpCert = adminSvc.getServerMetadata().getCertificate();
+		if (smpCert == null) {
+			log.error("Directory function called before SMP certificate is available!");
+			throw new SSLKeyException("No SMP certificate available");
 		}
+		call.accept(client.get(smpCert, adminSvc::getActiveKeyPair), targetURL(smpCert));
 	}
 
-	
+	@PostConstruct
+	void createClient() {
+		client = new PooledTLSClient<>("Directory", verifyHostname, sslTrustStorePath, sslTrustStorePwd,
+									   maxConnections, null, httpClient -> restTemplateBuilder.requestFactory(
+											   		() -> new HttpComponentsClientHttpRequestFactory(httpClient)).build());
+	}
+
+	@PreDestroy
+	void closeConnections() {
+		client.close();
+	}
 }
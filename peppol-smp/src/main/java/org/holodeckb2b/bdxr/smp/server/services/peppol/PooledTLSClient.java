@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2025 The Holodeck B2B Team
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.holodeckb2b.bdxr.smp.server.services.peppol;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.KeyManagementException;
+import java.security.KeyStore;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLKeyException;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.ssl.SSLContextBuilder;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.holodeckb2b.commons.util.Utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Manages the HTTP client used to connect to one of the Peppol network services. The client uses a pool of kept
+ * alive connections so calls to the service don't need to set up a new TLS connection each time. It is kept for as
+ * long as the SMP certificate, which is used for TLS client authentication, and the trust store used to validate the
+ * server certificate stay the same. When either changes a new client is created. The old one is closed after a grace
+ * period, so calls that are still using it can complete.
+ * <p>
+ * As the HTTP client is normally not used directly but through a Spring template, the object that is used to execute
+ * the calls is created together with the HTTP client and kept with it.
+ *
+ * @param <T>	type of the object used to execute the calls
+ * @author Sander Fieten (sander at holodeck-b2b.org)
+ * @since 3.1.0
+ */
+@Slf4j
+class PooledTLSClient<T> {
+	/**
+	 * Time after which an idle connection is validated before it is re-used
+	 */
+	private static final TimeValue VALIDATE_AFTER = TimeValue.ofSeconds(2);
+	/**
+	 * Time after which idle connections are closed
+	 */
+	private static final TimeValue MAX_IDLE = TimeValue.ofMinutes(1);
+	/**
+	 * Time after which a replaced client is closed
+	 */
+	private static final long CLOSE_DELAY = TimeUnit.MINUTES.toMillis(5);
+
+	/**
+	 * The client currently in use, together with the SMP certificate and trust store version it was created for
+	 */
+	private record Client<T>(X509Certificate smpCert, long trustStoreVersion, CloseableHttpClient httpClient,
+							 T template) {}
+
+	private final String		service;
+	private final boolean		verifyHostname;
+	private final String		trustStorePath;
+	private final String		trustStorePwd;
+	private final int			maxConnections;
+	private final Consumer<HttpClientBuilder>			customizer;
+	private final Function<CloseableHttpClient, T>	templateFactory;
+
+	private volatile Client<T>	current;
+	/**
+	 * The replaced clients that have not been closed yet
+	 */
+	private final Set<CloseableHttpClient>	retired = new HashSet<>();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param service			name of the network service, used for logging
+	 * @param verifyHostname	indicates whether the host name of the server must be verified
+	 * @param trustStorePath	path to the trust store to use for validation of the server certificate, when empty
+	 * 							the default trust store of the JVM is used
+	 * @param trustStorePwd		password of the trust store
+	 * @param maxConnections	the maximum number of connections to keep open
+	 * @param customizer		function to further customise the HTTP client, may be <code>null</code>
+	 * @param templateFactory	function to create the object used to execute calls from the HTTP client
+	 */
+	PooledTLSClient(String service, boolean verifyHostname, String trustStorePath, String trustStorePwd,
+					int maxConnections, Consumer<HttpClientBuilder> customizer,
+					Function<CloseableHttpClient, T> templateFactory) {
+		this.service = service;
+		this.verifyHostname = verifyHostname;
+		this.trustStorePath = trustStorePath;
+		this.trustStorePwd = trustStorePwd;
+		this.maxConnections = maxConnections;
+		this.customizer = customizer;
+		this.templateFactory = templateFactory;
+	}
+
+	/**
+	 * Gets the object for executing calls to the service using the given SMP certificate for client authentication.
+	 *
+	 * @param smpCert	the current SMP certificate
+	 * @param keyPair	supplier of the current SMP key pair, only called when a new client needs to be created
+	 * @return	the object to use for executing calls to the service
+	 * @throws SSLException	when a new client is needed but either the key pair for client authentication or the
+	 * 						custom trust store for server authentication cannot be processed
+	 */
+	T get(X509Certificate smpCert, Supplier<PrivateKeyEntry> keyPair) throws SSLException {
+		final long trustStoreVersion = getTrustStoreVersion();
+		Client<T> c = current;
+		if (c != null && c.smpCert().equals(smpCert) && c.trustStoreVersion() == trustStoreVersion)
+			return c.template();
+
+		synchronized (this) {
+			c = current;
+			if (c == null || !c.smpCert().equals(smpCert) || c.trustStoreVersion() != trustStoreVersion) {
+				log.debug("Create new HTTP client for connections to {}", service);
+				CloseableHttpClient httpClient = createHttpClient(keyPair.get());
+				current = new Client<>(smpCert, trustStoreVersion, httpClient, templateFactory.apply(httpClient));
+				if (c != null) {
+					log.info("Key pair or trust store for connections to {} changed, closing old connections in {} s",
+							 service, CLOSE_DELAY / 1000);
+					retire(c.httpClient());
+				}
+			}
+			return current.template();
+		}
+	}
+
+	/**
+	 * Closes the current HTTP client, the replaced clients that were not closed yet, and all their connections.
+	 */
+	synchronized void close() {
+		retired.forEach(c -> c.close(CloseMode.GRACEFUL));
+		retired.clear();
+		if (current != null) {
+			current.httpClient().close(CloseMode.GRACEFUL);
+			current = null;
+		}
+	}
+
+	/**
+	 * Schedules the given replaced HTTP client to be closed after the grace period.
+	 *
+	 * @param httpClient	the replaced client
+	 */
+	private void retire(CloseableHttpClient httpClient) {
+		retired.add(httpClient);
+		CompletableFuture.runAsync(() -> closeRetired(httpClient),
+								   CompletableFuture.delayedExecutor(CLOSE_DELAY, TimeUnit.MILLISECONDS));
+	}
+
+	private synchronized void closeRetired(CloseableHttpClient httpClient) {
+		if (retired.remove(httpClient)) {
+			log.debug("Closing replaced HTTP client for connections to {}", service);
+			httpClient.close(CloseMode.GRACEFUL);
+		}
+	}
+
+	/**
+	 * @return the version of the custom trust store, i.e. its last modification time, or 0 if no custom trust store
+	 * 			is used
+	 */
+	private long getTrustStoreVersion() {
+		return Utils.isNullOrEmpty(trustStorePath) ? 0 : new File(trustStorePath).lastModified();
+	}
+
+	private CloseableHttpClient createHttpClient(PrivateKeyEntry keyPair) throws SSLException {
+		SSLContext sslContext = sslContext(keyPair);
+		HttpClientBuilder builder = HttpClients.custom()
+				.setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+						.setTlsSocketStrategy(verifyHostname ? new DefaultClientTlsStrategy(sslContext)
+									: new DefaultClientTlsStrategy(sslContext, NoopHostnameVerifier.INSTANCE))
+						.setMaxConnTotal(maxConnections)
+						.setMaxConnPerRoute(maxConnections)
+						.setDefaultConnectionConfig(ConnectionConfig.custom()
+														.setValidateAfterInactivity(VALIDATE_AFTER).build())
+						.build())
+				// By default connections authenticated with a client certificate are bound to the TLS principal and
+				// are therefore not re-used for new requests. As all connections use the same key pair, this is not
+				// needed
+				.disableConnectionState()
+				.evictIdleConnections(MAX_IDLE);
+		if (customizer != null)
+			customizer.accept(builder);
+		return builder.build();
+	}
+
+	/**
+	 * Creates the <code>SSLContext</code> for the connections to the service. It uses the given SMP key pair for
+	 * client authentication and can use a customised trust store for validation of the server certificate.
+	 *
+	 * @param keyPair	the SMP key pair
+	 * @return	the SSLContext for creating connections to the service
+	 * @throws SSLException	when either the key pair for client authentication or the custom trust store for server
+	 *						authentication cannot be processed
+	 */
+	private SSLContext sslContext(PrivateKeyEntry keyPair) throws SSLException {
+		SSLContextBuilder ctxBldr = SSLContexts.custom();
+		try {
+			char[] pwd = new char[] {};
+			KeyStore keyStore = KeyStore.getInstance("JKS");
+			keyStore.load(null, null);
+			keyStore.setEntry("1", keyPair, new KeyStore.PasswordProtection(pwd));
+			ctxBldr.loadKeyMaterial(keyStore, pwd);
+		} catch (IOException | KeyStoreException | NoSuchAlgorithmException | UnrecoverableKeyException
+				| CertificateException keyFailure) {
+			throw new SSLKeyException("Could not create key store for client authentication");
+		}
+		try {
+			if (!Utils.isNullOrEmpty(trustStorePath))
+				ctxBldr.loadTrustMaterial(new File(trustStorePath), trustStorePwd.toCharArray());
+		} catch (NoSuchAlgorithmException | KeyStoreException | CertificateException | IOException trustFailure) {
+			throw new SSLKeyException("Could not load specified trust store for TLS authentication");
+		}
+		try {
+			return ctxBldr.build();
+		} catch (NoSuchAlgorithmException | KeyManagementException ex) {
+			log.error("Error creating SSL context for {} : {}", service, Utils.getExceptionTrace(ex));
+			throw new SSLException("Could not setup SSL context for " + service + " connection", ex);
+		}
+	}
+}
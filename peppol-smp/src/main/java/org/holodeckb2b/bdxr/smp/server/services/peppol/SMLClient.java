@@ -16,46 +16,39 @@
  */
 package org.holodeckb2b.bdxr.smp.server.services.peppol;
 
-import java.io.File;
 import java.io.IOException;
-import java.security.KeyManagementException;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.function.Function;
-import java.util.logging.Logger;
+import java.util.function.Predicate;
 
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLKeyException;
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.BasicHttpClientConnectionManager;
-import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
-import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
-import org.apache.hc.client5.http.ssl.NoopHostnameVerifier;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
-import org.apache.hc.core5.http.config.Registry;
-import org.apache.hc.core5.http.config.RegistryBuilder;
-import org.apache.hc.core5.ssl.SSLContextBuilder;
-import org.apache.hc.core5.ssl.SSLContexts;
 import org.busdox.servicemetadata.locator._1.MigrationRecordType;
 import org.busdox.servicemetadata.locator._1.ObjectFactory;
+import org.busdox.servicemetadata.locator._1.PageRequestType;
+import org.busdox.servicemetadata.locator._1.ParticipantIdentifierPageType;
 import org.busdox.servicemetadata.locator._1.PublisherEndpointType;
 import org.busdox.servicemetadata.locator._1.ServiceMetadataPublisherServiceForParticipantType;
 import org.busdox.servicemetadata.locator._1.ServiceMetadataPublisherServiceType;
 import org.busdox.transport.identifiers._1.ParticipantIdentifierType;
+import org.holodeckb2b.bdxr.common.datamodel.Identifier;
+import org.holodeckb2b.bdxr.common.datamodel.impl.IdentifierImpl;
 import org.holodeckb2b.bdxr.smp.datamodel.Certificate;
+import org.holodeckb2b.bdxr.smp.datamodel.IDScheme;
 import org.holodeckb2b.bdxr.smp.server.datamodel.Participant;
 import org.holodeckb2b.bdxr.smp.server.datamodel.SMPServerMetadata;
+import org.holodeckb2b.bdxr.smp.server.diagnostics.NetworkCallEvent;
 import org.holodeckb2b.bdxr.smp.server.services.core.SMPServerAdminService;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult;
+import org.holodeckb2b.bdxr.smp.server.services.network.SMLBatchResult.Failure;
 import org.holodeckb2b.bdxr.smp.server.services.network.SMLException;
 import org.holodeckb2b.bdxr.smp.server.services.network.SMLIntegrationService;
 import org.holodeckb2b.commons.security.CertificateUtils;
@@ -65,12 +58,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.oxm.jaxb.Jaxb2Marshaller;
 import org.springframework.stereotype.Service;
+import org.springframework.ws.client.WebServiceClientException;
+import org.springframework.ws.client.WebServiceIOException;
 import org.springframework.ws.client.core.WebServiceTemplate;
 import org.springframework.ws.soap.client.SoapFaultClientException;
 import org.springframework.ws.soap.client.core.SoapActionCallback;
 import org.springframework.ws.transport.http.HttpComponents5MessageSender;
 
 import ec.services.wsdl.bdmsl.data._1.PrepareChangeCertificateType;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.xml.bind.JAXBElement;
 import lombok.extern.slf4j.Slf4j;
 
@@ -104,7 +105,40 @@ public class SMLClient implements SMLIntegrationService {
 	@Lazy
 	@Autowired
 	protected SMPServerAdminService	adminSvc;
+
+	@Autowired
+	protected Tracer		tracer;
+	@Autowired
+	protected Propagator	propagator;
+
+	/**
+	 * The maximum number of connections to the SML that are kept open
+	 */
+	@Value("${peppol.sml.http.max_connections:10}")
+	protected int maxConnections;
+
+	/**
+	 * The maximum number of Participants included in one <i>CreateList</i> or <i>DeleteList</i> request to the SML
+	 */
+	@Value("${peppol.sml.list_size:100}")
+	protected int listSize;
+
+	/**
+	 * The marshaller for the SML messages, shared by all calls as creation of the JAXB context is expensive
+	 */
+	private final Jaxb2Marshaller	marshaller = createMarshaller();
+
+	/**
+	 * The HTTP client used for the calls to the SML
+	 */
+	private PooledTLSClient<WebServiceTemplate>	client;
 	
+	private static Jaxb2Marshaller createMarshaller() {
+		Jaxb2Marshaller jaxb2Marshaller = new Jaxb2Marshaller();
+		jaxb2Marshaller.setContextPaths("ec.services.wsdl.bdmsl.data._1", "org.busdox.servicemetadata.locator._1");
+		return jaxb2Marshaller;
+	}
+
 	@Override
 	public boolean requiresSMPRegistration() {
 		return true;
@@ -138,7 +172,7 @@ public class SMLClient implements SMLIntegrationService {
 	@Override
 	public void deregisterSMPServer(String smpId) throws SMLException {
 		try {
-			webServiceTemplate().marshalSendAndReceive(baseURL() + "/manageservicemetadata",
+			send("deleteSMP", null, "/manageservicemetadata",
 										new ObjectFactory().createServiceMetadataPublisherID(smpId),
 										new SoapActionCallback("http://busdox.org/serviceMetadata/ManageServiceMetadataService/1.0/:deleteIn"));
 		} catch (IOException connectionError) {
@@ -181,7 +215,7 @@ public class SMLClient implements SMLIntegrationService {
 		}
 
 		try {
-			webServiceTemplate().marshalSendAndReceive(baseURL() + "/manageservicemetadata", request,
+			send(isUpdate ? "updateSMP" : "createSMP", null, "/manageservicemetadata", request,
 														new SoapActionCallback(action));
 		} catch (IOException connectionError) {
 			log.error("A connection error occurred while executing SML request ({}) : {}", 
@@ -204,7 +238,7 @@ public class SMLClient implements SMLIntegrationService {
 			certUpdate.setMigrationDate(xmlDate);
 			certUpdate.setNewCertificatePublicKey(CertificateUtils.getPEMEncoded(cert.getX509Cert()));
 
-			webServiceTemplate().marshalSendAndReceive(baseURL() + "/bdmslservice",
+			send("prepareChangeCertificate", null, "/bdmslservice",
 						new ec.services.wsdl.bdmsl.data._1.ObjectFactory().createPrepareChangeCertificate(certUpdate),
 						new SoapActionCallback("ec:services:wsdl:BDMSL:1.0:prepareChangeCertificateIn"));
 		} catch (DatatypeConfigurationException | CertificateException invalidData) {
@@ -222,32 +256,211 @@ public class SMLClient implements SMLIntegrationService {
 	}
 	
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * As the SML does not offer an operation to check the registration of a single Participant, this is done by
+	 * searching the list of Participants registered by the SMP. Therefore this method should not be used to check the
+	 * registration of many Participants, use {@link #listRegisteredParticipants(Predicate)} instead.
+	 */
 	@Override
 	public boolean isRegistered(Participant p) throws SMLException {
-		// TODO Auto-generated method stub
-		return false;
+		final IDScheme scheme = p.getId().getScheme();
+		final boolean caseSensitive = scheme != null && scheme.isCaseSensitive();
+		final String value = p.getId().getValue();
+		final boolean[] found = { false };
+		listRegisteredParticipants(page -> {
+			found[0] = page.stream().anyMatch(id ->
+							(scheme == null ? id.getScheme() == null
+											: id.getScheme() != null
+											  && scheme.getSchemeId().equalsIgnoreCase(id.getScheme().getSchemeId()))
+							&& (caseSensitive ? value.equals(id.getValue()) : value.equalsIgnoreCase(id.getValue())));
+			return !found[0];
+		});
+		return found[0];
+	}
+
+	@Override
+	public void listRegisteredParticipants(Predicate<List<Identifier>> pageHandler) throws SMLException {
+		PageRequestType request = new PageRequestType();
+		request.setServiceMetadataPublisherID(adminSvc.getServerMetadata().getSMPId());
+		boolean next;
+		int pages = 0;
+		do {
+			ParticipantIdentifierPageType page;
+			try {
+				@SuppressWarnings("unchecked")
+				JAXBElement<ParticipantIdentifierPageType> response = (JAXBElement<ParticipantIdentifierPageType>)
+						send("listParticipants", null, "/manageparticipantidentifier",
+							 new ObjectFactory().createPageRequest(request),
+							 new SoapActionCallback("http://busdox.org/serviceMetadata/ManageBusinessIdentifierService/1.0/         :listIn"));
+				page = response.getValue();
+			} catch (IOException | WebServiceIOException connectionError) {
+				log.error("A connection error occurred while executing SML request (list) : {}",
+						Utils.getExceptionTrace(connectionError));
+				throw new SMLException("Connection error", connectionError);
+			} catch (SoapFaultClientException smlError) {
+				log.warn("Error response from SML while executing SML request (list) : {}",
+						Utils.getRootCause(smlError).getMessage());
+				throw new SMLException("SML error response", smlError);
+			}
+			pages++;
+			next = pageHandler.test(page.getParticipantIdentifier().stream()
+									.map(pi -> (Identifier) new IdentifierImpl(pi.getValue(), pi.getScheme()))
+									.toList())
+					&& !Utils.isNullOrEmpty(page.getNextPageIdentifier());
+			request.setNextPageIdentifier(page.getNextPageIdentifier());
+		} while (next);
+		log.debug("Retrieved {} pages of registered Participants from SML", pages);
 	}
 			
 	@Override
 	public void registerParticipant(Participant p) throws SMLException {
-		updateParticipant(p, (pi) -> new ObjectFactory().createCreateParticipantIdentifier(pi),
+		updateParticipant(p, "createParticipant", (pi) -> new ObjectFactory().createCreateParticipantIdentifier(pi),
 						  "http://busdox.org/serviceMetadata/ManageBusinessIdentifierService/1.0/         :createIn");
 	}
 
 	public void deregisterParticipant(Participant p) throws SMLException {
-		updateParticipant(p, (pi) -> new ObjectFactory().createDeleteParticipantIdentifier(pi),
+		updateParticipant(p, "deleteParticipant", (pi) -> new ObjectFactory().createDeleteParticipantIdentifier(pi),
 						  "http://busdox.org/serviceMetadata/ManageBusinessIdentifierService/1.0/         :deleteIn");
 	}	
 
+	@Override
+	public <P extends Participant> SMLBatchResult<P> registerParticipants(List<P> participants) {
+		return updateParticipants(participants, "createParticipantList",
+							(page) -> new ObjectFactory().createCreateList(page),
+							"http://busdox.org/serviceMetadata/ManageBusinessIdentifierService/1.0/         :createListIn",
+							this::registerParticipant);
+	}
+
+	@Override
+	public <P extends Participant> SMLBatchResult<P> deregisterParticipants(List<P> participants) {
+		return updateParticipants(participants, "deleteParticipantList",
+							(page) -> new ObjectFactory().createDeleteList(page),
+							"http://busdox.org/serviceMetadata/ManageBusinessIdentifierService/1.0/         :deleteListIn",
+							this::deregisterParticipant);
+	}
+
+	/**
+	 * Executes the registration or removal of a set of Participants in/from the SML using the list operations. The
+	 * Participants are sent to the SML in pages of at most {@link #listSize} Participants. As the SML processes a list
+	 * as a whole, a page that is rejected by the SML is retried by executing the operation for each Participant in the
+	 * page separately, so only the Participants that actually cause the error are reported as failed. When a connection
+	 * error or any other error occurs, the operation is aborted and all Participants that were not yet processed are
+	 * reported as failed. The Participants in the pages already accepted by the SML are still reported as completed.
+	 *
+	 * @param <P>			the type of the Participant meta-data objects
+	 * @param participants	the meta-data on the Participants
+	 * @param operation		name of the executed list operation, used for diagnostics
+	 * @param f				function to create the correct root element, given the page of Participants
+	 * @param action		the SOAP action to use
+	 * @param single		the operation to execute for a single Participant when a page is rejected
+	 * @return	the result of the operation for each Participant
+	 */
+	private <P extends Participant> SMLBatchResult<P> updateParticipants(List<P> participants, String operation,
+								   Function<ParticipantIdentifierPageType, JAXBElement<ParticipantIdentifierPageType>> f,
+								   String action, ParticipantOperation single) {
+		List<P> completed = new ArrayList<>(participants.size());
+		List<Failure<P>> failed = new ArrayList<>();
+		final int pageSize = Math.max(1, listSize);
+		try {
+			final String smpId = adminSvc.getServerMetadata().getSMPId();
+			for (int i = 0; i < participants.size(); i += pageSize) {
+				List<P> page = participants.subList(i, Math.min(i + pageSize, participants.size()));
+				ParticipantIdentifierPageType pInfo = new ParticipantIdentifierPageType();
+				pInfo.setServiceMetadataPublisherID(smpId);
+				page.forEach(p -> pInfo.getParticipantIdentifier().add(toParticipantIdentifier(p)));
+				try {
+					send(operation, null, "/manageparticipantidentifier", f.apply(pInfo),
+						 new SoapActionCallback(action));
+					completed.addAll(page);
+				} catch (IOException | WebServiceIOException connectionError) {
+					log.error("A connection error occurred while executing SML request ({}) : {}", operation,
+							Utils.getExceptionTrace(connectionError));
+					failRemaining(participants, completed, failed, new SMLException("Connection error",
+																					 connectionError));
+					break;
+				} catch (SoapFaultClientException smlError) {
+					log.warn("Error response from SML while executing SML request ({}) : {}", operation,
+							Utils.getRootCause(smlError).getMessage());
+					if (page.size() == 1) {
+						failed.add(new Failure<>(page.get(0), new SMLException("SML error response", smlError)));
+						continue;
+					}
+					log.debug("Retry SML request for each of the {} Participants in the page", page.size());
+					for (P p : page)
+						try {
+							single.execute(p);
+							completed.add(p);
+						} catch (SMLException itemError) {
+							failed.add(new Failure<>(p, itemError));
+						}
+				} catch (WebServiceClientException requestError) {
+					log.error("An error occurred while executing SML request ({}) : {}", operation,
+							Utils.getExceptionTrace(requestError));
+					failRemaining(participants, completed, failed, new SMLException("SML request failed",
+																					 requestError));
+					break;
+				}
+			}
+		} catch (RuntimeException unexpected) {
+			log.error("An unexpected error occurred while executing SML request ({}) : {}", operation,
+					Utils.getExceptionTrace(unexpected));
+			failRemaining(participants, completed, failed, new SMLException("Unexpected error", unexpected));
+		}
+		log.debug("Executed SML request ({}) for {} Participants, {} failed", operation, participants.size(),
+					failed.size());
+		return new SMLBatchResult<>(completed, failed);
+	}
+
+	/**
+	 * Reports all Participants that have not been processed yet as failed. As the Participants are processed in the
+	 * order of the given list, these are the ones following the Participants already reported as completed or failed.
+	 *
+	 * @param <P>			the type of the Participant meta-data objects
+	 * @param participants	all Participants of the batch
+	 * @param completed		the Participants processed successfully so far
+	 * @param failed		the Participants that failed so far, to which the remaining Participants are added
+	 * @param error			the error to report for the remaining Participants
+	 */
+	private static <P extends Participant> void failRemaining(List<P> participants, List<P> completed,
+															  List<Failure<P>> failed, SMLException error) {
+		participants.subList(completed.size() + failed.size(), participants.size())
+					.forEach(p -> failed.add(new Failure<>(p, error)));
+	}
+
+	/**
+	 * Operation on the SML registration of a single Participant, used to retry the operation for the Participants
+	 * in a page that was rejected by the SML.
+	 */
+	@FunctionalInterface
+	private interface ParticipantOperation {
+		void execute(Participant p) throws SMLException;
+	}
+
+	/**
+	 * Converts the identifier of the Participant to the SML representation.
+	 *
+	 * @param p	the meta-data on the Participant
+	 * @return	the Participant's identifier as used in the SML messages
+	 */
+	private static ParticipantIdentifierType toParticipantIdentifier(Participant p) {
+		ParticipantIdentifierType partID = new ParticipantIdentifierType();
+		partID.setScheme(p.getId().getScheme() != null ? p.getId().getScheme().getSchemeId() : null);
+		partID.setValue(p.getId().getValue());
+		return partID;
+	}
+
 	/**
 	 * Executes the actual registration or removal of the Participant's registration in/from the SML.
 	 *
 	 * @param p	the meta-data on the Participant
+	 * @param operation	name of the executed operation, used for diagnostics
 	 * @param f	function to create the correct root element, given the content
 	 * @param action	the SOAP action to use
 	 * @throws SMLException	when there is an error executing the update to the SML
 	 */
-	private void updateParticipant(Participant p,
+	private void updateParticipant(Participant p, String operation,
 								   @SuppressWarnings("rawtypes") 
 								   Function<ServiceMetadataPublisherServiceForParticipantType, JAXBElement> f,
 								   String action) throws SMLException {
@@ -260,8 +473,7 @@ public class SMLClient implements SMLIntegrationService {
 		pInfo.setParticipantIdentifier(partID);
 
 		try {
-			webServiceTemplate().marshalSendAndReceive(baseURL() + "/manageparticipantidentifier", f.apply(pInfo),
-													new SoapActionCallback(action));
+			send(operation, p, "/manageparticipantidentifier", f.apply(pInfo), new SoapActionCallback(action));
 		} catch (IOException connectionError) {
 			log.error("A connection error occurred while executing SML request (cert) : {}",
 					Utils.getExceptionTrace(connectionError));
@@ -270,7 +482,11 @@ public class SMLClient implements SMLIntegrationService {
 			log.warn("Error response from SML while executing SML request (cert) : {}", 
 					Utils.getRootCause(smlError).getMessage());
 			throw new SMLException("SML error response", smlError);
-		}		
+		} catch (WebServiceClientException requestError) {
+			log.error("An error occurred while executing SML request ({}) : {}", operation,
+					Utils.getExceptionTrace(requestError));
+			throw new SMLException("SML request failed", requestError);
+		}
 	}
 	
 	@Override
@@ -284,7 +500,7 @@ public class SMLClient implements SMLIntegrationService {
 		migrationRecord.setMigrationKey(code);
 		
 		try {
-			webServiceTemplate().marshalSendAndReceive(baseURL() + "/manageparticipantidentifier", 
+			send("prepareMigrate", p, "/manageparticipantidentifier", 
 				new ObjectFactory().createPrepareMigrationRecord(migrationRecord),
 				new SoapActionCallback("http://busdox.org/serviceMetadata/ManageBusinessIdentifierService/1.0/         :prepareMigrateIn")
 			);
@@ -310,7 +526,7 @@ public class SMLClient implements SMLIntegrationService {
 		migrationRecord.setMigrationKey(code);
 		
 		try {
-			webServiceTemplate().marshalSendAndReceive(baseURL() + "/manageparticipantidentifier", 
+			send("migrate", p, "/manageparticipantidentifier", 
 				new ObjectFactory().createCompleteMigrationRecord(migrationRecord),
 				new SoapActionCallback("http://busdox.org/serviceMetadata/ManageBusinessIdentifierService/1.0/         :migrateIn")
 			);
@@ -325,92 +541,93 @@ public class SMLClient implements SMLIntegrationService {
 		}		
 	}
 	
+	/**
+	 * Sends the given request to the SML and records the call as a {@link NetworkCallEvent}. When the request is
+	 * executed as part of a trace, i.e. when there is a current span, the call is traced in a child span and the trace
+	 * context is propagated to the SML. Requests executed outside a trace, e.g. by background jobs, are not traced.
+	 *
+	 * @param operation	name of the executed operation
+	 * @param p			the Participant the operation applies to, <code>null</code> if the operation is on the SMP
+	 * @param path		path of the SML service to send the request to, relative to the SML's base URL
+	 * @param request	the request to send
+	 * @param action	callback setting the SOAP action of the request
+	 * @return	the response received from the SML
+	 * @throws IOException	when a connection error occurs
+	 */
+	private Object send(String operation, Participant p, String path, Object request, SoapActionCallback action)
+																									throws IOException {
+		NetworkCallEvent event = new NetworkCallEvent();
+		event.target = "SML";
+		event.operation = operation;
+		event.begin();
+		final Span span = tracer.currentSpan() != null ?
+							tracer.nextSpan().name("SML " + operation).remoteServiceName("SML").start() : null;
+		String outcome = "failed";
+		try (Tracer.SpanInScope inScope = span != null ? tracer.withSpan(span) : null) {
+			X509Certificate smpCert = adminSvc.getServerMetadata().getCertificate();
+			if (smpCert == null) {
+				log.error("SML function called before SMP certificate is available!");
+				throw new SSLKeyException("No SMP certificate available");
+			}
+			Object response = webServiceTemplate(smpCert).marshalSendAndReceive(baseURL(smpCert) + path, request,
+																				  action);
+			outcome = "ok";
+			return response;
+		} catch (SoapFaultClientException smlError) {
+			outcome = "fault";
+			if (span != null)
+				span.error(smlError);
+			throw smlError;
+		} finally {
+			if (span != null)
+				span.tag("smp.outcome", outcome).end();
+			event.complete(p != null ? p.getId() : null, null, outcome);
+		}
+	}
+
 	/**
 	 * Determines the base URL of the SML interface based on the installed SMP certificate. The default Peppol URLs can
 	 * be overridden by setting the <code>peppol.sml.prod.url</code> and <code>peppol.sml.acc.url</code> application 
 	 * properties in <code>common.properties</code>.
 	 *
+	 * @param smpCert	the current SMP certificate
 	 * @return	the URL where the SML interface is located
 	 */
-	private String baseURL() {
-		X509Certificate smpCert = adminSvc.getServerMetadata().getCertificate();
-		if (smpCert == null) {
-			log.error("SML function called before SMP certificate is available!");
-			return null;
-		} else
-			return CertificateUtils.getIssuerName(smpCert).toLowerCase().contains("test") ? testURL : prodURL;		
+	private String baseURL(X509Certificate smpCert) {
+		return CertificateUtils.getIssuerName(smpCert).toLowerCase().contains("test") ? testURL : prodURL;		
 	}
 
 	/**
-	 * Prepares a Spring {@link WebServiceTemplate} for a call to the SML interface.
+	 * Gets the Spring {@link WebServiceTemplate} for a call to the SML interface. The template and its pooled HTTP
+	 * client are re-used for all calls until the SMP certificate or the trust store changes.
 	 *
+	 * @param smpCert	the current SMP certificate
 	 * @return a {@link WebServiceTemplate} instance configured for executing calls to the SML
-	 * @throws SSLException
+	 * @throws SSLException	when the TLS configuration for the connection to the SML cannot be created
 	 */
-	private WebServiceTemplate webServiceTemplate() throws SSLException {
-		WebServiceTemplate webServiceTemplate;
+	private WebServiceTemplate webServiceTemplate(X509Certificate smpCert) throws SSLException {
+		return client.get(smpCert, adminSvc::getActiveKeyPair);
+	}
 
-		Jaxb2Marshaller jaxb2Marshaller = new Jaxb2Marshaller();
-		jaxb2Marshaller.setContextPaths("ec.services.wsdl.bdmsl.data._1", "org.busdox.servicemetadata.locator._1");
-		webServiceTemplate = new WebServiceTemplate();
-		webServiceTemplate.setMarshaller(jaxb2Marshaller);
-		webServiceTemplate.setUnmarshaller(jaxb2Marshaller);
-		
-		SSLConnectionSocketFactory sslFactory = verifyHostname ?
-				 									new SSLConnectionSocketFactory(sslContext()) :
-													new SSLConnectionSocketFactory(sslContext(),
-																				   NoopHostnameVerifier.INSTANCE);
-
-		Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
-				.register("https", sslFactory)
-				.register("http", new PlainConnectionSocketFactory())
-				.build();
-		
-		webServiceTemplate.setMessageSender(
-				new SMLMessageSender(
-						HttpClients.custom()
-								.setConnectionManager(new BasicHttpClientConnectionManager(socketFactoryRegistry))
-								.addRequestInterceptorFirst(new HttpComponents5MessageSender.RemoveSoapHeadersInterceptor())
-								.build()
-						));
-
-		return webServiceTemplate;
+	@PostConstruct
+	void createClient() {
+		client = new PooledTLSClient<>("SML", verifyHostname, sslTrustStorePath, sslTrustStorePwd, maxConnections,
+				builder -> builder
+						.addRequestInterceptorFirst(new HttpComponents5MessageSender.RemoveSoapHeadersInterceptor())
+						.addRequestInterceptorLast((request, entity, context) -> {
+							TraceContext traceContext = tracer.currentTraceContext().context();
+							if (traceContext != null)
+								propagator.inject(traceContext, request, (r, k, v) -> r.setHeader(k, v));
+						}),
+				httpClient -> {
+					WebServiceTemplate template = new WebServiceTemplate(marshaller);
+					template.setMessageSender(new SMLMessageSender(httpClient));
+					return template;
+				});
 	}
 
-	/**
-	 * Creates the <code>SSLContext</code> for the connections to the SML. It uses the given SMP key pair for client
-	 * authentication and can use a customised trust store for validation of the SML server certificate. To use a
-	 * customised trust store the <code>sml.ssl-truststore</code> and <code>sml.ssl-truststore-pwd</code> application
-	 * properties must be set in <code>common.properties</code>.
-	 *
-	 * @return	the SSLContext for creating connections to the SML
-	 * @throws SSLException	when either the key pair for client authentication or the custom trust store for server
-	 *						authentication cannot be processed
-	 */
-	private SSLContext sslContext() throws SSLException {
-		SSLContextBuilder ctxBldr = SSLContexts.custom();
-		try {
-			char[] pwd = new char[] {};
-			KeyStore keyStore = KeyStore.getInstance("JKS");
-			keyStore.load(null, null);
-			keyStore.setEntry("1", adminSvc.getActiveKeyPair(), new KeyStore.PasswordProtection(pwd));
-			ctxBldr.loadKeyMaterial(keyStore, pwd);
-		} catch (IOException | KeyStoreException | NoSuchAlgorithmException | UnrecoverableKeyException
-				| CertificateException keyFailure) {
-			throw new SSLKeyException("Could not create key store for client authentication");
-		}
-		try {
-			if (!Utils.isNullOrEmpty(sslTrustStorePath))
-				ctxBldr.loadTrustMaterial(new File(sslTrustStorePath), sslTrustStorePwd.toCharArray());
-		} catch (NoSuchAlgorithmException | KeyStoreException | CertificateException | IOException trustFailure) {
-			throw new SSLKeyException("Could not load specified trust store for TLS authentication");
-		}
-		try {
-			return ctxBldr.build();
-		} catch (NoSuchAlgorithmException | KeyManagementException ex) {
-			Logger.getLogger(SMLClient.class.getName()).severe("Error creating SSL context : "
-																+ Utils.getExceptionTrace(ex));
-			throw new SSLException("Could not setup SSL context for SML connection", ex);
-		}
+	@PreDestroy
+	void closeConnections() {
+		client.close();
 	}
 }